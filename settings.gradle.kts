@@ -6,6 +6,7 @@ include(
         "common/core",
         "common/solver",
         "common/solver-z3",
+        "common/benchmarks",
 
         "cfa/cfa",
         "cfa/cfa-analysis",
@@ -17,6 +17,10 @@ package hu.bme.mit.theta.cfa.analysis.config;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.Prec;
@@ -25,12 +29,15 @@ import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.ParallelAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplReachedIndex;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
@@ -43,6 +50,7 @@ import hu.bme.mit.theta.analysis.pred.ItpRefToPredPrec;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredOrdStatistics;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.pred.PredState;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
@@ -59,6 +67,7 @@ import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrecRefiner;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
 import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
 
 public class CfaConfigBuilder {
@@ -67,7 +76,7 @@ public class CfaConfigBuilder {
 	}
 
 	public enum Refinement {
-		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, UNSAT_CORE, UCB,
+		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, SEQ_ITP_INC, MULTI_SEQ, UNSAT_CORE, UCB,
 		NWT_WP, NWT_SP, NWT_WP_LV, NWT_SP_LV, NWT_IT_WP, NWT_IT_SP, NWT_IT_WP_LV, NWT_IT_SP_LV
 	}
 
@@ -177,6 +186,7 @@ public class CfaConfigBuilder {
 	private int maxEnum = 0;
 	private InitPrec initPrec = InitPrec.EMPTY;
 	private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+	private int threads = 1;
 
 	public CfaConfigBuilder(final Domain domain, final Refinement refinement, final SolverFactory solverFactory) {
 		this.domain = domain;
@@ -224,6 +234,11 @@ public class CfaConfigBuilder {
 		return this;
 	}
 
+	public CfaConfigBuilder threads(final int threads) {
+		this.threads = threads;
+		return this;
+	}
+
 	public CfaConfig<? extends State, ? extends Action, ? extends Prec> build(final CFA cfa, final CFA.Loc errLoc) {
 		final ItpSolver solver = solverFactory.createItpSolver();
 		final CfaLts lts = encoding.getLts(errLoc);
@@ -233,13 +248,30 @@ public class CfaConfigBuilder {
 					.create(cfa.getInitLoc(), ExplStmtAnalysis.create(solver, True(), maxEnum));
 			final ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> argBuilder = ArgBuilder.create(lts,
 					analysis, s -> s.getLoc().equals(errLoc), true);
-			final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = BasicAbstractor
-					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
-							: StopCriterions.firstCex()).logger(logger).build();
+			final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor;
+			if (threads > 1) {
+				final Supplier<ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>>> argBuilderFactory =
+						() -> ArgBuilder.create(encoding.getLts(errLoc), CfaAnalysis.create(cfa.getInitLoc(),
+								ExplStmtAnalysis.create(solverFactory.createSolver(), True(), maxEnum)),
+								s -> s.getLoc().equals(errLoc), true);
+				abstractor = ParallelAbstractor.builder(argBuilderFactory).threads(threads)
+						.reachedIndex(() -> ExplReachedIndex.create(n -> n.getState().getLoc(),
+								n -> n.getState().getState()))
+						.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+						.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+								: StopCriterions.firstCex()).logger(logger).build();
+			} else {
+				abstractor = BasicAbstractor
+						.builder(argBuilder)
+						.reachedIndex(() -> ExplReachedIndex.create(n -> n.getState().getLoc(),
+								n -> n.getState().getState()))
+						.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+						.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+								: StopCriterions.firstCex()).logger(logger).build();
+			}
 
 			Refiner<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> refiner;
+			final List<Statistics> componentStatistics = new ArrayList<>();
 
 			switch (refinement) {
 				case FW_BIN_ITP:
@@ -254,10 +286,24 @@ public class CfaConfigBuilder {
 					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), solver),
 							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
-				case MULTI_SEQ:
-					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), solver),
+				case SEQ_ITP_INC:
+					// The incremental checker keeps solver frames between checks, so it needs its own solver
+					final ExprTraceIncSeqItpChecker incChecker = ExprTraceIncSeqItpChecker.create(True(), True(),
+							solverFactory.createItpSolver());
+					componentStatistics.add(incChecker.getStatistics());
+					refiner = SingleExprTraceRefiner.create(incChecker,
 							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
+				case MULTI_SEQ:
+					if (threads > 1) {
+						refiner = MultiExprTraceRefiner.createParallel(
+								() -> ExprTraceSeqItpChecker.create(True(), True(), solverFactory.createItpSolver()),
+								threads, precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
+					} else {
+						refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), solver),
+								precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
+					}
+					break;
 				case UNSAT_CORE:
 					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(True(), True(), solver),
 							precGranularity.createRefiner(new VarsRefToExplPrec()), pruneStrategy, logger);
@@ -336,7 +382,7 @@ public class CfaConfigBuilder {
 			}
 
 			final SafetyChecker<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, componentStatistics);
 
 			CfaPrec<ExplPrec> prec;
 
@@ -355,29 +401,39 @@ public class CfaConfigBuilder {
 			return CfaConfig.create(checker, prec);
 
 		} else if (domain == Domain.PRED_BOOL || domain == Domain.PRED_CART || domain == Domain.PRED_SPLIT) {
-			PredAbstractor predAbstractor;
-			switch (domain) {
-				case PRED_BOOL:
-					predAbstractor = PredAbstractors.booleanAbstractor(solver);
-					break;
-				case PRED_SPLIT:
-					predAbstractor = PredAbstractors.booleanSplitAbstractor(solver);
-					break;
-				case PRED_CART:
-					predAbstractor = PredAbstractors.cartesianAbstractor(solver);
-					break;
-				default:
-					throw new UnsupportedOperationException(domain + " domain is not supported.");
-			}
+			final PredAbstractor predAbstractor = createPredAbstractor(solver);
+			final PredAnalysis predAnalysis = PredAnalysis.create(solver, predAbstractor, True());
 			final Analysis<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> analysis = CfaAnalysis
-					.create(cfa.getInitLoc(), PredAnalysis.create(solver, predAbstractor, True()));
+					.create(cfa.getInitLoc(), predAnalysis);
 			final ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> argBuilder = ArgBuilder.create(lts,
 					analysis, s -> s.getLoc().equals(errLoc), true);
-			final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor = BasicAbstractor
-					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
-							: StopCriterions.firstCex()).logger(logger).build();
+			final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor;
+			final List<Statistics> componentStatistics = new ArrayList<>();
+			if (threads > 1) {
+				// Each worker has its own analysis (and partial order), their statistics are summed
+				final List<PredOrdStatistics> workerPredOrdStatistics = new ArrayList<>();
+				final Supplier<ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>>> argBuilderFactory = () -> {
+					final Solver workerSolver = solverFactory.createSolver();
+					final PredAnalysis workerPredAnalysis = PredAnalysis.create(workerSolver,
+							createPredAbstractor(workerSolver), True());
+					workerPredOrdStatistics.add(workerPredAnalysis.getStatistics());
+					return ArgBuilder.create(encoding.getLts(errLoc), CfaAnalysis.create(cfa.getInitLoc(),
+							workerPredAnalysis), s -> s.getLoc().equals(errLoc), true);
+				};
+				abstractor = ParallelAbstractor.builder(argBuilderFactory).threads(threads)
+						.projection(CfaState::getLoc)
+						.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+						.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+								: StopCriterions.firstCex()).logger(logger).build();
+				componentStatistics.add(PredOrdStatistics.sum(workerPredOrdStatistics));
+			} else {
+				abstractor = BasicAbstractor
+						.builder(argBuilder).projection(CfaState::getLoc)
+						.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+						.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+								: StopCriterions.firstCex()).logger(logger).build();
+				componentStatistics.add(predAnalysis.getStatistics());
+			}
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker;
 			switch (refinement) {
@@ -390,6 +446,13 @@ public class CfaConfigBuilder {
 				case SEQ_ITP:
 					exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), solver);
 					break;
+				case SEQ_ITP_INC:
+					// The incremental checker keeps solver frames between checks, so it needs its own solver
+					final ExprTraceIncSeqItpChecker incChecker = ExprTraceIncSeqItpChecker.create(True(), True(),
+							solverFactory.createItpSolver());
+					componentStatistics.add(incChecker.getStatistics());
+					exprTraceChecker = incChecker;
+					break;
 				case MULTI_SEQ:
 					exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), solver);
 					break;
@@ -427,7 +490,11 @@ public class CfaConfigBuilder {
 			final ItpRefToPredPrec refToPrec = new ItpRefToPredPrec(predSplit.splitter);
 			Refiner<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> refiner;
 
-			if (refinement == Refinement.MULTI_SEQ) {
+			if (refinement == Refinement.MULTI_SEQ && threads > 1) {
+				refiner = MultiExprTraceRefiner.createParallel(
+						() -> ExprTraceSeqItpChecker.create(True(), True(), solverFactory.createItpSolver()), threads,
+						precGranularity.createRefiner(refToPrec), pruneStrategy, logger);
+			} else if (refinement == Refinement.MULTI_SEQ) {
 				refiner = MultiExprTraceRefiner.create(exprTraceChecker,
 						precGranularity.createRefiner(refToPrec), pruneStrategy, logger);
 			} else {
@@ -436,7 +503,7 @@ public class CfaConfigBuilder {
 			}
 
 			final SafetyChecker<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, componentStatistics);
 
 			CfaPrec<PredPrec> prec;
 
@@ -468,4 +535,17 @@ public class CfaConfigBuilder {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
 		}
 	}
+
+	private PredAbstractor createPredAbstractor(final Solver solver) {
+		switch (domain) {
+			case PRED_BOOL:
+				return PredAbstractors.booleanAbstractor(solver);
+			case PRED_SPLIT:
+				return PredAbstractors.booleanSplitAbstractor(solver);
+			case PRED_CART:
+				return PredAbstractors.cartesianAbstractor(solver);
+			default:
+				throw new UnsupportedOperationException(domain + " domain is not supported.");
+		}
+	}
 }
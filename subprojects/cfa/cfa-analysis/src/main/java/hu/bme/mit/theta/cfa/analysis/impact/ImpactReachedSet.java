@@ -17,51 +17,48 @@ package hu.bme.mit.theta.cfa.analysis.impact;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import hu.bme.mit.theta.common.container.Containers;
-import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.reachedset.ReachedSet;
 
-public final class ImpactReachedSet<S extends State, A extends Action, K> implements ReachedSet<S, A> {
+public final class ImpactReachedSet<S extends State, A extends Action> implements ReachedSet<S, A> {
 
-	private final Function<? super S, ? extends K> partitioning;
+	private final ReachedIndex<ArgNode<S, A>> reachedIndex;
 
-	private final Map<K, List<ArgNode<S, A>>> partitions;
+	private ImpactReachedSet(final ReachedIndex<ArgNode<S, A>> reachedIndex) {
+		this.reachedIndex = checkNotNull(reachedIndex);
+	}
 
-	private ImpactReachedSet(final Function<? super S, ? extends K> partitioning) {
-		this.partitioning = checkNotNull(partitioning);
-		partitions = Containers.createMap();
+	public static <S extends State, A extends Action> ImpactReachedSet<S, A> create(
+			final Function<? super S, ?> partitioning) {
+		checkNotNull(partitioning);
+		return new ImpactReachedSet<>(Partition.of(n -> partitioning.apply(n.getState())));
 	}
 
-	public static <S extends State, A extends Action, K> ImpactReachedSet<S, A, K> create(
-			final Function<? super S, ? extends K> partitioning) {
-		return new ImpactReachedSet<>(partitioning);
+	/**
+	 * Creates a reached set on top of an arbitrary reached index (e.g., an
+	 * ExplReachedIndex for explicit states).
+	 */
+	public static <S extends State, A extends Action> ImpactReachedSet<S, A> create(
+			final ReachedIndex<ArgNode<S, A>> reachedIndex) {
+		return new ImpactReachedSet<>(reachedIndex);
 	}
 
 	@Override
 	public void add(final ArgNode<S, A> node) {
 		checkNotNull(node);
-		final S state = node.getState();
-		final K key = partitioning.apply(state);
-		final Collection<ArgNode<S, A>> partition = partitions.computeIfAbsent(key, k -> new ArrayList<>());
-		partition.add(node);
+		reachedIndex.add(node);
 	}
 
 	@Override
 	public void tryToCover(final ArgNode<S, A> node) {
 		checkNotNull(node);
-		final S state = node.getState();
-		final K key = partitioning.apply(state);
-		final Collection<ArgNode<S, A>> partition = partitions.getOrDefault(key, Collections.emptyList());
-		for (final ArgNode<S, A> nodeToCoverWith : partition) {
+		for (final ArgNode<S, A> nodeToCoverWith : reachedIndex.get(node)) {
 			if (nodeToCoverWith.getId() < node.getId()) {
 				if (nodeToCoverWith.mayCover(node)) {
 					node.cover(nodeToCoverWith);
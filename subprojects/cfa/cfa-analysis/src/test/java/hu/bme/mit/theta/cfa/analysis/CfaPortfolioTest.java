@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis;
+
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain.EXPL;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain.PRED_CART;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Refinement.SEQ_ITP;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.portfolio.PortfolioChecker;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfig;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain;
+import hu.bme.mit.theta.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * Runs real configurations concurrently on the same CFA in a portfolio, so
+ * that they unfold the same variables at the same time.
+ */
+@RunWith(value = Parameterized.class)
+public class CfaPortfolioTest {
+	@Parameterized.Parameter(value = 0)
+	public String filePath;
+
+	@Parameterized.Parameter(value = 1)
+	public boolean isSafe;
+
+	@Parameterized.Parameters(name = "{index}: {0}, {1}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] {
+
+				{ "src/test/resources/arithmetic-int.cfa", false },
+
+				{ "src/test/resources/counter5_true.cfa", true },
+
+				{ "src/test/resources/ifelse.cfa", false },
+
+				{ "src/test/resources/locking.cfa", true },
+
+		});
+	}
+
+	@Test
+	public void test() throws IOException {
+		final CFA cfa;
+		try (InputStream inputStream = new FileInputStream(filePath)) {
+			cfa = CfaDslManager.createCfa(inputStream);
+		}
+		// Both configurations start checking at the same time
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		final PortfolioChecker<State, Action> checker = PortfolioChecker.<State, Action>builder()
+				.add("EXPL", () -> check(cfa, EXPL, barrier))
+				.add("PRED_CART", () -> check(cfa, PRED_CART, barrier)).build();
+
+		for (int i = 0; i < 3; i++) {
+			barrier.reset();
+			final SafetyResult<State, Action> result = checker.check(UnitPrec.getInstance());
+			Assert.assertEquals(isSafe, result.isSafe());
+		}
+	}
+
+	private static SafetyResult<? extends State, ? extends Action> check(final CFA cfa, final Domain domain,
+																		  final CyclicBarrier barrier) throws Exception {
+		try (ScopedSolverFactory solverFactory = ScopedSolverFactory.create(Z3SolverFactory.getInstance())) {
+			final CfaConfigBuilder builder = new CfaConfigBuilder(domain, SEQ_ITP, solverFactory).threads(2);
+			final CfaConfig<? extends State, ? extends Action, ? extends Prec> config = builder.build(cfa,
+					cfa.getErrorLoc().get());
+			barrier.await(10, TimeUnit.SECONDS);
+			return config.check();
+		}
+	}
+
+}
@@ -21,6 +21,9 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
@@ -29,12 +32,22 @@ import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import com.google.common.base.Stopwatch;
 
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unsafe;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResults;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkRunner;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.ConfigMatrix;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
+import hu.bme.mit.theta.analysis.algorithm.portfolio.PortfolioChecker;
+import hu.bme.mit.theta.analysis.algorithm.portfolio.PortfolioSpec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.UnfoldCacheStatistics;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.analysis.CfaAction;
 import hu.bme.mit.theta.cfa.analysis.CfaState;
@@ -59,7 +72,9 @@ import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
-import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3PooledSolverFactory;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -68,6 +83,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class CfaCli {
 	private static final String JAR_NAME = "theta-cfa-cli.jar";
+	private static final List<String> CORPUS_OPTIONS = Arrays.asList("corpus", "matrix", "timeout", "memlimit",
+			"warmup", "results");
 	private final String[] args;
 	private final TableWriter writer;
 
@@ -83,7 +100,7 @@ public class CfaCli {
 	@Parameter(names = "--predsplit", description = "Predicate splitting (for predicate abstraction)")
 	PredSplit predSplit = PredSplit.WHOLE;
 
-	@Parameter(names = "--model", description = "Path of the input CFA model", required = true)
+	@Parameter(names = "--model", description = "Path of the input CFA model (required unless --corpus is given)")
 	String model;
 
 	@Parameter(names = "--errorloc", description = "Error (target) location")
@@ -104,6 +121,9 @@ public class CfaCli {
 	@Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
 	PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+	@Parameter(names = "--threads", description = "Number of worker threads for expanding the ARG (1: sequential)")
+	Integer threads = 1;
+
 	@Parameter(names = "--loglevel", description = "Detailedness of logging")
 	Logger.Level logLevel = Level.SUBSTEP;
 
@@ -128,7 +148,29 @@ public class CfaCli {
 	@Parameter(names = "--version", description = "Display version", help = true)
 	boolean versionInfo = false;
 
+	@Parameter(names = "--portfolio", description = "Run configurations concurrently in stages, e.g., 30:domain=EXPL;domain=PRED_BOOL|domain=PRED_CART")
+	String portfolio = null;
+
+	@Parameter(names = "--corpus", description = "Benchmark the CFA models of a directory in a single JVM (instead of --model)")
+	String corpus = null;
+
+	@Parameter(names = "--matrix", description = "Configuration axis of the benchmark, e.g., domain=EXPL,PRED_CART (can be repeated)")
+	List<String> matrix = new ArrayList<>();
+
+	@Parameter(names = "--timeout", description = "Timeout of each benchmark run in seconds (0: no timeout)")
+	Integer timeout = 0;
+
+	@Parameter(names = "--memlimit", description = "Heap limit of each benchmark run in MB (0: no limit)")
+	Integer memLimit = 0;
+
+	@Parameter(names = "--warmup", description = "Number of warm-up runs before the benchmark")
+	Integer warmup = 0;
+
+	@Parameter(names = "--results", description = "Output file of the benchmark results (csv or json, default: csv to the standard output)")
+	String results = null;
+
 	private Logger logger;
+	private SolverFactory solverFactory;
 
 	public CfaCli(final String[] args) {
 		this.args = args;
@@ -161,7 +203,18 @@ public class CfaCli {
 			return;
 		}
 
+		if (model == null && corpus == null) {
+			System.out.println("Invalid parameters, details:");
+			System.out.println("Either --model or --corpus must be given");
+			return;
+		}
+
 		try {
+			if (corpus != null) {
+				runCorpus();
+				return;
+			}
+
 			final Stopwatch sw = Stopwatch.createStarted();
 			final CFA cfa = loadModel();
 
@@ -176,24 +229,11 @@ public class CfaCli {
 				return;
 			}
 
-			CFA.Loc errLoc = null;
-			if (cfa.getErrorLoc().isPresent()) {
-				errLoc = cfa.getErrorLoc().get();
-			}
-			if (!errorLoc.isEmpty()) {
-				errLoc = null;
-				for (CFA.Loc running : cfa.getLocs()) {
-					if (running.getName().equals(errorLoc)) {
-						errLoc = running;
-					}
-				}
-				checkNotNull(errLoc, "Location '" + errorLoc + "' not found in CFA");
-			}
-
-			checkNotNull(errLoc, "Error location must be specified in CFA or as argument");
-			final CfaConfig<?, ?, ?> configuration = buildConfiguration(cfa, errLoc);
-			final SafetyResult<?, ?> status = check(configuration);
+			solverFactory = Z3PooledSolverFactory.create();
+			final UnfoldCacheStatistics unfoldCacheStatistics = UnfoldCacheStatistics.create();
+			final SafetyResult<?, ?> status = portfolio != null ? checkPortfolio(cfa) : check(cfa);
 			sw.stop();
+			logger.write(Level.INFO, "%s%n", unfoldCacheStatistics);
 			printResult(status, sw.elapsed(TimeUnit.MILLISECONDS));
 			if (status.isUnsafe() && cexfile != null) {
 				writeCex(status.asUnsafe());
@@ -204,6 +244,52 @@ public class CfaCli {
 		}
 	}
 
+	private void runCorpus() throws Exception {
+		final Z3PooledSolverFactory pooledSolverFactory = Z3PooledSolverFactory.create();
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), CORPUS_OPTIONS);
+		final BenchmarkRunner runner = BenchmarkRunner.builder((cellArgs, cellSolverFactory) -> {
+			final CfaCli cli = new CfaCli(cellArgs.toArray(new String[0]));
+			JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+			cli.logger = NullLogger.getInstance();
+			cli.solverFactory = cellSolverFactory;
+			final CFA cfa = cli.loadModel();
+			return cli.portfolio != null ? cli.checkPortfolio(cfa) : cli.check(cfa);
+		}).solverFactory(pooledSolverFactory).timeout(timeout, TimeUnit.SECONDS).memoryLimitMb(memLimit)
+				.warmupRuns(warmup).logger(logger).build();
+
+		final List<BenchmarkResult> benchmarkResults;
+		try {
+			benchmarkResults = runner.run(
+					BenchmarkRunner.collectModels(new File(corpus), ".cfa"), ConfigMatrix.of(matrix), baseArgs);
+		} finally {
+			pooledSolverFactory.clear();
+		}
+		if (results != null) {
+			BenchmarkResults.write(benchmarkResults, results);
+		} else {
+			BenchmarkResults.writeCsv(benchmarkResults, writer);
+		}
+	}
+
+	private CFA.Loc getErrorLoc(final CFA cfa) {
+		CFA.Loc errLoc = null;
+		if (cfa.getErrorLoc().isPresent()) {
+			errLoc = cfa.getErrorLoc().get();
+		}
+		if (!errorLoc.isEmpty()) {
+			errLoc = null;
+			for (CFA.Loc running : cfa.getLocs()) {
+				if (running.getName().equals(errorLoc)) {
+					errLoc = running;
+				}
+			}
+			checkNotNull(errLoc, "Location '" + errorLoc + "' not found in CFA");
+		}
+
+		checkNotNull(errLoc, "Error location must be specified in CFA or as argument");
+		return errLoc;
+	}
+
 	private void printHeader() {
 		Stream.of("Result", "TimeMs", "AlgoTimeMs", "AbsTimeMs", "RefTimeMs", "Iterations",
 				"ArgSize", "ArgDepth", "ArgMeanBranchFactor", "CexLen").forEach(writer::cell);
@@ -220,17 +306,42 @@ public class CfaCli {
 		}
 	}
 
-	private CfaConfig<?, ?, ?> buildConfiguration(final CFA cfa, final CFA.Loc errLoc) throws Exception {
+	private CfaConfig<?, ?, ?> buildConfiguration(final CFA cfa, final CFA.Loc errLoc,
+												   final SolverFactory solverFactory) throws Exception {
 		try {
-			return new CfaConfigBuilder(domain, refinement, Z3SolverFactory.getInstance())
+			return new CfaConfigBuilder(domain, refinement, solverFactory)
 					.precGranularity(precGranularity).search(search)
 					.predSplit(predSplit).encoding(encoding).maxEnum(maxEnum).initPrec(initPrec)
-					.pruneStrategy(pruneStrategy).logger(logger).build(cfa, errLoc);
+					.pruneStrategy(pruneStrategy).threads(threads).logger(logger).build(cfa, errLoc);
 		} catch (final Exception ex) {
 			throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
 		}
 	}
 
+	private SafetyResult<?, ?> checkPortfolio(final CFA cfa) {
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), List.of("portfolio"));
+		final PortfolioChecker<State, Action> checker = PortfolioSpec.parse(portfolio).<State, Action>toBuilder(
+				options -> () -> {
+					final CfaCli cli = new CfaCli(ConfigMatrix.toArgs(baseArgs, options).toArray(new String[0]));
+					JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+					cli.logger = NullLogger.getInstance();
+					cli.solverFactory = solverFactory;
+					return cli.check(cfa);
+				}).logger(logger).build();
+		return checker.check(UnitPrec.getInstance());
+	}
+
+	/**
+	 * Checks the CFA with the configuration given by the options. The solvers
+	 * of the configuration are closed when the check ends, returning their
+	 * contexts to the pooled solver factory.
+	 */
+	private SafetyResult<?, ?> check(final CFA cfa) throws Exception {
+		try (ScopedSolverFactory runSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			return check(buildConfiguration(cfa, getErrorLoc(cfa), runSolverFactory));
+		}
+	}
+
 	private SafetyResult<?, ?> check(CfaConfig<?, ?, ?> configuration) throws Exception {
 		try {
 			return configuration.check();
@@ -280,7 +391,10 @@ public class CfaCli {
 
 	private void writeCex(final Unsafe<?, ?> status) throws FileNotFoundException {
 		@SuppressWarnings("unchecked") final Trace<CfaState<?>, CfaAction> trace = (Trace<CfaState<?>, CfaAction>) status.getTrace();
-		final Trace<CfaState<ExplState>, CfaAction> concrTrace = CfaTraceConcretizer.concretize(trace, Z3SolverFactory.getInstance());
+		final Trace<CfaState<ExplState>, CfaAction> concrTrace;
+		try (ScopedSolverFactory cexSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			concrTrace = CfaTraceConcretizer.concretize(trace, cexSolverFactory);
+		}
 		final File file = new File(cexfile);
 		PrintWriter printWriter = null;
 		try {
@@ -20,12 +20,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
-import hu.bme.mit.theta.common.container.Containers;
+import java.util.Deque;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import hu.bme.mit.theta.common.container.Containers;
+
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.analysis.State;
@@ -33,16 +37,29 @@ import hu.bme.mit.theta.analysis.State;
 /**
  * Represents an abstract reachability graph (ARG). See the related class
  * ArgBuilder.
+ *
+ * Besides the tree structure, the ARG keeps a registry of its nodes along with
+ * the sets of unexpanded and target nodes, and the excluded flag of each node.
+ * These are maintained incrementally when nodes are created, expanded, covered
+ * or pruned, so that queries like {@link #getIncompleteNodes()},
+ * {@link #isSafe()} or {@link ArgNode#isExcluded()} do not have to traverse the
+ * ARG.
  */
 public final class ARG<S extends State, A extends Action> {
 
 	private final Collection<ArgNode<S, A>> initNodes;
+	private final Set<ArgNode<S, A>> nodes;
+	private final Set<ArgNode<S, A>> unexpandedNodes;
+	private final Set<ArgNode<S, A>> targetNodes;
 	boolean initialized; // Set by ArgBuilder
 	private int nextId = 0;
 	final PartialOrd<S> partialOrd;
 
 	private ARG(final PartialOrd<S> partialOrd) {
 		initNodes = Containers.createSet();
+		nodes = Containers.createSet();
+		unexpandedNodes = Containers.createSet();
+		targetNodes = Containers.createSet();
 		this.partialOrd = partialOrd;
 		this.initialized = false;
 	}
@@ -61,16 +78,19 @@ public final class ARG<S extends State, A extends Action> {
 		return getInitNodes().map(ArgNode::getState);
 	}
 
+	/**
+	 * Gets the nodes of the ARG in the order of their creation.
+	 */
 	public Stream<ArgNode<S, A>> getNodes() {
-		return getInitNodes().flatMap(ArgNode::descendants);
+		return nodes.stream();
 	}
 
 	public Stream<ArgNode<S, A>> getUnsafeNodes() {
-		return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(ArgNode::isTarget);
+		return targetNodes.stream().filter(n -> !n.isExcluded());
 	}
 
 	public Stream<ArgNode<S, A>> getIncompleteNodes() {
-		return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(n -> !n.isExpanded());
+		return unexpandedNodes.stream().filter(n -> !n.isExcluded());
 	}
 
 	////
@@ -80,14 +100,14 @@ public final class ARG<S extends State, A extends Action> {
 	 * its nodes are complete.
 	 */
 	public boolean isComplete() {
-		return isInitialized() && getNodes().allMatch(ArgNode::isComplete);
+		return isInitialized() && !getIncompleteNodes().findAny().isPresent();
 	}
 
 	/**
 	 * Checks if the ARG is safe, i.e., whether all of its nodes are safe.
 	 */
 	public boolean isSafe() {
-		return getNodes().allMatch(ArgNode::isSafe);
+		return !getUnsafeNodes().findAny().isPresent();
 	}
 
 	/**
@@ -100,15 +120,20 @@ public final class ARG<S extends State, A extends Action> {
 
 	////
 
-	public ArgNode<S, A> createInitNode(final S initState, final boolean target) {
+	public synchronized ArgNode<S, A> createInitNode(final S initState, final boolean target) {
 		checkNotNull(initState);
 		final ArgNode<S, A> initNode = createNode(initState, 0, target);
 		initNodes.add(initNode);
+		updateExcluded(initNode);
 		return initNode;
 	}
 
-	public ArgNode<S, A> createSuccNode(final ArgNode<S, A> node, final A action, final S succState,
-										final boolean target) {
+	/**
+	 * Creates a successor node. Node creation is synchronized so that distinct
+	 * nodes of the same ARG can be expanded concurrently (see ParallelAbstractor).
+	 */
+	public synchronized ArgNode<S, A> createSuccNode(final ArgNode<S, A> node, final A action, final S succState,
+													 final boolean target) {
 		checkNotNull(node);
 		checkNotNull(action);
 		checkNotNull(succState);
@@ -116,12 +141,18 @@ public final class ARG<S extends State, A extends Action> {
 		checkArgument(!node.isTarget(), "Node is target");
 		final ArgNode<S, A> succNode = createNode(succState, node.getDepth() + 1, target);
 		createEdge(node, action, succNode);
+		updateExcluded(succNode);
 		return succNode;
 	}
 
 	private ArgNode<S, A> createNode(final S state, final int depth, final boolean target) {
 		final ArgNode<S, A> node = new ArgNode<>(this, state, nextId, depth, target);
 		nextId = nextId + 1;
+		nodes.add(node);
+		unexpandedNodes.add(node);
+		if (target) {
+			targetNodes.add(node);
+		}
 		return node;
 	}
 
@@ -142,24 +173,81 @@ public final class ARG<S extends State, A extends Action> {
 			final ArgEdge<S, A> edge = node.getInEdge().get();
 			final ArgNode<S, A> parent = edge.getSource();
 			parent.outEdges.remove(edge);
-			parent.expanded = false;
+			parent.setExpanded(false);
 		} else {
 			assert initNodes.contains(node);
 			initNodes.remove(node);
 			this.initialized = false;
 		}
-		node.descendants().forEach(ArgNode::unsetCoveringNode);
-		node.descendants().forEach(ArgNode::clearCoveredNodes);
+		final Collection<ArgNode<S, A>> prunedNodes = node.descendants().collect(toList());
+		synchronized (this) {
+			nodes.removeAll(prunedNodes);
+			unexpandedNodes.removeAll(prunedNodes);
+			targetNodes.removeAll(prunedNodes);
+		}
+		prunedNodes.forEach(ArgNode::unsetCoveringNode);
+		prunedNodes.forEach(ArgNode::clearCoveredNodes);
 	}
 
 	/**
 	 * Prune the whole ARG, making it uninitialized.
 	 */
-	public void pruneAll() {
+	public synchronized void pruneAll() {
 		initNodes.clear();
+		nodes.clear();
+		unexpandedNodes.clear();
+		targetNodes.clear();
 		this.initialized = false;
 	}
 
+	////
+
+	/**
+	 * Updates the set of unexpanded nodes after the expanded flag of a node
+	 * has changed.
+	 */
+	synchronized void updateExpanded(final ArgNode<S, A> node) {
+		if (!nodes.contains(node)) {
+			return;
+		}
+		if (node.isExpanded()) {
+			unexpandedNodes.remove(node);
+		} else {
+			unexpandedNodes.add(node);
+		}
+	}
+
+	/**
+	 * Updates the excluded flag of a node after its subsumption (its covering
+	 * node or its state) has changed. The change is propagated iteratively to
+	 * the subtree of the node, stopping at subtrees whose status did not
+	 * change. Pruned nodes are not updated anymore.
+	 */
+	synchronized void updateExcluded(final ArgNode<S, A> node) {
+		if (!nodes.contains(node)) {
+			return;
+		}
+		final boolean parentExcluded = node.getParent().map(ArgNode::isExcluded).orElse(false);
+		final boolean excluded = parentExcluded || node.isSubsumed();
+		if (node.excluded == excluded) {
+			return;
+		}
+		final Deque<ArgNode<S, A>> stack = new ArrayDeque<>();
+		node.excluded = excluded;
+		stack.push(node);
+		while (!stack.isEmpty()) {
+			final ArgNode<S, A> current = stack.pop();
+			for (final ArgEdge<S, A> edge : current.outEdges) {
+				final ArgNode<S, A> child = edge.getTarget();
+				final boolean childExcluded = current.excluded || child.isSubsumed();
+				if (child.excluded != childExcluded) {
+					child.excluded = childExcluded;
+					stack.push(child);
+				}
+			}
+		}
+	}
+
 	public void minimize() {
 		initNodes.forEach(this::minimizeSubTree);
 	}
@@ -186,7 +274,7 @@ public final class ARG<S extends State, A extends Action> {
 	 * Gets the size of the ARG, i.e., the number of nodes.
 	 */
 	public long size() {
-		return getNodes().count();
+		return nodes.size();
 	}
 
 	/**
@@ -108,7 +108,7 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
 				}
 			}
 		}
-		node.expanded = true;
+		node.setExpanded(true);
 
 		return newSuccNodes;
 	}
@@ -18,11 +18,22 @@ package hu.bme.mit.theta.analysis.algorithm;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import hu.bme.mit.theta.common.container.Containers;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import hu.bme.mit.theta.common.container.Containers;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.State;
@@ -42,12 +53,13 @@ public final class ArgNode<S extends State, A extends Action> {
 	private S state;
 
 	Optional<ArgEdge<S, A>> inEdge; // Set by ARG
-	final Collection<ArgEdge<S, A>> outEdges;
+	final List<ArgEdge<S, A>> outEdges;
 
 	Optional<ArgNode<S, A>> coveringNode; // Set by ARG
 	final Collection<ArgNode<S, A>> coveredNodes;
 
-	boolean expanded; // Set by ArgBuilder
+	private boolean expanded; // Set by ArgBuilder
+	boolean excluded; // Maintained by ARG
 
 	ArgNode(final ARG<S, A> arg, final S state, final int id, final int depth, final boolean target) {
 		this.arg = arg;
@@ -60,6 +72,7 @@ public final class ArgNode<S extends State, A extends Action> {
 		coveringNode = Optional.empty();
 		coveredNodes = Containers.createSet();
 		expanded = false;
+		excluded = false;
 	}
 
 	////
@@ -83,34 +96,63 @@ public final class ArgNode<S extends State, A extends Action> {
 	public void setState(final S state) {
 		checkNotNull(state);
 		this.state = state;
+		arg.updateExcluded(this);
 	}
 
 	public boolean mayCover(final ArgNode<S, A> node) {
-		if (arg.partialOrd.isLeq(node.getState(), this.getState())) {
-			return ancestors().noneMatch(n -> n.equals(node) || n.isSubsumed());
-		} else {
+		if (this.isExcluded() || this.hasAncestor(node)) {
 			return false;
+		} else {
+			return arg.partialOrd.isLeq(node.getState(), this.getState());
 		}
 	}
 
+	/**
+	 * Checks if the given node is this node or one of its ancestors. Only the
+	 * path between the two depths is walked, and leaves are handled in O(1).
+	 */
+	private boolean hasAncestor(final ArgNode<S, A> node) {
+		if (node.isLeaf() || node.depth > this.depth) {
+			return node == this;
+		}
+		ArgNode<S, A> current = this;
+		while (current.depth > node.depth) {
+			current = current.inEdge.get().getSource();
+		}
+		return current == node;
+	}
+
 	public void setCoveringNode(final ArgNode<S, A> node) {
 		checkNotNull(node);
 		checkArgument(node.arg == this.arg, "Nodes belong to different ARGs");
-		unsetCoveringNode();
+		if (coveringNode.isPresent()) {
+			coveringNode.get().coveredNodes.remove(this);
+		}
 		coveringNode = Optional.of(node);
 		node.coveredNodes.add(this);
+		arg.updateExcluded(this);
 	}
 
 	public void unsetCoveringNode() {
 		if (coveringNode.isPresent()) {
 			coveringNode.get().coveredNodes.remove(this);
 			coveringNode = Optional.empty();
+			arg.updateExcluded(this);
 		}
 	}
 
 	public void clearCoveredNodes() {
-		coveredNodes.forEach(n -> n.coveringNode = Optional.empty());
+		final List<ArgNode<S, A>> oldCoveredNodes = new ArrayList<>(coveredNodes);
 		coveredNodes.clear();
+		for (final ArgNode<S, A> coveredNode : oldCoveredNodes) {
+			coveredNode.coveringNode = Optional.empty();
+			arg.updateExcluded(coveredNode);
+		}
+	}
+
+	void setExpanded(final boolean expanded) {
+		this.expanded = expanded;
+		arg.updateExpanded(this);
 	}
 
 	public void cover(final ArgNode<S, A> node) {
@@ -180,10 +222,11 @@ public final class ArgNode<S extends State, A extends Action> {
 
 	/**
 	 * Checks if the node is excluded, i.e., the node is subsumed or has an
-	 * excluded parent.
+	 * excluded parent. The status is maintained by the ARG when the covering
+	 * node or the state of a node changes, so this check is O(1).
 	 */
 	public boolean isExcluded() {
-		return ancestors().anyMatch(ArgNode::isSubsumed);
+		return excluded;
 	}
 
 	/**
@@ -225,11 +268,11 @@ public final class ArgNode<S extends State, A extends Action> {
 	////
 
 	public Stream<ArgNode<S, A>> properAncestors() {
-		return getParent().map(p -> Stream.concat(Stream.of(p), p.properAncestors())).orElse(Stream.empty());
+		return getParent().map(ArgNode::ancestors).orElse(Stream.empty());
 	}
 
 	public Stream<ArgNode<S, A>> ancestors() {
-		return Stream.concat(Stream.of(this), this.properAncestors());
+		return Stream.iterate(this, Objects::nonNull, n -> n.getParent().orElse(null));
 	}
 
 	public Stream<ArgNode<S, A>> children() {
@@ -237,26 +280,64 @@ public final class ArgNode<S extends State, A extends Action> {
 	}
 
 	public Stream<ArgNode<S, A>> properDescendants() {
-		return Stream.concat(this.children(), this.children().flatMap(ArgNode::properDescendants));
+		return descendants().skip(1);
 	}
 
+	/**
+	 * Gets the node and its descendants in depth-first preorder. The traversal
+	 * is iterative and lazy, so it works for arbitrarily deep subtrees.
+	 */
 	public Stream<ArgNode<S, A>> descendants() {
-		return Stream.concat(Stream.of(this), this.properDescendants());
+		return toStream(new DescendantIterator<>(this, n -> true));
 	}
 
 	public Stream<ArgNode<S, A>> unexcludedDescendants() {
 		if (this.isExcluded()) {
 			return Stream.empty();
 		} else {
-			return unexcludedDescendantsOfNode();
+			return toStream(new DescendantIterator<>(this, n -> !n.isSubsumed()));
 		}
 	}
 
-	private Stream<ArgNode<S, A>> unexcludedDescendantsOfNode() {
-		if (this.isSubsumed()) {
-			return Stream.empty();
-		} else {
-			return Stream.concat(Stream.of(this), this.children().flatMap(ArgNode::unexcludedDescendantsOfNode));
+	private static <T> Stream<T> toStream(final Iterator<T> iterator) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+	}
+
+	/**
+	 * Iterative depth-first preorder traversal of a subtree. Nodes not
+	 * satisfying the filter are skipped together with their subtrees.
+	 */
+	private static final class DescendantIterator<S extends State, A extends Action> implements Iterator<ArgNode<S, A>> {
+		private final Deque<ArgNode<S, A>> stack;
+		private final Predicate<ArgNode<S, A>> filter;
+
+		private DescendantIterator(final ArgNode<S, A> root, final Predicate<ArgNode<S, A>> filter) {
+			this.stack = new ArrayDeque<>();
+			this.filter = filter;
+			if (filter.test(root)) {
+				stack.push(root);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public ArgNode<S, A> next() {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			final ArgNode<S, A> node = stack.pop();
+			final List<ArgEdge<S, A>> edges = node.outEdges;
+			for (int i = edges.size() - 1; i >= 0; i--) {
+				final ArgNode<S, A> child = edges.get(i).getTarget();
+				if (filter.test(child)) {
+					stack.push(child);
+				}
+			}
+			return node;
 		}
 	}
 
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.benchmark;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableMap;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Result of a single run of a benchmark: a model checked with a cell of the
+ * configuration matrix.
+ */
+public final class BenchmarkResult {
+
+	public enum Status {
+		SAFE, UNSAFE, TIMEOUT, MEMOUT, ERROR
+	}
+
+	private final String model;
+	private final Map<String, String> config;
+	private final Status status;
+	private final long timeMs;
+	private final long memoryMb;
+	private final Map<String, Object> stats;
+	private final String error;
+	private final boolean possiblyDistorted;
+
+	private BenchmarkResult(final String model, final Map<String, String> config, final Status status,
+							final long timeMs, final long memoryMb, final Map<String, Object> stats,
+							final String error, final boolean possiblyDistorted) {
+		this.model = checkNotNull(model);
+		this.config = ImmutableMap.copyOf(config);
+		this.status = checkNotNull(status);
+		this.timeMs = timeMs;
+		this.memoryMb = memoryMb;
+		this.stats = ImmutableMap.copyOf(stats);
+		this.error = error;
+		this.possiblyDistorted = possiblyDistorted;
+	}
+
+	public static BenchmarkResult finished(final String model, final Map<String, String> config, final boolean safe,
+										   final long timeMs, final long memoryMb, final Map<String, Object> stats,
+										   final boolean possiblyDistorted) {
+		return new BenchmarkResult(model, config, safe ? Status.SAFE : Status.UNSAFE, timeMs, memoryMb, stats,
+				null, possiblyDistorted);
+	}
+
+	public static BenchmarkResult failed(final String model, final Map<String, String> config, final Status status,
+										 final long timeMs, final long memoryMb, final String error,
+										 final boolean possiblyDistorted) {
+		return new BenchmarkResult(model, config, status, timeMs, memoryMb, ImmutableMap.of(), error,
+				possiblyDistorted);
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public Map<String, String> getConfig() {
+		return config;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Gets the wall-clock time of the run (including parsing the model).
+	 */
+	public long getTimeMs() {
+		return timeMs;
+	}
+
+	/**
+	 * Gets the peak heap usage observed during the run, above the usage
+	 * before the run.
+	 */
+	public long getMemoryMb() {
+		return memoryMb;
+	}
+
+	public Map<String, Object> getStats() {
+		return stats;
+	}
+
+	public Optional<String> getError() {
+		return Optional.ofNullable(error);
+	}
+
+	/**
+	 * Checks if an earlier run that did not stop after its cancellation was
+	 * still running at the start of this run. Such a run uses CPU and heap,
+	 * so the time and memory of this run may be higher than without it.
+	 */
+	public boolean isPossiblyDistorted() {
+		return possiblyDistorted;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(model).add(config).add(status)
+				.add(timeMs + " ms").toString();
+	}
+
+}
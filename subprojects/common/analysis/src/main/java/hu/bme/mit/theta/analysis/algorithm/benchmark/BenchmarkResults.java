@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.benchmark;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hu.bme.mit.theta.common.table.BasicTableWriter;
+import hu.bme.mit.theta.common.table.TableWriter;
+
+/**
+ * Utilities for writing the results of benchmarks in CSV or JSON format. The
+ * columns (fields) are the model, the axes of the configuration, the status,
+ * the time and memory of the run (and whether they are possibly distorted by
+ * an earlier run that did not stop) and the statistics of the algorithm.
+ */
+public final class BenchmarkResults {
+
+	private BenchmarkResults() {
+	}
+
+	/**
+	 * Writes the results to a file, in JSON format if the extension of the
+	 * file is .json and in CSV format otherwise.
+	 */
+	public static void write(final List<BenchmarkResult> results, final String path) throws FileNotFoundException {
+		try (PrintStream stream = new PrintStream(path, StandardCharsets.UTF_8.name())) {
+			if (path.endsWith(".json")) {
+				writeJson(results, stream);
+			} else {
+				writeCsv(results, new BasicTableWriter(stream, ",", "\"", "\""));
+			}
+		} catch (final UnsupportedEncodingException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	public static void writeCsv(final List<BenchmarkResult> results, final TableWriter writer) {
+		final Set<String> axes = new LinkedHashSet<>();
+		final Set<String> statKeys = new LinkedHashSet<>();
+		for (final BenchmarkResult result : results) {
+			axes.addAll(result.getConfig().keySet());
+			statKeys.addAll(result.getStats().keySet());
+		}
+
+		writer.cell("Model");
+		writer.cells(axes);
+		writer.cell("Status");
+		writer.cell("TimeMs");
+		writer.cell("MemoryMb");
+		writer.cell("PossiblyDistorted");
+		writer.cells(statKeys);
+		writer.cell("Error");
+		writer.newRow();
+
+		for (final BenchmarkResult result : results) {
+			writer.cell(result.getModel());
+			for (final String axis : axes) {
+				writer.cell(result.getConfig().getOrDefault(axis, ""));
+			}
+			writer.cell(result.getStatus());
+			writer.cell(result.getTimeMs());
+			writer.cell(result.getMemoryMb());
+			writer.cell(result.isPossiblyDistorted());
+			for (final String key : statKeys) {
+				writer.cell(result.getStats().getOrDefault(key, ""));
+			}
+			writer.cell(result.getError().orElse(""));
+			writer.newRow();
+		}
+	}
+
+	public static void writeJson(final List<BenchmarkResult> results, final PrintStream stream) {
+		final List<String> items = new ArrayList<>();
+		for (final BenchmarkResult result : results) {
+			final StringBuilder sb = new StringBuilder();
+			sb.append("  {\"model\": ").append(quote(result.getModel()));
+			sb.append(", \"config\": ").append(toJson(result.getConfig()));
+			sb.append(", \"status\": ").append(quote(result.getStatus().toString()));
+			sb.append(", \"timeMs\": ").append(result.getTimeMs());
+			sb.append(", \"memoryMb\": ").append(result.getMemoryMb());
+			sb.append(", \"possiblyDistorted\": ").append(result.isPossiblyDistorted());
+			sb.append(", \"stats\": ").append(toJson(result.getStats()));
+			if (result.getError().isPresent()) {
+				sb.append(", \"error\": ").append(quote(result.getError().get()));
+			}
+			sb.append("}");
+			items.add(sb.toString());
+		}
+		stream.println("[");
+		stream.println(String.join("," + System.lineSeparator(), items));
+		stream.println("]");
+	}
+
+	private static String toJson(final Map<String, ?> map) {
+		final List<String> entries = new ArrayList<>();
+		for (final Map.Entry<String, ?> entry : map.entrySet()) {
+			final Object value = entry.getValue();
+			final boolean number = value instanceof Number && Double.isFinite(((Number) value).doubleValue());
+			final String json = number || value instanceof Boolean ? value.toString() : quote(String.valueOf(value));
+			entries.add(quote(entry.getKey()) + ": " + json);
+		}
+		return "{" + String.join(", ", entries) + "}";
+	}
+
+	private static String quote(final String str) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (final char c : str.toCharArray()) {
+			switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+}
@@ -0,0 +1,378 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.base.Stopwatch;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult.Status;
+import hu.bme.mit.theta.analysis.expr.UnfoldCacheStatistics;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+
+/**
+ * Runs a task (typically a command line tool) on a set of models with each
+ * cell of a configuration matrix in the same JVM, so that the JVM start, the
+ * loading of the native solver libraries and the JIT warm-up are shared
+ * between the runs. Each run is executed on a worker thread with a timeout
+ * and a limit on the heap usage. A run exceeding a limit is interrupted, which
+ * the algorithms check between the steps of building the ARG and which also
+ * stops the running checks of the Z3 solvers. A run that still does not stop
+ * within a grace period is abandoned, and the results of the following runs
+ * are marked as possibly distorted while it is running. Each run gets
+ * its own solver factory, and the solvers created through it are closed when
+ * the run ends, even if it failed or was cancelled. As the runs follow each
+ * other, the statistics of a run also include the usage of the global unfold
+ * cache during the run.
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * Task checking a model with the given command line arguments, creating
+	 * its solvers with the given factory.
+	 */
+	@FunctionalInterface
+	public interface Task {
+		SafetyResult<?, ?> run(List<String> args, SolverFactory solverFactory) throws Exception;
+	}
+
+	private static final long POLL_MS = 50;
+	private static final long MB = 1024 * 1024;
+
+	private final Task task;
+	private final SolverFactory solverFactory;
+	private final long timeoutMs;
+	private final long memoryLimitMb;
+	private final long gracePeriodMs;
+	private final int warmupRuns;
+	private final Logger logger;
+	// Signals of the abandoned runs, which are counted down when they stop
+	private final List<CountDownLatch> abandonedRuns;
+
+	private ExecutorService executor;
+
+	private BenchmarkRunner(final Task task, final SolverFactory solverFactory, final long timeoutMs,
+							final long memoryLimitMb, final long gracePeriodMs, final int warmupRuns,
+							final Logger logger) {
+		this.task = task;
+		this.solverFactory = solverFactory;
+		this.timeoutMs = timeoutMs;
+		this.memoryLimitMb = memoryLimitMb;
+		this.gracePeriodMs = gracePeriodMs;
+		this.warmupRuns = warmupRuns;
+		this.logger = logger;
+		this.abandonedRuns = new ArrayList<>();
+	}
+
+	public static Builder builder(final Task task) {
+		return new Builder(task);
+	}
+
+	/**
+	 * Collects the files with any of the given extensions in a directory
+	 * (recursively), in lexicographic order.
+	 */
+	public static List<File> collectModels(final File dir, final String... extensions) {
+		checkArgument(dir.isDirectory(), "Not a directory: " + dir);
+		try (Stream<Path> paths = Files.walk(dir.toPath())) {
+			return paths.filter(p -> Files.isRegularFile(p) && Stream.of(extensions).anyMatch(p.toString()::endsWith))
+					.sorted().map(Path::toFile).collect(Collectors.toList());
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Runs the task on each model with each cell of the matrix. The arguments
+	 * of a run are the base arguments with the options of the cell and the
+	 * path of the model (--model).
+	 */
+	public List<BenchmarkResult> run(final List<File> models, final ConfigMatrix matrix,
+									 final List<String> baseArgs) {
+		checkNotNull(models);
+		checkNotNull(matrix);
+		checkNotNull(baseArgs);
+		final List<Map<String, String>> cells = matrix.getCells();
+		final List<BenchmarkResult> results = new ArrayList<>();
+		executor = newExecutor();
+		try {
+			if (!models.isEmpty()) {
+				for (int i = 0; i < warmupRuns; i++) {
+					logger.write(Level.MAINSTEP, "Warm-up run %d/%d%n", i + 1, warmupRuns);
+					runCell(models.get(0), cells.get(0), baseArgs);
+				}
+			}
+			int count = 0;
+			for (final File model : models) {
+				for (final Map<String, String> cell : cells) {
+					count++;
+					logger.write(Level.SUBSTEP, "(%d/%d) %s %s... ", count, models.size() * cells.size(),
+							model.getPath(), cell);
+					final BenchmarkResult result = runCell(model, cell, baseArgs);
+					logger.write(Level.SUBSTEP, "%s (%d ms)%n", result.getStatus(), result.getTimeMs());
+					results.add(result);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	private BenchmarkResult runCell(final File model, final Map<String, String> cell, final List<String> baseArgs) {
+		final List<String> args = ConfigMatrix.toArgs(ConfigMatrix.removeOptions(baseArgs, List.of("model")), cell);
+		args.add("--model");
+		args.add(model.getPath());
+
+		abandonedRuns.removeIf(abandoned -> abandoned.getCount() == 0);
+		final boolean possiblyDistorted = !abandonedRuns.isEmpty();
+		System.gc();
+		final long baseline = usedHeap();
+		long peak = baseline;
+		final CountDownLatch finished = new CountDownLatch(1);
+		final UnfoldCacheStatistics unfoldCacheStatistics = UnfoldCacheStatistics.create();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Future<SafetyResult<?, ?>> future = executor.submit(() -> {
+			try (ScopedSolverFactory runSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+				return task.run(args, runSolverFactory);
+			} finally {
+				finished.countDown();
+			}
+		});
+
+		while (true) {
+			try {
+				final SafetyResult<?, ?> result = future.get(POLL_MS, TimeUnit.MILLISECONDS);
+				peak = Math.max(peak, usedHeap());
+				return BenchmarkResult.finished(model.getPath(), cell, result.isSafe(),
+						stopwatch.elapsed(TimeUnit.MILLISECONDS), toMb(peak - baseline), statsOf(result, unfoldCacheStatistics), possiblyDistorted);
+			} catch (final TimeoutException e) {
+				peak = Math.max(peak, usedHeap());
+				final Status limit = checkLimits(stopwatch, peak - baseline);
+				if (limit != null) {
+					final long timeMs = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+					cancel(future, finished);
+					return BenchmarkResult.failed(model.getPath(), cell, limit, timeMs, toMb(peak - baseline),
+							null, possiblyDistorted);
+				}
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				final Status status = cause instanceof OutOfMemoryError ? Status.MEMOUT : Status.ERROR;
+				final String message = cause.getClass().getSimpleName()
+						+ (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+				return BenchmarkResult.failed(model.getPath(), cell, status, stopwatch.elapsed(TimeUnit.MILLISECONDS),
+						toMb(peak - baseline), message, possiblyDistorted);
+			} catch (final InterruptedException e) {
+				cancel(future, finished);
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Benchmark runner interrupted", e);
+			}
+		}
+	}
+
+	private Status checkLimits(final Stopwatch stopwatch, final long usedBytes) {
+		if (timeoutMs > 0 && stopwatch.elapsed(TimeUnit.MILLISECONDS) > timeoutMs) {
+			return Status.TIMEOUT;
+		}
+		if (memoryLimitMb > 0 && toMb(usedBytes) > memoryLimitMb) {
+			// The sampled usage includes garbage, so check again after a collection
+			System.gc();
+			if (toMb(usedHeap()) > memoryLimitMb) {
+				return Status.MEMOUT;
+			}
+		}
+		return null;
+	}
+
+	private void cancel(final Future<?> future, final CountDownLatch finished) {
+		future.cancel(true);
+		try {
+			if (!finished.await(gracePeriodMs, TimeUnit.MILLISECONDS)) {
+				logger.write(Level.RESULT, "Warning: cancelled run did not stop, the next results are marked as"
+						+ " possibly distorted until it stops%n");
+				abandonedRuns.add(finished);
+				executor.shutdownNow();
+				executor = newExecutor();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Map<String, Object> statsOf(final SafetyResult<?, ?> result,
+											  final UnfoldCacheStatistics unfoldCacheStatistics) {
+		final Map<String, Object> stats = new LinkedHashMap<>();
+		if (result.getStats().isPresent()) {
+			addStats(stats, result.getStats().get());
+		}
+		addStats(stats, unfoldCacheStatistics);
+		if (result.getArg() != null) {
+			stats.put("ArgSize", result.getArg().size());
+			stats.put("ArgDepth", result.getArg().getDepth());
+		}
+		if (result.isUnsafe()) {
+			stats.put("CexLen", result.asUnsafe().getTrace().length());
+		}
+		return stats;
+	}
+
+	private static void addStats(final Map<String, Object> stats, final Statistics statistics) {
+		for (final String key : statistics.keySet()) {
+			final Object value = statistics.get(key);
+			if (value != null) {
+				stats.put(key, value);
+			}
+		}
+	}
+
+	private static ExecutorService newExecutor() {
+		return Executors.newSingleThreadExecutor(r -> {
+			final Thread thread = new Thread(r, "benchmark-run");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static long usedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static long toMb(final long bytes) {
+		return Math.max(0, bytes / MB);
+	}
+
+	public static final class Builder {
+		private final Task task;
+		private SolverFactory solverFactory;
+		private long timeoutMs;
+		private long memoryLimitMb;
+		private long gracePeriodMs;
+		private int warmupRuns;
+		private Logger logger;
+
+		private Builder(final Task task) {
+			this.task = checkNotNull(task);
+			this.solverFactory = NoSolverFactory.INSTANCE;
+			this.timeoutMs = 0;
+			this.memoryLimitMb = 0;
+			this.gracePeriodMs = 10_000;
+			this.warmupRuns = 0;
+			this.logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Sets the factory of the solvers of the runs. Each run gets a separate
+		 * scope over this factory, which is closed when the run ends. If not
+		 * set, the runs cannot create solvers.
+		 */
+		public Builder solverFactory(final SolverFactory solverFactory) {
+			this.solverFactory = checkNotNull(solverFactory);
+			return this;
+		}
+
+		/**
+		 * Sets the timeout of each run (0: no timeout).
+		 */
+		public Builder timeout(final long timeout, final TimeUnit unit) {
+			checkArgument(timeout >= 0, "Timeout must be non-negative");
+			this.timeoutMs = unit.toMillis(timeout);
+			return this;
+		}
+
+		/**
+		 * Sets the limit of the heap usage of each run in MB (0: no limit).
+		 */
+		public Builder memoryLimitMb(final long memoryLimitMb) {
+			checkArgument(memoryLimitMb >= 0, "Memory limit must be non-negative");
+			this.memoryLimitMb = memoryLimitMb;
+			return this;
+		}
+
+		/**
+		 * Sets how long a cancelled run is waited for to stop before it is
+		 * abandoned (default: 10 seconds).
+		 */
+		public Builder gracePeriod(final long gracePeriod, final TimeUnit unit) {
+			checkArgument(gracePeriod >= 0, "Grace period must be non-negative");
+			this.gracePeriodMs = unit.toMillis(gracePeriod);
+			return this;
+		}
+
+		/**
+		 * Sets the number of runs (of the first model with the first cell)
+		 * before the measured runs, whose results are dropped.
+		 */
+		public Builder warmupRuns(final int warmupRuns) {
+			checkArgument(warmupRuns >= 0, "Number of warm-up runs must be non-negative");
+			this.warmupRuns = warmupRuns;
+			return this;
+		}
+
+		public Builder logger(final Logger logger) {
+			this.logger = checkNotNull(logger);
+			return this;
+		}
+
+		public BenchmarkRunner build() {
+			return new BenchmarkRunner(task, solverFactory, timeoutMs, memoryLimitMb, gracePeriodMs, warmupRuns,
+					logger);
+		}
+	}
+
+	private static final class NoSolverFactory implements SolverFactory {
+		private static final NoSolverFactory INSTANCE = new NoSolverFactory();
+
+		@Override
+		public Solver createSolver() {
+			throw new UnsupportedOperationException("No solver factory was given to the benchmark runner");
+		}
+
+		@Override
+		public ItpSolver createItpSolver() {
+			throw new UnsupportedOperationException("No solver factory was given to the benchmark runner");
+		}
+	}
+
+}
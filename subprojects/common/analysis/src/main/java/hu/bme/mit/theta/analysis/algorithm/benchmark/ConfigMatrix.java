@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Matrix of configurations given by axes of command line options, e.g.,
+ * "domain=EXPL,PRED_CART" and "refinement=SEQ_ITP,BW_BIN_ITP". The cells of
+ * the matrix are the combinations of the values of the axes.
+ */
+public final class ConfigMatrix {
+
+	private final Map<String, List<String>> axes;
+
+	private ConfigMatrix(final Map<String, List<String>> axes) {
+		this.axes = axes;
+	}
+
+	/**
+	 * Creates a matrix from axes in the format name=value1,value2,... The
+	 * name of an axis is the name of a command line option without the
+	 * leading dashes. Elements without a name are appended to the values of
+	 * the previous axis, as command line parsers may split the values at the
+	 * commas.
+	 */
+	public static ConfigMatrix of(final Collection<String> axes) {
+		checkNotNull(axes);
+		final List<String> joined = new ArrayList<>();
+		for (final String axis : axes) {
+			if (!axis.contains("=") && !joined.isEmpty()) {
+				joined.set(joined.size() - 1, joined.get(joined.size() - 1) + "," + axis);
+			} else {
+				joined.add(axis);
+			}
+		}
+		final Map<String, List<String>> map = new LinkedHashMap<>();
+		for (final String axis : joined) {
+			final int eq = axis.indexOf('=');
+			checkArgument(eq > 0 && eq < axis.length() - 1, "Invalid axis (expected name=value1,value2,...): " + axis);
+			final String name = axis.substring(0, eq).replaceFirst("^-+", "");
+			checkArgument(!map.containsKey(name), "Duplicate axis: " + name);
+			final List<String> values = new ArrayList<>();
+			for (final String value : axis.substring(eq + 1).split(",")) {
+				if (!value.trim().isEmpty()) {
+					values.add(value.trim());
+				}
+			}
+			checkArgument(!values.isEmpty(), "Axis without values: " + name);
+			map.put(name, ImmutableList.copyOf(values));
+		}
+		return new ConfigMatrix(ImmutableMap.copyOf(map));
+	}
+
+	public List<String> getAxes() {
+		return ImmutableList.copyOf(axes.keySet());
+	}
+
+	/**
+	 * Gets the cells of the matrix, each mapping the axes to a value. A matrix
+	 * without axes has a single, empty cell.
+	 */
+	public List<Map<String, String>> getCells() {
+		List<Map<String, String>> cells = Collections.singletonList(Collections.emptyMap());
+		for (final Map.Entry<String, List<String>> axis : axes.entrySet()) {
+			final List<Map<String, String>> extended = new ArrayList<>();
+			for (final Map<String, String> cell : cells) {
+				for (final String value : axis.getValue()) {
+					final Map<String, String> newCell = new LinkedHashMap<>(cell);
+					newCell.put(axis.getKey(), value);
+					extended.add(newCell);
+				}
+			}
+			cells = extended;
+		}
+		final ImmutableList.Builder<Map<String, String>> builder = ImmutableList.builder();
+		cells.forEach(c -> builder.add(ImmutableMap.copyOf(c)));
+		return builder.build();
+	}
+
+	/**
+	 * Creates the arguments of a cell by replacing (or adding) the options of
+	 * the axes in the base arguments.
+	 */
+	public static List<String> toArgs(final List<String> baseArgs, final Map<String, String> cell) {
+		final List<String> args = new ArrayList<>(removeOptions(baseArgs, cell.keySet()));
+		for (final Map.Entry<String, String> entry : cell.entrySet()) {
+			args.add("--" + entry.getKey());
+			args.add(entry.getValue());
+		}
+		return args;
+	}
+
+	/**
+	 * Removes the given options (without the leading dashes) and their values
+	 * from the arguments.
+	 */
+	public static List<String> removeOptions(final List<String> args, final Collection<String> options) {
+		final List<String> result = new ArrayList<>();
+		for (int i = 0; i < args.size(); i++) {
+			final String arg = args.get(i);
+			if (arg.startsWith("--") && options.contains(arg.substring(2))) {
+				i++;
+			} else {
+				result.add(arg);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return axes.toString();
+	}
+
+}
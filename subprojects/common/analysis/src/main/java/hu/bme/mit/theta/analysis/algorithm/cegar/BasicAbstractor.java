@@ -20,7 +20,9 @@ import static com.google.common.base.Preconditions.checkState;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CancellationException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
@@ -31,6 +33,7 @@ import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterion;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
 import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
 import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.Utils;
@@ -44,15 +47,16 @@ import hu.bme.mit.theta.common.logging.Logger.Level;
 public final class BasicAbstractor<S extends State, A extends Action, P extends Prec> implements Abstractor<S, A, P> {
 
 	private final ArgBuilder<S, A, P> argBuilder;
-	private final Function<? super S, ?> projection;
+	private final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory;
 	private final Waitlist<ArgNode<S, A>> waitlist;
 	private final StopCriterion<S, A> stopCriterion;
 	private final Logger logger;
 
-	private BasicAbstractor(final ArgBuilder<S, A, P> argBuilder, final Function<? super S, ?> projection,
+	private BasicAbstractor(final ArgBuilder<S, A, P> argBuilder,
+							final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory,
 							final Waitlist<ArgNode<S, A>> waitlist, final StopCriterion<S, A> stopCriterion, final Logger logger) {
 		this.argBuilder = checkNotNull(argBuilder);
-		this.projection = checkNotNull(projection);
+		this.reachedIndexFactory = checkNotNull(reachedIndexFactory);
 		this.waitlist = checkNotNull(waitlist);
 		this.stopCriterion = checkNotNull(stopCriterion);
 		this.logger = checkNotNull(logger);
@@ -82,11 +86,11 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
 		assert arg.isInitialized();
 
-		logger.write(Level.INFO, "|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
-				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		logger.write(Level.INFO, () -> String.format("|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n",
+				arg.getNodes().count(), arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()));
 		logger.write(Level.SUBSTEP, "|  |  Building ARG...");
 
-		final Partition<ArgNode<S, A>, ?> reachedSet = Partition.of(n -> projection.apply(n.getState()));
+		final ReachedIndex<ArgNode<S, A>> reachedSet = reachedIndexFactory.get();
 		waitlist.clear();
 
 		reachedSet.addAll(arg.getNodes());
@@ -94,6 +98,9 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
 		if (!stopCriterion.canStop(arg)) {
 			while (!waitlist.isEmpty()) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException("Interrupted while building the ARG");
+				}
 				final ArgNode<S, A> node = waitlist.remove();
 
 				Collection<ArgNode<S, A>> newNodes = Collections.emptyList();
@@ -108,8 +115,8 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		}
 
 		logger.write(Level.SUBSTEP, "done%n");
-		logger.write(Level.INFO, "|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
-				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		logger.write(Level.INFO, () -> String.format("|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n",
+				arg.getNodes().count(), arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()));
 
 		waitlist.clear(); // Optimization
 
@@ -141,6 +148,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 	public static final class Builder<S extends State, A extends Action, P extends Prec> {
 		private final ArgBuilder<S, A, P> argBuilder;
 		private Function<? super S, ?> projection;
+		private Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory;
 		private Waitlist<ArgNode<S, A>> waitlist;
 		private StopCriterion<S, A> stopCriterion;
 		private Logger logger;
@@ -158,6 +166,17 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 			return this;
 		}
 
+		/**
+		 * Sets the factory of the reached set used for finding covering
+		 * candidates. If not set, the nodes are partitioned by the
+		 * projection.
+		 */
+		public Builder<S, A, P> reachedIndex(
+				final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory) {
+			this.reachedIndexFactory = reachedIndexFactory;
+			return this;
+		}
+
 		public Builder<S, A, P> waitlist(final Waitlist<ArgNode<S, A>> waitlist) {
 			this.waitlist = waitlist;
 			return this;
@@ -174,7 +193,10 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		}
 
 		public BasicAbstractor<S, A, P> build() {
-			return new BasicAbstractor<>(argBuilder, projection, waitlist, stopCriterion, logger);
+			final Function<? super S, ?> projection = this.projection;
+			final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory = this.reachedIndexFactory != null
+					? this.reachedIndexFactory : () -> Partition.of(n -> projection.apply(n.getState()));
+			return new BasicAbstractor<>(argBuilder, reachedIndexFactory, waitlist, stopCriterion, logger);
 		}
 	}
 
@@ -17,6 +17,11 @@ package hu.bme.mit.theta.analysis.algorithm.cegar;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
@@ -27,6 +32,7 @@ import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ARG;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
@@ -43,21 +49,34 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 	private final Abstractor<S, A, P> abstractor;
 	private final Refiner<S, A, P> refiner;
 	private final Logger logger;
+	private final List<Statistics> componentStatistics;
 
-	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
+	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+						 final Collection<? extends Statistics> componentStatistics) {
 		this.abstractor = checkNotNull(abstractor);
 		this.refiner = checkNotNull(refiner);
 		this.logger = checkNotNull(logger);
+		this.componentStatistics = Collections.unmodifiableList(new ArrayList<>(componentStatistics));
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner) {
-		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance());
+		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance(), Collections.emptyList());
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
-		return new CegarChecker<>(abstractor, refiner, logger);
+		return new CegarChecker<>(abstractor, refiner, logger, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a checker whose statistics also include the given statistics of
+	 * its components (e.g., a trace checker of the refiner).
+	 */
+	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
+			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+			final Collection<? extends Statistics> componentStatistics) {
+		return new CegarChecker<>(abstractor, refiner, logger, componentStatistics);
 	}
 
 	@Override
@@ -72,6 +91,9 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 		P prec = initPrec;
 		int iteration = 0;
 		do {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Interrupted in iteration " + (iteration + 1));
+			}
 			++iteration;
 
 			logger.write(Level.MAINSTEP, "Iteration %d%n", iteration);
@@ -98,7 +120,7 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 		stopwatch.stop();
 		SafetyResult<S, A> cegarResult = null;
 		final CegarStatistics stats = new CegarStatistics(stopwatch.elapsed(TimeUnit.MILLISECONDS), abstractorTime,
-				refinerTime, iteration);
+				refinerTime, iteration, componentStatistics);
 
 		assert abstractorResult.isSafe() || (refinerResult != null && refinerResult.isUnsafe());
 
@@ -15,10 +15,15 @@
  */
 package hu.bme.mit.theta.analysis.algorithm.cegar;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import hu.bme.mit.theta.analysis.algorithm.Statistics;
 
 /**
- * Represents statistics collected by the CegarChecker algorithm.
+ * Represents statistics collected by the CegarChecker algorithm. It can also
+ * include the statistics of the components (e.g., the refiner) of the
+ * algorithm.
  */
 public final class CegarStatistics extends Statistics {
 	private final long algorithmTimeMs;
@@ -28,13 +33,25 @@ public final class CegarStatistics extends Statistics {
 
 	public CegarStatistics(final long algorithmTimeMs, final long abstractorTimeMs, final long refinerTimeMs,
 						   final int iterations) {
+		this(algorithmTimeMs, abstractorTimeMs, refinerTimeMs, iterations, Collections.emptyList());
+	}
+
+	public CegarStatistics(final long algorithmTimeMs, final long abstractorTimeMs, final long refinerTimeMs,
+						   final int iterations, final Collection<? extends Statistics> componentStatistics) {
 		this.algorithmTimeMs = algorithmTimeMs;
 		this.abstractorTimeMs = abstractorTimeMs;
 		this.refinerTimeMs = refinerTimeMs;
 		this.iterations = iterations;
 
 		addStat("AlgorithmTimeMs", this::getAlgorithmTimeMs);
+		addStat("AbstractorTimeMs", this::getAbstractorTimeMs);
+		addStat("RefinerTimeMs", this::getRefinerTimeMs);
 		addStat("Iterations", this::getIterations);
+		for (final Statistics statistics : componentStatistics) {
+			for (final String key : statistics.keySet()) {
+				addStat(key, () -> statistics.get(key));
+			}
+		}
 	}
 
 	public long getAlgorithmTimeMs() {
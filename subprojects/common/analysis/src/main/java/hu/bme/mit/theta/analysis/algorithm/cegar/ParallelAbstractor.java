@@ -0,0 +1,297 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterion;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
+import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+
+/**
+ * Abstractor that expands several nodes of the waitlist at once on a pool of
+ * worker threads. Each worker owns a separate ArgBuilder (and therefore a
+ * separate analysis with its own solver instance), obtained from the factory
+ * given to the builder. Covering and waitlist updates are performed by the
+ * calling thread between two rounds of expansion, in the order in which the
+ * nodes were removed from the waitlist, so the result (safe/unsafe) is the
+ * same as with BasicAbstractor.
+ */
+public final class ParallelAbstractor<S extends State, A extends Action, P extends Prec> implements Abstractor<S, A, P> {
+
+	private final ArgBuilder<S, A, P> argBuilder;
+	private final List<ArgBuilder<S, A, P>> workerArgBuilders;
+	private final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory;
+	private final Waitlist<ArgNode<S, A>> waitlist;
+	private final StopCriterion<S, A> stopCriterion;
+	private final Logger logger;
+
+	private ParallelAbstractor(final ArgBuilder<S, A, P> argBuilder, final List<ArgBuilder<S, A, P>> workerArgBuilders,
+							   final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory,
+							   final Waitlist<ArgNode<S, A>> waitlist,
+							   final StopCriterion<S, A> stopCriterion, final Logger logger) {
+		this.argBuilder = checkNotNull(argBuilder);
+		this.workerArgBuilders = Collections.unmodifiableList(new ArrayList<>(workerArgBuilders));
+		this.reachedIndexFactory = checkNotNull(reachedIndexFactory);
+		this.waitlist = checkNotNull(waitlist);
+		this.stopCriterion = checkNotNull(stopCriterion);
+		this.logger = checkNotNull(logger);
+	}
+
+	/**
+	 * Creates a builder. The factory is called once for the calling thread and
+	 * once for each worker, so it should create a new analysis (with a new
+	 * solver) on each call. The abstractor does not close the solvers, so they
+	 * should be created by a factory that is closed at the end of the run, see
+	 * {@link hu.bme.mit.theta.solver.utils.ScopedSolverFactory}.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Builder<S, A, P> builder(
+			final Supplier<? extends ArgBuilder<S, A, P>> argBuilderFactory) {
+		return new Builder<>(argBuilderFactory);
+	}
+
+	@Override
+	public ARG<S, A> createArg() {
+		return argBuilder.createArg();
+	}
+
+	@Override
+	public AbstractorResult check(final ARG<S, A> arg, final P prec) {
+		checkNotNull(arg);
+		checkNotNull(prec);
+		logger.write(Level.DETAIL, "|  |  Precision: %s%n", prec);
+
+		if (!arg.isInitialized()) {
+			logger.write(Level.SUBSTEP, "|  |  (Re)initializing ARG...");
+			argBuilder.init(arg, prec);
+			logger.write(Level.SUBSTEP, "done%n");
+		}
+
+		assert arg.isInitialized();
+
+		logger.write(Level.INFO, () -> String.format("|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n",
+				arg.getNodes().count(), arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()));
+		logger.write(Level.SUBSTEP, () -> String.format("|  |  Building ARG with %d workers...", workerArgBuilders.size()));
+
+		final ReachedIndex<ArgNode<S, A>> reachedSet = reachedIndexFactory.get();
+		waitlist.clear();
+
+		reachedSet.addAll(arg.getNodes());
+		waitlist.addAll(arg.getIncompleteNodes());
+
+		if (!stopCriterion.canStop(arg)) {
+			final ExecutorService executor = Executors.newFixedThreadPool(workerArgBuilders.size());
+			try {
+				boolean stop = false;
+				while (!stop && !waitlist.isEmpty()) {
+					if (Thread.currentThread().isInterrupted()) {
+						throw new CancellationException("Interrupted while building the ARG");
+					}
+					final List<ArgNode<S, A>> nodesToExpand = new ArrayList<>();
+					while (nodesToExpand.size() < workerArgBuilders.size() && !waitlist.isEmpty()) {
+						final ArgNode<S, A> node = waitlist.remove();
+						close(node, reachedSet.get(node));
+						if (!node.isSubsumed() && !node.isTarget()) {
+							nodesToExpand.add(node);
+						} else if (stopCriterion.canStop(arg, Collections.emptyList())) {
+							stop = true;
+							break;
+						}
+					}
+					if (stop) {
+						break;
+					}
+
+					final List<Collection<ArgNode<S, A>>> results = expandAll(executor, nodesToExpand, prec);
+					for (final Collection<ArgNode<S, A>> newNodes : results) {
+						reachedSet.addAll(newNodes);
+						waitlist.addAll(newNodes);
+						if (stopCriterion.canStop(arg, newNodes)) {
+							stop = true;
+							break;
+						}
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		logger.write(Level.SUBSTEP, "done%n");
+		logger.write(Level.INFO, () -> String.format("|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n",
+				arg.getNodes().count(), arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()));
+
+		waitlist.clear(); // Optimization
+
+		if (arg.isSafe()) {
+			checkState(arg.isComplete(), "Returning incomplete ARG as safe");
+			return AbstractorResult.safe();
+		} else {
+			return AbstractorResult.unsafe();
+		}
+	}
+
+	/**
+	 * Expands the given nodes, the i-th node with the i-th worker. The results
+	 * are returned in the same order as the nodes.
+	 */
+	private List<Collection<ArgNode<S, A>>> expandAll(final ExecutorService executor,
+													  final List<ArgNode<S, A>> nodes, final P prec) {
+		final List<Future<Collection<ArgNode<S, A>>>> futures = new ArrayList<>(nodes.size());
+		for (int i = 0; i < nodes.size(); ++i) {
+			final ArgBuilder<S, A, P> workerArgBuilder = workerArgBuilders.get(i);
+			final ArgNode<S, A> node = nodes.get(i);
+			final Callable<Collection<ArgNode<S, A>>> task = () -> workerArgBuilder.expand(node, prec);
+			futures.add(executor.submit(task));
+		}
+
+		final List<Collection<ArgNode<S, A>>> results = new ArrayList<>(nodes.size());
+		for (final Future<Collection<ArgNode<S, A>>> future : futures) {
+			try {
+				results.add(future.get());
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for workers");
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else {
+					throw new IllegalStateException(cause);
+				}
+			}
+		}
+		return results;
+	}
+
+	private void close(final ArgNode<S, A> node, final Collection<ArgNode<S, A>> candidates) {
+		if (!node.isLeaf()) {
+			return;
+		}
+		for (final ArgNode<S, A> candidate : candidates) {
+			if (candidate.mayCover(node)) {
+				node.cover(candidate);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(waitlist).add(workerArgBuilders.size())
+				.toString();
+	}
+
+	public static final class Builder<S extends State, A extends Action, P extends Prec> {
+		private final Supplier<? extends ArgBuilder<S, A, P>> argBuilderFactory;
+		private int threads;
+		private Function<? super S, ?> projection;
+		private Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory;
+		private Waitlist<ArgNode<S, A>> waitlist;
+		private StopCriterion<S, A> stopCriterion;
+		private Logger logger;
+
+		private Builder(final Supplier<? extends ArgBuilder<S, A, P>> argBuilderFactory) {
+			this.argBuilderFactory = checkNotNull(argBuilderFactory);
+			this.threads = Runtime.getRuntime().availableProcessors();
+			this.projection = s -> 0;
+			this.waitlist = FifoWaitlist.create();
+			this.stopCriterion = StopCriterions.firstCex();
+			this.logger = NullLogger.getInstance();
+		}
+
+		public Builder<S, A, P> threads(final int threads) {
+			checkArgument(threads > 0, "Number of threads must be positive");
+			this.threads = threads;
+			return this;
+		}
+
+		public Builder<S, A, P> projection(final Function<? super S, ?> projection) {
+			this.projection = projection;
+			return this;
+		}
+
+		/**
+		 * Sets the factory of the reached set used for finding covering
+		 * candidates. If not set, the nodes are partitioned by the
+		 * projection.
+		 */
+		public Builder<S, A, P> reachedIndex(
+				final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory) {
+			this.reachedIndexFactory = reachedIndexFactory;
+			return this;
+		}
+
+		public Builder<S, A, P> waitlist(final Waitlist<ArgNode<S, A>> waitlist) {
+			this.waitlist = waitlist;
+			return this;
+		}
+
+		public Builder<S, A, P> stopCriterion(final StopCriterion<S, A> stopCriterion) {
+			this.stopCriterion = stopCriterion;
+			return this;
+		}
+
+		public Builder<S, A, P> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public ParallelAbstractor<S, A, P> build() {
+			final ArgBuilder<S, A, P> argBuilder = argBuilderFactory.get();
+			final List<ArgBuilder<S, A, P>> workerArgBuilders = new ArrayList<>(threads);
+			for (int i = 0; i < threads; ++i) {
+				workerArgBuilders.add(argBuilderFactory.get());
+			}
+			final Function<? super S, ?> projection = this.projection;
+			final Supplier<? extends ReachedIndex<ArgNode<S, A>>> reachedIndexFactory = this.reachedIndexFactory != null
+					? this.reachedIndexFactory : () -> Partition.of(n -> projection.apply(n.getState()));
+			return new ParallelAbstractor<>(argBuilder, workerArgBuilders, reachedIndexFactory, waitlist, stopCriterion,
+					logger);
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.portfolio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+
+/**
+ * Safety checker running a portfolio of configurations concurrently, each on
+ * its own thread. The configurations are organized into stages, each with an
+ * optional time slice. The configurations of a stage run in parallel and the
+ * first result is returned, while the others are cancelled by interrupting
+ * their threads (which the algorithms check between their steps). If no
+ * configuration of a stage gives a result within its time slice, the next
+ * stage is started.
+ * <p>
+ * Configurations are expected to create their own solvers, as solvers are not
+ * thread-safe. If two configurations of a stage both finish with conflicting
+ * verdicts, an exception is thrown instead of reporting either of them, as
+ * one of the configurations is unsound.
+ */
+public final class PortfolioChecker<S extends State, A extends Action> implements SafetyChecker<S, A, UnitPrec> {
+
+	/**
+	 * A configuration of the portfolio, building and running an algorithm.
+	 */
+	@FunctionalInterface
+	public interface Configuration<S extends State, A extends Action> {
+		SafetyResult<? extends S, ? extends A> check() throws Exception;
+	}
+
+	private static final long GRACE_MS = 10_000;
+
+	private final List<Stage<S, A>> stages;
+	private final Logger logger;
+
+	private PortfolioChecker(final List<Stage<S, A>> stages, final Logger logger) {
+		this.stages = stages;
+		this.logger = logger;
+	}
+
+	public static <S extends State, A extends Action> Builder<S, A> builder() {
+		return new Builder<>();
+	}
+
+	@Override
+	public SafetyResult<S, A> check(final UnitPrec prec) {
+		final List<String> failures = new ArrayList<>();
+		for (int i = 0; i < stages.size(); i++) {
+			final Stage<S, A> stage = stages.get(i);
+			logger.write(Level.MAINSTEP, "Portfolio stage %d/%d: %s%n", i + 1, stages.size(), stage);
+			final SafetyResult<S, A> result = runStage(stage, failures);
+			if (result != null) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("No configuration of the portfolio gave a result: " + failures);
+	}
+
+	private SafetyResult<S, A> runStage(final Stage<S, A> stage, final List<String> failures) {
+		final ExecutorService executor = newExecutor(stage.configurations.size());
+		final CompletionService<SafetyResult<? extends S, ? extends A>> completionService =
+				new ExecutorCompletionService<>(executor);
+		final List<Future<SafetyResult<? extends S, ? extends A>>> futures = new ArrayList<>();
+		for (final Configuration<S, A> configuration : stage.configurations) {
+			futures.add(completionService.submit(configuration::check));
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		SafetyResult<? extends S, ? extends A> winner = null;
+		String winnerName = null;
+		try {
+			int pending = futures.size();
+			while (winner == null && pending > 0) {
+				final Future<SafetyResult<? extends S, ? extends A>> future;
+				if (stage.timeoutMs > 0) {
+					final long remainingMs = stage.timeoutMs - stopwatch.elapsed(TimeUnit.MILLISECONDS);
+					future = remainingMs > 0 ? completionService.poll(remainingMs, TimeUnit.MILLISECONDS) : null;
+					if (future == null) {
+						logger.write(Level.MAINSTEP, "| Time slice of %d ms exceeded%n", stage.timeoutMs);
+						failures.add("stage timeout after " + stage.timeoutMs + " ms");
+						break;
+					}
+				} else {
+					future = completionService.take();
+				}
+				pending--;
+				final String name = stage.names.get(futures.indexOf(future));
+				try {
+					winner = future.get();
+					winnerName = name;
+					logger.write(Level.MAINSTEP, "| %s finished first: %s%n", name, winner.isSafe() ? "safe" : "unsafe");
+				} catch (final ExecutionException e) {
+					final Throwable cause = e.getCause();
+					logger.write(Level.MAINSTEP, "| %s failed: %s%n", name, cause);
+					failures.add(name + ": " + cause);
+				}
+			}
+		} catch (final InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Portfolio interrupted");
+		} finally {
+			executor.shutdownNow();
+		}
+
+		awaitTermination(executor);
+		if (winner != null) {
+			checkConsistency(stage, futures, winner, winnerName);
+		}
+		@SuppressWarnings("unchecked") final SafetyResult<S, A> result = (SafetyResult<S, A>) winner;
+		return result;
+	}
+
+	/**
+	 * Checks that the configurations that also finished (before noticing the
+	 * cancellation) agree with the reported verdict.
+	 */
+	private void checkConsistency(final Stage<S, A> stage,
+								  final List<Future<SafetyResult<? extends S, ? extends A>>> futures,
+								  final SafetyResult<?, ?> winner, final String winnerName) {
+		for (int i = 0; i < futures.size(); i++) {
+			final Future<SafetyResult<? extends S, ? extends A>> future = futures.get(i);
+			if (!future.isDone() || future.isCancelled()) {
+				continue;
+			}
+			try {
+				final SafetyResult<?, ?> other = future.get();
+				if (other.isSafe() != winner.isSafe()) {
+					throw new IllegalStateException(String.format("Conflicting verdicts: %s is %s, but %s is %s",
+							winnerName, winner.isSafe() ? "safe" : "unsafe", stage.names.get(i),
+							other.isSafe() ? "safe" : "unsafe"));
+				}
+			} catch (final ExecutionException | InterruptedException e) {
+				// Failed or cancelled configurations do not give a verdict
+			}
+		}
+	}
+
+	private void awaitTermination(final ExecutorService executor) {
+		try {
+			if (!executor.awaitTermination(GRACE_MS, TimeUnit.MILLISECONDS)) {
+				logger.write(Level.RESULT, "Warning: cancelled configurations did not stop%n");
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static ExecutorService newExecutor(final int threads) {
+		final AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, r -> {
+			final Thread thread = new Thread(r, "portfolio-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).addAll(stages).toString();
+	}
+
+	private static final class Stage<S extends State, A extends Action> {
+		private final long timeoutMs;
+		private final List<String> names;
+		private final List<Configuration<S, A>> configurations;
+
+		private Stage(final long timeoutMs, final List<String> names, final List<Configuration<S, A>> configurations) {
+			this.timeoutMs = timeoutMs;
+			this.names = names;
+			this.configurations = configurations;
+		}
+
+		@Override
+		public String toString() {
+			return Utils.lispStringBuilder("Stage").add(timeoutMs > 0 ? timeoutMs + " ms" : "unlimited")
+					.addAll(names).toString();
+		}
+	}
+
+	public static final class Builder<S extends State, A extends Action> {
+		private final List<Stage<S, A>> stages;
+		private long timeoutMs;
+		private List<String> names;
+		private List<Configuration<S, A>> configurations;
+		private Logger logger;
+
+		private Builder() {
+			this.stages = new ArrayList<>();
+			this.timeoutMs = 0;
+			this.names = new ArrayList<>();
+			this.configurations = new ArrayList<>();
+			this.logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Starts a new stage with the given time slice (0: no limit). The
+		 * configurations added before belong to the previous stage.
+		 */
+		public Builder<S, A> stage(final long timeout, final TimeUnit unit) {
+			checkArgument(timeout >= 0, "Time slice must be non-negative");
+			closeStage();
+			this.timeoutMs = unit.toMillis(timeout);
+			return this;
+		}
+
+		/**
+		 * Adds a configuration to the current stage.
+		 */
+		public Builder<S, A> add(final String name, final Configuration<S, A> configuration) {
+			names.add(checkNotNull(name));
+			configurations.add(checkNotNull(configuration));
+			return this;
+		}
+
+		public Builder<S, A> logger(final Logger logger) {
+			this.logger = checkNotNull(logger);
+			return this;
+		}
+
+		public PortfolioChecker<S, A> build() {
+			closeStage();
+			checkState(!stages.isEmpty(), "Portfolio without configurations");
+			return new PortfolioChecker<>(ImmutableList.copyOf(stages), logger);
+		}
+
+		private void closeStage() {
+			if (!configurations.isEmpty()) {
+				stages.add(new Stage<>(timeoutMs, ImmutableList.copyOf(names), ImmutableList.copyOf(configurations)));
+				names = new ArrayList<>();
+				configurations = new ArrayList<>();
+			}
+			timeoutMs = 0;
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.portfolio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+
+/**
+ * Textual description of a portfolio, e.g.,
+ * "30:domain=EXPL;domain=PRED_BOOL|domain=PRED_CART,refinement=BW_BIN_ITP".
+ * Stages are separated by '|' and can start with a time slice in seconds
+ * followed by ':'. The configurations of a stage are separated by ';', and
+ * each is given by command line options (without the leading dashes) that
+ * override the base arguments.
+ */
+public final class PortfolioSpec {
+
+	private final List<Long> timeoutsSec;
+	private final List<List<Map<String, String>>> stages;
+
+	private PortfolioSpec(final List<Long> timeoutsSec, final List<List<Map<String, String>>> stages) {
+		this.timeoutsSec = timeoutsSec;
+		this.stages = stages;
+	}
+
+	public static PortfolioSpec parse(final String spec) {
+		checkNotNull(spec);
+		final List<Long> timeoutsSec = new ArrayList<>();
+		final List<List<Map<String, String>>> stages = new ArrayList<>();
+		for (String stage : spec.split("\\|")) {
+			stage = stage.trim();
+			long timeoutSec = 0;
+			final int colon = stage.indexOf(':');
+			if (colon >= 0) {
+				try {
+					timeoutSec = Long.parseLong(stage.substring(0, colon).trim());
+				} catch (final NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid time slice: " + stage.substring(0, colon), e);
+				}
+				checkArgument(timeoutSec >= 0, "Time slice must be non-negative");
+				stage = stage.substring(colon + 1);
+			}
+			final List<Map<String, String>> configurations = new ArrayList<>();
+			for (final String configuration : stage.split(";")) {
+				configurations.add(parseConfiguration(configuration.trim()));
+			}
+			timeoutsSec.add(timeoutSec);
+			stages.add(ImmutableList.copyOf(configurations));
+		}
+		return new PortfolioSpec(ImmutableList.copyOf(timeoutsSec), ImmutableList.copyOf(stages));
+	}
+
+	private static Map<String, String> parseConfiguration(final String configuration) {
+		final Map<String, String> options = new LinkedHashMap<>();
+		if (configuration.isEmpty()) {
+			return ImmutableMap.of();
+		}
+		for (final String option : configuration.split(",")) {
+			final int eq = option.indexOf('=');
+			checkArgument(eq > 0 && eq < option.length() - 1, "Invalid option (expected name=value): " + option);
+			final String name = option.substring(0, eq).trim().replaceFirst("^-+", "");
+			checkArgument(!options.containsKey(name), "Duplicate option: " + name);
+			options.put(name, option.substring(eq + 1).trim());
+		}
+		return ImmutableMap.copyOf(options);
+	}
+
+	public int getStageCount() {
+		return stages.size();
+	}
+
+	/**
+	 * Gets the time slice of a stage in seconds (0: no limit).
+	 */
+	public long getTimeoutSec(final int stage) {
+		return timeoutsSec.get(stage);
+	}
+
+	/**
+	 * Gets the configurations of a stage, each mapping options to values.
+	 */
+	public List<Map<String, String>> getConfigurations(final int stage) {
+		return stages.get(stage);
+	}
+
+	/**
+	 * Creates a builder of a portfolio checker with the stages of the
+	 * description, using a factory to create the configurations.
+	 */
+	public <S extends State, A extends Action> PortfolioChecker.Builder<S, A> toBuilder(
+			final Function<Map<String, String>, PortfolioChecker.Configuration<S, A>> factory) {
+		final PortfolioChecker.Builder<S, A> builder = PortfolioChecker.builder();
+		for (int i = 0; i < stages.size(); i++) {
+			builder.stage(timeoutsSec.get(i), TimeUnit.SECONDS);
+			for (final Map<String, String> configuration : stages.get(i)) {
+				builder.add(configuration.toString(), factory.apply(configuration));
+			}
+		}
+		return builder;
+	}
+
+	@Override
+	public String toString() {
+		return stages.toString();
+	}
+
+}
@@ -0,0 +1,761 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.utils.TypeUtils.cast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongBinaryOperator;
+
+import com.google.common.collect.MapMaker;
+
+import hu.bme.mit.theta.analysis.expl.StmtApplier.ApplyResult;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.stmt.AssignStmt;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.HavocStmt;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.SequenceStmt;
+import hu.bme.mit.theta.core.stmt.SkipStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.anytype.IteExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.IffExpr;
+import hu.bme.mit.theta.core.type.booltype.ImplyExpr;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.booltype.OrExpr;
+import hu.bme.mit.theta.core.type.booltype.XorExpr;
+import hu.bme.mit.theta.core.type.inttype.IntAddExpr;
+import hu.bme.mit.theta.core.type.inttype.IntDivExpr;
+import hu.bme.mit.theta.core.type.inttype.IntEqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntModExpr;
+import hu.bme.mit.theta.core.type.inttype.IntMulExpr;
+import hu.bme.mit.theta.core.type.inttype.IntNegExpr;
+import hu.bme.mit.theta.core.type.inttype.IntNeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntPosExpr;
+import hu.bme.mit.theta.core.type.inttype.IntSubExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+/**
+ * Applies statements to a valuation using code compiled from the statements
+ * instead of simplifying their expressions. Each statement is compiled once
+ * (and cached) into a tree of closures working on a frame of primitive slots,
+ * one slot for each variable of the statement. Slots are loaded lazily from
+ * the valuation and only the assigned ones are written back.
+ * <p>
+ * Only boolean and integer variables, assignments, assumptions, havocs,
+ * sequences and nondeterministic choices are compiled. Integers are
+ * represented by longs, an overflow makes the result undefined. Whenever a
+ * statement cannot be compiled or its result depends on an unknown value,
+ * FAILURE is returned and the valuation is left unchanged, so that the caller
+ * can fall back to {@link StmtApplier}. The compiled code only produces a
+ * result if the interpreter would produce the same one.
+ */
+public final class CompiledStmtApplier {
+
+	private static final int SUCCESS = 0;
+	private static final int BOTTOM = 1;
+	private static final int FAILURE = 2;
+
+	private final ConcurrentMap<Stmt, CompiledStmt> compiledStmts;
+
+	private CompiledStmtApplier() {
+		compiledStmts = new MapMaker().weakKeys().makeMap();
+	}
+
+	public static CompiledStmtApplier create() {
+		return new CompiledStmtApplier();
+	}
+
+	public ApplyResult apply(final Stmt stmt, final MutableValuation val) {
+		checkNotNull(val);
+		final CompiledStmt compiledStmt = getCompiled(stmt);
+		if (compiledStmt == null) {
+			return ApplyResult.FAILURE;
+		}
+
+		final Frame frame = new Frame(compiledStmt.decls, val);
+		final int result = compiledStmt.code.exec(frame);
+		if (result == SUCCESS) {
+			frame.writeBack();
+			return ApplyResult.SUCCESS;
+		} else if (result == BOTTOM) {
+			return ApplyResult.BOTTOM;
+		} else {
+			return ApplyResult.FAILURE;
+		}
+	}
+
+	/**
+	 * Returns true if the given statement can be compiled. Even if it can, its
+	 * application may fail for valuations where some variables are unknown.
+	 */
+	public boolean isCompilable(final Stmt stmt) {
+		return getCompiled(stmt) != null;
+	}
+
+	private CompiledStmt getCompiled(final Stmt stmt) {
+		checkNotNull(stmt);
+		CompiledStmt compiledStmt = compiledStmts.get(stmt);
+		if (compiledStmt == null) {
+			compiledStmt = new Compiler().compile(stmt);
+			compiledStmts.put(stmt, compiledStmt);
+		}
+		return compiledStmt.code == null ? null : compiledStmt;
+	}
+
+	////
+
+	private static final class CompiledStmt {
+		private final VarDecl<?>[] decls;
+		private final StmtCode code;
+
+		private CompiledStmt(final VarDecl<?>[] decls, final StmtCode code) {
+			this.decls = decls;
+			this.code = code;
+		}
+	}
+
+	/**
+	 * Slots of the variables of a single statement. Evaluating an expression
+	 * sets the undefined flag to true if and only if its value depends on an
+	 * unknown value (or does not fit into a long). Errors where the
+	 * interpreter would throw an exception (division by zero) set the error
+	 * flag, which is never cleared.
+	 */
+	private static final class Frame {
+		private static final byte UNLOADED = 0;
+		private static final byte KNOWN = 1;
+		private static final byte UNKNOWN = 2;
+
+		private final VarDecl<?>[] decls;
+		private final MutableValuation val;
+		private final long[] values;
+		private final byte[] status;
+		private final boolean[] assigned;
+		private boolean undefined;
+		private boolean error;
+
+		private Frame(final VarDecl<?>[] decls, final MutableValuation val) {
+			this.decls = decls;
+			this.val = val;
+			this.values = new long[decls.length];
+			this.status = new byte[decls.length];
+			this.assigned = new boolean[decls.length];
+		}
+
+		private Frame(final Frame that) {
+			this.decls = that.decls;
+			this.val = that.val;
+			this.values = that.values.clone();
+			this.status = that.status.clone();
+			this.assigned = that.assigned.clone();
+		}
+
+		private void copyFrom(final Frame that) {
+			System.arraycopy(that.values, 0, values, 0, values.length);
+			System.arraycopy(that.status, 0, status, 0, status.length);
+			System.arraycopy(that.assigned, 0, assigned, 0, assigned.length);
+		}
+
+		private long load(final int slot) {
+			if (status[slot] == UNLOADED) {
+				final Optional<? extends LitExpr<?>> lit = val.eval(decls[slot]);
+				status[slot] = UNKNOWN;
+				if (lit.isPresent()) {
+					if (lit.get() instanceof BoolLitExpr) {
+						values[slot] = ((BoolLitExpr) lit.get()).getValue() ? 1 : 0;
+						status[slot] = KNOWN;
+					} else if (lit.get() instanceof IntLitExpr && ((IntLitExpr) lit.get()).isLongBacked()) {
+						values[slot] = ((IntLitExpr) lit.get()).toLong();
+						status[slot] = KNOWN;
+					}
+				}
+			}
+			undefined = status[slot] != KNOWN;
+			return values[slot];
+		}
+
+		private void store(final int slot, final long value) {
+			values[slot] = value;
+			status[slot] = KNOWN;
+			assigned[slot] = true;
+		}
+
+		private void forget(final int slot) {
+			status[slot] = UNKNOWN;
+			assigned[slot] = true;
+		}
+
+		private void writeBack() {
+			for (int i = 0; i < decls.length; i++) {
+				if (assigned[i]) {
+					if (status[i] == KNOWN) {
+						val.put(decls[i], toLit(decls[i], values[i]));
+					} else {
+						val.remove(decls[i]);
+					}
+				}
+			}
+		}
+
+		private static LitExpr<?> toLit(final Decl<?> decl, final long value) {
+			if (decl.getType() instanceof BoolType) {
+				return Bool(value != 0);
+			} else {
+				return IntLitExpr.of(value);
+			}
+		}
+	}
+
+	private interface StmtCode {
+		int exec(Frame frame);
+	}
+
+	private interface BoolCode {
+		boolean eval(Frame frame);
+	}
+
+	private interface IntCode {
+		long eval(Frame frame);
+	}
+
+	private interface LongComparison {
+		boolean test(long a, long b);
+	}
+
+	/**
+	 * Operation on defined operands, which sets the undefined (or error) flag
+	 * of the frame if the result cannot be computed on longs.
+	 */
+	private interface LongOperation {
+		long apply(Frame frame, long a, long b);
+
+		static LongOperation exact(final LongBinaryOperator operator) {
+			return (f, a, b) -> {
+				try {
+					return operator.applyAsLong(a, b);
+				} catch (final ArithmeticException e) {
+					f.undefined = true;
+					return 0;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Compiles a single statement. Methods return null if (a part of) the
+	 * statement is not supported. The compiled code evaluates the same
+	 * subexpressions as the simplifier does (e.g., a conjunction stops at the
+	 * first false operand, but an implication evaluates both operands), so
+	 * that errors are detected in the same cases.
+	 */
+	private static final class Compiler {
+		private final Map<VarDecl<?>, Integer> slots = new HashMap<>();
+		private final List<VarDecl<?>> decls = new ArrayList<>();
+
+		private CompiledStmt compile(final Stmt stmt) {
+			final StmtCode code = compileStmt(stmt);
+			return new CompiledStmt(decls.toArray(new VarDecl<?>[0]), code);
+		}
+
+		private int slotOf(final VarDecl<?> decl) {
+			final Integer slot = slots.get(decl);
+			if (slot != null) {
+				return slot;
+			}
+			final int newSlot = decls.size();
+			slots.put(decl, newSlot);
+			decls.add(decl);
+			return newSlot;
+		}
+
+		private static boolean isSupportedType(final VarDecl<?> decl) {
+			return decl.getType() instanceof BoolType || decl.getType() instanceof IntType;
+		}
+
+		// Statements
+
+		private StmtCode compileStmt(final Stmt stmt) {
+			if (stmt instanceof AssignStmt) {
+				return compileAssign((AssignStmt<?>) stmt);
+			} else if (stmt instanceof AssumeStmt) {
+				return compileAssume((AssumeStmt) stmt);
+			} else if (stmt instanceof HavocStmt) {
+				return compileHavoc((HavocStmt<?>) stmt);
+			} else if (stmt instanceof SkipStmt) {
+				return f -> SUCCESS;
+			} else if (stmt instanceof SequenceStmt) {
+				return compileSequence((SequenceStmt) stmt);
+			} else if (stmt instanceof NonDetStmt) {
+				return compileNonDet((NonDetStmt) stmt);
+			} else {
+				return null;
+			}
+		}
+
+		private StmtCode compileAssign(final AssignStmt<?> stmt) {
+			final VarDecl<?> varDecl = stmt.getVarDecl();
+			if (!isSupportedType(varDecl)) {
+				return null;
+			}
+			final int slot = slotOf(varDecl);
+			if (varDecl.getType() instanceof BoolType) {
+				final BoolCode expr = compileBool(cast(stmt.getExpr(), Bool()));
+				if (expr == null) {
+					return null;
+				}
+				return f -> {
+					final boolean value = expr.eval(f);
+					if (f.undefined || f.error) {
+						return FAILURE;
+					}
+					f.store(slot, value ? 1 : 0);
+					return SUCCESS;
+				};
+			} else {
+				final IntCode expr = compileInt(cast(stmt.getExpr(), Int()));
+				if (expr == null) {
+					return null;
+				}
+				return f -> {
+					final long value = expr.eval(f);
+					if (f.undefined || f.error) {
+						return FAILURE;
+					}
+					f.store(slot, value);
+					return SUCCESS;
+				};
+			}
+		}
+
+		private StmtCode compileAssume(final AssumeStmt stmt) {
+			final BoolCode cond = compileBool(stmt.getCond());
+			if (cond == null) {
+				return null;
+			}
+			return f -> {
+				final boolean value = cond.eval(f);
+				if (f.undefined || f.error) {
+					return FAILURE;
+				}
+				return value ? SUCCESS : BOTTOM;
+			};
+		}
+
+		private StmtCode compileHavoc(final HavocStmt<?> stmt) {
+			if (!isSupportedType(stmt.getVarDecl())) {
+				return null;
+			}
+			final int slot = slotOf(stmt.getVarDecl());
+			return f -> {
+				f.forget(slot);
+				return SUCCESS;
+			};
+		}
+
+		private StmtCode compileSequence(final SequenceStmt stmt) {
+			final StmtCode[] subStmts = compileStmts(stmt.getStmts());
+			if (subStmts == null) {
+				return null;
+			}
+			return f -> {
+				for (final StmtCode subStmt : subStmts) {
+					final int result = subStmt.exec(f);
+					if (result != SUCCESS) {
+						return result;
+					}
+				}
+				return SUCCESS;
+			};
+		}
+
+		// A single successful branch is applied, multiple ones would require
+		// merging the results, which is left to the interpreter
+		private StmtCode compileNonDet(final NonDetStmt stmt) {
+			final StmtCode[] subStmts = compileStmts(stmt.getStmts());
+			if (subStmts == null) {
+				return null;
+			}
+			return f -> {
+				Frame success = null;
+				for (final StmtCode subStmt : subStmts) {
+					final Frame branch = new Frame(f);
+					final int result = subStmt.exec(branch);
+					if (result == FAILURE) {
+						return FAILURE;
+					} else if (result == SUCCESS) {
+						if (success != null) {
+							return FAILURE;
+						}
+						success = branch;
+					}
+				}
+				if (success == null) {
+					return BOTTOM;
+				}
+				f.copyFrom(success);
+				return SUCCESS;
+			};
+		}
+
+		private StmtCode[] compileStmts(final List<Stmt> stmts) {
+			final StmtCode[] codes = new StmtCode[stmts.size()];
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = compileStmt(stmts.get(i));
+				if (codes[i] == null) {
+					return null;
+				}
+			}
+			return codes;
+		}
+
+		// Boolean expressions
+
+		private BoolCode compileBool(final Expr<BoolType> expr) {
+			if (expr instanceof BoolLitExpr) {
+				final boolean value = ((BoolLitExpr) expr).getValue();
+				return f -> {
+					f.undefined = false;
+					return value;
+				};
+			} else if (expr instanceof RefExpr) {
+				final int slot = compileRef((RefExpr<?>) expr);
+				if (slot < 0) {
+					return null;
+				}
+				return f -> f.load(slot) != 0;
+			} else if (expr instanceof NotExpr) {
+				final BoolCode op = compileBool(((NotExpr) expr).getOp());
+				if (op == null) {
+					return null;
+				}
+				return f -> !op.eval(f);
+			} else if (expr instanceof AndExpr) {
+				return compileAndOr(((AndExpr) expr).getOps(), false);
+			} else if (expr instanceof OrExpr) {
+				return compileAndOr(((OrExpr) expr).getOps(), true);
+			} else if (expr instanceof ImplyExpr) {
+				return compileImply((ImplyExpr) expr);
+			} else if (expr instanceof IffExpr) {
+				final IffExpr iffExpr = (IffExpr) expr;
+				return compileBoolBinary(iffExpr.getLeftOp(), iffExpr.getRightOp(), true);
+			} else if (expr instanceof XorExpr) {
+				final XorExpr xorExpr = (XorExpr) expr;
+				return compileBoolBinary(xorExpr.getLeftOp(), xorExpr.getRightOp(), false);
+			} else if (expr instanceof IteExpr) {
+				return compileBoolIte((IteExpr<?>) expr);
+			} else if (expr instanceof IntEqExpr) {
+				final IntEqExpr eqExpr = (IntEqExpr) expr;
+				return compileIntCmp(eqExpr.getLeftOp(), eqExpr.getRightOp(), (a, b) -> a == b);
+			} else if (expr instanceof IntNeqExpr) {
+				final IntNeqExpr neqExpr = (IntNeqExpr) expr;
+				return compileIntCmp(neqExpr.getLeftOp(), neqExpr.getRightOp(), (a, b) -> a != b);
+			} else if (expr instanceof IntLtExpr) {
+				final IntLtExpr ltExpr = (IntLtExpr) expr;
+				return compileIntCmp(ltExpr.getLeftOp(), ltExpr.getRightOp(), (a, b) -> a < b);
+			} else if (expr instanceof IntLeqExpr) {
+				final IntLeqExpr leqExpr = (IntLeqExpr) expr;
+				return compileIntCmp(leqExpr.getLeftOp(), leqExpr.getRightOp(), (a, b) -> a <= b);
+			} else if (expr instanceof IntGtExpr) {
+				final IntGtExpr gtExpr = (IntGtExpr) expr;
+				return compileIntCmp(gtExpr.getLeftOp(), gtExpr.getRightOp(), (a, b) -> a > b);
+			} else if (expr instanceof IntGeqExpr) {
+				final IntGeqExpr geqExpr = (IntGeqExpr) expr;
+				return compileIntCmp(geqExpr.getLeftOp(), geqExpr.getRightOp(), (a, b) -> a >= b);
+			} else {
+				return null;
+			}
+		}
+
+		// An operand equal to the dominant value (false for conjunctions, true
+		// for disjunctions) decides the result even if other operands are
+		// unknown. Like in the simplifier, empty conjunctions and disjunctions
+		// are both true.
+		private BoolCode compileAndOr(final List<? extends Expr<BoolType>> exprs, final boolean dominant) {
+			final BoolCode[] ops = new BoolCode[exprs.size()];
+			for (int i = 0; i < ops.length; i++) {
+				ops[i] = compileBool(exprs.get(i));
+				if (ops[i] == null) {
+					return null;
+				}
+			}
+			final boolean otherwise = ops.length == 0 || !dominant;
+			return f -> {
+				boolean undefined = false;
+				for (final BoolCode op : ops) {
+					final boolean value = op.eval(f);
+					if (f.undefined) {
+						undefined = true;
+					} else if (value == dominant) {
+						return dominant;
+					}
+				}
+				f.undefined = undefined;
+				return otherwise;
+			};
+		}
+
+		private BoolCode compileImply(final ImplyExpr expr) {
+			final BoolCode left = compileBool(expr.getLeftOp());
+			final BoolCode right = compileBool(expr.getRightOp());
+			if (left == null || right == null) {
+				return null;
+			}
+			return f -> {
+				final boolean leftValue = left.eval(f);
+				final boolean leftUndefined = f.undefined;
+				final boolean rightValue = right.eval(f);
+				final boolean rightUndefined = f.undefined;
+				if ((!leftUndefined && !leftValue) || (!rightUndefined && rightValue)) {
+					f.undefined = false;
+					return true;
+				}
+				f.undefined = leftUndefined || rightUndefined;
+				return false;
+			};
+		}
+
+		private BoolCode compileBoolBinary(final Expr<BoolType> leftOp, final Expr<BoolType> rightOp,
+										   final boolean equal) {
+			final BoolCode left = compileBool(leftOp);
+			final BoolCode right = compileBool(rightOp);
+			if (left == null || right == null) {
+				return null;
+			}
+			return f -> {
+				final boolean leftValue = left.eval(f);
+				final boolean leftUndefined = f.undefined;
+				final boolean rightValue = right.eval(f);
+				f.undefined |= leftUndefined;
+				return (leftValue == rightValue) == equal;
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private BoolCode compileBoolIte(final IteExpr<?> expr) {
+			final BoolCode cond = compileBool(expr.getCond());
+			final BoolCode then = compileBool((Expr<BoolType>) expr.getThen());
+			final BoolCode elze = compileBool((Expr<BoolType>) expr.getElse());
+			if (cond == null || then == null || elze == null) {
+				return null;
+			}
+			return f -> {
+				final boolean condValue = cond.eval(f);
+				if (f.undefined) {
+					then.eval(f);
+					elze.eval(f);
+					f.undefined = true;
+					return false;
+				}
+				return condValue ? then.eval(f) : elze.eval(f);
+			};
+		}
+
+		private BoolCode compileIntCmp(final Expr<IntType> leftOp, final Expr<IntType> rightOp,
+									   final LongComparison comparison) {
+			final IntCode left = compileInt(leftOp);
+			final IntCode right = compileInt(rightOp);
+			if (left == null || right == null) {
+				return null;
+			}
+			return f -> {
+				final long leftValue = left.eval(f);
+				final boolean leftUndefined = f.undefined;
+				final long rightValue = right.eval(f);
+				f.undefined |= leftUndefined;
+				return comparison.test(leftValue, rightValue);
+			};
+		}
+
+		// Integer expressions
+
+		private IntCode compileInt(final Expr<IntType> expr) {
+			if (expr instanceof IntLitExpr) {
+				final IntLitExpr lit = (IntLitExpr) expr;
+				if (!lit.isLongBacked()) {
+					return null;
+				}
+				final long value = lit.toLong();
+				return f -> {
+					f.undefined = false;
+					return value;
+				};
+			} else if (expr instanceof RefExpr) {
+				final int slot = compileRef((RefExpr<?>) expr);
+				if (slot < 0) {
+					return null;
+				}
+				return f -> f.load(slot);
+			} else if (expr instanceof IntAddExpr) {
+				return compileIntMultiary(((IntAddExpr) expr).getOps(), 0, LongOperation.exact(Math::addExact));
+			} else if (expr instanceof IntMulExpr) {
+				return compileIntMultiary(((IntMulExpr) expr).getOps(), 1, LongOperation.exact(Math::multiplyExact));
+			} else if (expr instanceof IntSubExpr) {
+				final IntSubExpr subExpr = (IntSubExpr) expr;
+				return compileIntBinary(subExpr.getLeftOp(), subExpr.getRightOp(),
+						LongOperation.exact(Math::subtractExact));
+			} else if (expr instanceof IntDivExpr) {
+				final IntDivExpr divExpr = (IntDivExpr) expr;
+				return compileIntBinary(divExpr.getLeftOp(), divExpr.getRightOp(), Compiler::div);
+			} else if (expr instanceof IntModExpr) {
+				final IntModExpr modExpr = (IntModExpr) expr;
+				return compileIntBinary(modExpr.getLeftOp(), modExpr.getRightOp(), Compiler::mod);
+			} else if (expr instanceof IntNegExpr) {
+				final IntCode op = compileInt(((IntNegExpr) expr).getOp());
+				if (op == null) {
+					return null;
+				}
+				return f -> {
+					final long value = op.eval(f);
+					if (value == Long.MIN_VALUE) {
+						f.undefined = true;
+					}
+					return -value;
+				};
+			} else if (expr instanceof IntPosExpr) {
+				return compileInt(((IntPosExpr) expr).getOp());
+			} else if (expr instanceof IteExpr) {
+				return compileIntIte((IteExpr<?>) expr);
+			} else {
+				return null;
+			}
+		}
+
+		private IntCode compileIntMultiary(final List<? extends Expr<IntType>> exprs, final long neutral,
+										   final LongOperation operation) {
+			final IntCode[] ops = new IntCode[exprs.size()];
+			for (int i = 0; i < ops.length; i++) {
+				ops[i] = compileInt(exprs.get(i));
+				if (ops[i] == null) {
+					return null;
+				}
+			}
+			return f -> {
+				long result = neutral;
+				boolean undefined = false;
+				for (final IntCode op : ops) {
+					final long value = op.eval(f);
+					if (f.undefined) {
+						undefined = true;
+					} else if (!undefined) {
+						result = operation.apply(f, result, value);
+						undefined = f.undefined;
+					}
+				}
+				f.undefined = undefined;
+				return result;
+			};
+		}
+
+		private IntCode compileIntBinary(final Expr<IntType> leftOp, final Expr<IntType> rightOp,
+										 final LongOperation operation) {
+			final IntCode left = compileInt(leftOp);
+			final IntCode right = compileInt(rightOp);
+			if (left == null || right == null) {
+				return null;
+			}
+			return f -> {
+				final long leftValue = left.eval(f);
+				final boolean leftUndefined = f.undefined;
+				final long rightValue = right.eval(f);
+				if (leftUndefined || f.undefined) {
+					f.undefined = true;
+					return 0;
+				}
+				return operation.apply(f, leftValue, rightValue);
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private IntCode compileIntIte(final IteExpr<?> expr) {
+			final BoolCode cond = compileBool(expr.getCond());
+			final IntCode then = compileInt((Expr<IntType>) expr.getThen());
+			final IntCode elze = compileInt((Expr<IntType>) expr.getElse());
+			if (cond == null || then == null || elze == null) {
+				return null;
+			}
+			return f -> {
+				final boolean condValue = cond.eval(f);
+				if (f.undefined) {
+					then.eval(f);
+					elze.eval(f);
+					f.undefined = true;
+					return 0;
+				}
+				return condValue ? then.eval(f) : elze.eval(f);
+			};
+		}
+
+		private int compileRef(final RefExpr<?> expr) {
+			if (!(expr.getDecl() instanceof VarDecl)) {
+				return -1;
+			}
+			final VarDecl<?> varDecl = (VarDecl<?>) expr.getDecl();
+			if (!isSupportedType(varDecl)) {
+				return -1;
+			}
+			return slotOf(varDecl);
+		}
+
+		// Truncating division, as IntLitExpr.div
+		private static long div(final Frame f, final long a, final long b) {
+			if (b == 0) {
+				f.undefined = true;
+				f.error = true;
+				return 0;
+			} else if (a == Long.MIN_VALUE && b == -1) {
+				f.undefined = true;
+				return 0;
+			}
+			return a / b;
+		}
+
+		// Non-negative result, as IntLitExpr.mod
+		private static long mod(final Frame f, final long a, final long b) {
+			if (b == 0) {
+				f.undefined = true;
+				f.error = true;
+				return 0;
+			} else if (b == Long.MIN_VALUE) {
+				f.undefined = true;
+				return 0;
+			}
+			return Math.floorMod(a, Math.abs(b));
+		}
+	}
+
+}
@@ -19,7 +19,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Optional;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
@@ -27,9 +26,7 @@ import com.google.common.collect.ImmutableSet;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.VarDecl;
-import hu.bme.mit.theta.core.model.ImmutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
-import hu.bme.mit.theta.core.type.LitExpr;
 
 /**
  * Represents an immutable, simple explicit precision that is a set of
@@ -38,10 +35,12 @@ import hu.bme.mit.theta.core.type.LitExpr;
 public final class ExplPrec implements Prec {
 
 	private final Set<VarDecl<?>> vars;
+	private final ExplState.Layout layout;
 	private static ExplPrec EMPTY = new ExplPrec(Collections.emptySet());
 
 	private ExplPrec(final Iterable<? extends VarDecl<?>> vars) {
 		this.vars = ImmutableSet.copyOf(vars);
+		this.layout = ExplState.Layout.of(this.vars);
 	}
 
 	public static ExplPrec empty() {
@@ -75,16 +74,14 @@ public final class ExplPrec implements Prec {
 		}
 	}
 
+	/**
+	 * Creates a state from the values of the variables of the precision. The
+	 * state uses a compact representation with the order of the variables
+	 * fixed by the precision.
+	 */
 	public ExplState createState(final Valuation valuation) {
 		checkNotNull(valuation);
-		final ImmutableValuation.Builder builder = ImmutableValuation.builder();
-		for (final VarDecl<?> varDecl : vars) {
-			final Optional<? extends LitExpr<?>> eval = valuation.eval(varDecl);
-			if (eval.isPresent()) {
-				builder.put(varDecl, eval.get());
-			}
-		}
-		return ExplState.of(builder.build());
+		return ExplState.of(layout, valuation);
 	}
 
 	@Override
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
+import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.type.LitExpr;
+
+/**
+ * Reached index for elements containing explicit states. Elements are first
+ * partitioned by a projection (e.g., the location), then each partition is
+ * indexed by the set of variables (signature) and by the valuation of the
+ * explicit state. An element e1 can only be covered by an element e2 if the
+ * valuation of e2 is a subset of the valuation of e1, so the candidates are
+ * found by projecting the valuation of e1 to each signature of the partition
+ * and looking up the projected valuation, without scanning the partition.
+ *
+ * The explicit state under which an element is stored and the one used for
+ * the lookup can be different (e.g., abstract and concrete states). If the
+ * stored state of an element is later replaced by a smaller one (i.e., one
+ * with more variables), the index remains sound as it returns a superset of
+ * the candidates.
+ */
+public final class ExplReachedIndex<T> implements ReachedIndex<T> {
+
+	private final Function<? super T, ?> projection;
+	private final Function<? super T, ? extends ExplState> storedState;
+	private final Function<? super T, ? extends ExplState> queryState;
+	private final Map<Object, Partition<T>> partitions;
+	private int nextSeq;
+
+	private ExplReachedIndex(final Function<? super T, ?> projection,
+							 final Function<? super T, ? extends ExplState> storedState,
+							 final Function<? super T, ? extends ExplState> queryState) {
+		this.projection = checkNotNull(projection);
+		this.storedState = checkNotNull(storedState);
+		this.queryState = checkNotNull(queryState);
+		this.partitions = Containers.createMap();
+		this.nextSeq = 0;
+	}
+
+	public static <T> ExplReachedIndex<T> create(final Function<? super T, ?> projection,
+												 final Function<? super T, ? extends ExplState> state) {
+		return new ExplReachedIndex<>(projection, state, state);
+	}
+
+	public static <T> ExplReachedIndex<T> create(final Function<? super T, ?> projection,
+												 final Function<? super T, ? extends ExplState> storedState,
+												 final Function<? super T, ? extends ExplState> queryState) {
+		return new ExplReachedIndex<>(projection, storedState, queryState);
+	}
+
+	@Override
+	public void add(final T elem) {
+		checkNotNull(elem);
+		final Partition<T> partition = partitions.computeIfAbsent(projection.apply(elem), k -> new Partition<>());
+		final Entry<T> entry = new Entry<>(elem, nextSeq);
+		nextSeq++;
+		partition.all.add(entry);
+
+		final ExplState state = storedState.apply(elem);
+		if (state.isBottom()) {
+			// A bottom state can only cover bottom states, for which all
+			// elements are returned anyway
+			return;
+		}
+		// Copy, as the state may be backed by a mutable valuation
+		final Map<Decl<?>, LitExpr<?>> val = ImmutableMap.copyOf(state.toMap());
+		final Set<Decl<?>> signature = ImmutableSet.copyOf(val.keySet());
+		partition.signatures.computeIfAbsent(signature, s -> new HashMap<>())
+				.computeIfAbsent(val, v -> new ArrayList<>()).add(entry);
+	}
+
+	@Override
+	public List<T> get(final T elem) {
+		checkNotNull(elem);
+		final Partition<T> partition = partitions.get(projection.apply(elem));
+		if (partition == null) {
+			return Collections.emptyList();
+		}
+
+		final ExplState state = queryState.apply(elem);
+		if (state.isBottom()) {
+			return toElems(partition.all);
+		}
+
+		final Map<Decl<?>, LitExpr<?>> val = state.toMap();
+		final List<Entry<T>> candidates = new ArrayList<>();
+		int matchingSignatures = 0;
+		for (final Map.Entry<Set<Decl<?>>, Map<Map<Decl<?>, LitExpr<?>>, List<Entry<T>>>> bySignature
+				: partition.signatures.entrySet()) {
+			final Set<Decl<?>> signature = bySignature.getKey();
+			if (signature.size() > val.size() || !val.keySet().containsAll(signature)) {
+				continue;
+			}
+			final Map<Decl<?>, LitExpr<?>> projectedVal = new HashMap<>();
+			for (final Decl<?> decl : signature) {
+				projectedVal.put(decl, val.get(decl));
+			}
+			final List<Entry<T>> matching = bySignature.getValue().get(projectedVal);
+			if (matching != null) {
+				candidates.addAll(matching);
+				matchingSignatures++;
+			}
+		}
+		if (matchingSignatures > 1) {
+			candidates.sort(Comparator.comparingInt(e -> e.seq));
+		}
+		return toElems(candidates);
+	}
+
+	private static <T> List<T> toElems(final List<Entry<T>> entries) {
+		final List<T> elems = new ArrayList<>(entries.size());
+		for (final Entry<T> entry : entries) {
+			elems.add(entry.elem);
+		}
+		return elems;
+	}
+
+	private static final class Partition<T> {
+		private final List<Entry<T>> all;
+		private final Map<Set<Decl<?>>, Map<Map<Decl<?>, LitExpr<?>>, List<Entry<T>>>> signatures;
+
+		private Partition() {
+			all = new ArrayList<>();
+			signatures = Containers.createMap();
+		}
+	}
+
+	private static final class Entry<T> {
+		private final T elem;
+		private final int seq;
+
+		private Entry(final T elem, final int seq) {
+			this.elem = elem;
+			this.seq = seq;
+		}
+	}
+
+}
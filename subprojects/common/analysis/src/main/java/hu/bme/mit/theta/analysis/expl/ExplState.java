@@ -17,14 +17,18 @@ package hu.bme.mit.theta.analysis.expl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 
+import com.google.common.collect.ImmutableMap;
+
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.ImmutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -45,6 +49,33 @@ public abstract class ExplState extends Valuation implements ExprState {
 		return new NonBottom(val);
 	}
 
+	/**
+	 * Creates a compact state that contains the values of the variables of
+	 * the layout in the given valuation.
+	 */
+	static ExplState of(final Layout layout, final Valuation val) {
+		if (val instanceof Compact && ((Compact) val).layout == layout) {
+			return (Compact) val;
+		}
+
+		final long[] mask = new long[Layout.words(layout.size())];
+		final LitExpr<?>[] values = new LitExpr<?>[layout.size()];
+		int count = 0;
+		for (int slot = 0; slot < layout.size(); slot++) {
+			final Optional<? extends LitExpr<?>> eval = val.eval(layout.get(slot));
+			if (eval.isPresent()) {
+				mask[slot >>> 6] |= 1L << slot;
+				values[count] = eval.get();
+				count++;
+			}
+		}
+
+		if (count == 0) {
+			return top();
+		}
+		return new Compact(layout, mask, count == values.length ? values : Arrays.copyOf(values, count));
+	}
+
 	public static ExplState bottom() {
 		return BottomLazyHolder.INSTANCE;
 	}
@@ -132,6 +163,233 @@ public abstract class ExplState extends Valuation implements ExprState {
 		}
 	}
 
+	/**
+	 * State over the variables of a layout (fixed by the precision). The
+	 * values of the present variables are stored in slot order, and a bitmask
+	 * marks the slots that are present. States with the same layout are
+	 * compared and hashed over the arrays.
+	 */
+	private static final class Compact extends ExplState {
+		private final Layout layout;
+		private final long[] mask;
+		private final LitExpr<?>[] values;
+
+		private volatile int hashCode = 0;
+		private volatile Expr<BoolType> expr = null;
+
+		private Compact(final Layout layout, final long[] mask, final LitExpr<?>[] values) {
+			this.layout = layout;
+			this.mask = mask;
+			this.values = values;
+		}
+
+		private boolean isPresent(final int slot) {
+			return (mask[slot >>> 6] & (1L << slot)) != 0;
+		}
+
+		// Index of the value of a present slot
+		private int rank(final int slot) {
+			int rank = 0;
+			for (int i = 0; i < slot >>> 6; i++) {
+				rank += Long.bitCount(mask[i]);
+			}
+			return rank + Long.bitCount(mask[slot >>> 6] & ((1L << slot) - 1));
+		}
+
+		private boolean hasSameLayout(final Compact that) {
+			return this.layout == that.layout || this.layout.equals(that.layout);
+		}
+
+		@Override
+		public Collection<? extends Decl<?>> getDecls() {
+			final VarDecl<?>[] decls = new VarDecl<?>[values.length];
+			int i = 0;
+			for (int word = 0; word < mask.length; word++) {
+				long bits = mask[word];
+				while (bits != 0) {
+					decls[i] = layout.get((word << 6) + Long.numberOfTrailingZeros(bits));
+					i++;
+					bits &= bits - 1;
+				}
+			}
+			return Collections.unmodifiableList(Arrays.asList(decls));
+		}
+
+		@Override
+		public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+			checkNotNull(decl);
+			final int slot = layout.slotOf(decl);
+			if (slot < 0 || !isPresent(slot)) {
+				return Optional.empty();
+			}
+			@SuppressWarnings("unchecked") final LitExpr<DeclType> value = (LitExpr<DeclType>) values[rank(slot)];
+			return Optional.of(value);
+		}
+
+		@Override
+		public Expr<BoolType> toExpr() {
+			Expr<BoolType> result = expr;
+			if (result == null) {
+				result = super.toExpr();
+				expr = result;
+			}
+			return result;
+		}
+
+		@Override
+		public Map<Decl<?>, LitExpr<?>> toMap() {
+			final ImmutableMap.Builder<Decl<?>, LitExpr<?>> builder = ImmutableMap.builder();
+			int i = 0;
+			for (final Decl<?> decl : getDecls()) {
+				builder.put(decl, values[i]);
+				i++;
+			}
+			return builder.build();
+		}
+
+		////
+
+		@Override
+		public Valuation getVal() {
+			return ImmutableValuation.copyOf(this);
+		}
+
+		@Override
+		public boolean isLeq(final ExplState that) {
+			if (that.isBottom()) {
+				return false;
+			} else if (that instanceof Compact && hasSameLayout((Compact) that)) {
+				final Compact compactThat = (Compact) that;
+				for (int word = 0; word < mask.length; word++) {
+					if ((compactThat.mask[word] & ~this.mask[word]) != 0) {
+						return false;
+					}
+				}
+				int i = 0;
+				int j = 0;
+				for (int word = 0; word < mask.length; word++) {
+					long bits = this.mask[word];
+					final long thatBits = compactThat.mask[word];
+					while (bits != 0) {
+						final long lowest = bits & -bits;
+						if ((thatBits & lowest) != 0) {
+							if (!this.values[i].equals(compactThat.values[j])) {
+								return false;
+							}
+							j++;
+						}
+						i++;
+						bits ^= lowest;
+					}
+				}
+				return true;
+			} else {
+				return this.isLeq((Valuation) that);
+			}
+		}
+
+		@Override
+		public boolean isBottom() {
+			return false;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof Compact && hasSameLayout((Compact) obj)) {
+				final Compact that = (Compact) obj;
+				return Arrays.equals(this.mask, that.mask) && Arrays.equals(this.values, that.values);
+			} else {
+				return super.equals(obj);
+			}
+		}
+
+		// Consistent with the hash code of the map representation
+		@Override
+		public int hashCode() {
+			int result = hashCode;
+			if (result == 0) {
+				int mapHashCode = 0;
+				int i = 0;
+				for (int word = 0; word < mask.length; word++) {
+					long bits = mask[word];
+					while (bits != 0) {
+						final int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+						mapHashCode += layout.get(slot).hashCode() ^ values[i].hashCode();
+						i++;
+						bits &= bits - 1;
+					}
+				}
+				result = hashCodeOf(mapHashCode) + 1;
+				hashCode = result;
+			}
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return Utils.lispStringBuilder(ExplState.class.getSimpleName()).aligned()
+					.addAll(getDecls().stream().map(d -> String.format("(%s %s)", d.getName(), eval(d).get())))
+					.toString();
+		}
+	}
+
+	/**
+	 * Order of the variables of a precision, which assigns a slot to each
+	 * variable in compact states.
+	 */
+	static final class Layout {
+		private final VarDecl<?>[] vars;
+		private final Map<Decl<?>, Integer> slots;
+
+		private Layout(final Collection<? extends VarDecl<?>> vars) {
+			this.vars = vars.toArray(new VarDecl<?>[0]);
+			final ImmutableMap.Builder<Decl<?>, Integer> builder = ImmutableMap.builder();
+			for (int i = 0; i < this.vars.length; i++) {
+				builder.put(this.vars[i], i);
+			}
+			this.slots = builder.build();
+		}
+
+		static Layout of(final Collection<? extends VarDecl<?>> vars) {
+			return new Layout(vars);
+		}
+
+		private static int words(final int size) {
+			return Math.max(1, (size + 63) >>> 6);
+		}
+
+		int size() {
+			return vars.length;
+		}
+
+		VarDecl<?> get(final int slot) {
+			return vars[slot];
+		}
+
+		int slotOf(final Decl<?> decl) {
+			final Integer slot = slots.get(decl);
+			return slot == null ? -1 : slot;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof Layout) {
+				return Arrays.equals(this.vars, ((Layout) obj).vars);
+			} else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(vars);
+		}
+	}
+
 	private static final class Bottom extends ExplState {
 		@Override
 		public Collection<? extends Decl<?>> getDecls() {
@@ -41,15 +41,29 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 	private final Solver solver;
 	// 0 means arbitrarily many
 	private final int maxSuccToEnumerate;
+	// Null if statements are only interpreted
+	private final CompiledStmtApplier compiledStmtApplier;
 
-	private ExplStmtTransFunc(final Solver solver, final int maxSuccToEnumerate) {
+	private ExplStmtTransFunc(final Solver solver, final int maxSuccToEnumerate,
+							  final CompiledStmtApplier compiledStmtApplier) {
 		this.solver = checkNotNull(solver);
 		this.maxSuccToEnumerate = maxSuccToEnumerate;
+		this.compiledStmtApplier = compiledStmtApplier;
 	}
 
 	public static ExplStmtTransFunc create(final Solver solver, final int maxSuccToEnumerate) {
+		return create(solver, maxSuccToEnumerate, true);
+	}
+
+	/**
+	 * Creates a transfer function. If compileStmts is true, statements are
+	 * first applied with compiled code (see {@link CompiledStmtApplier}) and
+	 * only interpreted if that fails.
+	 */
+	public static ExplStmtTransFunc create(final Solver solver, final int maxSuccToEnumerate,
+										   final boolean compileStmts) {
 		checkArgument(maxSuccToEnumerate >= 0, "Max. succ. to enumerate must be non-negative.");
-		return new ExplStmtTransFunc(solver, maxSuccToEnumerate);
+		return new ExplStmtTransFunc(solver, maxSuccToEnumerate, compileStmts ? CompiledStmtApplier.create() : null);
 	}
 
 	@Override
@@ -63,7 +77,7 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 
 		for (int i = 0; i < stmts.size(); i++) {
 			final Stmt stmt = stmts.get(i);
-			final ApplyResult applyResult = StmtApplier.apply(stmt, val, triedSolver);
+			final ApplyResult applyResult = apply(stmt, val, triedSolver);
 
 			assert !triedSolver || applyResult != ApplyResult.BOTTOM;
 
@@ -96,4 +110,14 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 		return singleton(abstracted);
 	}
 
+	private ApplyResult apply(final Stmt stmt, final MutableValuation val, final boolean approximate) {
+		if (compiledStmtApplier != null) {
+			final ApplyResult result = compiledStmtApplier.apply(stmt, val);
+			if (result != ApplyResult.FAILURE) {
+				return result;
+			}
+		}
+		return StmtApplier.apply(stmt, val, approximate);
+	}
+
 }
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+import hu.bme.mit.theta.core.utils.UnfoldCache;
+
+/**
+ * Statistics of an UnfoldCache. The counters of the cache are read when
+ * queried and are relative to the creation of the statistics object. The cache
+ * used by PathUtils is global, so its counters also include the unfoldings of
+ * all other runs in the meantime. Therefore these statistics are not part of
+ * the statistics of an algorithm, they are reported where a single run uses
+ * the cache at a time: by the command line tools and by the benchmark runner,
+ * which runs the checks one after the other.
+ */
+public final class UnfoldCacheStatistics extends Statistics {
+
+	private final UnfoldCache cache;
+	private final long initialHits;
+	private final long initialMisses;
+	private final long initialSkips;
+
+	private UnfoldCacheStatistics(final UnfoldCache cache) {
+		this.cache = checkNotNull(cache);
+		initialHits = cache.getHits();
+		initialMisses = cache.getMisses();
+		initialSkips = cache.getSkips();
+
+		addStat("UnfoldCacheHits", this::getHits);
+		addStat("UnfoldCacheMisses", this::getMisses);
+		addStat("UnfoldCacheSkips", this::getSkips);
+		addStat("UnfoldCacheHitRate", this::getHitRate);
+	}
+
+	public static UnfoldCacheStatistics create(final UnfoldCache cache) {
+		return new UnfoldCacheStatistics(cache);
+	}
+
+	/**
+	 * Creates statistics of the cache used by PathUtils.
+	 */
+	public static UnfoldCacheStatistics create() {
+		return create(UnfoldCache.getInstance());
+	}
+
+	public long getHits() {
+		return cache.getHits() - initialHits;
+	}
+
+	public long getMisses() {
+		return cache.getMisses() - initialMisses;
+	}
+
+	public long getSkips() {
+		return cache.getSkips() - initialSkips;
+	}
+
+	/**
+	 * Gets the ratio of unfoldings that were answered without unfolding (hits
+	 * and skips), or 0 if there were no unfoldings.
+	 */
+	public double getHitRate() {
+		final long saved = getHits() + getSkips();
+		final long total = saved + getMisses();
+		return total == 0 ? 0 : (double) saved / total;
+	}
+
+}
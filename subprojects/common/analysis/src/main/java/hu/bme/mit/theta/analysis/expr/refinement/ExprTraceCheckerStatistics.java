@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+
+/**
+ * Statistics of an ExprTraceIncSeqItpChecker. The values are read from the
+ * checker when queried, so they reflect the current state.
+ */
+public final class ExprTraceCheckerStatistics extends Statistics {
+
+	private final ExprTraceIncSeqItpChecker checker;
+
+	ExprTraceCheckerStatistics(final ExprTraceIncSeqItpChecker checker) {
+		this.checker = checker;
+
+		addStat("TraceCheckUnfoldings", this::getUnfoldings);
+		addStat("TraceCheckSavedUnfoldings", this::getSavedUnfoldings);
+		addStat("TraceCheckSolverTimeMs", this::getSolverTimeMs);
+	}
+
+	/**
+	 * Gets the number of expressions unfolded for the checked traces.
+	 */
+	public long getUnfoldings() {
+		return checker.getUnfoldings();
+	}
+
+	/**
+	 * Gets the number of unfoldings saved by reusing common prefixes.
+	 */
+	public long getSavedUnfoldings() {
+		return checker.getSavedUnfoldings();
+	}
+
+	/**
+	 * Gets the time spent in the solver (checking and interpolation).
+	 */
+	public long getSolverTimeMs() {
+		return checker.getSolverTimeMs();
+	}
+
+}
@@ -0,0 +1,259 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Interpolant;
+import hu.bme.mit.theta.solver.ItpMarker;
+import hu.bme.mit.theta.solver.ItpPattern;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+/**
+ * An ExprTraceChecker that generates a sequence interpolant (like
+ * {@link ExprTraceSeqItpChecker}), but reuses the work done for the common
+ * prefixes of the traces. The unfolded expressions of the checked traces are
+ * stored in a trie, and the solver keeps one frame for each step of the
+ * previously checked trace. When checking a new trace, only the frames after
+ * the longest common prefix are popped and only the new suffix is asserted.
+ * Therefore the solver must be used exclusively by this checker.
+ */
+public final class ExprTraceIncSeqItpChecker implements ExprTraceChecker<ItpRefutation> {
+
+	public static final int DEFAULT_MAX_NODES = 100_000;
+
+	private final ItpSolver solver;
+	private final Expr<BoolType> init;
+	private final Expr<BoolType> target;
+	private final int maxNodes;
+
+	private TrieNode root;
+	private int nodeCount;
+	private final List<Frame> frames;
+
+	private long unfoldings;
+	private long savedUnfoldings;
+	private long solverTimeMs;
+	private final ExprTraceCheckerStatistics statistics;
+
+	private ExprTraceIncSeqItpChecker(final Expr<BoolType> init, final Expr<BoolType> target,
+									  final ItpSolver solver, final int maxNodes) {
+		checkArgument(maxNodes > 0, "Maximal number of nodes must be positive");
+		this.solver = checkNotNull(solver);
+		this.init = checkNotNull(init);
+		this.target = checkNotNull(target);
+		this.maxNodes = maxNodes;
+		this.root = new TrieNode(VarIndexing.all(0), Collections.emptyList());
+		this.nodeCount = 0;
+		this.frames = new ArrayList<>();
+		this.statistics = new ExprTraceCheckerStatistics(this);
+	}
+
+	public static ExprTraceIncSeqItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
+												   final ItpSolver solver) {
+		return create(init, target, solver, DEFAULT_MAX_NODES);
+	}
+
+	/**
+	 * Creates a checker that forgets the stored prefixes when the trie grows
+	 * larger than the given number of nodes.
+	 */
+	public static ExprTraceIncSeqItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
+												   final ItpSolver solver, final int maxNodes) {
+		return new ExprTraceIncSeqItpChecker(init, target, solver, maxNodes);
+	}
+
+	@Override
+	public ExprTraceStatus<ItpRefutation> check(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		checkNotNull(trace);
+		final int stateCount = trace.getStates().size();
+
+		if (nodeCount + stateCount > maxNodes) {
+			clear();
+		}
+
+		final List<TrieNode> nodes = lookup(trace);
+		assert nodes.size() == stateCount;
+
+		int commonPrefix = 0;
+		while (commonPrefix < frames.size() && commonPrefix < stateCount
+				&& frames.get(commonPrefix).node == nodes.get(commonPrefix)) {
+			commonPrefix++;
+		}
+		if (frames.size() > commonPrefix) {
+			solver.pop(frames.size() - commonPrefix);
+			frames.subList(commonPrefix, frames.size()).clear();
+		}
+		for (int i = commonPrefix; i < stateCount; ++i) {
+			solver.push();
+			final ItpMarker marker = solver.createMarker();
+			final TrieNode node = nodes.get(i);
+			for (final Expr<BoolType> expr : node.unfoldedExprs) {
+				solver.add(marker, expr);
+			}
+			frames.add(new Frame(node, marker));
+		}
+
+		final VarIndexing lastIndexing = nodes.get(stateCount - 1).indexing;
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			final ItpMarker targetMarker = solver.createMarker();
+			final List<ItpMarker> markers = new ArrayList<>(stateCount + 1);
+			for (final Frame frame : frames) {
+				markers.add(frame.marker);
+			}
+			markers.add(targetMarker);
+			final ItpPattern pattern = solver.createSeqPattern(markers);
+
+			solver.add(targetMarker, PathUtils.unfold(target, lastIndexing));
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final boolean concretizable = solver.check().isSat();
+
+			try {
+				if (concretizable) {
+					final Valuation model = solver.getModel();
+					final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+					for (final TrieNode node : nodes) {
+						builder.add(PathUtils.extractValuation(model, node.indexing));
+					}
+					return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+				} else {
+					final List<Expr<BoolType>> interpolants = new ArrayList<>();
+					final Interpolant interpolant = solver.getInterpolant(pattern);
+					for (int i = 0; i < stateCount; ++i) {
+						interpolants.add(PathUtils.foldin(interpolant.eval(markers.get(i)), nodes.get(i).indexing));
+					}
+					return ExprTraceStatus.infeasible(ItpRefutation.sequence(interpolants));
+				}
+			} finally {
+				solverTimeMs += stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Gets the nodes of the trie for the states of the trace, creating the
+	 * missing nodes (and unfolding their expressions).
+	 */
+	private List<TrieNode> lookup(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		final int stateCount = trace.getStates().size();
+		final List<TrieNode> nodes = new ArrayList<>(stateCount);
+		TrieNode parent = root;
+		for (int i = 0; i < stateCount; ++i) {
+			final ExprState state = trace.getState(i);
+			final Object key = i == 0 ? state : Tuple2.of(trace.getAction(i - 1), state);
+			TrieNode node = parent.children.get(key);
+			if (node == null) {
+				final VarIndexing indexing;
+				final List<Expr<BoolType>> unfoldedExprs;
+				if (i == 0) {
+					indexing = parent.indexing;
+					unfoldedExprs = ImmutableList.of(PathUtils.unfold(init, indexing),
+							PathUtils.unfold(state.toExpr(), indexing));
+				} else {
+					final ExprAction action = trace.getAction(i - 1);
+					indexing = parent.indexing.add(action.nextIndexing());
+					unfoldedExprs = ImmutableList.of(PathUtils.unfold(state.toExpr(), indexing),
+							PathUtils.unfold(action.toExpr(), parent.indexing));
+				}
+				node = new TrieNode(indexing, unfoldedExprs);
+				parent.children.put(key, node);
+				nodeCount++;
+				unfoldings += unfoldedExprs.size();
+			} else {
+				savedUnfoldings += node.unfoldedExprs.size();
+			}
+			nodes.add(node);
+			parent = node;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Pops all frames of the solver and forgets the stored prefixes.
+	 */
+	public void clear() {
+		if (!frames.isEmpty()) {
+			solver.pop(frames.size());
+			frames.clear();
+		}
+		root = new TrieNode(VarIndexing.all(0), Collections.emptyList());
+		nodeCount = 0;
+	}
+
+	public ExprTraceCheckerStatistics getStatistics() {
+		return statistics;
+	}
+
+	long getUnfoldings() {
+		return unfoldings;
+	}
+
+	long getSavedUnfoldings() {
+		return savedUnfoldings;
+	}
+
+	long getSolverTimeMs() {
+		return solverTimeMs;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+	private static final class TrieNode {
+		private final VarIndexing indexing;
+		private final List<Expr<BoolType>> unfoldedExprs;
+		private final Map<Object, TrieNode> children;
+
+		private TrieNode(final VarIndexing indexing, final List<Expr<BoolType>> unfoldedExprs) {
+			this.indexing = indexing;
+			this.unfoldedExprs = unfoldedExprs;
+			this.children = Containers.createMap();
+		}
+	}
+
+	private static final class Frame {
+		private final TrieNode node;
+		private final ItpMarker marker;
+
+		private Frame(final TrieNode node, final ItpMarker marker) {
+			this.node = node;
+			this.marker = marker;
+		}
+	}
+}
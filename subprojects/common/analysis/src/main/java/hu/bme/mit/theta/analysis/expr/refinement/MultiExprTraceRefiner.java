@@ -15,10 +15,27 @@
  */
 package hu.bme.mit.theta.analysis.expr.refinement;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import hu.bme.mit.theta.analysis.Prec;
@@ -33,18 +50,31 @@ import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
 
+/**
+ * Refiner that checks all counterexamples of the ARG and refines the precision
+ * with the refutations of all of them (if all are infeasible). The traces can
+ * be checked by several checkers in parallel (see
+ * {@link #createParallel(Supplier, int, PrecRefiner, PruneStrategy, Logger)}),
+ * with the same result as checking them sequentially: the first feasible trace
+ * is returned, or the refutations are applied in the order of the traces.
+ */
 public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
 		implements Refiner<S, A, P> {
 
-	private final ExprTraceChecker<R> exprTraceChecker;
+	private final List<ExprTraceChecker<R>> exprTraceCheckers;
+	// Creates checkers in place of interrupted ones, null for a single checker
+	private final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory;
 	private final PrecRefiner<S, A, P, R> precRefiner;
 	private final PruneStrategy pruneStrategy;
 	private final Logger logger;
 
-	private MultiExprTraceRefiner(final ExprTraceChecker<R> exprTraceChecker,
+	private MultiExprTraceRefiner(final List<ExprTraceChecker<R>> exprTraceCheckers,
+								  final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory,
 								  final PrecRefiner<S, A, P, R> precRefiner,
 								  final PruneStrategy pruneStrategy, final Logger logger) {
-		this.exprTraceChecker = checkNotNull(exprTraceChecker);
+		checkArgument(!exprTraceCheckers.isEmpty(), "At least one trace checker is required");
+		this.exprTraceCheckers = new ArrayList<>(exprTraceCheckers);
+		this.exprTraceCheckerFactory = exprTraceCheckerFactory;
 		this.precRefiner = checkNotNull(precRefiner);
 		this.pruneStrategy = checkNotNull(pruneStrategy);
 		this.logger = checkNotNull(logger);
@@ -53,7 +83,30 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 	public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> create(
 			final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner,
 			final PruneStrategy pruneStrategy, final Logger logger) {
-		return new MultiExprTraceRefiner<>(exprTraceChecker, precRefiner, pruneStrategy, logger);
+		return new MultiExprTraceRefiner<>(Collections.singletonList(checkNotNull(exprTraceChecker)), null,
+				precRefiner, pruneStrategy, logger);
+	}
+
+	/**
+	 * Creates a refiner that checks the traces with the given number of
+	 * threads. The factory is called once for each thread, so it should create
+	 * a checker with a new solver on each call. It is also called later to
+	 * replace checkers whose check was interrupted. The refiner does not close
+	 * the solvers, so they should be created by a factory that is closed at the
+	 * end of the run, see
+	 * {@link hu.bme.mit.theta.solver.utils.ScopedSolverFactory}.
+	 */
+	public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> createParallel(
+			final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory, final int threads,
+			final PrecRefiner<S, A, P, R> precRefiner, final PruneStrategy pruneStrategy, final Logger logger) {
+		checkNotNull(exprTraceCheckerFactory);
+		checkArgument(threads > 0, "Number of threads must be positive");
+		final List<ExprTraceChecker<R>> exprTraceCheckers = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			exprTraceCheckers.add(checkNotNull(exprTraceCheckerFactory.get()));
+		}
+		return new MultiExprTraceRefiner<>(exprTraceCheckers, exprTraceCheckerFactory, precRefiner, pruneStrategy,
+				logger);
 	}
 
 	@Override
@@ -66,18 +119,12 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 		final List<Trace<S, A>> traces = arg.getCexs().map(ArgTrace::toTrace).collect(Collectors.toList());
 		assert traces.size() == cexs.size();
 
-		logger.write(Level.INFO, "|  |  Number of traces: %d%n", traces.size());
+		logger.write(Level.INFO, () -> String.format("|  |  Number of traces: %d%n", traces.size()));
 		assert traces.size() > 0 : "No counterexample in ARG";
 
 		logger.write(Level.SUBSTEP, "|  |  Checking traces...");
-		final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(traces.size());
-		for (final Trace<S, A> trace : traces) {
-			final ExprTraceStatus<R> status = exprTraceChecker.check(trace);
-			cexStatuses.add(status);
-			if (status.isFeasible()) {
-				break;
-			}
-		}
+		final List<ExprTraceStatus<R>> cexStatuses = exprTraceCheckers.size() > 1 && traces.size() > 1
+				? checkTracesParallel(traces) : checkTraces(traces);
 
 		if (cexStatuses.stream().anyMatch(ExprTraceStatus::isFeasible)) {
 			logger.write(Level.SUBSTEP, "done, result: found feasible%n");
@@ -136,4 +183,141 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Checks the traces in order until the first feasible one.
+	 */
+	private List<ExprTraceStatus<R>> checkTraces(final List<Trace<S, A>> traces) {
+		final ExprTraceChecker<R> exprTraceChecker = exprTraceCheckers.get(0);
+		final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(traces.size());
+		for (final Trace<S, A> trace : traces) {
+			final ExprTraceStatus<R> status = exprTraceChecker.check(trace);
+			cexStatuses.add(status);
+			if (status.isFeasible()) {
+				break;
+			}
+		}
+		return cexStatuses;
+	}
+
+	/**
+	 * Checks the traces with all checkers in parallel and returns the same
+	 * statuses as {@link #checkTraces(List)}. Each trace is checked by a
+	 * separate task, started in the order of the traces. When a trace is found
+	 * feasible, the tasks of the traces after it are cancelled: the ones not yet
+	 * started are skipped and the running ones are interrupted. Solvers that
+	 * stop their checks on interrupts (e.g., Z3) make the interrupted tasks
+	 * finish quickly, and the method waits for them, so that no check is left
+	 * running. The checkers of the interrupted checks are replaced by new ones
+	 * from the factory, as their solvers should not be reused.
+	 */
+	private List<ExprTraceStatus<R>> checkTracesParallel(final List<Trace<S, A>> traces) {
+		final int nTraces = traces.size();
+		final AtomicReferenceArray<ExprTraceStatus<R>> statuses = new AtomicReferenceArray<>(nTraces);
+		final AtomicInteger firstFeasibleIndex = new AtomicInteger(nTraces);
+
+		final int nWorkers = Math.min(exprTraceCheckers.size(), nTraces);
+		final BlockingQueue<ExprTraceChecker<R>> idleCheckers = new ArrayBlockingQueue<>(exprTraceCheckers.size(),
+				false, exprTraceCheckers);
+		final Queue<ExprTraceChecker<R>> interruptedCheckers = new ConcurrentLinkedQueue<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+		try {
+			final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+			final List<Future<Integer>> futures = new ArrayList<>(nTraces);
+			for (int i = 0; i < nTraces; ++i) {
+				final int index = i;
+				futures.add(completionService.submit(() -> {
+					if (index > firstFeasibleIndex.get()) {
+						return index;
+					}
+					// At most nWorkers tasks run at a time, so there is always an idle checker
+					final ExprTraceChecker<R> exprTraceChecker = idleCheckers.remove();
+					final ExprTraceStatus<R> status;
+					try {
+						status = exprTraceChecker.check(traces.get(index));
+					} catch (final CancellationException e) {
+						interruptedCheckers.add(exprTraceChecker);
+						throw e;
+					}
+					idleCheckers.add(exprTraceChecker);
+					statuses.set(index, status);
+					if (status.isFeasible()) {
+						firstFeasibleIndex.accumulateAndGet(index, Math::min);
+					}
+					return index;
+				}));
+			}
+
+			int cancelledFrom = nTraces;
+			for (int i = 0; i < nTraces; ++i) {
+				final Future<Integer> future = take(completionService);
+				if (future.isCancelled()) {
+					continue;
+				}
+				final int index = await(future);
+				final ExprTraceStatus<R> status = statuses.get(index);
+				if (status != null && status.isFeasible() && index < cancelledFrom) {
+					for (int j = index + 1; j < cancelledFrom; ++j) {
+						futures.get(j).cancel(true);
+					}
+					cancelledFrom = index;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+			for (final ExprTraceChecker<R> interruptedChecker : interruptedCheckers) {
+				exprTraceCheckers.set(exprTraceCheckers.indexOf(interruptedChecker), exprTraceCheckerFactory.get());
+			}
+		}
+
+		final int nChecked = Math.min(firstFeasibleIndex.get() + 1, nTraces);
+		final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(nChecked);
+		for (int i = 0; i < nChecked; ++i) {
+			assert statuses.get(i) != null;
+			cexStatuses.add(statuses.get(i));
+		}
+		return cexStatuses;
+	}
+
+	private static <T> Future<T> take(final CompletionService<T> completionService) {
+		try {
+			return completionService.take();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Interrupted while waiting for trace checkers");
+		}
+	}
+
+	private static void awaitTermination(final ExecutorService executor) {
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static <T> T await(final Future<T> future) {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Interrupted while waiting for trace checkers");
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+}
@@ -65,7 +65,7 @@ public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAct
 
 		final ArgTrace<S, A> cexToConcretize = arg.getCexs().findFirst().get();
 		final Trace<S, A> traceToConcretize = cexToConcretize.toTrace();
-		logger.write(Level.INFO, "|  |  Trace length: %d%n", traceToConcretize.length());
+		logger.write(Level.INFO, () -> String.format("|  |  Trace length: %d%n", traceToConcretize.length()));
 		logger.write(Level.DETAIL, "|  |  Trace: %s%n", traceToConcretize);
 
 		logger.write(Level.SUBSTEP, "|  |  Checking trace...");
@@ -86,12 +86,12 @@ public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAct
 
 			switch (pruneStrategy){
 				case LAZY:
-					logger.write(Level.SUBSTEP, "|  |  Pruning from index %d...", pruneIndex);
+					logger.write(Level.SUBSTEP, () -> String.format("|  |  Pruning from index %d...", pruneIndex));
 					final ArgNode<S, A> nodeToPrune = cexToConcretize.node(pruneIndex);
 					arg.prune(nodeToPrune);
 					break;
 				case FULL:
-					logger.write(Level.SUBSTEP, "|  |  Pruning whole ARG", pruneIndex);
+					logger.write(Level.SUBSTEP, "|  |  Pruning whole ARG...");
 					arg.pruneAll();
 					break;
 				default:
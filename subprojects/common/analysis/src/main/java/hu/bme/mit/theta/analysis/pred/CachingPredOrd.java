@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.solver.Solver;
+
+/**
+ * Partial order for predicate states that avoids solver calls where possible.
+ * Before delegating to an other partial order (PredOrd by default), two fast
+ * paths are tried:
+ * <ul>
+ * <li>a syntactic check: if state1 is bottom, or the predicates of state2 are a
+ * subset of the predicates of state1, then state1 is less or equal (for states
+ * encoded as bitsets this is a bitwise check);</li>
+ * <li>a bounded, least recently used cache of earlier results.</li>
+ * </ul>
+ * The number of hits and misses can be queried via {@link #getStatistics()}.
+ */
+public final class CachingPredOrd implements PartialOrd<PredState> {
+
+	public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+	private final PartialOrd<PredState> ord;
+	private final Map<Tuple2<PredState, PredState>, Boolean> cache;
+	private final PredOrdStatistics statistics;
+
+	private long syntacticHits;
+	private long cacheHits;
+	private long cacheMisses;
+
+	private CachingPredOrd(final PartialOrd<PredState> ord, final int cacheSize) {
+		checkArgument(cacheSize >= 0, "Cache size must be non-negative");
+		this.ord = checkNotNull(ord);
+		this.cache = new LinkedHashMap<Tuple2<PredState, PredState>, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Tuple2<PredState, PredState>, Boolean> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.statistics = new PredOrdStatistics(this);
+		syntacticHits = 0;
+		cacheHits = 0;
+		cacheMisses = 0;
+	}
+
+	public static CachingPredOrd create(final Solver solver) {
+		return create(PredOrd.create(solver), DEFAULT_CACHE_SIZE);
+	}
+
+	public static CachingPredOrd create(final Solver solver, final int cacheSize) {
+		return create(PredOrd.create(solver), cacheSize);
+	}
+
+	public static CachingPredOrd create(final PartialOrd<PredState> ord, final int cacheSize) {
+		return new CachingPredOrd(ord, cacheSize);
+	}
+
+	@Override
+	public boolean isLeq(final PredState state1, final PredState state2) {
+		if (state1.isBottom() || state1.containsAllPredsOf(state2)) {
+			synchronized (cache) {
+				syntacticHits++;
+			}
+			return true;
+		}
+
+		final Tuple2<PredState, PredState> key = Tuple2.of(state1, state2);
+		synchronized (cache) {
+			final Boolean cached = cache.get(key);
+			if (cached != null) {
+				cacheHits++;
+				return cached;
+			}
+			cacheMisses++;
+		}
+
+		final boolean result = ord.isLeq(state1, state2);
+		synchronized (cache) {
+			cache.put(key, result);
+		}
+		return result;
+	}
+
+	public PredOrdStatistics getStatistics() {
+		return statistics;
+	}
+
+	long getSyntacticHits() {
+		synchronized (cache) {
+			return syntacticHits;
+		}
+	}
+
+	long getCacheHits() {
+		synchronized (cache) {
+			return cacheHits;
+		}
+	}
+
+	long getCacheMisses() {
+		synchronized (cache) {
+			return cacheMisses;
+		}
+	}
+
+}
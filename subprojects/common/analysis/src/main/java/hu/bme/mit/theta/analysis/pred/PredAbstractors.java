@@ -18,6 +18,7 @@ package hu.bme.mit.theta.analysis.pred;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
@@ -25,13 +26,14 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import hu.bme.mit.theta.common.container.Containers;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
+
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.decl.Decls;
 import hu.bme.mit.theta.core.model.Valuation;
@@ -42,13 +44,18 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.core.utils.VarIndexing;
 import hu.bme.mit.theta.solver.Solver;
-import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 /**
  * Strategies for performing predicate abstraction over an expression.
  */
 public class PredAbstractors {
 
+	/**
+	 * Number of queries whose retired constraints are kept in the solver
+	 * before they are removed by popping the batch they were added in.
+	 */
+	static final int QUERY_BATCH_SIZE = 64;
+
 	private PredAbstractors() {}
 
 	/**
@@ -103,16 +110,12 @@ public class PredAbstractors {
 	private static final class BooleanAbstractor implements PredAbstractor {
 
 		private final Solver solver;
-		private final List<ConstDecl<BoolType>> actLits;
-		private final String litPrefix;
-		private static int instanceCounter = 0;
+		private final ActivationLiterals actLits;
 		private final boolean split;
 
 		public BooleanAbstractor(final Solver solver, final boolean split) {
 			this.solver = checkNotNull(solver);
-			this.actLits = new ArrayList<>();
-			this.litPrefix = "__" + getClass().getSimpleName() + "_" + instanceCounter + "_";
-			instanceCounter++;
+			this.actLits = new ActivationLiterals(getClass().getSimpleName(), solver);
 			this.split = split;
 		}
 
@@ -125,39 +128,43 @@ public class PredAbstractors {
 			checkNotNull(precIndexing);
 
 			final List<Expr<BoolType>> preds = new ArrayList<>(prec.getPreds());
-			generateActivationLiterals(preds.size());
-
-			assert actLits.size() >= preds.size();
+			final List<ConstDecl<BoolType>> predLits = actLits.getPredLits(preds.size());
 
 			final List<PredState> states = new LinkedList<>();
-			try (WithPushPop wp = new WithPushPop(solver)) {
-				solver.add(PathUtils.unfold(expr, exprIndexing));
+			final Expr<BoolType> act = actLits.beginQuery();
+			final Collection<Expr<BoolType>> assumptions = Collections.singleton(act);
+			try {
+				solver.add(Imply(act, PathUtils.unfold(expr, exprIndexing)));
 				for (int i = 0; i < preds.size(); ++i) {
-					solver.add(Iff(actLits.get(i).getRef(), PathUtils.unfold(preds.get(i), precIndexing)));
+					solver.add(Imply(act, Iff(predLits.get(i).getRef(), PathUtils.unfold(preds.get(i), precIndexing))));
 				}
-				while (solver.check().isSat()) {
+				while (solver.check(assumptions).isSat()) {
 					final Valuation model = solver.getModel();
-					final Set<Expr<BoolType>> newStatePreds = Containers.createSet();
+					final long[] posBits = new long[prec.getIndex().words()];
+					final long[] negBits = new long[posBits.length];
 					final List<Expr<BoolType>> feedback = new LinkedList<>();
 					feedback.add(True());
 					for (int i = 0; i < preds.size(); ++i) {
-						final ConstDecl<BoolType> lit = actLits.get(i);
-						final Expr<BoolType> pred = preds.get(i);
+						final ConstDecl<BoolType> lit = predLits.get(i);
+						final int predIndex = prec.indexOf(preds.get(i));
 						final Optional<LitExpr<BoolType>> eval = model.eval(lit);
 						if (eval.isPresent()) {
 							if (eval.get().equals(True())) {
-								newStatePreds.add(pred);
+								setBit(posBits, predIndex);
 								feedback.add(lit.getRef());
 							} else {
-								newStatePreds.add(prec.negate(pred));
+								setBit(negBits, predIndex);
 								feedback.add(Not(lit.getRef()));
 							}
 						}
 					}
-					states.add(PredState.of(newStatePreds));
-					solver.add(Not(And(feedback)));
+					states.add(PredState.of(prec.getIndex(), posBits, negBits));
+					solver.add(Imply(act, Not(And(feedback))));
 				}
+			} finally {
+				actLits.retire(act);
 			}
+
 			if (!split && states.size() > 1) {
 				final Expr<BoolType> pred = Or(states.stream().map(PredState::toExpr).collect(Collectors.toList()));
 				return Collections.singleton(PredState.of(pred));
@@ -165,59 +172,118 @@ public class PredAbstractors {
 				return states;
 			}
 		}
-
-		private void generateActivationLiterals(final int n) {
-			while (actLits.size() < n) {
-				actLits.add(Decls.Const(litPrefix + actLits.size(), BoolExprs.Bool()));
-			}
-		}
 	}
 
 	private static final class CartesianAbstractor implements PredAbstractor {
 
 		private final Solver solver;
+		private final ActivationLiterals actLits;
 
 		public CartesianAbstractor(final Solver solver) {
-			this.solver = solver;
+			this.solver = checkNotNull(solver);
+			this.actLits = new ActivationLiterals(getClass().getSimpleName(), solver);
 		}
 
 		@Override
 		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final VarIndexing exprIndexing,
 														 final PredPrec prec, final VarIndexing precIndexing) {
-			final List<Expr<BoolType>> newStatePreds = new ArrayList<>();
+			final long[] posBits = new long[prec.getIndex().words()];
+			final long[] negBits = new long[posBits.length];
 
-			try (WithPushPop wp = new WithPushPop(solver)) {
-				solver.add(PathUtils.unfold(expr, exprIndexing));
-				solver.check();
-				if (solver.getStatus().isUnsat()) {
+			final List<Expr<BoolType>> preds = new ArrayList<>(prec.getPreds());
+			final List<ConstDecl<BoolType>> predLits = actLits.getPredLits(preds.size());
+
+			final Expr<BoolType> act = actLits.beginQuery();
+			try {
+				solver.add(Imply(act, PathUtils.unfold(expr, exprIndexing)));
+				if (solver.check(Collections.singleton(act)).isUnsat()) {
 					return Collections.emptySet();
 				}
 
-				for (final Expr<BoolType> pred : prec.getPreds()) {
-					final boolean ponEntailed;
-					final boolean negEntailed;
-					try (WithPushPop wp1 = new WithPushPop(solver)) {
-						solver.add(PathUtils.unfold(prec.negate(pred), precIndexing));
-						ponEntailed = solver.check().isUnsat();
-					}
-					try (WithPushPop wp2 = new WithPushPop(solver)) {
-						solver.add(PathUtils.unfold(pred, precIndexing));
-						negEntailed = solver.check().isUnsat();
-					}
+				for (int i = 0; i < preds.size(); ++i) {
+					final Expr<BoolType> pred = preds.get(i);
+					final Expr<BoolType> lit = predLits.get(i).getRef();
+					solver.add(Imply(act, Iff(lit, PathUtils.unfold(pred, precIndexing))));
+
+					final boolean ponEntailed = solver.check(ImmutableList.of(act, Not(lit))).isUnsat();
+					final boolean negEntailed = solver.check(ImmutableList.of(act, lit)).isUnsat();
 
 					assert !(ponEntailed && negEntailed) : "Ponated and negated predicates are both entailed.";
 
 					if (ponEntailed) {
-						newStatePreds.add(pred);
+						setBit(posBits, prec.indexOf(pred));
 					}
 					if (negEntailed) {
-						newStatePreds.add(prec.negate(pred));
+						setBit(negBits, prec.indexOf(pred));
 					}
 				}
+			} finally {
+				actLits.retire(act);
 			}
 
-			return Collections.singleton(PredState.of(newStatePreds));
+			return Collections.singleton(PredState.of(prec.getIndex(), posBits, negBits));
 		}
 
 	}
+
+	/**
+	 * Activation literals of an abstractor. Each query gets a fresh literal
+	 * guarding all of its constraints, so that the query can be checked by
+	 * assuming the literal, and retired afterwards by asserting its negation.
+	 * The literals standing for the predicates are reused between queries.
+	 * Queries are added in batches, each in its own solver frame, which is
+	 * popped when {@link #QUERY_BATCH_SIZE} queries were retired. This keeps
+	 * the number of assertions bounded. Popping only removes constraints of
+	 * retired queries, even if the solver is shared with other abstractors, as
+	 * long as others do not push or pop the solver across queries.
+	 */
+	private static final class ActivationLiterals {
+		private static final AtomicInteger instanceCounter = new AtomicInteger(0);
+
+		private final String litPrefix;
+		private final Solver solver;
+		private final List<ConstDecl<BoolType>> predLits;
+		private int queryCount;
+		private int batchCount;
+		private boolean batchOpen;
+
+		private ActivationLiterals(final String name, final Solver solver) {
+			this.litPrefix = "__" + name + "_" + instanceCounter.getAndIncrement() + "_";
+			this.solver = solver;
+			this.predLits = new ArrayList<>();
+			this.queryCount = 0;
+			this.batchCount = 0;
+			this.batchOpen = false;
+		}
+
+		private List<ConstDecl<BoolType>> getPredLits(final int n) {
+			while (predLits.size() < n) {
+				predLits.add(Decls.Const(litPrefix + predLits.size(), BoolExprs.Bool()));
+			}
+			return predLits;
+		}
+
+		private Expr<BoolType> beginQuery() {
+			if (!batchOpen) {
+				solver.push();
+				batchOpen = true;
+			}
+			return Decls.Const(litPrefix + "act_" + queryCount++, BoolExprs.Bool()).getRef();
+		}
+
+		private void retire(final Expr<BoolType> act) {
+			// Asserting the negation disables the constraints of the query
+			solver.add(Not(act));
+			batchCount++;
+			if (batchCount >= QUERY_BATCH_SIZE) {
+				solver.pop();
+				batchOpen = false;
+				batchCount = 0;
+			}
+		}
+	}
+
+	private static void setBit(final long[] bits, final int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
 }
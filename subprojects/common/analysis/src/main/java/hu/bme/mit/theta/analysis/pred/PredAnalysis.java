@@ -27,12 +27,12 @@ import hu.bme.mit.theta.solver.Solver;
 
 public final class PredAnalysis implements Analysis<PredState, ExprAction, PredPrec> {
 
-	private final PartialOrd<PredState> partialOrd;
+	private final CachingPredOrd partialOrd;
 	private final InitFunc<PredState, PredPrec> initFunc;
 	private final TransFunc<PredState, ExprAction, PredPrec> transFunc;
 
 	private PredAnalysis(final Solver solver, final PredAbstractor predAbstractor, final Expr<BoolType> initExpr) {
-		partialOrd = PredOrd.create(solver);
+		partialOrd = CachingPredOrd.create(solver);
 		initFunc = PredInitFunc.create(predAbstractor, initExpr);
 		transFunc = PredTransFunc.create(predAbstractor);
 	}
@@ -42,6 +42,13 @@ public final class PredAnalysis implements Analysis<PredState, ExprAction, PredP
 		return new PredAnalysis(solver, predAbstractor, initExpr);
 	}
 
+	/**
+	 * Gets the statistics of the partial order of the analysis.
+	 */
+	public PredOrdStatistics getStatistics() {
+		return partialOrd.getStatistics();
+	}
+
 	////
 
 	@Override
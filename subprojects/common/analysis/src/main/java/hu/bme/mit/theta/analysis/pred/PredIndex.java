@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+
+/**
+ * Append-only assignment of indices to (ponated) predicates. Precisions
+ * obtained from each other by joining share the same index, so predicate
+ * states created with any of them can be compared by their bitsets. Indices
+ * never change once assigned.
+ */
+final class PredIndex {
+
+	private final List<Expr<BoolType>> preds;
+	private final List<Expr<BoolType>> negPreds;
+	private final Map<Expr<BoolType>, Integer> indices;
+
+	PredIndex() {
+		preds = new ArrayList<>();
+		negPreds = new ArrayList<>();
+		indices = Containers.createMap();
+	}
+
+	/**
+	 * Gets the index of a ponated predicate, assigning a new index if the
+	 * predicate is not yet present.
+	 */
+	synchronized int add(final Expr<BoolType> pred) {
+		checkNotNull(pred);
+		final Integer index = indices.get(pred);
+		if (index != null) {
+			return index;
+		}
+		final int newIndex = preds.size();
+		preds.add(pred);
+		negPreds.add(Not(pred));
+		indices.put(pred, newIndex);
+		return newIndex;
+	}
+
+	/**
+	 * Gets the index of a ponated predicate, or -1 if it is not present.
+	 */
+	synchronized int indexOf(final Expr<BoolType> pred) {
+		final Integer index = indices.get(pred);
+		return index == null ? -1 : index;
+	}
+
+	synchronized Expr<BoolType> getPred(final int index) {
+		return preds.get(index);
+	}
+
+	synchronized Expr<BoolType> getNegPred(final int index) {
+		return negPreds.get(index);
+	}
+
+	synchronized int size() {
+		return preds.size();
+	}
+
+	/**
+	 * Gets the number of 64 bit words required to store a bitset over the
+	 * current predicates.
+	 */
+	int words() {
+		return (size() + 63) >>> 6;
+	}
+
+}
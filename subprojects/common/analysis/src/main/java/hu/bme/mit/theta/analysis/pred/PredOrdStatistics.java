@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+
+/**
+ * Statistics of a CachingPredOrd. The values are read from the partial order
+ * when queried, so they reflect the current state. The statistics of several
+ * partial orders (e.g., one per worker thread) can be summed with
+ * {@link #sum(Collection)}.
+ */
+public final class PredOrdStatistics extends Statistics {
+
+	private final List<CachingPredOrd> ords;
+
+	PredOrdStatistics(final CachingPredOrd ord) {
+		this(Collections.singletonList(checkNotNull(ord)));
+	}
+
+	private PredOrdStatistics(final List<CachingPredOrd> ords) {
+		this.ords = ords;
+
+		addStat("PredOrdSyntacticHits", this::getSyntacticHits);
+		addStat("PredOrdCacheHits", this::getCacheHits);
+		addStat("PredOrdCacheMisses", this::getCacheMisses);
+	}
+
+	/**
+	 * Creates statistics that sum the values of the given statistics.
+	 */
+	public static PredOrdStatistics sum(final Collection<PredOrdStatistics> statistics) {
+		final List<CachingPredOrd> ords = new ArrayList<>();
+		for (final PredOrdStatistics s : statistics) {
+			ords.addAll(s.ords);
+		}
+		return new PredOrdStatistics(Collections.unmodifiableList(ords));
+	}
+
+	/**
+	 * Gets the number of queries answered by the syntactic check.
+	 */
+	public long getSyntacticHits() {
+		return sum(CachingPredOrd::getSyntacticHits);
+	}
+
+	/**
+	 * Gets the number of queries answered from the cache.
+	 */
+	public long getCacheHits() {
+		return sum(CachingPredOrd::getCacheHits);
+	}
+
+	/**
+	 * Gets the number of queries that had to be delegated (e.g., to the
+	 * solver).
+	 */
+	public long getCacheMisses() {
+		return sum(CachingPredOrd::getCacheMisses);
+	}
+
+	private long sum(final ToLongFunction<CachingPredOrd> getter) {
+		return ords.stream().mapToLong(getter).sum();
+	}
+
+}
@@ -17,7 +17,6 @@ package hu.bme.mit.theta.analysis.pred;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -36,15 +35,19 @@ import hu.bme.mit.theta.core.utils.ExprUtils;
 
 /**
  * Represents an immutable, simple predicate precision that is a set of
- * predicates.
+ * predicates. Each predicate is assigned an index, which is shared with the
+ * precisions obtained by joining, so that predicate states can be stored as
+ * bitsets over these indices (see PredState).
  */
 public final class PredPrec implements Prec {
 
 	private final Map<Expr<BoolType>, Expr<BoolType>> predToNegMap;
+	private final PredIndex index;
 
-	private PredPrec(final Iterable<Expr<BoolType>> preds) {
+	private PredPrec(final Iterable<Expr<BoolType>> preds, final PredIndex index) {
 		checkNotNull(preds);
 		this.predToNegMap = Containers.createMap();
+		this.index = checkNotNull(index);
 
 		for (final Expr<BoolType> pred : preds) {
 			if (pred instanceof BoolLitExpr) {
@@ -52,23 +55,24 @@ public final class PredPrec implements Prec {
 			}
 			final Expr<BoolType> ponatedPred = ExprUtils.ponate(pred);
 			if (!this.predToNegMap.containsKey(ponatedPred)) {
-				this.predToNegMap.put(ponatedPred, Not(ponatedPred));
+				final int i = index.add(ponatedPred);
+				this.predToNegMap.put(ponatedPred, index.getNegPred(i));
 			}
 		}
 	}
 
 	public static PredPrec of(final Iterable<Expr<BoolType>> preds) {
-		return new PredPrec(preds);
+		return new PredPrec(preds, new PredIndex());
 	}
 
 	// Convenience factory methods
 
 	public static PredPrec of() {
-		return new PredPrec(Collections.emptySet());
+		return of(Collections.emptySet());
 	}
 
 	public static PredPrec of(final Expr<BoolType> pred) {
-		return new PredPrec(Collections.singleton(pred));
+		return of(Collections.singleton(pred));
 	}
 
 	////
@@ -83,6 +87,19 @@ public final class PredPrec implements Prec {
 		return negated;
 	}
 
+	/**
+	 * Gets the index of a (ponated) predicate of the precision.
+	 */
+	int indexOf(final Expr<BoolType> pred) {
+		final int i = index.indexOf(pred);
+		checkArgument(i >= 0, "Predicate not found");
+		return i;
+	}
+
+	PredIndex getIndex() {
+		return index;
+	}
+
 	public PredPrec join(final PredPrec other) {
 		checkNotNull(other);
 		final Collection<Expr<BoolType>> joinedPreds = ImmutableSet.<Expr<BoolType>>builder()
@@ -90,11 +107,13 @@ public final class PredPrec implements Prec {
 		// If no new predicate was added, return same instance (immutable)
 		if (joinedPreds.size() == this.predToNegMap.size()) {
 			return this;
-		} else if (joinedPreds.size() == other.predToNegMap.size()) {
+		} else if (joinedPreds.size() == other.predToNegMap.size() && other.index == this.index) {
 			return other;
 		}
 
-		return of(joinedPreds);
+		// The joined precision extends the index of this precision, so states
+		// created with this precision remain comparable by their bitsets
+		return new PredPrec(joinedPreds, index);
 	}
 
 	@Override
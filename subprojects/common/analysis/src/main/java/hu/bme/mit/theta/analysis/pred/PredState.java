@@ -21,6 +21,7 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
@@ -30,12 +31,26 @@ import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 
+/**
+ * Represents a predicate state, i.e., a conjunction of predicates. States
+ * created by the predicate abstractors are stored compactly as a pair of
+ * bitsets over the predicate indices of the precision (one for the ponated and
+ * one for the negated predicates). Other states store the set of predicates
+ * explicitly. The two representations are interchangeable: equality, hashing
+ * and {@link #getPreds()} behave the same way for both.
+ */
 public final class PredState implements ExprState {
 
 	private static final int HASH_SEED = 7621;
 
+	// Explicit representation (null for bitset states)
 	private final Set<Expr<BoolType>> preds;
 
+	// Bitset representation (null for explicit states)
+	private final PredIndex index;
+	private final long[] posBits;
+	private final long[] negBits;
+
 	private volatile Expr<BoolType> expr = null;
 
 	private volatile int hashCode;
@@ -43,12 +58,30 @@ public final class PredState implements ExprState {
 	private PredState(final Iterable<? extends Expr<BoolType>> preds) {
 		checkNotNull(preds);
 		this.preds = ImmutableSet.copyOf(preds);
+		this.index = null;
+		this.posBits = null;
+		this.negBits = null;
+	}
+
+	private PredState(final PredIndex index, final long[] posBits, final long[] negBits) {
+		this.preds = null;
+		this.index = checkNotNull(index);
+		this.posBits = trim(posBits);
+		this.negBits = trim(negBits);
 	}
 
 	public static PredState of(final Iterable<? extends Expr<BoolType>> preds) {
 		return new PredState(preds);
 	}
 
+	/**
+	 * Creates a state from bitsets over the indices of a precision. Bit i of
+	 * posBits (negBits) means that the i-th predicate (its negation) holds.
+	 */
+	static PredState of(final PredIndex index, final long[] posBits, final long[] negBits) {
+		return new PredState(index, posBits, negBits);
+	}
+
 	public static PredState bottom() {
 		return of(False());
 	}
@@ -84,18 +117,45 @@ public final class PredState implements ExprState {
 	////
 
 	public Set<Expr<BoolType>> getPreds() {
-		return preds;
+		if (preds != null) {
+			return preds;
+		}
+		final ImmutableSet.Builder<Expr<BoolType>> builder = ImmutableSet.builder();
+		final int size = Math.max(posBits.length, negBits.length) * 64;
+		for (int i = 0; i < size; i++) {
+			if (isSet(posBits, i)) {
+				builder.add(index.getPred(i));
+			}
+			if (isSet(negBits, i)) {
+				builder.add(index.getNegPred(i));
+			}
+		}
+		return builder.build();
 	}
 
 	@Override
 	public boolean isBottom() {
-		return preds.size() == 1 && singleElementOf(preds).equals(False());
+		return preds != null && preds.size() == 1 && singleElementOf(preds).equals(False());
+	}
+
+	/**
+	 * Checks if all predicates of an other state are also present in this
+	 * state, which implies that this state is less or equal. If both states
+	 * are bitsets over the same index, this is a bitwise subset check.
+	 */
+	boolean containsAllPredsOf(final PredState that) {
+		if (this.index != null && this.index == that.index) {
+			return isSubset(that.posBits, this.posBits) && isSubset(that.negBits, this.negBits);
+		} else {
+			return this.getPreds().containsAll(that.getPreds());
+		}
 	}
 
 	@Override
 	public Expr<BoolType> toExpr() {
 		Expr<BoolType> result = expr;
 		if (result == null) {
+			final Set<Expr<BoolType>> preds = getPreds();
 			if (preds.isEmpty()) {
 				result = True();
 			} else if (preds.size() == 1) {
@@ -113,7 +173,7 @@ public final class PredState implements ExprState {
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + preds.hashCode();
+			result = 31 * result + predsHashCode();
 			hashCode = result;
 		}
 		return result;
@@ -125,7 +185,11 @@ public final class PredState implements ExprState {
 			return true;
 		} else if (obj instanceof PredState) {
 			final PredState that = (PredState) obj;
-			return this.preds.equals(that.preds);
+			if (this.index != null && this.index == that.index) {
+				return Arrays.equals(this.posBits, that.posBits) && Arrays.equals(this.negBits, that.negBits);
+			} else {
+				return this.getPreds().equals(that.getPreds());
+			}
 		} else {
 			return false;
 		}
@@ -133,7 +197,52 @@ public final class PredState implements ExprState {
 
 	@Override
 	public String toString() {
-		return Utils.lispStringBuilder(getClass().getSimpleName()).aligned().addAll(preds).toString();
+		return Utils.lispStringBuilder(getClass().getSimpleName()).aligned().addAll(getPreds()).toString();
+	}
+
+	// Same as getPreds().hashCode() (sum of the element hashes, as specified
+	// by Set), but without materializing the set for bitset states
+	private int predsHashCode() {
+		if (preds != null) {
+			return preds.hashCode();
+		}
+		int result = 0;
+		final int size = Math.max(posBits.length, negBits.length) * 64;
+		for (int i = 0; i < size; i++) {
+			if (isSet(posBits, i)) {
+				result += index.getPred(i).hashCode();
+			}
+			if (isSet(negBits, i)) {
+				result += index.getNegPred(i).hashCode();
+			}
+		}
+		return result;
+	}
+
+	private static boolean isSet(final long[] bits, final int i) {
+		final int word = i >>> 6;
+		return word < bits.length && (bits[word] & (1L << i)) != 0;
+	}
+
+	private static boolean isSubset(final long[] bits1, final long[] bits2) {
+		if (bits1.length > bits2.length) {
+			return false;
+		}
+		for (int i = 0; i < bits1.length; i++) {
+			if ((bits1[i] & ~bits2[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Removes trailing zero words so that equal bitsets have equal arrays
+	private static long[] trim(final long[] bits) {
+		int length = bits.length;
+		while (length > 0 && bits[length - 1] == 0) {
+			length--;
+		}
+		return length == bits.length ? bits : Arrays.copyOf(bits, length);
 	}
 
 }
@@ -27,7 +27,11 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
-public final class Partition<T, K> {
+/**
+ * Reached index that partitions the elements by a projection and returns all
+ * elements in the partition of the given element as candidates.
+ */
+public final class Partition<T, K> implements ReachedIndex<T> {
 
 	private final Function<? super T, ? extends K> projection;
 	private final Map<K, List<T>> classes;
@@ -41,6 +45,7 @@ public final class Partition<T, K> {
 		return new Partition<>(projection);
 	}
 
+	@Override
 	public void add(final T elem) {
 		checkNotNull(elem);
 		final K key = projection.apply(elem);
@@ -48,14 +53,17 @@ public final class Partition<T, K> {
 		partition.add(elem);
 	}
 
+	@Override
 	public void addAll(final Iterable<? extends T> elems) {
 		elems.forEach(this::add);
 	}
 
+	@Override
 	public void addAll(final Stream<? extends T> elems) {
 		elems.forEach(this::add);
 	}
 
+	@Override
 	public List<T> get(final T elem) {
 		checkNotNull(elem);
 		final K key = projection.apply(elem);
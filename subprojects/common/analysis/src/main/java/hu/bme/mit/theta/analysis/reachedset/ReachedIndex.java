@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.reachedset;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Common interface for collections of reached elements that return the
+ * candidates for covering a given element. Implementations may return any
+ * superset of the elements that can actually cover the given element, but the
+ * candidates must be in the order of insertion.
+ */
+public interface ReachedIndex<T> {
+
+	void add(T elem);
+
+	default void addAll(final Iterable<? extends T> elems) {
+		elems.forEach(this::add);
+	}
+
+	default void addAll(final Stream<? extends T> elems) {
+		elems.forEach(this::add);
+	}
+
+	/**
+	 * Gets the candidates for covering an element in the order of insertion.
+	 */
+	List<T> get(T elem);
+
+}
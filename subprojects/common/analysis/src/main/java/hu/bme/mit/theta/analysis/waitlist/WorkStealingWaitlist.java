@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Concurrent waitlist for a fixed number of workers. Each worker has its own
+ * deque, and items are added to the deque of the worker given by an affinity
+ * function (e.g., a hash of the location of a state), so that similar items
+ * are processed by the same worker. A worker removes items from its own deque
+ * (in FIFO or LIFO order), and steals the oldest items of the other workers
+ * if its deque is empty.
+ * <p>
+ * The waitlist also keeps track of the items being processed: each removed
+ * item must be marked as done after processing it (and adding the new items),
+ * and the work is finished when there are no items waiting or being processed.
+ */
+public final class WorkStealingWaitlist<T> {
+
+	private final List<Deque<T>> deques;
+	private final boolean lifo;
+	private final ToIntFunction<? super T> affinity;
+	private final AtomicLong pending;
+
+	private WorkStealingWaitlist(final int workers, final boolean lifo, final ToIntFunction<? super T> affinity) {
+		checkArgument(workers > 0, "Number of workers must be positive");
+		final List<Deque<T>> deques = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			deques.add(new ConcurrentLinkedDeque<>());
+		}
+		this.deques = Collections.unmodifiableList(deques);
+		this.lifo = lifo;
+		this.affinity = checkNotNull(affinity);
+		pending = new AtomicLong(0);
+	}
+
+	/**
+	 * Creates a waitlist where workers remove their own items in FIFO order.
+	 */
+	public static <T> WorkStealingWaitlist<T> fifo(final int workers, final ToIntFunction<? super T> affinity) {
+		return new WorkStealingWaitlist<>(workers, false, affinity);
+	}
+
+	/**
+	 * Creates a waitlist where workers remove their own items in LIFO order.
+	 */
+	public static <T> WorkStealingWaitlist<T> lifo(final int workers, final ToIntFunction<? super T> affinity) {
+		return new WorkStealingWaitlist<>(workers, true, affinity);
+	}
+
+	public int getWorkers() {
+		return deques.size();
+	}
+
+	public void add(final T item) {
+		checkNotNull(item);
+		pending.incrementAndGet();
+		deques.get(Math.floorMod(affinity.applyAsInt(item), deques.size())).addLast(item);
+	}
+
+	public void addAll(final Collection<? extends T> items) {
+		items.forEach(this::add);
+	}
+
+	public void addAll(final Stream<? extends T> items) {
+		items.forEach(this::add);
+	}
+
+	/**
+	 * Removes an item for a worker, or returns null if there are currently no
+	 * waiting items. The item must be marked as done after processing it.
+	 */
+	public T poll(final int worker) {
+		final Deque<T> own = deques.get(worker);
+		final T item = lifo ? own.pollLast() : own.pollFirst();
+		if (item != null) {
+			return item;
+		}
+		for (int i = 1; i < deques.size(); i++) {
+			final T stolen = deques.get((worker + i) % deques.size()).pollFirst();
+			if (stolen != null) {
+				return stolen;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Marks a removed item as processed.
+	 */
+	public void done() {
+		final long remaining = pending.decrementAndGet();
+		checkState(remaining >= 0, "More items marked as done than added");
+	}
+
+	/**
+	 * Checks whether there are no items waiting or being processed.
+	 */
+	public boolean isFinished() {
+		return pending.get() == 0;
+	}
+
+	/**
+	 * Gets the number of items waiting or being processed.
+	 */
+	public long getPending() {
+		return pending.get();
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(lifo ? "LIFO" : "FIFO").add(deques.size())
+				.toString();
+	}
+
+}
@@ -22,17 +22,15 @@ import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
 import static hu.bme.mit.theta.analysis.zone.DiffBounds.Lt;
 import static hu.bme.mit.theta.analysis.zone.DiffBounds.add;
 import static hu.bme.mit.theta.analysis.zone.DiffBounds.asString;
-import static java.lang.Math.min;
 
 import java.util.Arrays;
 import java.util.function.IntBinaryOperator;
 
-import hu.bme.mit.theta.common.IntMatrix;
-
 final class BasicDbm {
 
 	private final int nClocks;
-	private final IntMatrix matrix;
+	private final int size;
+	private final int[] matrix;
 
 	////
 
@@ -40,13 +38,14 @@ final class BasicDbm {
 		checkArgument(size > 0, "Zero sized DBM");
 		checkNotNull(values);
 		this.nClocks = size - 1;
-		matrix = IntMatrix.create(size, size);
-		fill(values);
+		this.size = size;
+		matrix = DbmKernel.create(size, values);
 	}
 
 	BasicDbm(final BasicDbm dbm) {
 		this.nClocks = dbm.nClocks;
-		this.matrix = IntMatrix.copyOf(dbm.matrix);
+		this.size = dbm.size;
+		this.matrix = dbm.matrix.clone();
 	}
 
 	////
@@ -65,48 +64,44 @@ final class BasicDbm {
 	////
 
 	int get(final int x, final int y) {
-		checkArgument(isClock(x));
-		checkArgument(isClock(y));
-		return matrix.get(x, y);
+		return DbmKernel.get(matrix, size, x, y);
 	}
 
 	void set(final int x, final int y, final int b) {
-		checkArgument(isClock(x));
-		checkArgument(isClock(y));
-		matrix.set(x, y, b);
+		DbmKernel.set(matrix, size, x, y, b);
 	}
 
 	void fill(final IntBinaryOperator values) {
 		checkNotNull(values);
-		matrix.fill(values);
+		DbmKernel.fill(matrix, size, values);
 	}
 
 	////
 
 	public int size() {
-		return nClocks + 1;
+		return size;
 	}
 
 	////
 
 	public boolean isConsistent() {
-		return matrix.get(0, 0) > 0;
+		return DbmKernel.isConsistent(matrix);
 	}
 
 	public boolean isSatisfied(final int x, final int y, final int b) {
-		checkArgument(isClock(x));
-		checkArgument(isClock(y));
-		return add(matrix.get(y, x), b) >= Leq(0);
+		assert isClock(x) && isClock(y);
+		return add(matrix[y * size + x], b) >= Leq(0);
 	}
 
 	public boolean constrains(final int x) {
 		checkArgument(isClock(x));
+		final int rowX = x * size;
 		for (int i = 0; i <= nClocks; i++) {
-			if (matrix.get(x, i) < defaultBound(x, i)) {
+			if (matrix[rowX + i] < defaultBound(x, i)) {
 				return true;
 			}
 
-			if (matrix.get(i, x) < defaultBound(i, x)) {
+			if (matrix[i * size + x] < defaultBound(i, x)) {
 				return true;
 			}
 		}
@@ -117,89 +112,44 @@ final class BasicDbm {
 
 	public void up() {
 		if (isConsistent()) {
-			for (int i = 1; i <= nClocks; i++) {
-				matrix.set(i, 0, Inf());
-			}
+			DbmKernel.up(matrix, size);
 			assert isClosed();
 		}
 	}
 
 	public void down() {
 		if (isConsistent()) {
-			for (int i = 1; i <= nClocks; i++) {
-				matrix.set(0, i, Inf());
-			}
+			DbmKernel.down(matrix, size);
 			assert isClosed();
 		}
 	}
 
 	public void and(final int x, final int y, final int b) {
-		checkArgument(isClock(x));
-		checkArgument(isClock(y));
+		assert isClock(x) && isClock(y);
 
 		if (!isConsistent()) {
 			// do nothing
 
 		} else if (!isSatisfied(x, y, b)) {
-			matrix.set(0, 0, Leq(-1));
-
-		} else if (b < matrix.get(x, y)) {
-			matrix.set(x, y, b);
+			DbmKernel.setInconsistent(matrix);
 
-			for (int i = 0; i <= nClocks; i++) {
-				for (int j = 0; j <= nClocks; j++) {
-					if (add(matrix.get(i, x), matrix.get(x, j)) < matrix.get(i, j)) {
-						matrix.set(i, j, add(matrix.get(i, x), matrix.get(x, j)));
-					}
-					if (add(matrix.get(i, y), matrix.get(y, j)) < matrix.get(i, j)) {
-						matrix.set(i, j, add(matrix.get(i, y), matrix.get(y, j)));
-					}
-				}
-			}
+		} else if (b < matrix[x * size + y]) {
+			DbmKernel.tighten(matrix, size, x, y, b);
 		}
 		assert !isConsistent() || isClosed();
 	}
 
 	public void nonnegative() {
-		if (!isConsistent()) {
-			return;
-		}
-
 		for (int k = 1; k <= nClocks; k++) {
-			if (!isSatisfied(0, k, Leq(0))) {
-				matrix.set(0, 0, Leq(-1));
-				return;
-			}
-
-			if (Leq(0) < matrix.get(0, k)) {
-				matrix.set(0, k, Leq(0));
-
-				for (int i = 0; i <= nClocks; i++) {
-					for (int j = 0; j <= nClocks; j++) {
-						if (add(matrix.get(i, 0), matrix.get(0, j)) < matrix.get(i, j)) {
-							matrix.set(i, j, add(matrix.get(i, 0), matrix.get(0, j)));
-						}
-						if (add(matrix.get(i, k), matrix.get(k, j)) < matrix.get(i, j)) {
-							matrix.set(i, j, add(matrix.get(i, k), matrix.get(k, j)));
-						}
-					}
-				}
-			}
+			and(0, k, Leq(0));
 		}
-
-		assert !isConsistent() || isClosed();
 	}
 
 	public void free(final int x) {
 		checkArgument(isNonZeroClock(x));
 
 		if (isConsistent()) {
-			for (int i = 0; i <= nClocks; i++) {
-				if (i != x) {
-					matrix.set(x, i, Inf());
-					matrix.set(i, x, Inf());
-				}
-			}
+			DbmKernel.free(matrix, size, x);
 			assert isClosed();
 		}
 	}
@@ -212,52 +162,37 @@ final class BasicDbm {
 		checkArgument(isNonZeroClock(x));
 
 		if (isConsistent()) {
-			for (int i = 0; i <= nClocks; i++) {
-				matrix.set(x, i, add(Leq(m), matrix.get(0, i)));
-				matrix.set(i, x, add(matrix.get(i, 0), Leq(-m)));
-			}
-
+			DbmKernel.reset(matrix, size, x, m);
 			assert isClosed();
 		}
 	}
 
 	public void copy(final int x, final int y) {
 		checkArgument(isNonZeroClock(y));
-
-		for (int i = 0; i <= nClocks; i++) {
-			if (i != x) {
-				matrix.set(x, i, matrix.get(y, i));
-				matrix.set(i, x, matrix.get(i, y));
-			}
-		}
-		matrix.set(x, y, Leq(0));
-		matrix.set(y, x, Leq(0));
+		DbmKernel.copy(matrix, size, x, y);
 		assert isClosed();
 	}
 
 	public void shift(final int x, final int m) {
 		checkArgument(isNonZeroClock(x));
-
-		for (int i = 0; i <= nClocks; i++) {
-			if (i != x) {
-				matrix.set(x, i, add(matrix.get(x, i), Leq(m)));
-				matrix.set(i, x, add(matrix.get(i, x), Leq(-m)));
-			}
-		}
+		DbmKernel.shift(matrix, size, x, m);
 		assert isClosed();
 	}
 
 	public void norm(final int[] k) {
 		checkNotNull(k);
-		checkArgument(k.length == nClocks + 1);
+		checkArgument(k.length == size);
 
 		for (int i = 0; i <= nClocks; i++) {
+			final int rowI = i * size;
+			final int upper = Leq(k[i]);
 			for (int j = 0; j <= nClocks; j++) {
-				if (matrix.get(i, j) != Inf()) {
-					if (matrix.get(i, j) > Leq(k[i])) {
-						matrix.set(i, j, Inf());
-					} else if (matrix.get(i, j) < Lt(-k[j])) {
-						matrix.set(i, j, Lt(-k[j]));
+				final int b = matrix[rowI + j];
+				if (b != Inf()) {
+					if (b > upper) {
+						matrix[rowI + j] = Inf();
+					} else if (b < Lt(-k[j])) {
+						matrix[rowI + j] = Lt(-k[j]);
 					}
 				}
 			}
@@ -266,33 +201,23 @@ final class BasicDbm {
 	}
 
 	void close() {
-		for (int k = 0; k <= nClocks; k++) {
-			for (int i = 0; i <= nClocks; i++) {
-				for (int j = 0; j <= nClocks; j++) {
-					final int newBound = min(matrix.get(i, j), add(matrix.get(i, k), matrix.get(k, j)));
-					if (i == j && newBound < Leq(0)) {
-						matrix.set(0, 0, Leq(-1));
-						return;
-					} else {
-						matrix.set(i, j, newBound);
-					}
-				}
-			}
-		}
-		assert isClosed();
+		DbmKernel.close(matrix, size);
+		assert !isConsistent() || isClosed();
 	}
 
 	int[] closeItp() {
-		final IntMatrix next = IntMatrix.create(nClocks + 1, nClocks + 1);
-		next.fill((x, y) -> y);
+		final int[] next = DbmKernel.create(size, (x, y) -> y);
 
 		for (int k = 0; k <= nClocks; k++) {
+			final int rowK = k * size;
 			for (int i = 0; i <= nClocks; i++) {
+				final int rowI = i * size;
+				final int dik = matrix[rowI + k];
 				for (int j = 0; j <= nClocks; j++) {
-					final int newBound = add(matrix.get(i, k), matrix.get(k, j));
-					if (newBound < matrix.get(i, j)) {
-						matrix.set(i, j, newBound);
-						next.set(i, j, next.get(i, k));
+					final int newBound = add(dik, matrix[rowK + j]);
+					if (newBound < matrix[rowI + j]) {
+						matrix[rowI + j] = newBound;
+						next[rowI + j] = next[rowI + k];
 						if (i == j && newBound < Leq(0)) {
 							final int[] cycle = path(next, i, j);
 							return cycle;
@@ -305,14 +230,14 @@ final class BasicDbm {
 		throw new IllegalStateException();
 	}
 
-	private int[] path(final IntMatrix next, final int u, final int v) {
+	private int[] path(final int[] next, final int u, final int v) {
 		final int[] path = new int[nClocks + 2];
 
 		int w = u;
 		path[0] = w;
 		int i = 1;
 		do {
-			w = next.get(w, v);
+			w = next[w * size + v];
 			path[i] = w;
 			i++;
 		} while (w != v);
@@ -321,30 +246,26 @@ final class BasicDbm {
 	}
 
 	boolean isClosed() {
-		for (int i = 0; i <= nClocks; i++) {
-			for (int j = 0; j <= nClocks; j++) {
-				for (int k = 0; k <= nClocks; k++) {
-					if (matrix.get(i, j) > add(matrix.get(i, k), matrix.get(k, j))) {
-						return false;
-					}
-				}
-			}
-		}
-		return true;
+		return DbmKernel.isClosed(matrix, size);
 	}
 
 	////
 
 	@Override
 	public int hashCode() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("TODO: auto-generated method stub");
+		return 31 * size + Arrays.hashCode(matrix);
 	}
 
 	@Override
 	public boolean equals(final Object obj) {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("TODO: auto-generated method stub");
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof BasicDbm) {
+			final BasicDbm that = (BasicDbm) obj;
+			return this.size == that.size && Arrays.equals(this.matrix, that.matrix);
+		} else {
+			return false;
+		}
 	}
 
 	@Override
@@ -352,7 +273,7 @@ final class BasicDbm {
 		final StringBuilder sb = new StringBuilder();
 		for (int i = 0; i <= nClocks; i++) {
 			for (int j = 0; j <= nClocks; j++) {
-				sb.append(String.format("%-12s", asString(matrix.get(i, j))));
+				sb.append(String.format("%-12s", asString(matrix[i * size + j])));
 			}
 			sb.append(System.lineSeparator());
 		}
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import hu.bme.mit.theta.common.container.Containers;
 import java.util.Map;
 import java.util.Set;
@@ -38,6 +39,7 @@ import java.util.function.IntBinaryOperator;
 import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 
 import hu.bme.mit.theta.core.clock.constr.AndConstr;
@@ -71,6 +73,8 @@ final class DBM {
 	private static final IntBinaryOperator TOP_DBM_VALUES = BasicDbm::defaultBound;
 	private static final IntBinaryOperator BOTTOM_DBM_VALUES = (x, y) -> Leq(-1);
 
+	private static final int BOTTOM_HASH = 2011;
+
 	private final DbmSignature signature;
 	private final BasicDbm dbm;
 
@@ -391,6 +395,21 @@ final class DBM {
 		return DbmRelation.create(leq, geq);
 	}
 
+	/**
+	 * Gets the upper and lower bounds (i.e., of x - 0 and 0 - x) of the given
+	 * clocks, interleaved.
+	 */
+	int[] getBounds(final List<? extends VarDecl<RatType>> clocks) {
+		final VarDecl<RatType> zero = ZeroVar.getInstance();
+		final int[] bounds = new int[2 * clocks.size()];
+		for (int i = 0; i < clocks.size(); i++) {
+			final VarDecl<RatType> x = clocks.get(i);
+			bounds[2 * i] = getOrDefault(x, zero);
+			bounds[2 * i + 1] = getOrDefault(zero, x);
+		}
+		return bounds;
+	}
+
 	public boolean isLeq(final DBM that) {
 		final Set<VarDecl<RatType>> vars = Sets.union(this.signature.toSet(), that.signature.toSet());
 
@@ -572,16 +591,51 @@ final class DBM {
 
 	////
 
+	/**
+	 * DBMs are equal if they are both inconsistent, or they have the same
+	 * variables and bounds, regardless of the order of the variables.
+	 */
 	@Override
 	public int hashCode() {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("TODO: auto-generated method stub");
+		if (!isConsistent()) {
+			return BOTTOM_HASH;
+		}
+		int result = signature.toSet().hashCode();
+		for (int i = 0; i < signature.size(); i++) {
+			final int xHash = signature.getVar(i).hashCode();
+			for (int j = 0; j < signature.size(); j++) {
+				// Sum of the hashes of the bounds, so that the order does not matter
+				result += (31 * xHash + signature.getVar(j).hashCode()) ^ dbm.get(i, j);
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(final Object obj) {
-		// TODO Auto-generated method stub
-		throw new UnsupportedOperationException("TODO: auto-generated method stub");
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof DBM) {
+			final DBM that = (DBM) obj;
+			if (!this.isConsistent() || !that.isConsistent()) {
+				return this.isConsistent() == that.isConsistent();
+			} else if (Iterables.elementsEqual(this.signature, that.signature)) {
+				return this.dbm.equals(that.dbm);
+			} else if (!this.signature.toSet().equals(that.signature.toSet())) {
+				return false;
+			} else {
+				for (final VarDecl<RatType> x : signature) {
+					for (final VarDecl<RatType> y : signature) {
+						if (this.get(x, y) != that.get(x, y)) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		} else {
+			return false;
+		}
 	}
 
 	@Override
@@ -0,0 +1,218 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Inf;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.add;
+import static java.lang.Math.min;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Unchecked operations on difference bound matrices stored in flat, row-major
+ * int arrays, where bound (i, j) of an n by n matrix is at index i * n + j.
+ * Bounds are encoded as in {@link DiffBounds}. Indices are only checked by
+ * assertions, callers are responsible for passing valid clocks.
+ * <p>
+ * Operations that keep a closed matrix closed do so incrementally in at most
+ * O(n^2) steps. Inner loops run along a single row with no calls or bounds
+ * checks, so that the JIT can unroll and vectorize them.
+ */
+final class DbmKernel {
+
+	private static final int INF = Inf();
+	private static final int LEQ_ZERO = Leq(0);
+
+	private DbmKernel() {
+	}
+
+	////
+
+	static int[] create(final int n, final IntBinaryOperator values) {
+		final int[] m = new int[n * n];
+		fill(m, n, values);
+		return m;
+	}
+
+	static void fill(final int[] m, final int n, final IntBinaryOperator values) {
+		for (int i = 0; i < n; i++) {
+			final int rowI = i * n;
+			for (int j = 0; j < n; j++) {
+				m[rowI + j] = values.applyAsInt(i, j);
+			}
+		}
+	}
+
+	static int get(final int[] m, final int n, final int x, final int y) {
+		assert isClock(n, x) && isClock(n, y);
+		return m[x * n + y];
+	}
+
+	static void set(final int[] m, final int n, final int x, final int y, final int b) {
+		assert isClock(n, x) && isClock(n, y);
+		m[x * n + y] = b;
+	}
+
+	////
+
+	static boolean isConsistent(final int[] m) {
+		return m[0] > 0;
+	}
+
+	static void setInconsistent(final int[] m) {
+		m[0] = Leq(-1);
+	}
+
+	////
+
+	/**
+	 * Tightens bound (x, y) of a closed, consistent matrix to b, which must be
+	 * satisfiable and stronger than the current bound, and restores closure by
+	 * relaxing all bounds through x and y.
+	 */
+	static void tighten(final int[] m, final int n, final int x, final int y, final int b) {
+		assert isClock(n, x) && isClock(n, y);
+		assert b < m[x * n + y];
+		m[x * n + y] = b;
+		relax(m, n, x);
+		relax(m, n, y);
+	}
+
+	/**
+	 * One step of the Floyd-Warshall algorithm: shortens every bound (i, j) by
+	 * the path through k.
+	 */
+	private static void relax(final int[] m, final int n, final int k) {
+		final int rowK = k * n;
+		for (int i = 0; i < n; i++) {
+			final int dik = m[i * n + k];
+			if (dik == INF) {
+				continue;
+			}
+			final int rowI = i * n;
+			final int dikStrict = dik & 1;
+			for (int j = 0; j < n; j++) {
+				final int dkj = m[rowK + j];
+				final int dij = m[rowI + j];
+				// Same as add(dik, dkj), knowing that dik is finite
+				final int sum = dik + dkj - (dikStrict | (dkj & 1));
+				m[rowI + j] = dkj == INF ? dij : min(dij, sum);
+			}
+		}
+	}
+
+	/**
+	 * Closes the matrix, marking it inconsistent if it has a negative cycle.
+	 */
+	static void close(final int[] m, final int n) {
+		for (int k = 0; k < n; k++) {
+			relax(m, n, k);
+			for (int i = 0; i < n; i++) {
+				if (m[i * n + i] < LEQ_ZERO) {
+					setInconsistent(m);
+					return;
+				}
+			}
+		}
+	}
+
+	static boolean isClosed(final int[] m, final int n) {
+		for (int i = 0; i < n; i++) {
+			final int rowI = i * n;
+			for (int k = 0; k < n; k++) {
+				final int dik = m[rowI + k];
+				final int rowK = k * n;
+				for (int j = 0; j < n; j++) {
+					if (m[rowI + j] > add(dik, m[rowK + j])) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	////
+
+	static void up(final int[] m, final int n) {
+		for (int i = 1; i < n; i++) {
+			m[i * n] = INF;
+		}
+	}
+
+	static void down(final int[] m, final int n) {
+		for (int j = 1; j < n; j++) {
+			m[j] = INF;
+		}
+	}
+
+	static void free(final int[] m, final int n, final int x) {
+		assert isClock(n, x) && x != 0;
+		final int rowX = x * n;
+		for (int i = 0; i < n; i++) {
+			if (i != x) {
+				m[rowX + i] = INF;
+				m[i * n + x] = INF;
+			}
+		}
+	}
+
+	static void reset(final int[] m, final int n, final int x, final int v) {
+		assert isClock(n, x) && x != 0;
+		final int rowX = x * n;
+		final int pos = Leq(v);
+		final int neg = Leq(-v);
+		for (int i = 0; i < n; i++) {
+			m[rowX + i] = add(pos, m[i]);
+			m[i * n + x] = add(m[i * n], neg);
+		}
+	}
+
+	static void copy(final int[] m, final int n, final int x, final int y) {
+		assert isClock(n, x) && isClock(n, y) && y != 0;
+		final int rowX = x * n;
+		final int rowY = y * n;
+		for (int i = 0; i < n; i++) {
+			if (i != x) {
+				m[rowX + i] = m[rowY + i];
+				m[i * n + x] = m[i * n + y];
+			}
+		}
+		m[rowX + y] = LEQ_ZERO;
+		m[rowY + x] = LEQ_ZERO;
+	}
+
+	static void shift(final int[] m, final int n, final int x, final int v) {
+		assert isClock(n, x) && x != 0;
+		final int rowX = x * n;
+		final int pos = Leq(v);
+		final int neg = Leq(-v);
+		for (int i = 0; i < n; i++) {
+			if (i != x) {
+				m[rowX + i] = add(m[rowX + i], pos);
+				m[i * n + x] = add(m[i * n + x], neg);
+			}
+		}
+	}
+
+	////
+
+	private static boolean isClock(final int n, final int x) {
+		return x >= 0 && x < n;
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Inf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
+import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+/**
+ * Reached index for elements containing zones, which filters the candidates
+ * of an underlying index (e.g., a partition by location) to the ones whose
+ * zone might include the zone of the given element. For each element, a
+ * summary of its zone is kept: a bit mask of the clocks with a finite upper
+ * bound and the vector of upper and lower bounds of the clocks. A zone can
+ * only be included in another one if its bounds are at most the bounds of the
+ * other one, so most candidates are rejected by comparing the masks, and the
+ * rest by comparing the vectors, without the full comparison of the DBMs.
+ *
+ * The zone under which an element is stored and the one used for the lookup
+ * can be different (e.g., abstract and concrete zones). If the stored zone of
+ * an element is replaced, its summary is recomputed on the next lookup.
+ */
+public final class ZoneReachedIndex<T> implements ReachedIndex<T> {
+
+	private final ReachedIndex<T> index;
+	private final Function<? super T, ZoneState> storedZone;
+	private final Function<? super T, ZoneState> queryZone;
+	private final List<VarDecl<RatType>> clocks;
+	private final Map<T, Summary> summaries;
+
+	private ZoneReachedIndex(final ReachedIndex<T> index, final Function<? super T, ZoneState> storedZone,
+							 final Function<? super T, ZoneState> queryZone,
+							 final Iterable<? extends VarDecl<RatType>> clocks) {
+		this.index = checkNotNull(index);
+		this.storedZone = checkNotNull(storedZone);
+		this.queryZone = checkNotNull(queryZone);
+		this.clocks = ImmutableList.copyOf(clocks);
+		this.summaries = Containers.createMap();
+	}
+
+	public static <T> ZoneReachedIndex<T> create(final Function<? super T, ?> projection,
+												 final Function<? super T, ZoneState> zone,
+												 final Iterable<? extends VarDecl<RatType>> clocks) {
+		return new ZoneReachedIndex<>(Partition.of(projection), zone, zone, clocks);
+	}
+
+	/**
+	 * Creates an index filtering the candidates of the given index, which
+	 * should only be accessed through the created one.
+	 */
+	public static <T> ZoneReachedIndex<T> create(final ReachedIndex<T> index,
+												 final Function<? super T, ZoneState> storedZone,
+												 final Function<? super T, ZoneState> queryZone,
+												 final Iterable<? extends VarDecl<RatType>> clocks) {
+		return new ZoneReachedIndex<>(index, storedZone, queryZone, clocks);
+	}
+
+	@Override
+	public void add(final T elem) {
+		checkNotNull(elem);
+		index.add(elem);
+		summaries.put(elem, new Summary(storedZone.apply(elem), clocks));
+	}
+
+	@Override
+	public List<T> get(final T elem) {
+		checkNotNull(elem);
+		final List<T> candidates = index.get(elem);
+		final ZoneState zone = queryZone.apply(elem);
+		if (zone.isBottom()) {
+			// The bottom zone is included in every zone
+			return candidates;
+		}
+
+		final Summary query = new Summary(zone, clocks);
+		final List<T> result = new ArrayList<>(candidates.size());
+		for (final T candidate : candidates) {
+			if (query.mightBeLeq(getSummary(candidate))) {
+				result.add(candidate);
+			}
+		}
+		return result;
+	}
+
+	private Summary getSummary(final T elem) {
+		final ZoneState zone = storedZone.apply(elem);
+		Summary summary = summaries.get(elem);
+		if (summary == null || summary.zone != zone) {
+			summary = new Summary(zone, clocks);
+			summaries.put(elem, summary);
+		}
+		return summary;
+	}
+
+	private static final class Summary {
+		private final ZoneState zone;
+		private final long finiteUpperBounds;
+		private final int[] bounds;
+
+		private Summary(final ZoneState zone, final List<VarDecl<RatType>> clocks) {
+			this.zone = zone;
+			if (zone.isBottom()) {
+				finiteUpperBounds = 0;
+				bounds = null;
+			} else {
+				bounds = zone.getBounds(clocks);
+				long mask = 0;
+				for (int i = 0; i < clocks.size() && i < Long.SIZE; i++) {
+					if (bounds[2 * i] != Inf()) {
+						mask |= 1L << i;
+					}
+				}
+				finiteUpperBounds = mask;
+			}
+		}
+
+		/**
+		 * Checks a necessary condition of the (non-bottom) zone of this summary
+		 * being included in the zone of the given one.
+		 */
+		private boolean mightBeLeq(final Summary that) {
+			assert this.bounds != null;
+			if (that.bounds == null) {
+				return false;
+			}
+			if ((that.finiteUpperBounds & ~this.finiteUpperBounds) != 0) {
+				return false;
+			}
+			for (int i = 0; i < bounds.length; i++) {
+				if (this.bounds[i] > that.bounds[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -25,8 +25,11 @@ import static java.util.stream.Collectors.toList;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 
 import hu.bme.mit.theta.analysis.expr.ExprState;
@@ -45,6 +48,8 @@ public final class ZoneState implements ExprState {
 	private static final ZoneState TOP = new ZoneState(DBM.top(Collections.emptySet()));
 	private static final ZoneState BOTTOM = new ZoneState(DBM.bottom(Collections.emptySet()));
 
+	private static final Interner<ZoneState> INTERNER = Interners.newWeakInterner();
+
 	private static final int HASH_SEED = 4349;
 
 	private volatile int hashCode = 0;
@@ -178,6 +183,19 @@ public final class ZoneState implements ExprState {
 		return this.dbm.isConsistentWith(that.dbm);
 	}
 
+	/**
+	 * Gets the canonical instance of the zones equal to this one. Interning
+	 * the zones stored in a large state space lets equal zones share their
+	 * DBM. Canonical instances are only kept while they are referenced.
+	 */
+	public ZoneState intern() {
+		return INTERNER.intern(this);
+	}
+
+	int[] getBounds(final List<? extends VarDecl<RatType>> clocks) {
+		return dbm.getBounds(clocks);
+	}
+
 	////
 
 	@Override
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+
+public class ArgNodeExclusionTest {
+
+	private static final Action ACTION = new ActionStub("A");
+
+	private static final State BOTTOM = new State() {
+		@Override
+		public boolean isBottom() {
+			return true;
+		}
+	};
+
+	@Test
+	public void testDeepChain() {
+		final ARG<State, Action> arg = ARG.create((s1, s2) -> true);
+		final ArgNode<State, Action> init = arg.createInitNode(new StateStub("0"), false);
+		ArgNode<State, Action> node = init;
+		for (int i = 1; i < 100_000; i++) {
+			node = arg.createSuccNode(node, ACTION, new StateStub(Integer.toString(i)), false);
+		}
+		final ArgNode<State, Action> leaf = node;
+		final ArgNode<State, Action> other = arg.createInitNode(new StateStub("other"), false);
+
+		assertFalse(leaf.isExcluded());
+		assertFalse(leaf.mayCover(init));
+		assertTrue(init.mayCover(leaf));
+
+		init.setCoveringNode(other);
+		assertTrue(leaf.isExcluded());
+		assertFalse(leaf.mayCover(other));
+
+		init.unsetCoveringNode();
+		assertFalse(leaf.isExcluded());
+
+		init.setState(BOTTOM);
+		assertTrue(leaf.isExcluded());
+		init.setState(new StateStub("0"));
+		assertFalse(leaf.isExcluded());
+	}
+
+	@Test
+	public void testStress() {
+		final Random random = new Random(7);
+		for (int run = 0; run < 100; run++) {
+			final ARG<State, Action> arg = ARG.create((s1, s2) -> true);
+			for (int i = 0; i < 2; i++) {
+				arg.createInitNode(new StateStub("i" + i), false);
+			}
+
+			for (int step = 0; step < 500; step++) {
+				final List<ArgNode<State, Action>> live = arg.getNodes().collect(toList());
+				if (live.isEmpty()) {
+					break;
+				}
+				final ArgNode<State, Action> node = live.get(random.nextInt(live.size()));
+				final ArgNode<State, Action> other = live.get(random.nextInt(live.size()));
+				final int op = random.nextInt(20);
+				if (op < 10) {
+					arg.createSuccNode(node, ACTION, new StateStub("n"), false);
+				} else if (op < 13) {
+					if (other != node) {
+						node.setCoveringNode(other);
+					}
+				} else if (op < 15) {
+					node.unsetCoveringNode();
+				} else if (op < 16) {
+					node.clearCoveredNodes();
+				} else if (op < 18) {
+					node.setState(random.nextBoolean() ? BOTTOM : new StateStub("s"));
+				} else if (op < 19 && !other.isExcluded() && other != node) {
+					node.cover(other);
+				} else if (random.nextInt(5) == 0) {
+					arg.prune(node);
+				}
+
+				for (final ArgNode<State, Action> n : arg.getNodes().collect(toList())) {
+					assertEquals(n.ancestors().anyMatch(ArgNode::isSubsumed), n.isExcluded());
+				}
+				for (int i = 0; i < 20 && arg.size() > 0; i++) {
+					final List<ArgNode<State, Action>> nodes = arg.getNodes().collect(toList());
+					final ArgNode<State, Action> n1 = nodes.get(random.nextInt(nodes.size()));
+					final ArgNode<State, Action> n2 = nodes.get(random.nextInt(nodes.size()));
+					final boolean expected = n1.ancestors().noneMatch(n -> n.equals(n2) || n.isSubsumed());
+					assertEquals(expected, n1.mayCover(n2));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.PartialOrdStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+
+public class ArgNodeSetsTest {
+
+	private static final Action ACTION = new ActionStub("A");
+
+	@Test
+	public void testDeepArg() {
+		final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+		ArgNode<State, Action> node = arg.createInitNode(new StateStub("0"), false);
+		for (int i = 1; i < 100_000; i++) {
+			if (i % 1000 == 0) {
+				arg.createSuccNode(node, ACTION, new StateStub("target"), true);
+			}
+			node.setExpanded(true);
+			node = arg.createSuccNode(node, ACTION, new StateStub(Integer.toString(i)), false);
+		}
+		assertEquals(100_099, arg.size());
+		assertEquals(100_099, arg.getNodes().count());
+		assertEquals(100, arg.getIncompleteNodes().count());
+		assertEquals(99, arg.getUnsafeNodes().count());
+		assertEquals(99_999, arg.getDepth());
+		assertEquals(100_099, arg.getInitNodes().findFirst().get().descendants().count());
+		assertEquals(100_000, node.ancestors().count());
+	}
+
+	@Test
+	public void testRandomOperations() {
+		final Random random = new Random(42);
+		for (int run = 0; run < 50; run++) {
+			final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+			for (int i = 0; i < 3; i++) {
+				arg.createInitNode(new StateStub("i" + i), false);
+			}
+
+			for (int step = 0; step < 300; step++) {
+				final List<ArgNode<State, Action>> live = arg.getNodes().collect(toList());
+				if (live.isEmpty()) {
+					break;
+				}
+				final ArgNode<State, Action> node = live.get(random.nextInt(live.size()));
+				final int op = random.nextInt(10);
+				if (op < 5) {
+					if (!node.isTarget()) {
+						arg.createSuccNode(node, ACTION, new StateStub("n"), random.nextInt(8) == 0);
+						node.setExpanded(random.nextBoolean());
+					}
+				} else if (op < 7) {
+					final ArgNode<State, Action> other = live.get(random.nextInt(live.size()));
+					if (other != node && !other.isExcluded()) {
+						node.cover(other);
+					}
+				} else if (op < 8) {
+					node.unsetCoveringNode();
+				} else if (op < 9) {
+					node.clearCoveredNodes();
+				} else if (random.nextInt(4) == 0) {
+					arg.prune(node);
+				}
+				checkConsistency(arg);
+			}
+		}
+	}
+
+	private static void checkConsistency(final ARG<State, Action> arg) {
+		final Set<ArgNode<State, Action>> allNodes = arg.getInitNodes().flatMap(ArgNode::descendants)
+				.collect(toSet());
+		assertEquals(allNodes, arg.getNodes().collect(toSet()));
+		assertEquals(allNodes.size(), arg.size());
+
+		final Set<ArgNode<State, Action>> unexcluded = arg.getInitNodes()
+				.flatMap(ArgNodeSetsTest::referenceUnexcludedDescendants).collect(toSet());
+		assertEquals(unexcluded.stream().filter(ArgNode::isTarget).collect(toSet()),
+				arg.getUnsafeNodes().collect(toSet()));
+		assertEquals(unexcluded.stream().filter(n -> !n.isExpanded()).collect(toSet()),
+				arg.getIncompleteNodes().collect(toSet()));
+		assertEquals(allNodes.stream().allMatch(ArgNode::isSafe), arg.isSafe());
+		assertEquals(arg.isInitialized() && allNodes.stream().allMatch(ArgNode::isComplete), arg.isComplete());
+	}
+
+	private static Stream<ArgNode<State, Action>> referenceUnexcludedDescendants(final ArgNode<State, Action> node) {
+		if (node.ancestors().anyMatch(ArgNode::isSubsumed)) {
+			return Stream.empty();
+		}
+		return node.descendants().filter(n -> n.ancestors().noneMatch(ArgNode::isSubsumed));
+	}
+
+}
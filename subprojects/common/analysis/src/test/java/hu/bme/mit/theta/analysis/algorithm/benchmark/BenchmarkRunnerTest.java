@@ -0,0 +1,249 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult.Status;
+import hu.bme.mit.theta.analysis.stubs.PartialOrdStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+public class BenchmarkRunnerTest {
+
+	@Test
+	public void testMatrix() {
+		final ConfigMatrix matrix = ConfigMatrix.of(Arrays.asList("domain=EXPL,PRED_CART", "--search=BFS,DFS,ERR"));
+		assertEquals(Arrays.asList("domain", "search"), matrix.getAxes());
+
+		final List<Map<String, String>> cells = matrix.getCells();
+		assertEquals(6, cells.size());
+		assertEquals(ImmutableMap.of("domain", "EXPL", "search", "BFS"), cells.get(0));
+		assertEquals(ImmutableMap.of("domain", "PRED_CART", "search", "ERR"), cells.get(5));
+
+		assertEquals(Collections.singletonList(Collections.emptyMap()),
+				ConfigMatrix.of(Collections.emptyList()).getCells());
+
+		// Values split at the commas by the command line parser
+		assertEquals(matrix.getCells(),
+				ConfigMatrix.of(Arrays.asList("domain=EXPL", "PRED_CART", "--search=BFS", "DFS", "ERR")).getCells());
+	}
+
+	@Test
+	public void testArgs() {
+		final List<String> base = Arrays.asList("--domain", "EXPL", "--benchmark", "--search", "BFS");
+		assertEquals(Arrays.asList("--benchmark", "--search", "BFS", "--domain", "PRED_BOOL"),
+				ConfigMatrix.toArgs(base, ImmutableMap.of("domain", "PRED_BOOL")));
+		assertEquals(Arrays.asList("--domain", "EXPL", "--benchmark"),
+				ConfigMatrix.removeOptions(base, Collections.singleton("search")));
+	}
+
+	@Test
+	public void testRun() {
+		final List<List<String>> calls = new ArrayList<>();
+		final BenchmarkRunner runner = BenchmarkRunner.builder((args, solverFactory) -> {
+			calls.add(args);
+			final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+			arg.createInitNode(new StateStub("0"), false);
+			if (args.contains("FAIL")) {
+				throw new IllegalStateException("failure");
+			}
+			return SafetyResult.safe(arg);
+		}).warmupRuns(1).build();
+
+		final List<BenchmarkResult> results = runner.run(Arrays.asList(new File("m1"), new File("m2")),
+				ConfigMatrix.of(Collections.singleton("domain=OK,FAIL")), Arrays.asList("--model", "x", "--bench"));
+
+		assertEquals(5, calls.size());
+		assertEquals(Arrays.asList("--bench", "--domain", "OK", "--model", "m1"), calls.get(0));
+		assertEquals(4, results.size());
+		assertEquals(Status.SAFE, results.get(0).getStatus());
+		assertEquals(1L, results.get(0).getStats().get("ArgSize"));
+		assertTrue(results.get(0).getStats().containsKey("UnfoldCacheHitRate"));
+		assertEquals(Status.ERROR, results.get(1).getStatus());
+		assertEquals("IllegalStateException: failure", results.get(1).getError().get());
+		assertEquals("m2", results.get(2).getModel());
+		assertEquals(ImmutableMap.of("domain", "FAIL"), results.get(3).getConfig());
+	}
+
+	@Test
+	public void testTimeout() {
+		final BenchmarkRunner runner = BenchmarkRunner.builder((args, solverFactory) -> {
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.onSpinWait();
+			}
+			throw new IllegalStateException("interrupted");
+		}).timeout(200, TimeUnit.MILLISECONDS).build();
+
+		final List<BenchmarkResult> results = runner.run(Collections.singletonList(new File("m")),
+				ConfigMatrix.of(Collections.emptyList()), Collections.emptyList());
+
+		assertEquals(1, results.size());
+		assertEquals(Status.TIMEOUT, results.get(0).getStatus());
+		assertTrue(results.get(0).getTimeMs() >= 200);
+	}
+
+	@Test
+	public void testAbandonedRun() {
+		final AtomicBoolean release = new AtomicBoolean(false);
+		final BenchmarkRunner runner = BenchmarkRunner.builder((args, solverFactory) -> {
+			// Ignores the interrupt until released
+			while (args.contains("STUCK") && !release.get()) {
+				Thread.onSpinWait();
+			}
+			final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+			arg.createInitNode(new StateStub("0"), false);
+			return SafetyResult.safe(arg);
+		}).timeout(100, TimeUnit.MILLISECONDS).gracePeriod(100, TimeUnit.MILLISECONDS).build();
+
+		final List<BenchmarkResult> results;
+		try {
+			results = runner.run(Collections.singletonList(new File("m")),
+					ConfigMatrix.of(Collections.singleton("domain=OK,STUCK,OK")), Collections.emptyList());
+		} finally {
+			release.set(true);
+		}
+
+		assertEquals(Status.SAFE, results.get(0).getStatus());
+		assertFalse(results.get(0).isPossiblyDistorted());
+		assertEquals(Status.TIMEOUT, results.get(1).getStatus());
+		assertFalse(results.get(1).isPossiblyDistorted());
+		assertEquals(Status.SAFE, results.get(2).getStatus());
+		assertTrue(results.get(2).isPossiblyDistorted());
+	}
+
+	@Test
+	public void testSolversClosed() {
+		final List<SolverStub> solvers = Collections.synchronizedList(new ArrayList<>());
+		final SolverFactory solverFactory = new SolverFactory() {
+			@Override
+			public Solver createSolver() {
+				final SolverStub solver = new SolverStub();
+				solvers.add(solver);
+				return solver;
+			}
+
+			@Override
+			public ItpSolver createItpSolver() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		final BenchmarkRunner runner = BenchmarkRunner.builder((args, runSolverFactory) -> {
+			runSolverFactory.createSolver();
+			runSolverFactory.createSolver();
+			while (args.contains("LOOP") && !Thread.currentThread().isInterrupted()) {
+				Thread.onSpinWait();
+			}
+			final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+			arg.createInitNode(new StateStub("0"), false);
+			return SafetyResult.safe(arg);
+		}).solverFactory(solverFactory).timeout(200, TimeUnit.MILLISECONDS).build();
+
+		final List<BenchmarkResult> results = runner.run(Collections.singletonList(new File("m")),
+				ConfigMatrix.of(Collections.singleton("domain=OK,LOOP")), Collections.emptyList());
+
+		assertEquals(Status.SAFE, results.get(0).getStatus());
+		assertEquals(Status.TIMEOUT, results.get(1).getStatus());
+		assertEquals(4, solvers.size());
+		assertTrue(solvers.stream().allMatch(s -> s.closed));
+	}
+
+	private static final class SolverStub implements Solver {
+		private volatile boolean closed = false;
+
+		@Override
+		public void add(final Expr<BoolType> assertion) {
+		}
+
+		@Override
+		public void track(final Expr<BoolType> assertion) {
+		}
+
+		@Override
+		public SolverStatus check() {
+			return null;
+		}
+
+		@Override
+		public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+			return null;
+		}
+
+		@Override
+		public void push() {
+		}
+
+		@Override
+		public void pop(final int n) {
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public SolverStatus getStatus() {
+			return null;
+		}
+
+		@Override
+		public Valuation getModel() {
+			return null;
+		}
+
+		@Override
+		public Collection<Expr<BoolType>> getUnsatCore() {
+			return null;
+		}
+
+		@Override
+		public Collection<Expr<BoolType>> getAssertions() {
+			return null;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+}
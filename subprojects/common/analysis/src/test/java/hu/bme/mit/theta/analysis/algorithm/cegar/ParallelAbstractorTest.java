@@ -0,0 +1,310 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.InitFunc;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.stubs.PrecStub;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.stmt.Stmts;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class ParallelAbstractorTest {
+
+	@Test
+	public void testSameResultAsBasic() {
+		final int[][] configs = {
+				// modulus, target, steps...
+				{50, 17, 3, 5},
+				{50, 17, 10, 20},
+				{97, 96, 2},
+				{64, 33, 4, 8, 16},
+				{100, 99, 1},
+		};
+		for (final int[] config : configs) {
+			final int modulus = config[0];
+			final int target = config[1];
+			final List<Integer> steps = Arrays.stream(config, 2, config.length).boxed().collect(Collectors.toList());
+
+			for (final int threads : new int[]{1, 2, 8}) {
+				final Supplier<ArgBuilder<ModState, StepAction, PrecStub>> factory = () -> createArgBuilder(modulus,
+						steps, target);
+
+				final BasicAbstractor<ModState, StepAction, PrecStub> basic = BasicAbstractor.builder(factory.get())
+						.build();
+				final ParallelAbstractor<ModState, StepAction, PrecStub> parallel = ParallelAbstractor
+						.builder(factory).threads(threads).build();
+
+				final ARG<ModState, StepAction> basicArg = basic.createArg();
+				final ARG<ModState, StepAction> parallelArg = parallel.createArg();
+				final AbstractorResult basicResult = basic.check(basicArg, new PrecStub());
+				final AbstractorResult parallelResult = parallel.check(parallelArg, new PrecStub());
+
+				final boolean expectedSafe = isUnreachable(modulus, steps, target);
+				assertEquals(expectedSafe, basicResult.isSafe());
+				assertEquals(basicResult.isSafe(), parallelResult.isSafe());
+				assertEquals(basicArg.isSafe(), parallelArg.isSafe());
+				if (parallelResult.isSafe()) {
+					assertTrue(parallelArg.isComplete());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFullExploration() {
+		final List<Integer> steps = Arrays.asList(3, 7);
+		final Supplier<ArgBuilder<ModState, StepAction, PrecStub>> factory = () -> createArgBuilder(40, steps, 5);
+
+		final BasicAbstractor<ModState, StepAction, PrecStub> basic = BasicAbstractor.builder(factory.get())
+				.stopCriterion(StopCriterions.fullExploration()).build();
+		final ParallelAbstractor<ModState, StepAction, PrecStub> parallel = ParallelAbstractor.builder(factory)
+				.threads(4).stopCriterion(StopCriterions.fullExploration()).build();
+
+		final ARG<ModState, StepAction> basicArg = basic.createArg();
+		final ARG<ModState, StepAction> parallelArg = parallel.createArg();
+		basic.check(basicArg, new PrecStub());
+		parallel.check(parallelArg, new PrecStub());
+
+		assertEquals(basicArg.getUnsafeNodes().count(), parallelArg.getUnsafeNodes().count());
+		assertEquals(basicArg.getNodes().filter(n -> !n.isExcluded()).map(n -> n.getState().value)
+						.collect(Collectors.toSet()),
+				parallelArg.getNodes().filter(n -> !n.isExcluded()).map(n -> n.getState().value)
+						.collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void testEachWorkerHasOwnArgBuilder() {
+		final AtomicInteger created = new AtomicInteger(0);
+		final Supplier<ArgBuilder<ModState, StepAction, PrecStub>> factory = () -> {
+			created.incrementAndGet();
+			return createArgBuilder(10, Collections.singletonList(1), 11);
+		};
+		ParallelAbstractor.builder(factory).threads(3).build();
+		assertEquals(4, created.get());
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testInterrupted() {
+		final Supplier<ArgBuilder<ModState, StepAction, PrecStub>> factory = () -> createArgBuilder(1000,
+				Collections.singletonList(1), 999);
+		final ParallelAbstractor<ModState, StepAction, PrecStub> parallel = ParallelAbstractor.builder(factory)
+				.threads(2).build();
+		final ARG<ModState, StepAction> arg = parallel.createArg();
+		Thread.currentThread().interrupt();
+		try {
+			parallel.check(arg, new PrecStub());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	/**
+	 * Expands with predicate abstraction, where the workers unfold the
+	 * transitions over the same (fresh) variables concurrently.
+	 */
+	@Test
+	public void testPredAbstraction() {
+		final VarDecl<IntType> x = Var("x", Int());
+		final VarDecl<IntType> y = Var("y", Int());
+		final List<Expr<BoolType>> preds = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			preds.add(Lt(x.getRef(), Int(i)));
+			preds.add(Gt(y.getRef(), Int(3 * i)));
+		}
+		final PredPrec prec = PredPrec.of(preds);
+		final Expr<BoolType> target = Gt(y.getRef(), Int(12));
+
+		final List<PredStmtAction> actions = Arrays.asList(
+				new PredStmtAction(Stmts.Assume(Lt(x.getRef(), Int(5))),
+						Stmts.Assign(x, Add(x.getRef(), Int(1)))),
+				new PredStmtAction(Stmts.Assign(y, Add(y.getRef(), x.getRef()))));
+		final Supplier<ArgBuilder<PredState, PredStmtAction, PredPrec>> factory = () -> {
+			final Solver solver = Z3SolverFactory.getInstance().createSolver();
+			final PredAnalysis analysis = PredAnalysis.create(solver, PredAbstractors.booleanAbstractor(solver),
+					And(Eq(x.getRef(), Int(0)), Eq(y.getRef(), Int(0))));
+			return ArgBuilder.create(s -> actions, analysis, s -> s.getPreds().contains(target));
+		};
+
+		final BasicAbstractor<PredState, PredStmtAction, PredPrec> basic = BasicAbstractor.builder(factory.get())
+				.stopCriterion(StopCriterions.fullExploration()).build();
+		final ARG<PredState, PredStmtAction> basicArg = basic.createArg();
+		basic.check(basicArg, prec);
+		final Set<PredState> basicStates = basicArg.getNodes().filter(n -> !n.isExcluded())
+				.map(n -> n.getState()).collect(Collectors.toSet());
+
+		for (final int threads : new int[]{2, 8}) {
+			final ParallelAbstractor<PredState, PredStmtAction, PredPrec> parallel = ParallelAbstractor
+					.builder(factory).threads(threads).stopCriterion(StopCriterions.fullExploration()).build();
+			final ARG<PredState, PredStmtAction> parallelArg = parallel.createArg();
+			parallel.check(parallelArg, prec);
+
+			assertEquals(basicArg.isSafe(), parallelArg.isSafe());
+			assertEquals(basicStates, parallelArg.getNodes().filter(n -> !n.isExcluded())
+					.map(n -> n.getState()).collect(Collectors.toSet()));
+		}
+	}
+
+	private static boolean isUnreachable(final int modulus, final List<Integer> steps, final int target) {
+		final boolean[] reached = new boolean[modulus];
+		final Deque<Integer> queue = new ArrayDeque<>();
+		reached[0] = true;
+		queue.add(0);
+		while (!queue.isEmpty()) {
+			final int value = queue.remove();
+			for (final int step : steps) {
+				final int succ = (value + step) % modulus;
+				if (!reached[succ]) {
+					reached[succ] = true;
+					queue.add(succ);
+				}
+			}
+		}
+		return !reached[target];
+	}
+
+	private static ArgBuilder<ModState, StepAction, PrecStub> createArgBuilder(final int modulus,
+																			   final List<Integer> steps,
+																			   final int target) {
+		final List<StepAction> actions = steps.stream().map(StepAction::new).collect(Collectors.toList());
+		final LTS<ModState, StepAction> lts = s -> actions;
+		return ArgBuilder.create(lts, new ModAnalysis(modulus), s -> s.value == target);
+	}
+
+	private static final class PredStmtAction extends StmtAction {
+		private final List<Stmt> stmts;
+
+		private PredStmtAction(final Stmt... stmts) {
+			this.stmts = Arrays.asList(stmts);
+		}
+
+		@Override
+		public List<Stmt> getStmts() {
+			return stmts;
+		}
+	}
+
+	private static final class ModState implements State {
+		private final int value;
+
+		private ModState(final int value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean isBottom() {
+			return false;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof ModState && ((ModState) obj).value == value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(value);
+		}
+	}
+
+	private static final class StepAction implements Action {
+		private final int step;
+
+		private StepAction(final int step) {
+			this.step = step;
+		}
+
+		@Override
+		public String toString() {
+			return "+" + step;
+		}
+	}
+
+	private static final class ModAnalysis implements Analysis<ModState, StepAction, PrecStub> {
+		private final int modulus;
+
+		private ModAnalysis(final int modulus) {
+			this.modulus = modulus;
+		}
+
+		@Override
+		public PartialOrd<ModState> getPartialOrd() {
+			return ModState::equals;
+		}
+
+		@Override
+		public InitFunc<ModState, PrecStub> getInitFunc() {
+			return p -> Collections.singleton(new ModState(0));
+		}
+
+		@Override
+		public TransFunc<ModState, StepAction, PrecStub> getTransFunc() {
+			return (s, a, p) -> {
+				final Collection<ModState> succs = Collections.singleton(new ModState((s.value + a.step) % modulus));
+				return succs;
+			};
+		}
+	}
+
+}
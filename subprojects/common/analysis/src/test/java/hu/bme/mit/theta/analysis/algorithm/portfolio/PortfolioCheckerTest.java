@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.portfolio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.stubs.PartialOrdStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+
+public class PortfolioCheckerTest {
+
+	private static SafetyResult<State, Action> safe() {
+		return SafetyResult.safe(ARG.create(new PartialOrdStub()));
+	}
+
+	private static SafetyResult<State, Action> unsafe() {
+		final State state = new StateStub("s");
+		return SafetyResult.unsafe(Trace.of(List.of(state), List.of()), ARG.create(new PartialOrdStub()));
+	}
+
+	private static SafetyResult<State, Action> runUntilInterrupted(final AtomicBoolean cancelled) {
+		while (!Thread.currentThread().isInterrupted()) {
+			Thread.onSpinWait();
+		}
+		cancelled.set(true);
+		throw new CancellationException();
+	}
+
+	@Test
+	public void testFirstResult() {
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+		final PortfolioChecker<State, Action> checker = PortfolioChecker.<State, Action>builder()
+				.add("slow", () -> runUntilInterrupted(cancelled))
+				.add("fast", PortfolioCheckerTest::unsafe).build();
+
+		assertTrue(checker.check(UnitPrec.getInstance()).isUnsafe());
+		assertTrue(cancelled.get());
+	}
+
+	@Test
+	public void testStages() {
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+		final PortfolioChecker<State, Action> checker = PortfolioChecker.<State, Action>builder()
+				.stage(100, TimeUnit.MILLISECONDS).add("slow", () -> runUntilInterrupted(cancelled))
+				.add("failing", () -> {
+					throw new UnsupportedOperationException();
+				})
+				.stage(0, TimeUnit.SECONDS).add("second", PortfolioCheckerTest::safe).build();
+
+		assertTrue(checker.check(UnitPrec.getInstance()).isSafe());
+		assertTrue(cancelled.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNoResult() {
+		PortfolioChecker.<State, Action>builder().add("failing", () -> {
+			throw new UnsupportedOperationException();
+		}).build().check(UnitPrec.getInstance());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testConflictingVerdicts() {
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		PortfolioChecker.<State, Action>builder()
+				.add("safe", () -> {
+					barrier.await();
+					return safe();
+				})
+				.add("unsafe", () -> {
+					barrier.await();
+					return unsafe();
+				}).build().check(UnitPrec.getInstance());
+	}
+
+	@Test
+	public void testSpec() {
+		final PortfolioSpec spec = PortfolioSpec.parse("30:domain=EXPL;--domain=PRED_BOOL | domain=PRED_CART,refinement=BW_BIN_ITP");
+		assertEquals(2, spec.getStageCount());
+		assertEquals(30, spec.getTimeoutSec(0));
+		assertEquals(List.of(ImmutableMap.of("domain", "EXPL"), ImmutableMap.of("domain", "PRED_BOOL")),
+				spec.getConfigurations(0));
+		assertEquals(0, spec.getTimeoutSec(1));
+		assertEquals(List.of(ImmutableMap.of("domain", "PRED_CART", "refinement", "BW_BIN_ITP")),
+				spec.getConfigurations(1));
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.Havoc;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.Skip;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Ite;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Div;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mod;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neg;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.expl.StmtApplier.ApplyResult;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class CompiledStmtApplierTest {
+
+	private static final VarDecl<IntType> X = Var("x", Int());
+	private static final VarDecl<IntType> Y = Var("y", Int());
+	private static final VarDecl<BoolType> B = Var("b", Bool());
+	private static final VarDecl<RatType> R = Var("r", Rat());
+
+	@Test
+	public void testSimple() {
+		final CompiledStmtApplier applier = CompiledStmtApplier.create();
+		final MutableValuation val = new MutableValuation();
+		val.put(X, Int(1));
+
+		assertEquals(ApplyResult.SUCCESS, applier.apply(Assign(Y, Add(X.getRef(), Int(2))), val));
+		assertEquals(Int(3), val.eval(Y).get());
+		assertEquals(ApplyResult.BOTTOM, applier.apply(Assume(Lt(Y.getRef(), X.getRef())), val));
+		assertEquals(ApplyResult.SUCCESS, applier.apply(Havoc(X), val));
+		assertFalse(val.eval(X).isPresent());
+		assertEquals(ApplyResult.FAILURE, applier.apply(Assign(Y, Add(X.getRef(), Int(2))), val));
+		assertEquals(Int(3), val.eval(Y).get());
+		assertEquals(ApplyResult.SUCCESS, applier.apply(Assume(Or(Bool(true), B.getRef())), val));
+		assertEquals(ApplyResult.BOTTOM, applier.apply(Assume(And(B.getRef(), Bool(false))), val));
+	}
+
+	@Test
+	public void testUnsupported() {
+		final CompiledStmtApplier applier = CompiledStmtApplier.create();
+		assertTrue(applier.isCompilable(Assign(X, Mul(X.getRef(), Y.getRef()))));
+		assertFalse(applier.isCompilable(Havoc(R)));
+		assertFalse(applier.isCompilable(SequenceStmt(List.of(Skip(), Havoc(R)))));
+
+		final MutableValuation val = new MutableValuation();
+		val.put(X, IntLitExpr.of(Long.MAX_VALUE));
+		assertEquals(ApplyResult.FAILURE, applier.apply(Assign(X, Add(X.getRef(), Int(1))), val));
+		assertEquals(IntLitExpr.of(Long.MAX_VALUE), val.eval(X).get());
+	}
+
+	@Test
+	public void testSameAsInterpreter() {
+		final Random random = new Random(42);
+		final CompiledStmtApplier applier = CompiledStmtApplier.create();
+		int compiled = 0;
+		for (int i = 0; i < 5000; i++) {
+			final Stmt stmt = randomStmt(random, 2);
+			final MutableValuation val = randomValuation(random);
+			final MutableValuation compiledVal = MutableValuation.copyOf(val);
+			final MutableValuation interpretedVal = MutableValuation.copyOf(val);
+
+			final ApplyResult compiledResult = applier.apply(stmt, compiledVal);
+			ApplyResult interpretedResult;
+			try {
+				interpretedResult = StmtApplier.apply(stmt, interpretedVal, false);
+			} catch (final ArithmeticException e) {
+				interpretedResult = null;
+			}
+
+			if (compiledResult == ApplyResult.FAILURE) {
+				assertEquals(stmt.toString(), val, compiledVal);
+			} else {
+				compiled++;
+				assertEquals(stmt.toString(), interpretedResult, compiledResult);
+				if (compiledResult == ApplyResult.SUCCESS) {
+					assertEquals(stmt.toString(), interpretedVal, compiledVal);
+				}
+			}
+		}
+		assertTrue(compiled > 1000);
+	}
+
+	private static MutableValuation randomValuation(final Random random) {
+		final MutableValuation val = new MutableValuation();
+		if (random.nextInt(4) != 0) {
+			val.put(X, Int(random.nextInt(7) - 3));
+		}
+		if (random.nextInt(4) != 0) {
+			val.put(Y, Int(random.nextInt(7) - 3));
+		}
+		if (random.nextInt(4) != 0) {
+			val.put(B, Bool(random.nextBoolean()));
+		}
+		return val;
+	}
+
+	private static Stmt randomStmt(final Random random, final int depth) {
+		final int kind = random.nextInt(depth > 0 ? 7 : 5);
+		switch (kind) {
+			case 0:
+				return Assign(random.nextBoolean() ? X : Y, randomInt(random, 3));
+			case 1:
+				return Assign(B, randomBool(random, 3));
+			case 2:
+				return Assume(randomBool(random, 3));
+			case 3:
+				return random.nextBoolean() ? Havoc(X) : Havoc(B);
+			case 4:
+				return Skip();
+			case 5:
+				return SequenceStmt(randomStmts(random, depth - 1));
+			default:
+				return NonDetStmt(randomStmts(random, depth - 1));
+		}
+	}
+
+	private static List<Stmt> randomStmts(final Random random, final int depth) {
+		final List<Stmt> stmts = new ArrayList<>();
+		final int size = random.nextInt(3) + 1;
+		for (int i = 0; i < size; i++) {
+			stmts.add(randomStmt(random, depth));
+		}
+		return stmts;
+	}
+
+	private static Expr<IntType> randomInt(final Random random, final int depth) {
+		if (depth == 0 || random.nextInt(4) == 0) {
+			switch (random.nextInt(3)) {
+				case 0:
+					return X.getRef();
+				case 1:
+					return Y.getRef();
+				default:
+					return Int(random.nextInt(5) - 2);
+			}
+		}
+		final Expr<IntType> left = randomInt(random, depth - 1);
+		final Expr<IntType> right = randomInt(random, depth - 1);
+		switch (random.nextInt(7)) {
+			case 0:
+				return Add(left, right);
+			case 1:
+				return Sub(left, right);
+			case 2:
+				return Mul(left, right);
+			case 3:
+				return Div(left, right);
+			case 4:
+				return Mod(left, right);
+			case 5:
+				return Neg(left);
+			default:
+				return Ite(randomBool(random, depth - 1), left, right);
+		}
+	}
+
+	private static Expr<BoolType> randomBool(final Random random, final int depth) {
+		if (depth == 0 || random.nextInt(4) == 0) {
+			switch (random.nextInt(3)) {
+				case 0:
+					return B.getRef();
+				default:
+					return Bool(random.nextBoolean());
+			}
+		}
+		final Expr<BoolType> left = randomBool(random, depth - 1);
+		final Expr<BoolType> right = randomBool(random, depth - 1);
+		switch (random.nextInt(10)) {
+			case 0:
+				return Not(left);
+			case 1:
+				return And(left, right);
+			case 2:
+				return Or(left, right);
+			case 3:
+				return Imply(left, right);
+			case 4:
+				return Iff(left, right);
+			case 5:
+				return Xor(left, right);
+			case 6:
+				return Eq(randomInt(random, depth - 1), randomInt(random, depth - 1));
+			case 7:
+				return Neq(randomInt(random, depth - 1), randomInt(random, depth - 1));
+			case 8:
+				return Lt(randomInt(random, depth - 1), randomInt(random, depth - 1));
+			default:
+				return Geq(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		}
+	}
+
+}
@@ -23,6 +23,7 @@ import java.util.Collections;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.core.decl.VarDecl;
@@ -93,4 +94,35 @@ public class ExplPrecTest {
 		Assert.assertNotEquals(p1, p4);
 		Assert.assertNotEquals(p5, p7);
 	}
+
+	@Test
+	public void testCompactStates() {
+		final ExplPrec prec = ExplPrec.of(ImmutableSet.of(y, x));
+		final ExplState s1 = prec.createState(ImmutableValuation.builder().put(x, Int(1)).put(y, Int(2)).build());
+		final ExplState s2 = prec.createState(ImmutableValuation.builder().put(x, Int(1)).build());
+		final ExplState s3 = prec.createState(ImmutableValuation.builder().put(y, Int(2)).put(x, Int(1)).build());
+		final ExplState s4 = ExplState.of(ImmutableValuation.builder().put(x, Int(1)).put(y, Int(2)).build());
+
+		Assert.assertEquals(ImmutableList.of(y, x), ImmutableList.copyOf(s1.getDecls()));
+		Assert.assertEquals(Int(2), s1.eval(y).get());
+		Assert.assertEquals(Int(1), s2.eval(x).get());
+		Assert.assertFalse(s2.eval(y).isPresent());
+		Assert.assertSame(s1, prec.createState(s1));
+
+		Assert.assertEquals(s1, s3);
+		Assert.assertEquals(s1.hashCode(), s3.hashCode());
+		Assert.assertEquals(s1, s4);
+		Assert.assertEquals(s4, s1);
+		Assert.assertEquals(s1.hashCode(), s4.hashCode());
+		Assert.assertEquals(s1.getVal(), s4.getVal());
+		Assert.assertNotEquals(s1, s2);
+
+		Assert.assertTrue(s1.isLeq(s2));
+		Assert.assertFalse(s2.isLeq(s1));
+		Assert.assertTrue(s4.isLeq(s2));
+		Assert.assertTrue(s1.isLeq(ExplState.top()));
+		Assert.assertFalse(s1.isLeq(ExplState.bottom()));
+		Assert.assertFalse(s1.isLeq(prec.createState(ImmutableValuation.builder().put(x, Int(2)).build())));
+		Assert.assertEquals(ExplState.top(), prec.createState(ImmutableValuation.empty()));
+	}
 }
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class ExplReachedIndexTest {
+
+	private final VarDecl<IntType> X = Decls.Var("x", Int());
+	private final VarDecl<IntType> Y = Decls.Var("y", Int());
+	private final VarDecl<IntType> Z = Decls.Var("z", Int());
+
+	private final ExplState st = ExplState.top();
+	private final ExplState s1 = ExplState.of(ImmutableValuation.builder().put(X, Int(1)).build());
+	private final ExplState s2 = ExplState.of(ImmutableValuation.builder().put(X, Int(2)).build());
+	private final ExplState s3 = ExplState.of(ImmutableValuation.builder().put(Y, Int(1)).build());
+	private final ExplState s4 = ExplState.of(ImmutableValuation.builder().put(X, Int(1)).put(Y, Int(1)).build());
+	private final ExplState sb = ExplState.bottom();
+
+	@Test
+	public void testCandidates() {
+		final ExplReachedIndex<ExplState> index = ExplReachedIndex.create(s -> 0, s -> s);
+		index.addAll(Arrays.asList(s4, s1, st, s2, s3, sb));
+
+		Assert.assertEquals(Arrays.asList(s4, s1, st, s3), index.get(s4));
+		Assert.assertEquals(Arrays.asList(s1, st), index.get(s1));
+		Assert.assertEquals(Arrays.asList(st, s2), index.get(s2));
+		Assert.assertEquals(Arrays.asList(st), index.get(st));
+		Assert.assertEquals(Arrays.asList(s4, s1, st, s2, s3, sb), index.get(sb));
+	}
+
+	@Test
+	public void testProjection() {
+		final ExplReachedIndex<Tuple2<Integer, ExplState>> index = ExplReachedIndex.create(Tuple2::get1,
+				Tuple2::get2);
+		index.add(Tuple2.of(0, st));
+		index.add(Tuple2.of(1, s1));
+
+		Assert.assertEquals(Arrays.asList(Tuple2.of(0, st)), index.get(Tuple2.of(0, s1)));
+		Assert.assertEquals(Arrays.asList(Tuple2.of(1, s1)), index.get(Tuple2.of(1, s4)));
+		Assert.assertTrue(index.get(Tuple2.of(2, s4)).isEmpty());
+	}
+
+	@Test
+	public void testSameAsScan() {
+		final Random random = new Random(0);
+		final List<VarDecl<IntType>> vars = Arrays.asList(X, Y, Z);
+		final ExplReachedIndex<ExplState> index = ExplReachedIndex.create(s -> 0, s -> s);
+		final List<ExplState> all = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			final ExplState state = randomState(random, vars);
+			Assert.assertEquals(all.stream().filter(state::isLeq).collect(toList()), index.get(state));
+			index.add(state);
+			all.add(state);
+		}
+	}
+
+	private static ExplState randomState(final Random random, final List<VarDecl<IntType>> vars) {
+		final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+		for (final VarDecl<IntType> var : vars) {
+			if (random.nextBoolean()) {
+				builder.put(var, Int(random.nextInt(3)));
+			}
+		}
+		return ExplState.of(builder.build());
+	}
+
+}
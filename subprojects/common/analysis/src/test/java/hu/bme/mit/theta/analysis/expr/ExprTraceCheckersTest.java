@@ -22,6 +22,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
@@ -40,6 +41,7 @@ import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceIncSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
@@ -61,6 +63,8 @@ public final class ExprTraceCheckersTest {
 		traceCheckers.add(ExprTraceFwBinItpChecker.create(True(), True(), solver));
 		traceCheckers.add(ExprTraceBwBinItpChecker.create(True(), True(), solver));
 		traceCheckers.add(ExprTraceUnsatCoreChecker.create(True(), True(), solver));
+		traceCheckers.add(ExprTraceIncSeqItpChecker.create(True(), True(),
+				Z3SolverFactory.getInstance().createItpSolver()));
 	}
 
 	@Test
@@ -112,4 +116,40 @@ public final class ExprTraceCheckersTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalSharedPrefix() {
+		// Arrange
+		final Expr<IntType> x = Var("x", Int()).getRef();
+		final ExprAction init = mock(ExprAction.class);
+		doReturn(Eq(Prime(x), Int(0))).when(init).toExpr();
+		when(init.nextIndexing()).thenReturn(VarIndexing.all(1));
+		final ExprAction inc = mock(ExprAction.class);
+		doReturn(Eq(Prime(x), Add(x, Int(1)))).when(inc).toExpr();
+		when(inc.nextIndexing()).thenReturn(VarIndexing.all(1));
+		final ExprAction check = mock(ExprAction.class);
+		doReturn(Geq(x, Int(2))).when(check).toExpr();
+		when(check.nextIndexing()).thenReturn(VarIndexing.all(0));
+
+		final List<ExprState> states = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			states.add(BasicExprState.of(True()));
+		}
+		// x := 0; check x >= 2 (infeasible)
+		final Trace<ExprState, ExprAction> trace1 = Trace.of(states.subList(0, 3), Arrays.asList(init, check));
+		// x := 0; x := x + 1; x := x + 1; check x >= 2 (feasible)
+		final Trace<ExprState, ExprAction> trace2 = Trace.of(Arrays.asList(states.get(0), states.get(1),
+				states.get(3), states.get(4), BasicExprState.of(True())), Arrays.asList(init, inc, inc, check));
+
+		final ExprTraceIncSeqItpChecker checker = ExprTraceIncSeqItpChecker.create(True(), True(),
+				Z3SolverFactory.getInstance().createItpSolver());
+
+		// Act & Assert
+		for (int i = 0; i < 3; i++) {
+			assertTrue(checker.check(trace1).isInfeasible());
+			assertTrue(checker.check(trace2).isFeasible());
+		}
+		assertEquals(12, checker.getStatistics().getUnfoldings());
+		assertEquals(4 + 2 * (6 + 10), checker.getStatistics().getSavedUnfoldings());
+	}
+
 }
@@ -0,0 +1,257 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class MultiExprTraceRefinerTest {
+
+	@Test
+	public void testAllInfeasibleSameAsSequential() {
+		for (final int threads : new int[]{2, 4, 8}) {
+			final AtomicInteger checks = new AtomicInteger(0);
+			final RefinerResult<IdState, IdAction, ListPrec> result = refine(50, Collections.emptySet(), threads,
+					checks);
+			assertTrue(result.isSpurious());
+			assertEquals(50, checks.get());
+			assertEquals(refine(50, Collections.emptySet(), 1, new AtomicInteger(0)).asSpurious().getRefinedPrec()
+					.ids, result.asSpurious().getRefinedPrec().ids);
+		}
+	}
+
+	@Test
+	public void testFirstFeasibleIsReturned() {
+		final Set<Integer> feasible = new HashSet<>(Arrays.asList(17, 23, 40));
+		for (final int threads : new int[]{1, 2, 4, 8}) {
+			for (int run = 0; run < 5; run++) {
+				final RefinerResult<IdState, IdAction, ListPrec> result = refine(50, feasible, threads,
+						new AtomicInteger(0));
+				assertTrue(result.isUnsafe());
+				final List<IdState> states = new ArrayList<>(result.asUnsafe().getCex().getStates());
+				assertEquals(17, states.get(states.size() - 1).id);
+			}
+		}
+	}
+
+	@Test
+	public void testLaterChecksCancelled() {
+		final ARG<IdState, IdAction> arg = ARG.create((s1, s2) -> s1.id == s2.id);
+		final ArgNode<IdState, IdAction> init = arg.createInitNode(new IdState(-1), false);
+		for (int i = 0; i < 10; i++) {
+			arg.createSuccNode(init, new IdAction(), new IdState(i), true);
+		}
+
+		final AtomicInteger checks = new AtomicInteger(0);
+		final AtomicInteger interrupted = new AtomicInteger(0);
+		final ExprTraceChecker<Ref> checker = trace -> {
+			checks.incrementAndGet();
+			final IdState last = (IdState) trace.getStates().get(trace.getStates().size() - 1);
+			try {
+				// Only the first trace finishes, the others run until they are interrupted
+				Thread.sleep(last.id == 0 ? 50 : 60_000);
+			} catch (final InterruptedException e) {
+				interrupted.incrementAndGet();
+			}
+			return last.id == 0 ? ExprTraceStatus.feasible(null) : ExprTraceStatus.infeasible(new Ref(last.id));
+		};
+		final MultiExprTraceRefiner<IdState, IdAction, ListPrec, Ref> refiner = MultiExprTraceRefiner
+				.createParallel(() -> checker, 2, (prec, trace, ref) -> prec.add(ref.id), PruneStrategy.LAZY,
+						NullLogger.getInstance());
+
+		final RefinerResult<IdState, IdAction, ListPrec> result = refiner.refine(arg,
+				new ListPrec(Collections.emptyList()));
+		assertTrue(result.isUnsafe());
+		assertEquals(2, checks.get());
+		assertEquals(1, interrupted.get());
+	}
+
+	@Test
+	public void testRunningSolverChecksInterrupted() {
+		final ARG<IdState, IdAction> arg = ARG.create((s1, s2) -> s1.id == s2.id);
+		final ArgNode<IdState, IdAction> init = arg.createInitNode(new IdState(-1), false);
+		arg.createSuccNode(init, new IdAction(), new IdState(0), true);
+		// Infeasible, but it takes Z3 a long time to show it
+		arg.createSuccNode(init, new IdAction(), new IdState(1, pigeonhole(12)), true);
+
+		try (ScopedSolverFactory solverFactory = ScopedSolverFactory.create(Z3SolverFactory.getInstance())) {
+			final MultiExprTraceRefiner<IdState, IdAction, ListPrec, ItpRefutation> refiner = MultiExprTraceRefiner
+					.createParallel(() -> ExprTraceSeqItpChecker.create(True(), True(),
+							solverFactory.createItpSolver()), 2, (prec, trace, ref) -> prec, PruneStrategy.LAZY,
+							NullLogger.getInstance());
+			// The second refinement uses the checker that replaced the interrupted one
+			for (int run = 0; run < 2; run++) {
+				final Stopwatch stopwatch = Stopwatch.createStarted();
+				final RefinerResult<IdState, IdAction, ListPrec> result = refiner.refine(arg,
+						new ListPrec(Collections.emptyList()));
+				assertTrue(result.isUnsafe());
+				assertTrue(stopwatch.elapsed(TimeUnit.SECONDS) < 10);
+			}
+		}
+	}
+
+	private static Expr<BoolType> pigeonhole(final int n) {
+		final List<Expr<BoolType>> clauses = new ArrayList<>();
+		for (int i = 0; i <= n; i++) {
+			final List<Expr<BoolType>> holes = new ArrayList<>();
+			for (int j = 0; j < n; j++) {
+				holes.add(pigeon(i, j));
+			}
+			clauses.add(Or(holes));
+		}
+		for (int j = 0; j < n; j++) {
+			for (int i = 0; i <= n; i++) {
+				for (int k = i + 1; k <= n; k++) {
+					clauses.add(Not(And(pigeon(i, j), pigeon(k, j))));
+				}
+			}
+		}
+		return And(clauses);
+	}
+
+	private static Expr<BoolType> pigeon(final int pigeon, final int hole) {
+		return Const("p_" + pigeon + "_" + hole, Bool()).getRef();
+	}
+
+	private static RefinerResult<IdState, IdAction, ListPrec> refine(final int nTargets, final Set<Integer> feasible,
+																	   final int threads, final AtomicInteger checks) {
+		final ARG<IdState, IdAction> arg = ARG.create((s1, s2) -> s1.id == s2.id);
+		final ArgNode<IdState, IdAction> init = arg.createInitNode(new IdState(-1), false);
+		for (int i = 0; i < nTargets; i++) {
+			arg.createSuccNode(init, new IdAction(), new IdState(i), true);
+		}
+
+		final ExprTraceChecker<Ref> checker = trace -> {
+			checks.incrementAndGet();
+			final IdState last = (IdState) trace.getStates().get(trace.getStates().size() - 1);
+			// Make the order of completion differ from the order of the traces
+			try {
+				Thread.sleep((last.id * 7) % 5);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (feasible.contains(last.id)) {
+				return ExprTraceStatus.feasible(null);
+			} else {
+				return ExprTraceStatus.infeasible(new Ref(last.id));
+			}
+		};
+		final PrecRefiner<IdState, IdAction, ListPrec, Ref> precRefiner = (prec, trace, ref) -> prec.add(ref.id);
+
+		final MultiExprTraceRefiner<IdState, IdAction, ListPrec, Ref> refiner = threads == 1
+				? MultiExprTraceRefiner.create(checker, precRefiner, PruneStrategy.LAZY, NullLogger.getInstance())
+				: MultiExprTraceRefiner.createParallel(() -> checker, threads, precRefiner, PruneStrategy.LAZY,
+				NullLogger.getInstance());
+		return refiner.refine(arg, new ListPrec(Collections.emptyList()));
+	}
+
+	private static final class IdState implements ExprState {
+		private final int id;
+		private final Expr<BoolType> expr;
+
+		private IdState(final int id) {
+			this(id, True());
+		}
+
+		private IdState(final int id, final Expr<BoolType> expr) {
+			this.id = id;
+			this.expr = expr;
+		}
+
+		@Override
+		public boolean isBottom() {
+			return false;
+		}
+
+		@Override
+		public Expr<BoolType> toExpr() {
+			return expr;
+		}
+	}
+
+	private static final class IdAction implements ExprAction {
+		@Override
+		public Expr<BoolType> toExpr() {
+			return True();
+		}
+
+		@Override
+		public VarIndexing nextIndexing() {
+			return VarIndexing.all(1);
+		}
+	}
+
+	private static final class Ref implements Refutation {
+		private final int id;
+
+		private Ref(final int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int getPruneIndex() {
+			return 1;
+		}
+	}
+
+	private static final class ListPrec implements Prec {
+		private final List<Integer> ids;
+
+		private ListPrec(final List<Integer> ids) {
+			this.ids = ids;
+		}
+
+		private ListPrec add(final int id) {
+			final List<Integer> newIds = new ArrayList<>(ids);
+			newIds.add(id);
+			return new ListPrec(newIds);
+		}
+	}
+
+}
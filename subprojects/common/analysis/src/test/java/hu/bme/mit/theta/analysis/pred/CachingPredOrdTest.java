@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class CachingPredOrdTest {
+	private final VarDecl<IntType> VX = Decls.Var("x", Int());
+
+	PredState sb = PredState.of(False());
+	PredState s1 = PredState.of(Gt(VX.getRef(), Int(1)));
+	PredState s2 = PredState.of(Gt(VX.getRef(), Int(0)));
+	PredState s3 = PredState.of(Lt(VX.getRef(), Int(5)));
+	PredState s13 = PredState.of(Gt(VX.getRef(), Int(1)), Lt(VX.getRef(), Int(5)));
+	PredState st = PredState.of();
+
+	private int calls = 0;
+
+	private final PartialOrd<PredState> countingOrd = (state1, state2) -> {
+		calls++;
+		return state1.equals(s1) && state2.equals(s2);
+	};
+
+	@Test
+	public void testSyntactic() {
+		final CachingPredOrd ord = CachingPredOrd.create(countingOrd, 10);
+		Assert.assertTrue(ord.isLeq(sb, s1));
+		Assert.assertTrue(ord.isLeq(s1, s1));
+		Assert.assertTrue(ord.isLeq(s13, s1));
+		Assert.assertTrue(ord.isLeq(s13, s3));
+		Assert.assertTrue(ord.isLeq(s1, st));
+		Assert.assertEquals(0, calls);
+		Assert.assertEquals(5, ord.getStatistics().getSyntacticHits());
+		Assert.assertEquals(0, ord.getStatistics().getCacheMisses());
+	}
+
+	@Test
+	public void testCache() {
+		final CachingPredOrd ord = CachingPredOrd.create(countingOrd, 10);
+		Assert.assertTrue(ord.isLeq(s1, s2));
+		Assert.assertTrue(ord.isLeq(s1, s2));
+		Assert.assertFalse(ord.isLeq(s2, s1));
+		Assert.assertFalse(ord.isLeq(s2, s1));
+		Assert.assertFalse(ord.isLeq(st, s1));
+		Assert.assertEquals(3, calls);
+		Assert.assertEquals(2, ord.getStatistics().getCacheHits());
+		Assert.assertEquals(3, ord.getStatistics().getCacheMisses());
+		Assert.assertEquals(2L, ord.getStatistics().get("PredOrdCacheHits"));
+	}
+
+	@Test
+	public void testEviction() {
+		final CachingPredOrd ord = CachingPredOrd.create(countingOrd, 1);
+		ord.isLeq(s1, s2);
+		ord.isLeq(s2, s1);
+		ord.isLeq(s2, s1);
+		ord.isLeq(s1, s2);
+		Assert.assertEquals(3, calls);
+	}
+
+	@Test
+	public void testSum() {
+		final CachingPredOrd ord1 = CachingPredOrd.create(countingOrd, 10);
+		final CachingPredOrd ord2 = CachingPredOrd.create(countingOrd, 10);
+		final PredOrdStatistics sum = PredOrdStatistics.sum(Arrays.asList(ord1.getStatistics(),
+				ord2.getStatistics()));
+		ord1.isLeq(s1, s2);
+		ord1.isLeq(s1, s2);
+		ord2.isLeq(s1, s2);
+		ord2.isLeq(s1, s1);
+		Assert.assertEquals(1, sum.getSyntacticHits());
+		Assert.assertEquals(1, sum.getCacheHits());
+		Assert.assertEquals(2, sum.getCacheMisses());
+	}
+}
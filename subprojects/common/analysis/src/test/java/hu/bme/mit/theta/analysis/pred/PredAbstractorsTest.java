@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class PredAbstractorsTest {
+	private static final int QUERIES = 10 * PredAbstractors.QUERY_BATCH_SIZE;
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	@Test
+	public void testBooleanAssertionsBounded() {
+		final Solver solver = Z3SolverFactory.getInstance().createSolver();
+		testAssertionsBounded(solver, PredAbstractors.booleanSplitAbstractor(solver));
+	}
+
+	@Test
+	public void testCartesianAssertionsBounded() {
+		final Solver solver = Z3SolverFactory.getInstance().createSolver();
+		testAssertionsBounded(solver, PredAbstractors.cartesianAbstractor(solver));
+	}
+
+	private void testAssertionsBounded(final Solver solver, final PredAbstractor abstractor) {
+		final PredPrec prec = PredPrec.of(ImmutableList.of(Lt(x.getRef(), Int(5)), Gt(y.getRef(), Int(0))));
+		final VarIndexing indexing = VarIndexing.all(0);
+		int maxAssertions = 0;
+		for (int i = 0; i < QUERIES; ++i) {
+			final Expr<BoolType> expr = And(Eq(x.getRef(), Int(i % 10)), Eq(y.getRef(), Add(x.getRef(), Int(-3))));
+			final Collection<PredState> states = abstractor.createStatesForExpr(expr, indexing, prec, indexing);
+			Assert.assertEquals(1, states.size());
+			maxAssertions = Math.max(maxAssertions, solver.getAssertions().size());
+		}
+		// A query adds at most 1 + 2 * #preds + 1 assertions here
+		Assert.assertTrue(maxAssertions <= PredAbstractors.QUERY_BATCH_SIZE * (2 + 2 * prec.getPreds().size()));
+	}
+}
@@ -53,6 +53,22 @@ public class PredPrecTest {
 
 	}
 
+	@Test
+	public void testIndexSharedByJoin() {
+		final PredPrec p1 = PredPrec.of(Collections.singleton(pred));
+		final PredPrec p2 = PredPrec.of(Collections.singleton(Eq(x.getRef(), y.getRef())));
+		final PredPrec r = p1.join(p2);
+
+		Assert.assertSame(p1.getIndex(), r.getIndex());
+		Assert.assertEquals(p1.indexOf(pred), r.indexOf(pred));
+		Assert.assertEquals(1, r.indexOf(Eq(x.getRef(), y.getRef())));
+
+		final PredPrec r2 = p2.join(r);
+		Assert.assertNotSame(r, r2);
+		Assert.assertSame(p2.getIndex(), r2.getIndex());
+		Assert.assertEquals(r, r2);
+	}
+
 	@Test
 	public void testEquals() {
 		final PredPrec p0 = PredPrec.of();
@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class PredStateTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	private final Expr<BoolType> p0 = Lt(x.getRef(), Int(5));
+	private final Expr<BoolType> p1 = Eq(x.getRef(), y.getRef());
+
+	@Test
+	public void testBitsetSameAsExplicit() {
+		final PredPrec prec = PredPrec.of(Arrays.asList(p0, p1));
+		final PredState bits = PredState.of(prec.getIndex(), new long[]{0b01}, new long[]{0b10});
+		final PredState explicit = PredState.of(p0, Not(p1));
+
+		Assert.assertEquals(ImmutableSet.of(p0, Not(p1)), bits.getPreds());
+		Assert.assertEquals(explicit, bits);
+		Assert.assertEquals(bits, explicit);
+		Assert.assertEquals(explicit.hashCode(), bits.hashCode());
+		Assert.assertEquals(explicit.toExpr(), bits.toExpr());
+		Assert.assertFalse(bits.isBottom());
+	}
+
+	@Test
+	public void testEmptyBitset() {
+		final PredPrec prec = PredPrec.of(Arrays.asList(p0, p1));
+		final PredState top = PredState.of(prec.getIndex(), new long[1], new long[1]);
+		Assert.assertEquals(PredState.of(), top);
+		Assert.assertEquals(PredState.of().hashCode(), top.hashCode());
+		Assert.assertEquals(True(), top.toExpr());
+		Assert.assertEquals(top, PredState.of(prec.getIndex(), new long[0], new long[0]));
+	}
+
+	@Test
+	public void testContainsAll() {
+		final PredPrec prec = PredPrec.of(Arrays.asList(p0, p1));
+		final PredState s01 = PredState.of(prec.getIndex(), new long[]{0b11}, new long[0]);
+		final PredState s0 = PredState.of(prec.getIndex(), new long[]{0b01}, new long[0]);
+		final PredState n1 = PredState.of(prec.getIndex(), new long[0], new long[]{0b10});
+
+		Assert.assertTrue(s01.containsAllPredsOf(s0));
+		Assert.assertFalse(s0.containsAllPredsOf(s01));
+		Assert.assertFalse(s01.containsAllPredsOf(n1));
+		Assert.assertTrue(s01.containsAllPredsOf(PredState.of(p0)));
+		Assert.assertTrue(PredState.of(p0, p1).containsAllPredsOf(s01));
+	}
+
+	@Test
+	public void testManyPreds() {
+		final List<Expr<BoolType>> preds = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			preds.add(Lt(x.getRef(), Int(i)));
+		}
+		final PredPrec prec = PredPrec.of(preds);
+		final long[] posBits = new long[prec.getIndex().words()];
+		final long[] negBits = new long[prec.getIndex().words()];
+		posBits[0] = 1L;
+		negBits[3] = 1L << 7; // index 199
+		final PredState bits = PredState.of(prec.getIndex(), posBits, negBits);
+		final PredState explicit = PredState.of(preds.get(0), Not(preds.get(199)));
+		Assert.assertEquals(4, posBits.length);
+		Assert.assertEquals(explicit, bits);
+		Assert.assertEquals(explicit.hashCode(), bits.hashCode());
+	}
+}
@@ -15,6 +15,7 @@
  */
 package hu.bme.mit.theta.analysis.waitlist;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import org.junit.Test;
@@ -22,6 +23,7 @@ import org.junit.Test;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
 
 public class WaitlistTest {
@@ -201,4 +203,33 @@ public class WaitlistTest {
 		assertTrue(wl1.isEmpty());
 		assertTrue(wl2.isEmpty());
 	}
+
+	@Test
+	public void testWorkStealing() {
+		final WorkStealingWaitlist<String> waitlist = WorkStealingWaitlist.fifo(2, s -> s.length());
+		assertTrue(waitlist.isFinished());
+
+		waitlist.add("A");
+		waitlist.add("B");
+		waitlist.add("CC");
+		assertEquals(3, waitlist.getPending());
+
+		// Own items in FIFO order
+		assertEquals("A", waitlist.poll(1));
+		waitlist.done();
+		assertEquals("B", waitlist.poll(1));
+		waitlist.done();
+
+		// Stealing the oldest item of the other worker
+		assertEquals("CC", waitlist.poll(1));
+		assertNull(waitlist.poll(1));
+		assertFalse(waitlist.isFinished());
+		waitlist.done();
+		assertTrue(waitlist.isFinished());
+
+		final WorkStealingWaitlist<String> lifo = WorkStealingWaitlist.lifo(2, s -> 0);
+		lifo.addAll(Arrays.asList("A", "B", "C"));
+		assertEquals("C", lifo.poll(0));
+		assertEquals("A", lifo.poll(1));
+	}
 }
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Inf;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Lt;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DbmKernelTest {
+
+	@Test
+	public void testClose() {
+		final int n = 3;
+		final int[] m = DbmKernel.create(n, BasicDbm::defaultBound);
+		DbmKernel.set(m, n, 1, 0, Leq(5));
+		DbmKernel.set(m, n, 2, 1, Lt(2));
+		DbmKernel.close(m, n);
+
+		assertTrue(DbmKernel.isConsistent(m));
+		assertTrue(DbmKernel.isClosed(m, n));
+		assertEquals(Lt(7), DbmKernel.get(m, n, 2, 0));
+		assertEquals(Inf(), DbmKernel.get(m, n, 0, 2));
+	}
+
+	@Test
+	public void testCloseInconsistent() {
+		final int n = 3;
+		final int[] m = DbmKernel.create(n, BasicDbm::defaultBound);
+		DbmKernel.set(m, n, 1, 2, Leq(-1));
+		DbmKernel.set(m, n, 2, 1, Leq(0));
+		DbmKernel.close(m, n);
+
+		assertFalse(DbmKernel.isConsistent(m));
+	}
+
+	@Test
+	public void testTightenKeepsClosed() {
+		final Random random = new Random(0);
+		for (int t = 0; t < 500; t++) {
+			final int n = 2 + random.nextInt(10);
+			final int[] m = DbmKernel.create(n, BasicDbm::defaultBound);
+			for (int s = 0; s < 20; s++) {
+				final int x = random.nextInt(n);
+				final int y = random.nextInt(n);
+				final int b = random.nextBoolean() ? Leq(random.nextInt(30) - 5) : Lt(random.nextInt(30) - 5);
+				if (x == y || b >= DbmKernel.get(m, n, x, y)
+						|| DiffBounds.add(DbmKernel.get(m, n, y, x), b) < Leq(0)) {
+					continue;
+				}
+
+				final int[] expected = m.clone();
+				DbmKernel.set(expected, n, x, y, b);
+				DbmKernel.close(expected, n);
+
+				DbmKernel.tighten(m, n, x, y, b);
+				assertTrue(DbmKernel.isClosed(m, n));
+				assertArrayEquals(expected, m);
+			}
+		}
+	}
+
+}
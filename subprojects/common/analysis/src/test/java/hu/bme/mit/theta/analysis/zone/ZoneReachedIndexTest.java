@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.clock.constr.ClockConstrs;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ZoneReachedIndexTest {
+
+	private final VarDecl<RatType> x = Var("x", Rat());
+	private final VarDecl<RatType> y = Var("y", Rat());
+	private final List<VarDecl<RatType>> clocks = ImmutableList.of(x, y);
+
+	private final ZoneState xLeq5 = ZoneState.zero(clocks).transform().up().and(ClockConstrs.Leq(x, 5)).build();
+	private final ZoneState xLeq10 = ZoneState.zero(clocks).transform().up().and(ClockConstrs.Leq(x, 10)).build();
+	private final ZoneState xGeq3 = ZoneState.zero(clocks).transform().up().and(ClockConstrs.Geq(x, 3)).build();
+	private final ZoneState xEq4 = ZoneState.zero(clocks).transform().up().and(ClockConstrs.Eq(x, 4)).build();
+
+	@Test
+	public void testFilter() {
+		final Map<String, ZoneState> zones = new HashMap<>();
+		zones.put("a", xLeq5);
+		zones.put("b", xLeq10);
+		zones.put("c", xGeq3);
+		zones.put("q1", xEq4);
+		zones.put("q2", ZoneState.top());
+
+		final ZoneReachedIndex<String> index = ZoneReachedIndex.create(s -> 0, zones::get, clocks);
+		index.add("a");
+		index.add("b");
+		index.add("c");
+
+		assertEquals(ImmutableList.of("a", "b", "c"), index.get("q1"));
+		assertTrue(index.get("q2").isEmpty());
+	}
+
+	@Test
+	public void testReplacedZone() {
+		final Map<String, ZoneState> zones = new HashMap<>();
+		zones.put("a", ZoneState.top());
+		zones.put("q", xLeq10);
+
+		final ZoneReachedIndex<String> index = ZoneReachedIndex.create(s -> 0, zones::get, clocks);
+		index.add("a");
+		assertEquals(ImmutableList.of("a"), index.get("q"));
+
+		zones.put("a", xLeq5);
+		assertTrue(index.get("q").isEmpty());
+	}
+
+	@Test
+	public void testCandidatesAreSuperset() {
+		final List<ZoneState> all = ImmutableList.of(xLeq5, xLeq10, xGeq3, xEq4, ZoneState.top(),
+				ZoneState.zero(clocks));
+		final ZoneReachedIndex<Integer> index = ZoneReachedIndex.create(i -> 0, all::get, clocks);
+		for (int i = 0; i < all.size(); i++) {
+			index.add(i);
+		}
+		for (int i = 0; i < all.size(); i++) {
+			final List<Integer> candidates = index.get(i);
+			for (int j = 0; j < all.size(); j++) {
+				if (all.get(i).isLeq(all.get(j))) {
+					assertTrue(candidates.contains(j));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.clock.constr.ClockConstrs;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ZoneStateTest {
+
+	private final VarDecl<RatType> x = Var("x", Rat());
+	private final VarDecl<RatType> y = Var("y", Rat());
+
+	@Test
+	public void testEquals() {
+		final ZoneState zone1 = ZoneState.zero(ImmutableList.of(x, y)).transform().up()
+				.and(ClockConstrs.Leq(x, 5)).build();
+		final ZoneState zone2 = ZoneState.zero(ImmutableList.of(y, x)).transform().up()
+				.and(ClockConstrs.Leq(x, 5)).build();
+		final ZoneState zone3 = ZoneState.zero(ImmutableList.of(x, y)).transform().up()
+				.and(ClockConstrs.Leq(x, 6)).build();
+		final ZoneState zone4 = ZoneState.zero(ImmutableList.of(x)).transform().up()
+				.and(ClockConstrs.Leq(x, 5)).build();
+
+		assertEquals(zone1, zone2);
+		assertEquals(zone1.hashCode(), zone2.hashCode());
+		assertNotEquals(zone1, zone3);
+		assertNotEquals(zone1, zone4);
+	}
+
+	@Test
+	public void testEqualsBottom() {
+		final ZoneState zone = ZoneState.zero(ImmutableList.of(x, y)).transform().and(ClockConstrs.Geq(x, 1))
+				.build();
+		assertEquals(ZoneState.bottom(), zone);
+		assertEquals(ZoneState.bottom().hashCode(), zone.hashCode());
+	}
+
+	@Test
+	public void testIntern() {
+		final ZoneState zone1 = ZoneState.zero(ImmutableList.of(x, y)).transform().up().build().intern();
+		final ZoneState zone2 = ZoneState.zero(ImmutableList.of(x, y)).transform().up().build().intern();
+		assertSame(zone1, zone2);
+	}
+
+}
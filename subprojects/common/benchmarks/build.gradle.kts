@@ -0,0 +1,59 @@
+plugins {
+    id("java-common")
+}
+
+dependencies {
+    implementation(project(":theta-common"))
+    implementation(project(":theta-core"))
+    implementation(project(":theta-analysis"))
+    implementation(project(":theta-solver"))
+    implementation(project(":theta-solver-z3"))
+    implementation(project(":theta-cfa"))
+    implementation(project(":theta-cfa-analysis"))
+    implementation(project(":theta-xsts"))
+    implementation(files(rootDir.resolve(Deps.z3)))
+    implementation(Deps.Jmh.core)
+    annotationProcessor(Deps.Jmh.generator)
+}
+
+tasks {
+    val libPath: String by rootProject.extra
+    val execPath: String by rootProject.extra
+
+    val jmh by creating(JavaExec::class) {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks. Additional JMH arguments can be given with -PjmhArgs=\"...\"."
+        dependsOn(named("classes"))
+        classpath = sourceSets["main"].runtimeClasspath
+        main = "org.openjdk.jmh.Main"
+
+        val resultsFile = buildDir.resolve("reports/jmh/results.json")
+        args("-rf", "json", "-rff", resultsFile.path)
+        val jmhArgs: String? by project
+        jmhArgs?.let { args(it.split(" ").filter(String::isNotEmpty)) }
+
+        environment["PATH"] = execPath
+        environment["LD_LIBRARY_PATH"] = libPath
+        doFirst {
+            resultsFile.parentFile.mkdirs()
+        }
+    }
+
+    val jmhDiff by creating(JavaExec::class) {
+        group = "benchmark"
+        description = "Compares JMH results with a baseline. Usage: -Pbaseline=<json> [-Pcurrent=<json>] [-Pthreshold=<percent>]."
+        dependsOn(named("classes"))
+        classpath = sourceSets["main"].runtimeClasspath
+        main = "hu.bme.mit.theta.benchmarks.JmhResultsDiff"
+
+        val baseline: String? by project
+        val current: String? by project
+        val threshold: String? by project
+        doFirst {
+            args(listOfNotNull(
+                    baseline ?: throw GradleException("The baseline results must be given with -Pbaseline"),
+                    current ?: buildDir.resolve("reports/jmh/results.json").path,
+                    threshold))
+        }
+    }
+}
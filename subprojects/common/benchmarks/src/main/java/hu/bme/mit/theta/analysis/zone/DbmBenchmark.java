@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.bme.mit.theta.core.clock.constr.ClockConstr;
+import hu.bme.mit.theta.core.clock.constr.ClockConstrs;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+/**
+ * Measures the basic zone operations on random zones over a given number of
+ * clocks: intersection with constraints (each of which closes the DBM
+ * incrementally), intersection of zones (which closes the DBM from scratch),
+ * delay, reset and inclusion checking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DbmBenchmark {
+
+	@Param({"5", "10", "20", "30"})
+	public int clocks;
+
+	// Number of random constraints of each zone
+	@Param({"8"})
+	public int constraints;
+
+	@Param({"50"})
+	public int zones;
+
+	private List<VarDecl<RatType>> clockVars;
+	private List<List<ClockConstr>> zoneConstrs;
+	private List<DBM> dbms;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random random = new Random(42);
+		clockVars = new ArrayList<>();
+		for (int i = 0; i < clocks; i++) {
+			clockVars.add(Var("c" + i, Rat()));
+		}
+		zoneConstrs = new ArrayList<>();
+		dbms = new ArrayList<>();
+		while (dbms.size() < zones) {
+			final List<ClockConstr> constrs = new ArrayList<>();
+			for (int i = 0; i < constraints; i++) {
+				constrs.add(randomConstr(random));
+			}
+			final DBM dbm = and(constrs);
+			if (dbm.isConsistent()) {
+				zoneConstrs.add(constrs);
+				dbms.add(dbm);
+			}
+		}
+	}
+
+	@Benchmark
+	public void andClose(final Blackhole blackhole) {
+		for (final List<ClockConstr> constrs : zoneConstrs) {
+			blackhole.consume(and(constrs));
+		}
+	}
+
+	@Benchmark
+	public void intersection(final Blackhole blackhole) {
+		for (int i = 1; i < dbms.size(); i++) {
+			blackhole.consume(DBM.intersection(dbms.get(i - 1), dbms.get(i)));
+		}
+	}
+
+	@Benchmark
+	public void up(final Blackhole blackhole) {
+		for (final DBM dbm : dbms) {
+			final DBM copy = DBM.copyOf(dbm);
+			copy.up();
+			blackhole.consume(copy);
+		}
+	}
+
+	@Benchmark
+	public void reset(final Blackhole blackhole) {
+		final VarDecl<RatType> clock = clockVars.get(0);
+		for (final DBM dbm : dbms) {
+			final DBM copy = DBM.copyOf(dbm);
+			copy.reset(clock, 0);
+			blackhole.consume(copy);
+		}
+	}
+
+	@Benchmark
+	public int isLeq() {
+		int count = 0;
+		for (final DBM dbm1 : dbms) {
+			for (final DBM dbm2 : dbms) {
+				if (dbm1.isLeq(dbm2)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private DBM and(final List<ClockConstr> constrs) {
+		final DBM dbm = DBM.top(clockVars);
+		dbm.nonnegative();
+		for (final ClockConstr constr : constrs) {
+			dbm.and(constr);
+		}
+		return dbm;
+	}
+
+	private ClockConstr randomConstr(final Random random) {
+		final VarDecl<RatType> x = clockVars.get(random.nextInt(clocks));
+		final VarDecl<RatType> y = clockVars.get(random.nextInt(clocks));
+		final int bound = random.nextInt(20);
+		switch (random.nextInt(4)) {
+			case 0:
+				return ClockConstrs.Leq(x, bound);
+			case 1:
+				return ClockConstrs.Geq(x, bound / 4);
+			case 2:
+				return ClockConstrs.Lt(x, y, bound - 10);
+			default:
+				return ClockConstrs.Leq(x, y, bound - 10);
+		}
+	}
+
+}
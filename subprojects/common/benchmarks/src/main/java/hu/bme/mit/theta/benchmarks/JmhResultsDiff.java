@@ -0,0 +1,302 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files in JSON format (e.g., the results of the
+ * benchmarks on two commits) and prints the relative change of the scores for
+ * each benchmark and parameter combination. A change is reported as a
+ * regression (or improvement) if it exceeds the threshold and the difference
+ * is larger than the sum of the score errors. The exit code is 1 if there is
+ * at least one regression, so that it can be used in scripts.
+ *
+ * Usage: JmhResultsDiff baseline.json current.json [threshold percent]
+ */
+public final class JmhResultsDiff {
+
+	private static final double DEFAULT_THRESHOLD = 5;
+
+	private JmhResultsDiff() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("Usage: JmhResultsDiff baseline.json current.json [threshold percent]");
+			System.exit(2);
+		}
+		final Map<String, Score> baseline = load(args[0]);
+		final Map<String, Score> current = load(args[1]);
+		final double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+		final int regressions = diff(baseline, current, threshold, System.out);
+		System.exit(regressions > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Prints the comparison and returns the number of regressions.
+	 */
+	static int diff(final Map<String, Score> baseline, final Map<String, Score> current, final double threshold,
+					final PrintStream out) {
+		int regressions = 0;
+		out.println(String.format(Locale.ROOT, "%-80s %14s %14s %9s %s", "Benchmark", "Baseline", "Current",
+				"Change", "Unit"));
+		for (final Map.Entry<String, Score> entry : current.entrySet()) {
+			final String name = entry.getKey();
+			final Score cur = entry.getValue();
+			final Score base = baseline.get(name);
+			if (base == null) {
+				out.println(String.format(Locale.ROOT, "%-80s %14s %14.3f %9s %s", name, "-", cur.score, "new",
+						cur.unit));
+				continue;
+			}
+			final double change = (cur.score - base.score) / base.score * 100;
+			final boolean significant = Math.abs(change) > threshold
+					&& Math.abs(cur.score - base.score) > base.error + cur.error;
+			String verdict = "";
+			if (significant) {
+				// Lower is better for time modes, higher is better for throughput
+				final boolean better = cur.higherIsBetter ? change > 0 : change < 0;
+				verdict = better ? " improvement" : " REGRESSION";
+				regressions += better ? 0 : 1;
+			}
+			out.println(String.format(Locale.ROOT, "%-80s %14.3f %14.3f %+8.1f%% %s%s", name, base.score, cur.score,
+					change, cur.unit, verdict));
+		}
+		for (final String name : baseline.keySet()) {
+			if (!current.containsKey(name)) {
+				out.println(String.format(Locale.ROOT, "%-80s %14.3f %14s %9s", name, baseline.get(name).score, "-",
+						"removed"));
+			}
+		}
+		return regressions;
+	}
+
+	static Map<String, Score> load(final String path) throws IOException {
+		final String json = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+		return parse(json);
+	}
+
+	@SuppressWarnings("unchecked")
+	static Map<String, Score> parse(final String json) {
+		final Object root = new JsonReader(json).read();
+		checkArgument(root instanceof List, "JMH results must be a JSON array");
+		final Map<String, Score> scores = new LinkedHashMap<>();
+		for (final Object item : (List<Object>) root) {
+			final Map<String, Object> result = (Map<String, Object>) item;
+			String name = (String) result.get("benchmark");
+			final Object params = result.get("params");
+			if (params instanceof Map) {
+				final StringJoiner paramString = new StringJoiner(",", "(", ")");
+				new TreeMap<>((Map<String, Object>) params).forEach((k, v) -> paramString.add(k + "=" + v));
+				name += paramString.toString();
+			}
+			final Map<String, Object> metric = (Map<String, Object>) result.get("primaryMetric");
+			final String mode = (String) result.get("mode");
+			scores.put(name, new Score(toDouble(metric.get("score")), toDouble(metric.get("scoreError")),
+					(String) metric.get("scoreUnit"), "thrpt".equals(mode)));
+		}
+		return scores;
+	}
+
+	private static double toDouble(final Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		} else if (value instanceof String) {
+			// JMH writes NaN as a string, e.g., for the error of a single iteration
+			return Double.parseDouble((String) value);
+		} else {
+			return 0;
+		}
+	}
+
+	static final class Score {
+		private final double score;
+		private final double error;
+		private final String unit;
+		private final boolean higherIsBetter;
+
+		Score(final double score, final double error, final String unit, final boolean higherIsBetter) {
+			this.score = score;
+			this.error = Double.isNaN(error) ? 0 : error;
+			this.unit = unit;
+			this.higherIsBetter = higherIsBetter;
+		}
+	}
+
+	/**
+	 * Minimal JSON reader, producing maps, lists, strings, numbers, booleans
+	 * and nulls. It is sufficient for the result files of JMH.
+	 */
+	private static final class JsonReader {
+		private final String json;
+		private int pos;
+
+		private JsonReader(final String json) {
+			this.json = json;
+			this.pos = 0;
+		}
+
+		private Object read() {
+			final Object value = readValue();
+			skipWhitespace();
+			checkArgument(pos == json.length(), "Unexpected content at position %s", pos);
+			return value;
+		}
+
+		private Object readValue() {
+			skipWhitespace();
+			checkArgument(pos < json.length(), "Unexpected end of input");
+			final char c = json.charAt(pos);
+			switch (c) {
+				case '{':
+					return readObject();
+				case '[':
+					return readArray();
+				case '"':
+					return readString();
+				case 't':
+					expect("true");
+					return true;
+				case 'f':
+					expect("false");
+					return false;
+				case 'n':
+					expect("null");
+					return null;
+				default:
+					return readNumber();
+			}
+		}
+
+		private Map<String, Object> readObject() {
+			final Map<String, Object> map = new LinkedHashMap<>();
+			pos++;
+			skipWhitespace();
+			if (json.charAt(pos) == '}') {
+				pos++;
+				return map;
+			}
+			while (true) {
+				skipWhitespace();
+				final String key = readString();
+				skipWhitespace();
+				expect(":");
+				map.put(key, readValue());
+				skipWhitespace();
+				if (json.charAt(pos) == ',') {
+					pos++;
+				} else {
+					expect("}");
+					return map;
+				}
+			}
+		}
+
+		private List<Object> readArray() {
+			final List<Object> list = new ArrayList<>();
+			pos++;
+			skipWhitespace();
+			if (json.charAt(pos) == ']') {
+				pos++;
+				return list;
+			}
+			while (true) {
+				list.add(readValue());
+				skipWhitespace();
+				if (json.charAt(pos) == ',') {
+					pos++;
+				} else {
+					expect("]");
+					return list;
+				}
+			}
+		}
+
+		private String readString() {
+			expect("\"");
+			final StringBuilder sb = new StringBuilder();
+			while (json.charAt(pos) != '"') {
+				char c = json.charAt(pos);
+				if (c == '\\') {
+					pos++;
+					c = json.charAt(pos);
+					switch (c) {
+						case 'n':
+							c = '\n';
+							break;
+						case 't':
+							c = '\t';
+							break;
+						case 'r':
+							c = '\r';
+							break;
+						case 'b':
+							c = '\b';
+							break;
+						case 'f':
+							c = '\f';
+							break;
+						case 'u':
+							c = (char) Integer.parseInt(json.substring(pos + 1, pos + 5), 16);
+							pos += 4;
+							break;
+						default:
+							break;
+					}
+				}
+				sb.append(c);
+				pos++;
+			}
+			pos++;
+			return sb.toString();
+		}
+
+		private Double readNumber() {
+			final int start = pos;
+			while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+				pos++;
+			}
+			checkArgument(pos > start, "Unexpected character at position %s", start);
+			return Double.parseDouble(json.substring(start, pos));
+		}
+
+		private void expect(final String token) {
+			checkArgument(json.startsWith(token, pos), "Expected %s at position %s", token, pos);
+			pos += token.length();
+		}
+
+		private void skipWhitespace() {
+			while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+				pos++;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.analysis;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplReachedIndex;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.benchmarks.models.SyntheticCfas;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.analysis.CfaAction;
+import hu.bme.mit.theta.cfa.analysis.CfaAnalysis;
+import hu.bme.mit.theta.cfa.analysis.CfaPrec;
+import hu.bme.mit.theta.cfa.analysis.CfaState;
+import hu.bme.mit.theta.cfa.analysis.lts.CfaSbeLts;
+import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrec;
+import hu.bme.mit.theta.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * Measures the abstraction phase of CEGAR on CFAs: building the ARG node by
+ * node with ArgBuilder.expand (without covering), and a full exploration with
+ * BasicAbstractor.check. The precision is fixed to all variables (explicit
+ * domain) or all guards (predicate domain), so no refinement is involved. The
+ * model is either a synthetic CFA (see SyntheticCfas) or a CFA file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbstractorBenchmark {
+
+	public enum Domain {
+		EXPL, PRED_CART
+	}
+
+	private static final String SYNTHETIC = "synthetic";
+
+	@Param({SYNTHETIC,
+			"../../cfa/cfa-analysis/src/test/resources/counter5_true.cfa",
+			"../../cfa/cfa-analysis/src/test/resources/locking.cfa"})
+	public String model;
+
+	@Param({"EXPL", "PRED_CART"})
+	public Domain domain;
+
+	// Size of the synthetic CFA
+	@Param({"3"})
+	public int vars;
+
+	@Param({"6"})
+	public int length;
+
+	@Param({"4"})
+	public int bound;
+
+	// Number of ARG nodes created by the expand benchmark
+	@Param({"1000"})
+	public int nodes;
+
+	private Solver solver;
+	private IntSupplier expand;
+	private LongSupplier check;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		final CFA cfa = loadCfa();
+		final CFA.Loc errorLoc = cfa.getErrorLoc().get();
+		solver = Z3SolverFactory.getInstance().createSolver();
+
+		if (domain == Domain.EXPL) {
+			final Analysis<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> analysis = CfaAnalysis
+					.create(cfa.getInitLoc(), ExplStmtAnalysis.create(solver, True()));
+			final ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> argBuilder = ArgBuilder
+					.create(CfaSbeLts.getInstance(), analysis, s -> s.getLoc().equals(errorLoc), true);
+			final BasicAbstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = BasicAbstractor
+					.builder(argBuilder)
+					.reachedIndex(() -> ExplReachedIndex.create(n -> n.getState().getLoc(),
+							n -> n.getState().getState()))
+					.stopCriterion(StopCriterions.fullExploration()).build();
+			final CfaPrec<ExplPrec> prec = GlobalCfaPrec.create(ExplPrec.of(cfa.getVars()));
+			expand = () -> expand(argBuilder, prec, nodes);
+			check = () -> check(abstractor, prec);
+		} else {
+			final Analysis<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> analysis = CfaAnalysis
+					.create(cfa.getInitLoc(), PredAnalysis.create(solver,
+							PredAbstractors.cartesianAbstractor(solver), True()));
+			final ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> argBuilder = ArgBuilder
+					.create(CfaSbeLts.getInstance(), analysis, s -> s.getLoc().equals(errorLoc), true);
+			final BasicAbstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor = BasicAbstractor
+					.builder(argBuilder).projection(CfaState::getLoc)
+					.stopCriterion(StopCriterions.fullExploration()).build();
+			final CfaPrec<PredPrec> prec = GlobalCfaPrec.create(PredPrec.of(guards(cfa)));
+			expand = () -> expand(argBuilder, prec, nodes);
+			check = () -> check(abstractor, prec);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		solver.close();
+	}
+
+	@Benchmark
+	public int argBuilderExpand() {
+		return expand.getAsInt();
+	}
+
+	@Benchmark
+	public long abstractorCheck() {
+		return check.getAsLong();
+	}
+
+	private CFA loadCfa() throws IOException {
+		if (model.equals(SYNTHETIC)) {
+			return SyntheticCfas.create(vars, length, bound);
+		}
+		try (InputStream inputStream = new FileInputStream(model)) {
+			return CfaDslManager.createCfa(inputStream);
+		}
+	}
+
+	private static List<Expr<BoolType>> guards(final CFA cfa) {
+		final List<Expr<BoolType>> guards = new ArrayList<>();
+		for (final CFA.Edge edge : cfa.getEdges()) {
+			if (edge.getStmt() instanceof AssumeStmt) {
+				guards.add(((AssumeStmt) edge.getStmt()).getCond());
+			}
+		}
+		return guards;
+	}
+
+	// Breadth-first expansion of a fresh ARG until the given number of nodes is created
+	private static <S extends ExprState, P extends Prec> int expand(
+			final ArgBuilder<CfaState<S>, CfaAction, CfaPrec<P>> argBuilder, final CfaPrec<P> prec,
+			final int nodes) {
+		final ARG<CfaState<S>, CfaAction> arg = argBuilder.createArg();
+		final Queue<ArgNode<CfaState<S>, CfaAction>> queue = new ArrayDeque<>(argBuilder.init(arg, prec));
+		int count = queue.size();
+		while (!queue.isEmpty() && count < nodes) {
+			final Collection<ArgNode<CfaState<S>, CfaAction>> succs = argBuilder.expand(queue.remove(), prec);
+			count += succs.size();
+			queue.addAll(succs);
+		}
+		return count;
+	}
+
+	private static <S extends ExprState, P extends Prec> long check(
+			final BasicAbstractor<CfaState<S>, CfaAction, CfaPrec<P>> abstractor, final CfaPrec<P> prec) {
+		final ARG<CfaState<S>, CfaAction> arg = abstractor.createArg();
+		abstractor.check(arg, prec);
+		return arg.size();
+	}
+
+}
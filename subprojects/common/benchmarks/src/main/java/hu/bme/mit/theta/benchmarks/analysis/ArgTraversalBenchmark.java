@@ -0,0 +1,221 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+
+/**
+ * Compares the queries of the ARG (backed by the node registry) with the
+ * recursive, stream-based traversal that was used before. The recursive
+ * traversal needs a few stack frames per level, so it overflows the stack on
+ * deep ARGs of about a thousand nodes. Therefore the baselines are measured on
+ * their own ARGs (see {@link RecursiveArgs}), where deep ARGs are kept small.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgTraversalBenchmark {
+
+	public enum Shape {
+		DEEP(1), WIDE(8);
+
+		private final int branching;
+
+		Shape(final int branching) {
+			this.branching = branching;
+		}
+	}
+
+	@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+	public static class Args {
+		@Param({"DEEP", "WIDE"})
+		public Shape shape;
+
+		@Param({"1000", "100000"})
+		public int size;
+
+		private ARG<NodeState, NodeAction> arg;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			arg = SyntheticArgs.create(shape.branching, size);
+		}
+	}
+
+	@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+	public static class RecursiveArgs {
+		public enum Case {
+			DEEP_500(Shape.DEEP, 500), WIDE_1000(Shape.WIDE, 1000), WIDE_100000(Shape.WIDE, 100000);
+
+			private final Shape shape;
+			private final int size;
+
+			Case(final Shape shape, final int size) {
+				this.shape = shape;
+				this.size = size;
+			}
+		}
+
+		@Param({"DEEP_500", "WIDE_1000", "WIDE_100000"})
+		public Case recursiveCase;
+
+		private ARG<NodeState, NodeAction> arg;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			arg = SyntheticArgs.create(recursiveCase.shape.branching, recursiveCase.size);
+		}
+	}
+
+	@Benchmark
+	public long registryNodes(final Args args) {
+		return args.arg.getNodes().count();
+	}
+
+	@Benchmark
+	public long registryIncompleteNodes(final Args args) {
+		return args.arg.getIncompleteNodes().count();
+	}
+
+	@Benchmark
+	public long registryUnsafeNodes(final Args args) {
+		return args.arg.getUnsafeNodes().count();
+	}
+
+	@Benchmark
+	public boolean registryIsSafe(final Args args) {
+		return args.arg.isSafe();
+	}
+
+	@Benchmark
+	public long recursiveNodes(final RecursiveArgs args) {
+		return args.arg.getInitNodes().flatMap(ArgTraversalBenchmark::recursiveDescendants).count();
+	}
+
+	@Benchmark
+	public long recursiveIncompleteNodes(final RecursiveArgs args) {
+		return args.arg.getInitNodes().flatMap(ArgTraversalBenchmark::recursiveUnexcludedDescendants)
+				.filter(n -> !n.isExpanded()).count();
+	}
+
+	@Benchmark
+	public long recursiveUnsafeNodes(final RecursiveArgs args) {
+		return args.arg.getInitNodes().flatMap(ArgTraversalBenchmark::recursiveUnexcludedDescendants)
+				.filter(ArgNode::isTarget).count();
+	}
+
+	@Benchmark
+	public boolean recursiveIsSafe(final RecursiveArgs args) {
+		return args.arg.getInitNodes().flatMap(ArgTraversalBenchmark::recursiveDescendants)
+				.allMatch(ArgNode::isSafe);
+	}
+
+	// The traversal as it was implemented in ArgNode before the node registry
+
+	private static Stream<ArgNode<NodeState, NodeAction>> recursiveDescendants(
+			final ArgNode<NodeState, NodeAction> node) {
+		return Stream.concat(Stream.of(node), node.children().flatMap(ArgTraversalBenchmark::recursiveDescendants));
+	}
+
+	private static Stream<ArgNode<NodeState, NodeAction>> recursiveUnexcludedDescendants(
+			final ArgNode<NodeState, NodeAction> node) {
+		if (node.isSubsumed()) {
+			return Stream.empty();
+		} else {
+			return Stream.concat(Stream.of(node),
+					node.children().flatMap(ArgTraversalBenchmark::recursiveUnexcludedDescendants));
+		}
+	}
+
+	/**
+	 * Generator of synthetic ARGs with a given branching factor. A branching
+	 * factor of 1 yields a single path (deep ARG), larger factors yield wide,
+	 * shallow ARGs. Every 10th leaf gets a target successor and every 7th leaf
+	 * is covered by the initial node.
+	 */
+	static final class SyntheticArgs {
+		private SyntheticArgs() {
+		}
+
+		static ARG<NodeState, NodeAction> create(final int branching, final int size) {
+			final ARG<NodeState, NodeAction> arg = ARG.create((s1, s2) -> s1.id == s2.id);
+			final NodeAction action = new NodeAction();
+			final ArgNode<NodeState, NodeAction> init = arg.createInitNode(new NodeState(0), false);
+			List<ArgNode<NodeState, NodeAction>> frontier = new ArrayList<>();
+			frontier.add(init);
+			int count = 1;
+			while (count < size) {
+				final List<ArgNode<NodeState, NodeAction>> nextFrontier = new ArrayList<>();
+				for (final ArgNode<NodeState, NodeAction> node : frontier) {
+					for (int i = 0; i < branching && count < size; i++) {
+						nextFrontier.add(arg.createSuccNode(node, action, new NodeState(count), false));
+						count++;
+					}
+				}
+				frontier = nextFrontier;
+			}
+			for (int i = 0; i < frontier.size(); i++) {
+				final ArgNode<NodeState, NodeAction> leaf = frontier.get(i);
+				if (i % 10 == 0) {
+					arg.createSuccNode(leaf, action, new NodeState(count), true);
+					count++;
+				} else if (i % 7 == 3) {
+					leaf.setCoveringNode(init);
+				}
+			}
+			return arg;
+		}
+	}
+
+	static final class NodeState implements State {
+		private final int id;
+
+		NodeState(final int id) {
+			this.id = id;
+		}
+
+		@Override
+		public boolean isBottom() {
+			return false;
+		}
+	}
+
+	static final class NodeAction implements Action {
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.analysis;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolExprs;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * Compares predicate abstraction with activation literals and assumptions
+ * (as implemented in PredAbstractors) with the push/pop based implementation
+ * that was used before. The solver is reused between the queries, as in the
+ * analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredAbstractionBenchmark {
+
+	@Param({"4", "8"})
+	public int preds;
+
+	private Solver assumptionSolver;
+	private Solver pushPopSolver;
+	private PredAbstractor booleanAbstractor;
+	private PredAbstractor cartesianAbstractor;
+	private List<ConstDecl<BoolType>> actLits;
+
+	private Expr<BoolType> expr;
+	private PredPrec prec;
+	private VarIndexing indexing;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		assumptionSolver = Z3SolverFactory.getInstance().createSolver();
+		pushPopSolver = Z3SolverFactory.getInstance().createSolver();
+		booleanAbstractor = PredAbstractors.booleanSplitAbstractor(assumptionSolver);
+		cartesianAbstractor = PredAbstractors.cartesianAbstractor(assumptionSolver);
+
+		// 0 <= x_i <= 10 for each i, x_i + x_(i+1) <= 15, predicates x_i > 5
+		final List<VarDecl<IntType>> vars = new ArrayList<>();
+		final List<Expr<BoolType>> constraints = new ArrayList<>();
+		final List<Expr<BoolType>> predList = new ArrayList<>();
+		actLits = new ArrayList<>();
+		for (int i = 0; i < preds; i++) {
+			final VarDecl<IntType> var = Decls.Var("x" + i, Int());
+			vars.add(var);
+			constraints.add(Geq(var.getRef(), Int(0)));
+			constraints.add(Leq(var.getRef(), Int(10)));
+			predList.add(Gt(var.getRef(), Int(5)));
+			actLits.add(Decls.Const("__bench_act_" + i, BoolExprs.Bool()));
+		}
+		for (int i = 0; i + 1 < preds; i++) {
+			constraints.add(Leq(Add(vars.get(i).getRef(), vars.get(i + 1).getRef()), Int(15)));
+		}
+		expr = And(constraints);
+		prec = PredPrec.of(predList);
+		indexing = VarIndexing.all(0);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		assumptionSolver.close();
+		pushPopSolver.close();
+	}
+
+	@Benchmark
+	public int booleanAssumptions() {
+		return booleanAbstractor.createStatesForExpr(expr, indexing, prec, indexing).size();
+	}
+
+	@Benchmark
+	public int cartesianAssumptions() {
+		return cartesianAbstractor.createStatesForExpr(expr, indexing, prec, indexing).size();
+	}
+
+	// The abstractions as they were implemented in PredAbstractors before using assumptions
+
+	@Benchmark
+	public int booleanPushPop() {
+		final List<Expr<BoolType>> predList = new ArrayList<>(prec.getPreds());
+		int count = 0;
+		try (WithPushPop wp = new WithPushPop(pushPopSolver)) {
+			pushPopSolver.add(PathUtils.unfold(expr, indexing));
+			for (int i = 0; i < predList.size(); ++i) {
+				pushPopSolver.add(Iff(actLits.get(i).getRef(), PathUtils.unfold(predList.get(i), indexing)));
+			}
+			while (pushPopSolver.check().isSat()) {
+				final Valuation model = pushPopSolver.getModel();
+				final List<Expr<BoolType>> feedback = new ArrayList<>();
+				feedback.add(True());
+				for (int i = 0; i < predList.size(); ++i) {
+					final ConstDecl<BoolType> lit = actLits.get(i);
+					final LitExpr<BoolType> eval = model.eval(lit).orElse(null);
+					if (eval != null) {
+						feedback.add(eval.equals(True()) ? lit.getRef() : Not(lit.getRef()));
+					}
+				}
+				pushPopSolver.add(Not(And(feedback)));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int cartesianPushPop() {
+		int count = 0;
+		try (WithPushPop wp = new WithPushPop(pushPopSolver)) {
+			pushPopSolver.add(PathUtils.unfold(expr, indexing));
+			if (pushPopSolver.check().isUnsat()) {
+				return 0;
+			}
+			for (final Expr<BoolType> pred : prec.getPreds()) {
+				try (WithPushPop wp1 = new WithPushPop(pushPopSolver)) {
+					pushPopSolver.add(PathUtils.unfold(prec.negate(pred), indexing));
+					count += pushPopSolver.check().isUnsat() ? 1 : 0;
+				}
+				try (WithPushPop wp2 = new WithPushPop(pushPopSolver)) {
+					pushPopSolver.add(PathUtils.unfold(pred, indexing));
+					count += pushPopSolver.check().isUnsat() ? 1 : 0;
+				}
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.analysis;
+
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Ite;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mod;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.expl.CompiledStmtApplier;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtTransFunc;
+import hu.bme.mit.theta.analysis.expl.StmtApplier;
+import hu.bme.mit.theta.analysis.expl.StmtApplier.ApplyResult;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * Compares applying statements with compiled code (CompiledStmtApplier) and
+ * with the interpreter (StmtApplier), both directly and through the explicit
+ * transfer function. Every variable is known in the source state, so the
+ * solver is never called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StmtApplicationBenchmark {
+
+	@Param({"4", "16"})
+	public int vars;
+
+	private List<Stmt> stmts;
+	private ExplState state;
+	private ExplPrec prec;
+	private StmtAction action;
+	private CompiledStmtApplier compiledStmtApplier;
+	private Solver solver;
+	private ExplStmtTransFunc interpretingTransFunc;
+	private ExplStmtTransFunc compilingTransFunc;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// For each x_i: assume x_i < 1000; x_i := ite(x_i mod 2 = 0, x_i + 3, 2 * x_i - 1); b := b xor x_i > 10
+		final VarDecl<BoolType> flag = Decls.Var("b", Bool());
+		final List<VarDecl<?>> allVars = new ArrayList<>();
+		final MutableValuation val = new MutableValuation();
+		stmts = new ArrayList<>();
+		allVars.add(flag);
+		val.put(flag, Bool(false));
+		for (int i = 0; i < vars; i++) {
+			final VarDecl<IntType> var = Decls.Var("x" + i, Int());
+			allVars.add(var);
+			val.put(var, Int(i));
+			stmts.add(Assume(Lt(var.getRef(), Int(1000))));
+			stmts.add(Assign(var, Ite(Eq(Mod(var.getRef(), Int(2)), Int(0)), Add(var.getRef(), Int(3)),
+					Sub(Mul(Int(2), var.getRef()), Int(1)))));
+			stmts.add(Assign(flag, Xor(flag.getRef(), Gt(var.getRef(), Int(10)))));
+		}
+		state = ExplState.of(val);
+		prec = ExplPrec.of(allVars);
+		action = new StmtAction() {
+			@Override
+			public List<Stmt> getStmts() {
+				return stmts;
+			}
+		};
+
+		compiledStmtApplier = CompiledStmtApplier.create();
+		solver = Z3SolverFactory.getInstance().createSolver();
+		interpretingTransFunc = ExplStmtTransFunc.create(solver, 0, false);
+		compilingTransFunc = ExplStmtTransFunc.create(solver, 0, true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		solver.close();
+	}
+
+	@Benchmark
+	public MutableValuation interpreter() {
+		final MutableValuation val = MutableValuation.copyOf(state);
+		for (final Stmt stmt : stmts) {
+			if (StmtApplier.apply(stmt, val, false) != ApplyResult.SUCCESS) {
+				throw new AssertionError();
+			}
+		}
+		return val;
+	}
+
+	@Benchmark
+	public MutableValuation compiled() {
+		final MutableValuation val = MutableValuation.copyOf(state);
+		for (final Stmt stmt : stmts) {
+			if (compiledStmtApplier.apply(stmt, val) != ApplyResult.SUCCESS) {
+				throw new AssertionError();
+			}
+		}
+		return val;
+	}
+
+	@Benchmark
+	public Collection<ExplState> transFuncInterpreter() {
+		return interpretingTransFunc.getSuccStates(state, action, prec);
+	}
+
+	@Benchmark
+	public Collection<ExplState> transFuncCompiled() {
+		return compilingTransFunc.getSuccStates(state, action, prec);
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.core;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Add;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.LogicShiftRight;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Mul;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SRem;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.UDiv;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.ULt;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Xor;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import hu.bme.mit.theta.core.type.bvtype.BvType;
+
+/**
+ * Evaluation of bitvector expressions, as done by the explicit-value
+ * analysis. The current (long-backed for at most 64 bits) literals are
+ * compared with the previous approach, where each operation converted the
+ * boolean array representation to BigInteger and back. The expression
+ * evaluated is {@code (x * 31 + y) ^ (x >> 3)}, {@code x / y},
+ * {@code x srem y} and {@code x < y}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BvArithmeticBenchmark {
+
+	private static final int VALUATIONS = 64;
+
+	@Param({"8", "16", "32", "64"})
+	public int size;
+
+	private List<Expr<?>> exprs;
+	private Valuation[] valuations;
+	private boolean[][] xs;
+	private boolean[][] ys;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final BvType type = BvType(size);
+		final VarDecl<BvType> x = Var("x", type);
+		final VarDecl<BvType> y = Var("y", type);
+		final Expr<BvType> ex = x.getRef();
+		final Expr<BvType> ey = y.getRef();
+		final Expr<BvType> shift = BvLitExpr.of(3, size);
+		final Expr<BvType> factor = BvLitExpr.of(31, size);
+		final Expr<BvType> arith = Xor(List.of(Add(List.of(Mul(List.of(ex, factor)), ey)), LogicShiftRight(ex, shift)));
+		final Expr<BoolType> cmp = ULt(ex, ey);
+		exprs = List.of(arith, UDiv(ex, ey), SRem(ex, ey), cmp);
+
+		final Random random = new Random(42);
+		valuations = new Valuation[VALUATIONS];
+		xs = new boolean[VALUATIONS][];
+		ys = new boolean[VALUATIONS][];
+		for (int i = 0; i < VALUATIONS; i++) {
+			final BvLitExpr xVal = BvLitExpr.of(random.nextLong(), size);
+			final BvLitExpr yVal = BvLitExpr.of(random.nextLong() | 1, size);
+			valuations[i] = ImmutableValuation.builder().put(x, xVal).put(y, yVal).build();
+			xs[i] = xVal.getValue().clone();
+			ys[i] = yVal.getValue().clone();
+		}
+	}
+
+	@Benchmark
+	public Object evalLongBacked() {
+		final Valuation val = valuations[next++ & (VALUATIONS - 1)];
+		Object result = null;
+		for (final Expr<?> expr : exprs) {
+			result = expr.eval(val);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public Object evalBigInteger() {
+		final int i = next++ & (VALUATIONS - 1);
+		final boolean[] x = xs[i];
+		final boolean[] y = ys[i];
+		final BigInteger ux = toUnsigned(x);
+		final BigInteger uy = toUnsigned(y);
+		final BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+		final BigInteger arith = ux.multiply(BigInteger.valueOf(31)).mod(modulus).add(uy).mod(modulus)
+				.xor(ux.shiftRight(3));
+		final boolean[] r1 = fromBigInteger(arith, size);
+		final boolean[] r2 = fromBigInteger(toUnsigned(x).divide(toUnsigned(y)), size);
+		final boolean[] r3 = fromBigInteger(toSigned(x).remainder(toSigned(y)).mod(modulus), size);
+		final boolean r4 = toUnsigned(x).compareTo(toUnsigned(y)) < 0;
+		return r1[0] ^ r2[0] ^ r3[0] ^ r4;
+	}
+
+	// The conversions as they were implemented in BvUtils for all sizes
+
+	private static BigInteger toUnsigned(final boolean[] bits) {
+		BigInteger integer = BigInteger.ZERO;
+		for (int i = 0; i < bits.length; i++) {
+			if (bits[bits.length - 1 - i]) {
+				integer = integer.setBit(i);
+			}
+		}
+		return integer;
+	}
+
+	private static BigInteger toSigned(final boolean[] bits) {
+		final BigInteger integer = toUnsigned(bits);
+		return bits[0] ? integer.subtract(BigInteger.TWO.pow(bits.length)) : integer;
+	}
+
+	private static boolean[] fromBigInteger(final BigInteger integer, final int size) {
+		final boolean[] values = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			values[size - 1 - i] = integer.testBit(i);
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprInterner;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+
+/**
+ * Compares plain and interned expressions on the transitions of a model. The
+ * workload mimics trace checking: the transitions are unfolded with each
+ * index up to a given depth, repeatedly (as for several traces). The number
+ * of distinct expression nodes retained by the results (i.e., the memory
+ * footprint) is printed after each trial. Other models can be given with
+ * {@code -p model=<path>}, the paths are relative to the benchmarks project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExprInterningBenchmark {
+
+	@Param({"../../xsts/xsts-analysis/src/test/resources/model/crossroad_composite.xsts",
+			"../../cfa/cfa-analysis/src/test/resources/arithmetic-bool00.cfa"})
+	public String model;
+
+	@Param({"20"})
+	public int depth;
+
+	@Param({"10"})
+	public int traces;
+
+	private List<Expr<BoolType>> exprs;
+	private List<Expr<BoolType>> plainResults;
+	private List<Expr<BoolType>> internedResults;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		exprs = ModelExprs.load(model);
+		plainResults = unfoldAll(false);
+		internedResults = unfoldAll(true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.out.printf("%nRetained expression nodes for %s: plain %d, interned %d%n", model,
+				countNodes(plainResults), countNodes(internedResults));
+	}
+
+	@Benchmark
+	public List<Expr<BoolType>> unfoldPlain() {
+		return unfoldAll(false);
+	}
+
+	@Benchmark
+	public List<Expr<BoolType>> unfoldInterned() {
+		return unfoldAll(true);
+	}
+
+	@Benchmark
+	public int deduplicatePlain() {
+		return new HashSet<>(plainResults).size();
+	}
+
+	@Benchmark
+	public int deduplicateInterned() {
+		return new HashSet<>(internedResults).size();
+	}
+
+	private List<Expr<BoolType>> unfoldAll(final boolean intern) {
+		final ExprInterner interner = ExprInterner.create();
+		final List<Expr<BoolType>> results = new ArrayList<>(traces * depth * exprs.size());
+		for (int t = 0; t < traces; t++) {
+			for (int i = 0; i < depth; i++) {
+				final VarIndexing indexing = VarIndexing.all(i);
+				for (final Expr<BoolType> expr : exprs) {
+					final Expr<BoolType> unfolded = PathUtils.unfold(expr, indexing);
+					results.add(intern ? interner.intern(unfolded) : unfolded);
+				}
+			}
+		}
+		return results;
+	}
+
+	private static int countNodes(final List<? extends Expr<?>> exprs) {
+		final Set<Expr<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		final List<Expr<?>> stack = new ArrayList<>(exprs);
+		while (!stack.isEmpty()) {
+			final Expr<?> expr = stack.remove(stack.size() - 1);
+			if (visited.add(expr)) {
+				stack.addAll(expr.getOps());
+			}
+		}
+		return visited.size();
+	}
+
+}
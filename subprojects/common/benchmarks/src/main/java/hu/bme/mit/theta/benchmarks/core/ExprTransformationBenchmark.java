@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.bme.mit.theta.benchmarks.models.SyntheticExprs;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprSimplifier;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+
+/**
+ * Measures the expression transformations on the paths of the analyses:
+ * unfolding with PathUtils and simplification with ExprSimplifier, on
+ * synthetic expressions (see SyntheticExprs). Note that unfolding is cached,
+ * thus unfold measures the cached lookup after the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExprTransformationBenchmark {
+
+	@Param({"8", "32"})
+	public int vars;
+
+	@Param({"3", "6"})
+	public int depth;
+
+	@Param({"100"})
+	public int count;
+
+	private List<Expr<BoolType>> exprs;
+	private VarIndexing indexing;
+	private Valuation valuation;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final SyntheticExprs generator = SyntheticExprs.create(vars, 0.3, 42);
+		exprs = generator.next(count, depth);
+		final VarIndexing.Builder builder = VarIndexing.builder(0);
+		int i = 0;
+		for (final VarDecl<?> var : generator.getIntVars()) {
+			builder.inc(var, i % 5);
+			i++;
+		}
+		indexing = builder.build();
+		valuation = generator.nextValuation(0.5);
+	}
+
+	@Benchmark
+	public void unfold(final Blackhole blackhole) {
+		for (final Expr<BoolType> expr : exprs) {
+			blackhole.consume(PathUtils.unfold(expr, indexing));
+		}
+	}
+
+	@Benchmark
+	public void simplify(final Blackhole blackhole) {
+		for (final Expr<BoolType> expr : exprs) {
+			blackhole.consume(ExprSimplifier.simplify(expr, valuation));
+		}
+	}
+
+	@Benchmark
+	public void simplifyEmptyValuation(final Blackhole blackhole) {
+		for (final Expr<BoolType> expr : exprs) {
+			blackhole.consume(ExprSimplifier.simplify(expr, ImmutableValuation.empty()));
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.core;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.xsts.XSTS;
+import hu.bme.mit.theta.xsts.dsl.XstsDslManager;
+
+/**
+ * Loads the transition expressions of a CFA (one expression for each edge)
+ * or an XSTS (one expression for each branch of the transition relations)
+ * model. The format is determined by the extension of the file.
+ */
+final class ModelExprs {
+
+	private ModelExprs() {
+	}
+
+	static List<Expr<BoolType>> load(final String path) {
+		try (InputStream inputStream = new FileInputStream(path)) {
+			final List<Stmt> stmts = new ArrayList<>();
+			if (path.endsWith(".cfa")) {
+				final CFA cfa = CfaDslManager.createCfa(inputStream);
+				cfa.getEdges().forEach(e -> stmts.add(e.getStmt()));
+			} else if (path.endsWith(".xsts")) {
+				final XSTS xsts = XstsDslManager.createXsts(inputStream);
+				for (final NonDetStmt nonDetStmt : List.of(xsts.getInit(), xsts.getTran(), xsts.getEnv())) {
+					stmts.addAll(nonDetStmt.getStmts());
+				}
+			} else {
+				throw new IllegalArgumentException("Unknown model format: " + path);
+			}
+			final List<Expr<BoolType>> exprs = new ArrayList<>();
+			for (final Stmt stmt : stmts) {
+				exprs.addAll(StmtUtils.toExpr(stmt, VarIndexing.all(0)).getExprs());
+			}
+			return exprs;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.models;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+/**
+ * Generator of synthetic, safe CFAs with a parameterized state space. The CFA
+ * consists of a loop of a given length over a given number of integer
+ * counters. Each segment of the loop either increments a counter (if it is
+ * below a bound) or skips it, and the error location can only be reached if
+ * the first counter exceeds the bound. The number of reachable explicit states
+ * is thus about (bound + 1)^vars times the number of locations.
+ */
+public final class SyntheticCfas {
+
+	private SyntheticCfas() {
+	}
+
+	public static CFA create(final int vars, final int length, final int bound) {
+		checkArgument(vars > 0, "At least one variable is required");
+		checkArgument(length > 0, "The loop must contain at least one segment");
+		checkArgument(bound >= 0, "The bound must be non-negative");
+
+		final CFA.Builder builder = CFA.builder();
+		final List<VarDecl<IntType>> counters = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			counters.add(Var("x" + i, Int()));
+		}
+
+		final CFA.Loc initLoc = builder.createLoc("init");
+		final CFA.Loc finalLoc = builder.createLoc("final");
+		final CFA.Loc errorLoc = builder.createLoc("error");
+		builder.setInitLoc(initLoc);
+		builder.setFinalLoc(finalLoc);
+		builder.setErrorLoc(errorLoc);
+
+		CFA.Loc loc = initLoc;
+		for (final VarDecl<IntType> counter : counters) {
+			final CFA.Loc next = builder.createLoc();
+			builder.createEdge(loc, next, Assign(counter, Int(0)));
+			loc = next;
+		}
+
+		final CFA.Loc headLoc = loc;
+		for (int i = 0; i < length; i++) {
+			final VarDecl<IntType> counter = counters.get(i % vars);
+			final CFA.Loc incLoc = builder.createLoc();
+			final CFA.Loc next = builder.createLoc();
+			builder.createEdge(loc, incLoc, Assume(Lt(counter.getRef(), Int(bound))));
+			builder.createEdge(incLoc, next, Assign(counter, Add(counter.getRef(), Int(1))));
+			builder.createEdge(loc, next, Assume(Geq(counter.getRef(), Int(bound))));
+			loc = next;
+		}
+
+		final VarDecl<IntType> first = counters.get(0);
+		builder.createEdge(loc, headLoc, Assume(Leq(first.getRef(), Int(bound))));
+		builder.createEdge(loc, errorLoc, Assume(Gt(first.getRef(), Int(bound))));
+		builder.createEdge(headLoc, finalLoc, Assume(Geq(first.getRef(), Int(bound))));
+
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks.models;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+/**
+ * Generator of random (but reproducible) expressions over integer and Boolean
+ * variables. The Boolean structure of the expressions has a given depth, the
+ * leaves are comparisons of small linear (or multiplicative) terms. A given
+ * ratio of the variable references are primed, so that the expressions are
+ * similar to the transition relations of the models.
+ */
+public final class SyntheticExprs {
+
+	private final List<VarDecl<IntType>> intVars;
+	private final List<VarDecl<BoolType>> boolVars;
+	private final double primeRatio;
+	private final Random random;
+
+	private SyntheticExprs(final int vars, final double primeRatio, final long seed) {
+		checkArgument(vars > 0, "At least one variable is required");
+		checkArgument(primeRatio >= 0 && primeRatio <= 1, "Ratio must be in [0, 1]");
+		final List<VarDecl<IntType>> intVars = new ArrayList<>();
+		final List<VarDecl<BoolType>> boolVars = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			intVars.add(Var("i" + i, Int()));
+			boolVars.add(Var("b" + i, Bool()));
+		}
+		this.intVars = ImmutableList.copyOf(intVars);
+		this.boolVars = ImmutableList.copyOf(boolVars);
+		this.primeRatio = primeRatio;
+		this.random = new Random(seed);
+	}
+
+	public static SyntheticExprs create(final int vars, final double primeRatio, final long seed) {
+		return new SyntheticExprs(vars, primeRatio, seed);
+	}
+
+	public List<VarDecl<IntType>> getIntVars() {
+		return intVars;
+	}
+
+	public List<VarDecl<BoolType>> getBoolVars() {
+		return boolVars;
+	}
+
+	/**
+	 * Creates the next expression with the given depth of Boolean connectives.
+	 */
+	public Expr<BoolType> next(final int depth) {
+		checkArgument(depth >= 0, "Depth must be non-negative");
+		return bool(depth);
+	}
+
+	public List<Expr<BoolType>> next(final int count, final int depth) {
+		final List<Expr<BoolType>> exprs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			exprs.add(next(depth));
+		}
+		return exprs;
+	}
+
+	/**
+	 * Creates a valuation that assigns a value to every variable with the
+	 * given probability.
+	 */
+	public Valuation nextValuation(final double ratio) {
+		final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+		for (final VarDecl<IntType> var : intVars) {
+			if (random.nextDouble() < ratio) {
+				builder.put(var, Int(random.nextInt(21) - 10));
+			}
+		}
+		for (final VarDecl<BoolType> var : boolVars) {
+			if (random.nextDouble() < ratio) {
+				builder.put(var, Bool(random.nextBoolean()));
+			}
+		}
+		return builder.build();
+	}
+
+	private Expr<BoolType> bool(final int depth) {
+		if (depth == 0) {
+			return atom();
+		}
+		switch (random.nextInt(4)) {
+			case 0:
+				return And(bool(depth - 1), bool(depth - 1));
+			case 1:
+				return Or(bool(depth - 1), bool(depth - 1));
+			case 2:
+				return Imply(bool(depth - 1), bool(depth - 1));
+			default:
+				return Not(bool(depth - 1));
+		}
+	}
+
+	private Expr<BoolType> atom() {
+		switch (random.nextInt(4)) {
+			case 0:
+				return boolRef();
+			case 1:
+				return Eq(term(), term());
+			case 2:
+				return Lt(term(), term());
+			default:
+				return Leq(term(), Int(random.nextInt(21) - 10));
+		}
+	}
+
+	private Expr<IntType> term() {
+		switch (random.nextInt(4)) {
+			case 0:
+				return Add(intRef(), Int(random.nextInt(10)));
+			case 1:
+				return Sub(intRef(), intRef());
+			case 2:
+				return Mul(Int(random.nextInt(5) + 1), intRef());
+			default:
+				return intRef();
+		}
+	}
+
+	private Expr<IntType> intRef() {
+		final Expr<IntType> ref = intVars.get(random.nextInt(intVars.size())).getRef();
+		return random.nextDouble() < primeRatio ? Prime(ref) : ref;
+	}
+
+	private Expr<BoolType> boolRef() {
+		final Expr<BoolType> ref = boolVars.get(random.nextInt(boolVars.size())).getRef();
+		return random.nextDouble() < primeRatio ? Prime(ref) : ref;
+	}
+
+}
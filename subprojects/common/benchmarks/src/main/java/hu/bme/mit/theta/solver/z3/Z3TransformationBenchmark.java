@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.microsoft.z3.Context;
+
+import hu.bme.mit.theta.benchmarks.models.SyntheticExprs;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+
+/**
+ * Measures the transformation of (unfolded) synthetic expressions to Z3
+ * terms, both with an empty transformation cache (as for new assertions) and
+ * with a warm cache (as for repeated assertions).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Z3TransformationBenchmark {
+
+	@Param({"8", "32"})
+	public int vars;
+
+	@Param({"3", "6"})
+	public int depth;
+
+	@Param({"100"})
+	public int count;
+
+	private Context context;
+	private Z3TransformationManager transformationManager;
+	private List<Expr<BoolType>> exprs;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = new Context();
+		transformationManager = new Z3TransformationManager(new Z3SymbolTable(), context);
+		exprs = new ArrayList<>();
+		for (final Expr<BoolType> expr : SyntheticExprs.create(vars, 0.3, 42).next(count, depth)) {
+			exprs.add(PathUtils.unfold(expr, 0));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void toTermCold(final Blackhole blackhole) {
+		transformationManager.reset();
+		for (final Expr<BoolType> expr : exprs) {
+			blackhole.consume(transformationManager.toTerm(expr));
+		}
+	}
+
+	@Benchmark
+	public void toTermCached(final Blackhole blackhole) {
+		for (final Expr<BoolType> expr : exprs) {
+			blackhole.consume(transformationManager.toTerm(expr));
+		}
+	}
+
+}
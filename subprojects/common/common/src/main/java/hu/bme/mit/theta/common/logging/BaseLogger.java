@@ -15,6 +15,8 @@
  */
 package hu.bme.mit.theta.common.logging;
 
+import java.util.function.Supplier;
+
 /**
  * Base class for loggers. Only prints entries above a given level.
  */
@@ -28,12 +30,25 @@ public abstract class BaseLogger implements Logger {
 
 	@Override
 	public Logger write(final Level level, final String pattern, final Object... objects) {
-		if (level.ordinal() <= minLevel.ordinal()) {
+		if (isEnabled(level)) {
 			writeStr(String.format(pattern, objects));
 		}
 		return this;
 	}
 
+	@Override
+	public Logger write(final Level level, final Supplier<String> message) {
+		if (isEnabled(level)) {
+			writeStr(message.get());
+		}
+		return this;
+	}
+
+	@Override
+	public boolean isEnabled(final Level level) {
+		return level.ordinal() <= minLevel.ordinal();
+	}
+
 	protected abstract void writeStr(String str);
 
 }
@@ -15,6 +15,8 @@
  */
 package hu.bme.mit.theta.common.logging;
 
+import java.util.function.Supplier;
+
 /**
  * Interface for logging within algorithms.
  */
@@ -37,4 +39,31 @@ public interface Logger {
 	 */
 	Logger write(Level level, String pattern, Object... objects);
 
+	/**
+	 * Write a message with a given level, which is only computed if the level
+	 * is enabled
+	 *
+	 * @param level   Level
+	 * @param message Supplier of the message
+	 * @return Logger instance
+	 */
+	default Logger write(final Level level, final Supplier<String> message) {
+		if (isEnabled(level)) {
+			write(level, "%s", message.get());
+		}
+		return this;
+	}
+
+	/**
+	 * Check if entries with a given level are written. Arguments that are
+	 * expensive to compute should only be computed if this holds. By
+	 * default, entries with any level are written.
+	 *
+	 * @param level Level
+	 * @return True if entries with the level are written
+	 */
+	default boolean isEnabled(final Level level) {
+		return true;
+	}
+
 }
@@ -15,6 +15,8 @@
  */
 package hu.bme.mit.theta.common.logging;
 
+import java.util.function.Supplier;
+
 public final class NullLogger implements Logger {
 
 	private static final class LazyHolder {
@@ -33,4 +35,14 @@ public final class NullLogger implements Logger {
 		return this;
 	}
 
+	@Override
+	public Logger write(final Level level, final Supplier<String> message) {
+		return this;
+	}
+
+	@Override
+	public boolean isEnabled(final Level level) {
+		return false;
+	}
+
 }
@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.common.logging.Logger.Level;
+
+public class LoggerTest {
+
+	private static final class StringLogger extends BaseLogger {
+		private final StringBuilder sb = new StringBuilder();
+
+		private StringLogger(final Level minLevel) {
+			super(minLevel);
+		}
+
+		@Override
+		protected void writeStr(final String str) {
+			sb.append(str);
+		}
+	}
+
+	@Test
+	public void testIsEnabled() {
+		final Logger logger = new StringLogger(Level.SUBSTEP);
+		assertTrue(logger.isEnabled(Level.RESULT));
+		assertTrue(logger.isEnabled(Level.SUBSTEP));
+		assertFalse(logger.isEnabled(Level.INFO));
+		assertFalse(NullLogger.getInstance().isEnabled(Level.RESULT));
+	}
+
+	@Test
+	public void testSupplier() {
+		final StringLogger logger = new StringLogger(Level.SUBSTEP);
+		logger.write(Level.MAINSTEP, () -> "a");
+		logger.write(Level.INFO, () -> {
+			throw new AssertionError("Message of disabled level computed");
+		});
+		logger.write(Level.SUBSTEP, "%s%d", "b", 1);
+		assertEquals("ab1", logger.sb.toString());
+
+		NullLogger.getInstance().write(Level.RESULT, () -> {
+			throw new AssertionError("Message of null logger computed");
+		});
+	}
+
+}
@@ -17,8 +17,9 @@ package hu.bme.mit.theta.core.decl;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-import hu.bme.mit.theta.common.container.Containers;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.type.Type;
@@ -32,19 +33,38 @@ import hu.bme.mit.theta.core.type.Type;
 public final class VarDecl<DeclType extends Type> extends Decl<DeclType> {
 	private static final String DECL_LABEL = "var";
 
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+
+	private final int id;
 	private final Map<Integer, IndexedConstDecl<DeclType>> indexToConst;
 
 	VarDecl(final String name, final DeclType type) {
 		super(name, type);
-		indexToConst = Containers.createMap();
+		id = NEXT_ID.getAndIncrement();
+		indexToConst = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Gets the unique identifier of the variable. Identifiers are assigned in
+	 * the order of creation, so the variables of a model (which are usually
+	 * created together) have consecutive identifiers. This allows array-based
+	 * representation of mappings from variables, see {@link hu.bme.mit.theta.core.utils.VarIndexing}.
+	 */
+	public int getId() {
+		return id;
 	}
 
+	/**
+	 * Gets the constant for a given index. The same constant is returned for
+	 * an index even if it is requested concurrently (e.g., by parallel
+	 * workers unfolding expressions), as declarations are compared by
+	 * identity.
+	 */
 	public IndexedConstDecl<DeclType> getConstDecl(final int index) {
 		checkArgument(index >= 0);
 		IndexedConstDecl<DeclType> constDecl = indexToConst.get(index);
 		if (constDecl == null) {
-			constDecl = new IndexedConstDecl<>(this, index);
-			indexToConst.put(index, constDecl);
+			constDecl = indexToConst.computeIfAbsent(index, i -> new IndexedConstDecl<>(this, i));
 		}
 		return constDecl;
 	}
@@ -76,7 +76,19 @@ public abstract class Valuation implements Substitution {
 
 	@Override
 	public int hashCode() {
-		return HASH_SEED * 31 + toMap().hashCode();
+		return hashCodeOf(toMap().hashCode());
+	}
+
+	/**
+	 * Computes the hash code of a valuation from the hash code of its map
+	 * representation. Subclasses that override {@link #hashCode()} (e.g., to
+	 * avoid creating the map) should use it to remain consistent with other
+	 * valuations.
+	 * @param mapHashCode
+	 * @return
+	 */
+	protected static int hashCodeOf(final int mapHashCode) {
+		return HASH_SEED * 31 + mapHashCode;
 	}
 
 	@Override
@@ -5,13 +5,13 @@ import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.NullaryExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
 import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
-import hu.bme.mit.theta.core.utils.BvUtils;
 
 import java.math.BigInteger;
 import java.util.Arrays;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
 import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
@@ -25,31 +25,110 @@ import static hu.bme.mit.theta.core.utils.BvUtils.neutralBvLitExprToBigInteger;
 import static hu.bme.mit.theta.core.utils.BvUtils.signedBvLitExprToBigInteger;
 import static hu.bme.mit.theta.core.utils.BvUtils.unsignedBvLitExprToBigInteger;
 
+/**
+ * Bitvector literal. Bitvectors of at most 64 bits are stored in a long and
+ * their operations are computed with masked primitive arithmetic, wider
+ * bitvectors are stored as a boolean array (with the most significant bit
+ * first) and their operations are computed with BigInteger. The array
+ * representation of narrow bitvectors is only created if requested by
+ * {@link #getValue()}.
+ *
+ * Remainder and modulo operations follow the SMT-LIB semantics, division by
+ * zero is not supported.
+ */
 public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvType>, Comparable<BvLitExpr> {
 
     private static final int HASH_SEED = 5624;
+    private static final int MAX_LONG_SIZE = Long.SIZE;
     private volatile int hashCode = 0;
 
-    private final boolean[] value;
+    private final int size;
+    // Bits of a narrow bitvector (size <= 64), the bits above size are zero
+    private final long bits;
+    // Bits of a wide bitvector, or the lazily created array of a narrow one
+    private volatile boolean[] value;
 
     private BvLitExpr(final boolean[] value) {
         checkNotNull(value);
         checkArgument(value.length > 0, "Bitvector must have positive size");
 
+        this.size = value.length;
+        if (size <= MAX_LONG_SIZE) {
+            long bits = 0;
+            for (final boolean bit : value) {
+                bits = (bits << 1) | (bit ? 1 : 0);
+            }
+            this.bits = bits;
+        } else {
+            this.bits = 0;
+        }
         this.value = value;
     }
 
+    private BvLitExpr(final long bits, final int size) {
+        this.size = size;
+        this.bits = bits & mask(size);
+        this.value = null;
+    }
+
     public static BvLitExpr of(final boolean[] value) {
         return new BvLitExpr(value);
     }
 
+    /**
+     * Creates a bitvector of at most 64 bits from the lowest bits of a long.
+     *
+     * @param bits Bits (the bits above size are ignored)
+     * @param size Size of the bitvector
+     * @return Bitvector literal
+     */
+    public static BvLitExpr of(final long bits, final int size) {
+        checkArgument(size > 0, "Bitvector must have positive size");
+        checkArgument(size <= MAX_LONG_SIZE, "Bitvector does not fit into a long");
+        return new BvLitExpr(bits, size);
+    }
+
     public boolean[] getValue() {
-        return value;
+        boolean[] result = value;
+        if (result == null) {
+            result = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                result[size - 1 - i] = ((bits >>> i) & 1) != 0;
+            }
+            value = result;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the bitvector is stored in a long, i.e., it has at most 64
+     * bits.
+     */
+    public boolean isLongBacked() {
+        return size <= MAX_LONG_SIZE;
+    }
+
+    /**
+     * Gets the value of a bitvector of at most 64 bits interpreted as an
+     * unsigned number, i.e., the bits above the size are zero.
+     */
+    public long toUnsignedLong() {
+        checkState(isLongBacked(), "Bitvector does not fit into a long");
+        return bits;
+    }
+
+    /**
+     * Gets the value of a bitvector of at most 64 bits interpreted as a
+     * signed (two's complement) number.
+     */
+    public long toSignedLong() {
+        checkState(isLongBacked(), "Bitvector does not fit into a long");
+        return signExtend(bits, size);
     }
 
     @Override
     public BvType getType() {
-        return BvType(value.length);
+        return BvType(size);
     }
 
     @Override
@@ -58,7 +137,12 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
     }
 
     public BvLitExpr concat(final BvLitExpr that) {
-        boolean[] concated = new boolean[this.getType().getSize() + that.getType().getSize()];
+        final int newSize = this.size + that.size;
+        if (newSize <= MAX_LONG_SIZE) {
+            return new BvLitExpr((this.bits << that.size) | that.bits, newSize);
+        }
+
+        boolean[] concated = new boolean[newSize];
         for(int i = 0; i < this.getType().getSize(); i++) {
             concated[i] = this.getValue()[i];
         }
@@ -75,6 +159,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
         checkArgument(untilValue >= 0);
         checkArgument(untilValue > fromValue);
 
+        if (isLongBacked() && untilValue <= size) {
+            return new BvLitExpr(bits >>> fromValue, untilValue - fromValue);
+        }
+
         boolean[] extracted = new boolean[untilValue - fromValue];
         for(int i = 0; i < extracted.length; i++) {
             extracted[extracted.length - i - 1] = this.getValue()[this.getValue().length - (fromValue + i) - 1];
@@ -85,6 +173,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
     public BvLitExpr zext(final BvType extendType) {
         checkArgument(extendType.getSize() >= this.getType().getSize());
 
+        if (extendType.getSize() <= MAX_LONG_SIZE) {
+            return new BvLitExpr(bits, extendType.getSize());
+        }
+
         boolean[] extended = new boolean[extendType.getSize()];
         for(int i = 0; i < this.getValue().length; i++) {
             extended[extended.length - i - 1] = this.getValue()[this.getValue().length - i - 1];
@@ -98,6 +190,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
     public BvLitExpr sext(final BvType extendType) {
         checkArgument(extendType.getSize() >= this.getType().getSize());
 
+        if (extendType.getSize() <= MAX_LONG_SIZE) {
+            return new BvLitExpr(signExtend(bits, size), extendType.getSize());
+        }
+
         boolean[] extended = new boolean[extendType.getSize()];
         for(int i = 0; i < this.getValue().length; i++) {
             extended[extended.length - i - 1] = this.getValue()[this.getValue().length - i - 1];
@@ -110,6 +206,9 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr add(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits + that.bits, size);
+        }
         BigInteger sum = neutralBvLitExprToBigInteger(this).add(neutralBvLitExprToBigInteger(that));
         sum = fitBigIntegerIntoNeutralDomain(sum, getType().getSize());
         return bigIntegerToNeutralBvLitExpr(sum, getType().getSize());
@@ -117,6 +216,9 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr sub(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits - that.bits, size);
+        }
         BigInteger sub = neutralBvLitExprToBigInteger(this).subtract(neutralBvLitExprToBigInteger(that));
         sub = fitBigIntegerIntoNeutralDomain(sub, getType().getSize());
         return bigIntegerToNeutralBvLitExpr(sub, getType().getSize());
@@ -124,18 +226,27 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr mul(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits * that.bits, size);
+        }
         BigInteger prod = neutralBvLitExprToBigInteger(this).multiply(neutralBvLitExprToBigInteger(that));
         prod = fitBigIntegerIntoNeutralDomain(prod, getType().getSize());
         return bigIntegerToNeutralBvLitExpr(prod, getType().getSize());
     }
 
     public BvLitExpr pos() {
+        if (isLongBacked()) {
+            return this;
+        }
         BigInteger pos = signedBvLitExprToBigInteger(this);
         pos = fitBigIntegerIntoSignedDomain(pos, getType().getSize());
         return bigIntegerToSignedBvLitExpr(pos, getType().getSize());
     }
 
     public BvLitExpr neg() {
+        if (isLongBacked()) {
+            return new BvLitExpr(-bits, size);
+        }
         BigInteger neg = signedBvLitExprToBigInteger(this).negate();
         neg = fitBigIntegerIntoSignedDomain(neg, getType().getSize());
         return bigIntegerToSignedBvLitExpr(neg, getType().getSize());
@@ -143,6 +254,9 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr udiv(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(Long.divideUnsigned(this.bits, that.bits), size);
+        }
         BigInteger div = unsignedBvLitExprToBigInteger(this).divide(unsignedBvLitExprToBigInteger(that));
         div = fitBigIntegerIntoUnsignedDomain(div, getType().getSize());
         return bigIntegerToUnsignedBvLitExpr(div, getType().getSize());
@@ -150,6 +264,9 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr sdiv(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.toSignedLong() / that.toSignedLong(), size);
+        }
         BigInteger div = signedBvLitExprToBigInteger(this).divide(signedBvLitExprToBigInteger(that));
         div = fitBigIntegerIntoSignedDomain(div, getType().getSize());
         return bigIntegerToSignedBvLitExpr(div, getType().getSize());
@@ -157,29 +274,45 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr and(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits & that.bits, size);
+        }
         BigInteger and = neutralBvLitExprToBigInteger(this).and(neutralBvLitExprToBigInteger(that));
         return bigIntegerToNeutralBvLitExpr(and, getType().getSize());
     }
 
     public BvLitExpr or(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits | that.bits, size);
+        }
         BigInteger or = neutralBvLitExprToBigInteger(this).or(neutralBvLitExprToBigInteger(that));
         return bigIntegerToNeutralBvLitExpr(or, getType().getSize());
     }
 
     public BvLitExpr xor(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return new BvLitExpr(this.bits ^ that.bits, size);
+        }
         BigInteger xor = neutralBvLitExprToBigInteger(this).xor(neutralBvLitExprToBigInteger(that));
         return bigIntegerToNeutralBvLitExpr(xor, getType().getSize());
     }
 
     public BvLitExpr not() {
+        if (isLongBacked()) {
+            return new BvLitExpr(~bits, size);
+        }
         BigInteger not = neutralBvLitExprToBigInteger(this).not();
         return bigIntegerToNeutralBvLitExpr(not, getType().getSize());
     }
 
     public BvLitExpr shiftLeft(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return Long.compareUnsigned(that.bits, size) >= 0 ? new BvLitExpr(0, size)
+                : new BvLitExpr(bits << that.bits, size);
+        }
 
         boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
         for(BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
@@ -193,6 +326,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr arithShiftRight(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            final long shift = Long.compareUnsigned(that.bits, size) >= 0 ? size - 1 : that.bits;
+            return new BvLitExpr(toSignedLong() >> shift, size);
+        }
 
         boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
         boolean insert = shifted[0];
@@ -207,6 +344,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr logicShiftRight(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            return Long.compareUnsigned(that.bits, size) >= 0 ? new BvLitExpr(0, size)
+                : new BvLitExpr(bits >>> that.bits, size);
+        }
 
         boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
         boolean insert = false;
@@ -221,6 +362,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr rotateLeft(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            final int rotate = (int) Long.remainderUnsigned(that.bits, size);
+            return rotate == 0 ? this : new BvLitExpr((bits << rotate) | (bits >>> (size - rotate)), size);
+        }
 
         boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
         for(BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
@@ -235,6 +380,10 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr rotateRight(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
+        if (isLongBacked()) {
+            final int rotate = (int) Long.remainderUnsigned(that.bits, size);
+            return rotate == 0 ? this : new BvLitExpr((bits >>> rotate) | (bits << (size - rotate)), size);
+        }
 
         boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
         for(BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
@@ -249,96 +398,126 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 
     public BvLitExpr smod(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        // Always positive semantics:
+        // Semantics (the sign of the result follows the divisor):
         // 5 mod 3 = 2
-        // 5 mod -3 = 2
+        // 5 mod -3 = -1
         // -5 mod 3 = 1
-        // -5 mod -3 = 1
-        BigInteger result = signedBvLitExprToBigInteger(this).mod(signedBvLitExprToBigInteger(that));
-        if (result.compareTo(BigInteger.ZERO) < 0) {
-            result = result.add(signedBvLitExprToBigInteger(that).abs());
+        // -5 mod -3 = -2
+        if (isLongBacked()) {
+            final long divisor = that.toSignedLong();
+            long result = toSignedLong() % divisor;
+            if (result != 0 && (result < 0) != (divisor < 0)) {
+                result += divisor;
+            }
+            return new BvLitExpr(result, size);
+        }
+        final BigInteger thisInt = signedBvLitExprToBigInteger(this);
+        final BigInteger thatInt = signedBvLitExprToBigInteger(that);
+        BigInteger result = thisInt.remainder(thatInt);
+        if (result.signum() != 0 && result.signum() != thatInt.signum()) {
+            result = result.add(thatInt);
         }
-        assert result.compareTo(BigInteger.ZERO) >= 0;
         return bigIntegerToSignedBvLitExpr(result, getType().getSize());
     }
 
     public BvLitExpr urem(final BvLitExpr that) {
+        checkArgument(this.getType().equals(that.getType()));
         // Semantics:
         // 5 rem 3 = 2
-        BigInteger thisInt = signedBvLitExprToBigInteger(this);
-        BigInteger thatInt = signedBvLitExprToBigInteger(that);
-        return bigIntegerToSignedBvLitExpr(thisInt.mod(thatInt), getType().getSize());
+        if (isLongBacked()) {
+            return new BvLitExpr(Long.remainderUnsigned(this.bits, that.bits), size);
+        }
+        BigInteger thisInt = unsignedBvLitExprToBigInteger(this);
+        BigInteger thatInt = unsignedBvLitExprToBigInteger(that);
+        return bigIntegerToUnsignedBvLitExpr(thisInt.mod(thatInt), getType().getSize());
     }
 
     public BvLitExpr srem(final BvLitExpr that) {
-        // Semantics:
+        checkArgument(this.getType().equals(that.getType()));
+        // Semantics (the sign of the result follows the dividend):
         // 5 rem 3 = 2
         // 5 rem -3 = 2
         // -5 rem 3 = -1
         // -5 rem -3 = -1
-        BigInteger thisInt = BvUtils.signedBvLitExprToBigInteger(this);
-        BigInteger thatInt = BvUtils.signedBvLitExprToBigInteger(that);
-        BigInteger thisAbs = thisInt.abs();
-        BigInteger thatAbs = thatInt.abs();
-        if (thisInt.compareTo(BigInteger.ZERO) < 0 && thatInt.compareTo(BigInteger.ZERO) < 0) {
-            return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs).negate(), getType().getSize());
-        } else if (thisInt.compareTo(BigInteger.ZERO) >= 0 && thatInt.compareTo(BigInteger.ZERO) < 0) {
-            return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs), getType().getSize());
-        } else if (thisInt.compareTo(BigInteger.ZERO) < 0 && thatInt.compareTo(BigInteger.ZERO) >= 0) {
-            return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs).negate(), getType().getSize());
-        } else {
-            return bigIntegerToSignedBvLitExpr(thisInt.mod(thatInt), getType().getSize());
+        if (isLongBacked()) {
+            return new BvLitExpr(this.toSignedLong() % that.toSignedLong(), size);
         }
+        BigInteger thisInt = signedBvLitExprToBigInteger(this);
+        BigInteger thatInt = signedBvLitExprToBigInteger(that);
+        return bigIntegerToSignedBvLitExpr(thisInt.remainder(thatInt), getType().getSize());
     }
 
     public BoolLitExpr eq(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(Arrays.equals(this.getValue(), that.getValue()));
+        return Bool(this.equals(that));
     }
 
     public BoolLitExpr neq(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(!Arrays.equals(this.getValue(), that.getValue()));
+        return Bool(!this.equals(that));
     }
 
     public BoolLitExpr ult(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) < 0);
+        return Bool(compareUnsigned(that) < 0);
     }
 
     public BoolLitExpr ule(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) <= 0);
+        return Bool(compareUnsigned(that) <= 0);
     }
 
     public BoolLitExpr ugt(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) > 0);
+        return Bool(compareUnsigned(that) > 0);
     }
 
     public BoolLitExpr uge(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) >= 0);
+        return Bool(compareUnsigned(that) >= 0);
     }
 
     public BoolLitExpr slt(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) < 0);
+        return Bool(compareSigned(that) < 0);
     }
 
     public BoolLitExpr sle(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) <= 0);
+        return Bool(compareSigned(that) <= 0);
     }
 
     public BoolLitExpr sgt(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) > 0);
+        return Bool(compareSigned(that) > 0);
     }
 
     public BoolLitExpr sge(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) >= 0);
+        return Bool(compareSigned(that) >= 0);
+    }
+
+    private int compareUnsigned(final BvLitExpr that) {
+        if (isLongBacked()) {
+            return Long.compareUnsigned(this.bits, that.bits);
+        }
+        return unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that));
+    }
+
+    private int compareSigned(final BvLitExpr that) {
+        if (isLongBacked()) {
+            return Long.compare(this.toSignedLong(), that.toSignedLong());
+        }
+        return signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that));
+    }
+
+    private static long mask(final int size) {
+        return size == MAX_LONG_SIZE ? -1L : (1L << size) - 1;
+    }
+
+    private static long signExtend(final long bits, final int size) {
+        final int shift = MAX_LONG_SIZE - size;
+        return (bits << shift) >> shift;
     }
 
     @Override
@@ -346,7 +525,8 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
         int result = hashCode;
         if (result == 0) {
             result = HASH_SEED;
-            result = 31 * result + Arrays.hashCode(value);
+            result = 31 * result + size;
+            result = 31 * result + (isLongBacked() ? Long.hashCode(bits) : Arrays.hashCode(value));
             hashCode = result;
         }
         return result;
@@ -358,7 +538,13 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
             return true;
         } else if (obj instanceof BvLitExpr) {
             final BvLitExpr that = (BvLitExpr) obj;
-            return Arrays.equals(this.value, that.value);
+            if (this.size != that.size) {
+                return false;
+            } else if (isLongBacked()) {
+                return this.bits == that.bits;
+            } else {
+                return Arrays.equals(this.value, that.value);
+            }
         } else {
             return false;
         }
@@ -367,10 +553,16 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
-        sb.append(getType().getSize());
+        sb.append(size);
         sb.append("'b");
-        for(boolean bit : value) {
-            sb.append(bit ? "1" : "0");
+        if (isLongBacked()) {
+            for (int i = size - 1; i >= 0; i--) {
+                sb.append(((bits >>> i) & 1) != 0 ? "1" : "0");
+            }
+        } else {
+            for (boolean bit : value) {
+                sb.append(bit ? "1" : "0");
+            }
         }
         return sb.toString();
     }
@@ -378,6 +570,6 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
     @Override
     public int compareTo(final BvLitExpr that) {
         checkArgument(this.getType().equals(that.getType()));
-        return neutralBvLitExprToBigInteger(this).compareTo(neutralBvLitExprToBigInteger(that));
+        return compareUnsigned(that);
     }
 }
@@ -19,7 +19,6 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import static hu.bme.mit.theta.core.utils.TypeUtils.cast;
 
-import java.math.BigInteger;
 import java.util.List;
 
 import hu.bme.mit.theta.core.model.Valuation;
@@ -50,12 +49,12 @@ public final class IntAddExpr extends AddExpr<IntType> {
 
 	@Override
 	public IntLitExpr eval(final Valuation val) {
-		var sum = BigInteger.ZERO;
+		var sum = Int(0);
 		for (final Expr<IntType> op : getOps()) {
 			final IntLitExpr opVal = (IntLitExpr) op.eval(val);
-			sum = sum.add(opVal.getValue());
+			sum = sum.add(opVal);
 		}
-		return Int(sum);
+		return sum;
 	}
 
 	@Override
@@ -15,9 +15,9 @@
  */
 package hu.bme.mit.theta.core.type.inttype;
 
+import static com.google.common.base.Preconditions.checkState;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
-import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.LitExpr;
@@ -27,23 +27,87 @@ import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
 
 import java.math.BigInteger;
 
+/**
+ * Integer literal. Values that fit into a long are stored in a long, and
+ * operations on them are computed with overflow-checked primitive arithmetic,
+ * falling back to BigInteger on overflow. The BigInteger of such a literal is
+ * only created if requested by {@link #getValue()}. Small literals are cached.
+ */
 public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<IntType>, Comparable<IntLitExpr> {
 
 	private static final int HASH_SEED = 4111;
+
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final IntLitExpr[] CACHE = new IntLitExpr[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new IntLitExpr(CACHE_LOW + i, null);
+		}
+	}
+
 	private volatile int hashCode = 0;
 
-	private final BigInteger value;
+	private final boolean longBacked;
+	private final long longValue;
+	private volatile BigInteger value;
+
+	private IntLitExpr(final long longValue, final BigInteger value) {
+		this.longBacked = true;
+		this.longValue = longValue;
+		this.value = value;
+	}
 
 	private IntLitExpr(final BigInteger value) {
+		this.longBacked = false;
+		this.longValue = 0;
 		this.value = value;
 	}
 
 	public static IntLitExpr of(final BigInteger value) {
-		return new IntLitExpr(value);
+		if (value.bitLength() < Long.SIZE) {
+			final long longValue = value.longValue();
+			if (CACHE_LOW <= longValue && longValue <= CACHE_HIGH) {
+				return CACHE[(int) longValue - CACHE_LOW];
+			} else {
+				return new IntLitExpr(longValue, value);
+			}
+		} else {
+			return new IntLitExpr(value);
+		}
+	}
+
+	public static IntLitExpr of(final long value) {
+		if (CACHE_LOW <= value && value <= CACHE_HIGH) {
+			return CACHE[(int) value - CACHE_LOW];
+		} else {
+			return new IntLitExpr(value, null);
+		}
 	}
 
 	public BigInteger getValue() {
-		return value;
+		BigInteger result = value;
+		if (result == null) {
+			result = BigInteger.valueOf(longValue);
+			value = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the value fits into a long.
+	 */
+	public boolean isLongBacked() {
+		return longBacked;
+	}
+
+	/**
+	 * Gets the value of a literal that fits into a long.
+	 */
+	public long toLong() {
+		checkState(longBacked, "Value does not fit into a long");
+		return longValue;
 	}
 
 	@Override
@@ -57,27 +121,65 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 	}
 
 	public RatLitExpr toRat() {
-		return Rat(this.value, 1);
+		if (longBacked) {
+			return RatLitExpr.of(longValue, 1);
+		}
+		return RatLitExpr.of(this.value, BigInteger.ONE);
 	}
 
 	public IntLitExpr add(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.add(that.value));
+		if (this.longBacked && that.longBacked) {
+			final long a = this.longValue;
+			final long b = that.longValue;
+			final long result = a + b;
+			if (((a ^ result) & (b ^ result)) >= 0) {
+				return IntLitExpr.of(result);
+			}
+		}
+		return IntLitExpr.of(this.getValue().add(that.getValue()));
 	}
 
 	public IntLitExpr sub(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.subtract(that.value));
+		if (this.longBacked && that.longBacked) {
+			final long a = this.longValue;
+			final long b = that.longValue;
+			final long result = a - b;
+			if (((a ^ b) & (a ^ result)) >= 0) {
+				return IntLitExpr.of(result);
+			}
+		}
+		return IntLitExpr.of(this.getValue().subtract(that.getValue()));
+	}
+
+	public IntLitExpr mul(final IntLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			final long a = this.longValue;
+			final long b = that.longValue;
+			final long high = Math.multiplyHigh(a, b);
+			final long low = a * b;
+			if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+				return IntLitExpr.of(low);
+			}
+		}
+		return IntLitExpr.of(this.getValue().multiply(that.getValue()));
 	}
 
 	public IntLitExpr neg() {
-		return IntLitExpr.of(this.value.negate());
+		if (longBacked && longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(-longValue);
+		}
+		return IntLitExpr.of(this.getValue().negate());
 	}
 
 	public IntLitExpr pos() {
-		return IntLitExpr.of(this.value);
+		return this;
 	}
 
 	public IntLitExpr div(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.divide(that.value));
+		if (this.longBacked && that.longBacked && !(this.longValue == Long.MIN_VALUE && that.longValue == -1)) {
+			return IntLitExpr.of(this.longValue / that.longValue);
+		}
+		return IntLitExpr.of(this.getValue().divide(that.getValue()));
 	}
 
 	public IntLitExpr mod(final IntLitExpr that) {
@@ -86,9 +188,12 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		// 5 mod -3 = 2
 		// -5 mod 3 = 1
 		// -5 mod -3 = 1
-		var result = this.value.mod(that.value.abs());
+		if (this.longBacked && that.longBacked && that.longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(Math.floorMod(this.longValue, Math.abs(that.longValue)));
+		}
+		var result = this.getValue().mod(that.getValue().abs());
 		if (result.compareTo(BigInteger.ZERO) < 0) {
-			result = result.add(that.value.abs());
+			result = result.add(that.getValue().abs());
 		}
 		assert result.compareTo(BigInteger.ZERO) >= 0;
 		return IntLitExpr.of(result);
@@ -100,49 +205,71 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		// 5 rem -3 = -2
 		// -5 rem 3 = 1
 		// -5 rem -3 = -1
-		final var thisAbs = this.value.abs();
-		final var thatAbs = that.value.abs();
-		if (this.value.compareTo(BigInteger.ZERO) < 0 && that.value.compareTo(BigInteger.ZERO) < 0) {
+		if (this.longBacked && that.longBacked && this.longValue != Long.MIN_VALUE
+				&& that.longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(rem(this.longValue, that.longValue));
+		}
+		final var thisValue = this.getValue();
+		final var thatValue = that.getValue();
+		final var thisAbs = thisValue.abs();
+		final var thatAbs = thatValue.abs();
+		if (thisValue.compareTo(BigInteger.ZERO) < 0 && thatValue.compareTo(BigInteger.ZERO) < 0) {
 			var result = thisAbs.mod(thatAbs);
 			if (result.compareTo(BigInteger.ZERO) != 0) {
 				result = result.subtract(thatAbs);
 			}
-			return new IntLitExpr(result);
-		} else if (this.value.compareTo(BigInteger.ZERO) >= 0 && that.value.compareTo(BigInteger.ZERO) < 0) {
-			return new IntLitExpr(thisAbs.mod(thatAbs).negate());
-		} else if (this.value.compareTo(BigInteger.ZERO) < 0 && that.value.compareTo(BigInteger.ZERO) >= 0) {
+			return IntLitExpr.of(result);
+		} else if (thisValue.compareTo(BigInteger.ZERO) >= 0 && thatValue.compareTo(BigInteger.ZERO) < 0) {
+			return IntLitExpr.of(thisAbs.mod(thatAbs).negate());
+		} else if (thisValue.compareTo(BigInteger.ZERO) < 0 && thatValue.compareTo(BigInteger.ZERO) >= 0) {
 			var result = thisAbs.mod(thatAbs);
 			if (result.compareTo(BigInteger.ZERO) != 0) {
 				result = thatAbs.subtract(result);
 			}
 			return IntLitExpr.of(result);
 		} else {
-			return IntLitExpr.of(this.value.mod(that.value));
+			return IntLitExpr.of(thisValue.mod(thatValue));
+		}
+	}
+
+	private static long rem(final long a, final long b) {
+		final long aAbs = Math.abs(a);
+		final long bAbs = Math.abs(b);
+		if (a < 0 && b < 0) {
+			final long result = aAbs % bAbs;
+			return result != 0 ? result - bAbs : result;
+		} else if (a >= 0 && b < 0) {
+			return -(aAbs % bAbs);
+		} else if (a < 0 && b >= 0) {
+			final long result = aAbs % bAbs;
+			return result != 0 ? bAbs - result : result;
+		} else {
+			return a % b;
 		}
 	}
 
 	public BoolLitExpr eq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) == 0);
+		return Bool(this.compareTo(that) == 0);
 	}
 
 	public BoolLitExpr neq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) != 0);
+		return Bool(this.compareTo(that) != 0);
 	}
 
 	public BoolLitExpr lt(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) < 0);
+		return Bool(this.compareTo(that) < 0);
 	}
 
 	public BoolLitExpr leq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) <= 0);
+		return Bool(this.compareTo(that) <= 0);
 	}
 
 	public BoolLitExpr gt(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) > 0);
+		return Bool(this.compareTo(that) > 0);
 	}
 
 	public BoolLitExpr geq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) >= 0);
+		return Bool(this.compareTo(that) >= 0);
 	}
 
 	@Override
@@ -150,7 +277,7 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + value.hashCode();
+			result = 31 * result + (longBacked ? Long.hashCode(longValue) : value.hashCode());
 			hashCode = result;
 		}
 		return result;
@@ -162,7 +289,7 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 			return true;
 		} else if (obj instanceof IntLitExpr) {
 			final IntLitExpr that = (IntLitExpr) obj;
-			return this.getValue().compareTo(that.getValue()) == 0;
+			return this.compareTo(that) == 0;
 		} else {
 			return false;
 		}
@@ -170,11 +297,14 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 
 	@Override
 	public String toString() {
-		return getValue().toString();
+		return longBacked ? Long.toString(longValue) : value.toString();
 	}
 
 	@Override
 	public int compareTo(final IntLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			return Long.compare(this.longValue, that.longValue);
+		}
 		return this.getValue().compareTo(that.getValue());
 	}
 
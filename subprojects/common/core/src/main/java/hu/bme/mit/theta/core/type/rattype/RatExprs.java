@@ -31,7 +31,7 @@ public final class RatExprs {
 	}
 
 	public static RatLitExpr Rat(final int num, final int denom) {
-		return RatLitExpr.of(BigInteger.valueOf(num), BigInteger.valueOf(denom));
+		return RatLitExpr.of(num, denom);
 	}
 
 	public static RatLitExpr Rat(final int num, final String denom) {
@@ -27,30 +27,104 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
+/**
+ * Rational literal, normalized so that the numerator and the denominator are
+ * relative primes and the denominator is positive. If both fit into a long
+ * (excluding Long.MIN_VALUE), they are stored in longs and operations are
+ * computed with overflow-checked primitive arithmetic, falling back to
+ * BigInteger on overflow. Small integers are cached.
+ */
 public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<RatType>, Comparable<RatLitExpr> {
 
 	private static final int HASH_SEED = 149;
 
-	private final BigInteger num;
-	private final BigInteger denom;
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final RatLitExpr[] CACHE = new RatLitExpr[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new RatLitExpr(CACHE_LOW + i, 1);
+		}
+	}
+
+	private final boolean longBacked;
+	private final long longNum;
+	private final long longDenom;
+	private volatile BigInteger num;
+	private volatile BigInteger denom;
 
 	private volatile int hashCode = 0;
 
+	// Normalized long-backed literal
+	private RatLitExpr(final long num, final long denom) {
+		this.longBacked = true;
+		this.longNum = num;
+		this.longDenom = denom;
+		this.num = null;
+		this.denom = null;
+	}
+
+	// Normalized BigInteger-backed literal
 	private RatLitExpr(final BigInteger num, final BigInteger denom) {
+		this.longBacked = false;
+		this.longNum = 0;
+		this.longDenom = 0;
+		this.num = num;
+		this.denom = denom;
+	}
+
+	public static RatLitExpr of(final BigInteger num, final BigInteger denom) {
 		checkArgument(denom.compareTo(BigInteger.ZERO) != 0);
 
 		final var gcd = num.abs().gcd(denom.abs());
+		final BigInteger normNum;
+		final BigInteger normDenom;
 		if (denom.compareTo(BigInteger.ZERO) >= 0) {
-			this.num = num.divide(gcd);
-			this.denom = denom.divide(gcd);
+			normNum = num.divide(gcd);
+			normDenom = denom.divide(gcd);
 		} else {
-			this.num = num.divide(gcd).negate();
-			this.denom = denom.divide(gcd).negate();
+			normNum = num.divide(gcd).negate();
+			normDenom = denom.divide(gcd).negate();
+		}
+
+		if (normNum.bitLength() < Long.SIZE && normNum.longValue() != Long.MIN_VALUE
+				&& normDenom.bitLength() < Long.SIZE) {
+			return ofNormalized(normNum.longValue(), normDenom.longValue());
+		} else {
+			return new RatLitExpr(normNum, normDenom);
 		}
 	}
 
-	public static RatLitExpr of(final BigInteger num, final BigInteger denom) {
-		return new RatLitExpr(num, denom);
+	public static RatLitExpr of(final long num, final long denom) {
+		checkArgument(denom != 0);
+		if (num == Long.MIN_VALUE || denom == Long.MIN_VALUE) {
+			return of(BigInteger.valueOf(num), BigInteger.valueOf(denom));
+		}
+
+		final long gcd = gcd(Math.abs(num), Math.abs(denom));
+		if (denom > 0) {
+			return ofNormalized(num / gcd, denom / gcd);
+		} else {
+			return ofNormalized(-num / gcd, -denom / gcd);
+		}
+	}
+
+	private static RatLitExpr ofNormalized(final long num, final long denom) {
+		if (denom == 1 && CACHE_LOW <= num && num <= CACHE_HIGH) {
+			return CACHE[(int) num - CACHE_LOW];
+		} else {
+			return new RatLitExpr(num, denom);
+		}
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			final long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
 	}
 
 	@Override
@@ -64,18 +138,31 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public BigInteger getNum() {
-		return num;
+		BigInteger result = num;
+		if (result == null) {
+			result = BigInteger.valueOf(longNum);
+			num = result;
+		}
+		return result;
 	}
 
 	public BigInteger getDenom() {
-		return denom;
+		BigInteger result = denom;
+		if (result == null) {
+			result = BigInteger.valueOf(longDenom);
+			denom = result;
+		}
+		return result;
 	}
 
 	public int sign() {
-		return num.signum();
+		return longBacked ? Long.signum(longNum) : num.signum();
 	}
 
 	public BigInteger floor() {
+		if (longBacked) {
+			return BigInteger.valueOf(Math.floorDiv(longNum, longDenom));
+		}
 		if (num.compareTo(BigInteger.ZERO) >= 0 || num.mod(denom).compareTo(BigInteger.ZERO) == 0) {
 			return num.divide(denom);
 		} else {
@@ -84,6 +171,9 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public BigInteger ceil() {
+		if (longBacked) {
+			return BigInteger.valueOf(-Math.floorDiv(-longNum, longDenom));
+		}
 		if (num.compareTo(BigInteger.ZERO) <= 0 || num.mod(denom).compareTo(BigInteger.ZERO) == 0) {
 			return num.divide(denom);
 		} else {
@@ -92,56 +182,102 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public RatLitExpr add(final RatLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			try {
+				if (this.longDenom == 1 && that.longDenom == 1) {
+					return ofNormalized(Math.addExact(this.longNum, that.longNum), 1);
+				}
+				return RatLitExpr.of(Math.addExact(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum)),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()).add(this.getDenom().multiply(that.getNum())),
 				this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr sub(final RatLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			try {
+				if (this.longDenom == 1 && that.longDenom == 1) {
+					return ofNormalized(Math.subtractExact(this.longNum, that.longNum), 1);
+				}
+				return RatLitExpr.of(Math.subtractExact(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum)),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()).subtract(this.getDenom().multiply(that.getNum())),
 				this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr pos() {
-		return RatLitExpr.of(this.getNum(), this.getDenom());
+		return this;
 	}
 
 	public RatLitExpr neg() {
+		if (longBacked) {
+			return ofNormalized(-longNum, longDenom);
+		}
 		return RatLitExpr.of(this.getNum().negate(), this.getDenom());
 	}
 
 	public RatLitExpr mul(final RatLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			try {
+				return RatLitExpr.of(Math.multiplyExact(this.longNum, that.longNum),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getNum()), this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr div(final RatLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			try {
+				return RatLitExpr.of(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()), this.getDenom().multiply(that.getNum()));
 	}
 
 	public BoolLitExpr eq(final RatLitExpr that) {
-		return Bool(this.getNum().compareTo(that.getNum()) == 0 && this.getDenom().compareTo(that.getDenom()) == 0);
+		return Bool(this.equals(that));
 	}
 
 	public BoolLitExpr neq(final RatLitExpr that) {
-		return Bool(this.getNum().compareTo(that.getNum()) != 0 || this.getDenom().compareTo(that.getDenom()) != 0);
+		return Bool(!this.equals(that));
 	}
 
 	public BoolLitExpr lt(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) < 0);
+		return Bool(this.compareTo(that) < 0);
 	}
 
 	public BoolLitExpr leq(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) <= 0);
+		return Bool(this.compareTo(that) <= 0);
 	}
 
 	public BoolLitExpr gt(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) > 0);
+		return Bool(this.compareTo(that) > 0);
 	}
 
 	public BoolLitExpr geq(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) >= 0);
+		return Bool(this.compareTo(that) >= 0);
 	}
 
 	public RatLitExpr abs() {
+		if (longBacked) {
+			return longNum >= 0 ? this : ofNormalized(-longNum, longDenom);
+		}
 		return RatLitExpr.of(num.abs(), denom);
 	}
 
@@ -154,8 +290,13 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + num.hashCode();
-			result = 31 * result + denom.hashCode();
+			if (longBacked) {
+				result = 31 * result + Long.hashCode(longNum);
+				result = 31 * result + Long.hashCode(longDenom);
+			} else {
+				result = 31 * result + num.hashCode();
+				result = 31 * result + denom.hashCode();
+			}
 			hashCode = result;
 		}
 		return hashCode;
@@ -167,6 +308,9 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 			return true;
 		} else if (obj instanceof RatLitExpr) {
 			final RatLitExpr that = (RatLitExpr) obj;
+			if (this.longBacked && that.longBacked) {
+				return this.longNum == that.longNum && this.longDenom == that.longDenom;
+			}
 			return (this.getNum().compareTo(that.getNum()) == 0 && this.getDenom().compareTo(that.getDenom()) == 0);
 		} else {
 			return false;
@@ -184,10 +328,24 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 
 	@Override
 	public int compareTo(final RatLitExpr that) {
+		if (this.longBacked && that.longBacked) {
+			if (this.longDenom == that.longDenom) {
+				return Long.compare(this.longNum, that.longNum);
+			}
+			try {
+				return Long.compare(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum()));
 	}
 
-    public IntLitExpr toInt() {
+	public IntLitExpr toInt() {
+		if (longBacked) {
+			return IntLitExpr.of(longNum / longDenom);
+		}
 		return IntLitExpr.of(num.divide(denom));
-    }
+	}
 }
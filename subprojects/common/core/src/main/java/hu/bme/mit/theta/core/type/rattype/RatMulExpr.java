@@ -19,7 +19,6 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 import static hu.bme.mit.theta.core.utils.TypeUtils.cast;
 
-import java.math.BigInteger;
 import java.util.List;
 
 import hu.bme.mit.theta.core.model.Valuation;
@@ -50,14 +49,12 @@ public final class RatMulExpr extends MulExpr<RatType> {
 
 	@Override
 	public RatLitExpr eval(final Valuation val) {
-		var prodNum = BigInteger.ONE;
-		var prodDenom = BigInteger.ONE;
+		var prod = Rat(1, 1);
 		for (final Expr<RatType> op : getOps()) {
 			final RatLitExpr opLit = (RatLitExpr) op.eval(val);
-			prodNum = prodNum.multiply(opLit.getNum());
-			prodDenom = prodDenom.multiply(opLit.getDenom());
+			prod = prod.mul(opLit);
 		}
-		return Rat(prodNum, prodDenom);
+		return prod;
 	}
 
 	@Override
@@ -16,6 +16,15 @@ public final class BvUtils {
     }
 
     public static BigInteger unsignedBvLitExprToBigInteger(final BvLitExpr expr) {
+        if (expr.isLongBacked()) {
+            final long bits = expr.toUnsignedLong();
+            if (bits >= 0) {
+                return BigInteger.valueOf(bits);
+            } else {
+                return BigInteger.valueOf(bits >>> 1).shiftLeft(1).or(BigInteger.valueOf(bits & 1));
+            }
+        }
+
         BigInteger integer = BigInteger.ZERO;
 
         for(int i = 0; i < expr.getType().getSize(); i++) {
@@ -28,6 +37,10 @@ public final class BvUtils {
     }
 
     public static BigInteger signedBvLitExprToBigInteger(final BvLitExpr expr) {
+        if (expr.isLongBacked()) {
+            return BigInteger.valueOf(expr.toSignedLong());
+        }
+
         BigInteger integer = unsignedBvLitExprToBigInteger(expr);
 
         if(expr.getValue()[0]) {
@@ -42,6 +55,10 @@ public final class BvUtils {
     }
 
     public static BvLitExpr bigIntegerToUnsignedBvLitExpr(BigInteger integer, final int size) {
+        if (size <= Long.SIZE) {
+            // The lowest bits of the two's complement representation
+            return BvLitExpr.of(integer.longValue(), size);
+        }
 
         boolean[] values = new boolean[size];
         for(int i = 0; i < size; i++) {
@@ -64,26 +81,11 @@ public final class BvUtils {
     }
 
     public static BigInteger fitBigIntegerIntoSignedDomain(BigInteger integer, final int size) {
-        while (integer.compareTo(BigInteger.TWO.pow(size - 1).negate()) < 0) {
-            integer = integer.add(BigInteger.TWO.pow(size));
-        }
-
-        while (integer.compareTo(BigInteger.TWO.pow(size - 1)) >= 0) {
-            integer = integer.subtract(BigInteger.TWO.pow(size));
-        }
-
-        return integer;
+        final BigInteger half = BigInteger.TWO.pow(size - 1);
+        return integer.add(half).mod(BigInteger.TWO.pow(size)).subtract(half);
     }
 
     public static BigInteger fitBigIntegerIntoUnsignedDomain(BigInteger integer, final int size) {
-        while(integer.compareTo(BigInteger.ZERO) < 0) {
-            integer = integer.add(BigInteger.TWO.pow(size));
-        }
-
-        while(integer.compareTo(BigInteger.TWO.pow(size)) >= 0) {
-            integer = integer.subtract(BigInteger.TWO.pow(size));
-        }
-
-        return integer;
+        return integer.mod(BigInteger.TWO.pow(size));
     }
 }
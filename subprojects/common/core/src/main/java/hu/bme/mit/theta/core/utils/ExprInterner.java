@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.Type;
+
+/**
+ * Hash-consing of expressions: structurally equal expressions are mapped to a
+ * single canonical instance, so that interned expressions can be compared by
+ * identity. The operands of an interned expression are also interned, hence
+ * equal subexpressions are shared (the expression becomes a DAG). Equal
+ * interned expressions are the same instance, so equals returns on its
+ * identity check in constant time. The equality check of different interned
+ * expressions still compares their structure, but it returns immediately on
+ * shared operands. The canonical instances are weakly referenced, i.e., they
+ * are not kept alive by the interner. The interner is thread-safe.
+ *
+ * Interning is opt-in: expressions created by the factory methods are not
+ * interned, only the results of {@link #intern(Expr)}.
+ */
+public final class ExprInterner {
+
+	private static final ExprInterner INSTANCE = new ExprInterner();
+
+	private final Interner<Expr<?>> interner;
+	// Identity-based set of the canonical instances
+	private final Set<Expr<?>> canonicalExprs;
+
+	private final LongAdder canonicalHits;
+	private final LongAdder internHits;
+	private final LongAdder internMisses;
+
+	private ExprInterner() {
+		interner = Interners.newWeakInterner();
+		canonicalExprs = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+		canonicalHits = new LongAdder();
+		internHits = new LongAdder();
+		internMisses = new LongAdder();
+	}
+
+	/**
+	 * Gets the shared interner.
+	 */
+	public static ExprInterner getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates a new interner, independent from the shared one.
+	 */
+	public static ExprInterner create() {
+		return new ExprInterner();
+	}
+
+	/**
+	 * Gets the canonical instance of an expression (and its subexpressions).
+	 *
+	 * @param expr Expression
+	 * @return Canonical instance, which is equal to the expression
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Type> Expr<T> intern(final Expr<T> expr) {
+		checkNotNull(expr);
+		if (canonicalExprs.contains(expr)) {
+			canonicalHits.increment();
+			return expr;
+		}
+
+		final List<? extends Expr<?>> ops = expr.getOps();
+		Expr<T> exprWithInternedOps = expr;
+		if (!ops.isEmpty()) {
+			final List<Expr<?>> internedOps = new ArrayList<>(ops.size());
+			boolean changed = false;
+			for (final Expr<?> op : ops) {
+				final Expr<?> internedOp = intern(op);
+				internedOps.add(internedOp);
+				changed |= internedOp != op;
+			}
+			if (changed) {
+				exprWithInternedOps = expr.withOps(internedOps);
+			}
+		}
+
+		final Expr<T> canonical = (Expr<T>) interner.intern(exprWithInternedOps);
+		if (canonical == exprWithInternedOps) {
+			internMisses.increment();
+			canonicalExprs.add(canonical);
+		} else {
+			internHits.increment();
+		}
+		return canonical;
+	}
+
+	/**
+	 * Checks whether an expression is a canonical instance.
+	 */
+	public boolean isInterned(final Expr<?> expr) {
+		return canonicalExprs.contains(expr);
+	}
+
+	/**
+	 * Gets the number of (sub)expressions that were already canonical.
+	 */
+	public long getCanonicalHits() {
+		return canonicalHits.sum();
+	}
+
+	/**
+	 * Gets the number of (sub)expressions that were replaced by an existing
+	 * canonical instance.
+	 */
+	public long getInternHits() {
+		return internHits.sum();
+	}
+
+	/**
+	 * Gets the number of (sub)expressions that became canonical instances.
+	 */
+	public long getInternMisses() {
+		return internMisses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(canonicalExprs.size()).toString();
+	}
+
+}
@@ -1276,8 +1276,7 @@ public final class ExprSimplifier {
 		}
 
 		final BvLitExpr ZERO = Bv(new boolean[expr.getType().getSize()]);
-		final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-		ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
+		final BvLitExpr ONE = BvUtils.bigIntegerToNeutralBvLitExpr(BigInteger.ONE, expr.getType().getSize());
 
 		BvLitExpr value = ONE;
 		for (final Iterator<Expr<BvType>> iterator = ops.iterator(); iterator.hasNext(); ) {
@@ -1317,9 +1316,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-				ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
-				return ONE;
+				return BvUtils.bigIntegerToNeutralBvLitExpr(BigInteger.ONE, expr.getType().getSize());
 			}
 		}
 
@@ -1338,9 +1335,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-				ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
-				return ONE;
+				return BvUtils.bigIntegerToNeutralBvLitExpr(BigInteger.ONE, expr.getType().getSize());
 			}
 		}
 
@@ -1416,10 +1411,8 @@ public final class ExprSimplifier {
 				ops.add(opVisited);
 			}
 		}
-		BvLitExpr ONES = Bv(new boolean[expr.getType().getSize()]);
-		for (int i = 0; i < expr.getType().getSize(); i++) {
-			ONES.getValue()[i] = true;
-		}
+		final BvLitExpr ONES = BvUtils.bigIntegerToNeutralBvLitExpr(BigInteger.ONE.negate(),
+				expr.getType().getSize());
 
 		BvLitExpr value = ONES;
 
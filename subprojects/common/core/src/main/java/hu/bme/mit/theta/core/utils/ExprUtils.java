@@ -256,6 +256,17 @@ public final class ExprUtils {
 		return canonizedArgs;
 	}
 
+	/**
+	 * Return the canonical instance of an expression using the shared
+	 * {@link ExprInterner}. Interned expressions can be compared by identity.
+	 *
+	 * @param expr Original expression
+	 * @return Canonical instance
+	 */
+	public static <ExprType extends Type> Expr<ExprType> intern(final Expr<ExprType> expr) {
+		return ExprInterner.getInstance().intern(expr);
+	}
+
 	/**
 	 * Transform an expression into a ponated one.
 	 *
@@ -19,8 +19,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.decl.Decl;
@@ -52,12 +55,17 @@ public class PathUtils {
 
 	/**
 	 * Transform an expression by substituting variables with indexed constants.
+	 * Results are memoized by {@link UnfoldCache}.
 	 *
 	 * @param expr     Original expression
 	 * @param indexing Indexing for the variables
 	 * @return Transformed expression
 	 */
 	public static <T extends Type> Expr<T> unfold(final Expr<T> expr, final VarIndexing indexing) {
+		return UnfoldCache.getInstance().unfold(expr, indexing);
+	}
+
+	static <T extends Type> Expr<T> unfoldUncached(final Expr<T> expr, final VarIndexing indexing) {
 		checkNotNull(expr);
 		checkNotNull(indexing);
 		final UnfoldHelper helper = new UnfoldHelper(indexing);
@@ -207,7 +215,7 @@ public class PathUtils {
 				return unfold(op, offset + 1);
 			}
 
-			return expr.map(op -> unfold(op, offset));
+			return mapOps(expr, op -> unfold(op, offset));
 		}
 	}
 
@@ -240,8 +248,31 @@ public class PathUtils {
 				}
 			}
 
-			return expr.map(this::foldin);
+			return mapOps(expr, this::foldin);
+		}
+	}
+
+	////
+
+	/**
+	 * Applies a function to the operands of an expression, but unlike
+	 * {@link Expr#map(Function)} returns the expression itself if none of the
+	 * operands changed, so subtrees without variables are not rebuilt.
+	 */
+	private static <T extends Type> Expr<T> mapOps(final Expr<T> expr,
+												   final Function<? super Expr<?>, ? extends Expr<?>> function) {
+		final List<? extends Expr<?>> ops = expr.getOps();
+		if (ops.isEmpty()) {
+			return expr;
+		}
+		final List<Expr<?>> newOps = new ArrayList<>(ops.size());
+		boolean changed = false;
+		for (final Expr<?> op : ops) {
+			final Expr<?> newOp = function.apply(op);
+			newOps.add(newOp);
+			changed |= newOp != op;
 		}
+		return changed ? expr.withOps(newOps) : expr;
 	}
 
 }
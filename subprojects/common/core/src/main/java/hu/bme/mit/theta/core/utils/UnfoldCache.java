@@ -0,0 +1,249 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.MapMaker;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.anytype.PrimeExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+
+/**
+ * Memoization of {@link PathUtils#unfold(Expr, VarIndexing)}. The result of
+ * unfolding only depends on the indices of the variables that occur in the
+ * expression, so results are cached per expression (by identity) and per
+ * fingerprint, which is the array of the indices of these variables. The
+ * variables of an expression are collected once, expressions without
+ * variables (and primes) are returned as they are. Expressions are weakly
+ * referenced, and only a bounded number of results is kept for each of them.
+ * The cache is thread-safe.
+ *
+ * Identity-based lookup works best with expressions that are reused (e.g.,
+ * the expressions of the actions), or that are interned by
+ * {@link ExprInterner}.
+ */
+public final class UnfoldCache {
+
+	private static final int DEFAULT_MAX_RESULTS_PER_EXPR = 16;
+
+	private static final UnfoldCache INSTANCE = new UnfoldCache(DEFAULT_MAX_RESULTS_PER_EXPR);
+
+	private final int maxResultsPerExpr;
+	private final ConcurrentMap<Expr<?>, Entry> exprToEntry;
+
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder skips;
+
+	private UnfoldCache(final int maxResultsPerExpr) {
+		checkArgument(maxResultsPerExpr > 0, "Number of results must be positive");
+		this.maxResultsPerExpr = maxResultsPerExpr;
+		exprToEntry = new MapMaker().weakKeys().makeMap();
+		hits = new LongAdder();
+		misses = new LongAdder();
+		skips = new LongAdder();
+	}
+
+	/**
+	 * Gets the cache used by {@link PathUtils}. The cache (and its counters)
+	 * are shared by all analyses in the JVM.
+	 */
+	public static UnfoldCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates a new cache, independent from the shared one.
+	 *
+	 * @param maxResultsPerExpr Maximal number of unfolded versions kept for an
+	 *                          expression
+	 */
+	public static UnfoldCache create(final int maxResultsPerExpr) {
+		return new UnfoldCache(maxResultsPerExpr);
+	}
+
+	/**
+	 * Transform an expression by substituting variables with indexed
+	 * constants, reusing earlier results if possible.
+	 *
+	 * @param expr     Original expression
+	 * @param indexing Indexing for the variables
+	 * @return Transformed expression
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Type> Expr<T> unfold(final Expr<T> expr, final VarIndexing indexing) {
+		checkNotNull(expr);
+		checkNotNull(indexing);
+
+		final Entry entry = exprToEntry.computeIfAbsent(expr, Entry::new);
+		if (entry.vars.length == 0 && !entry.hasPrimes) {
+			skips.increment();
+			return expr;
+		}
+
+		final Fingerprint fingerprint = new Fingerprint(entry.vars, indexing);
+		synchronized (entry) {
+			final Expr<?> cached = entry.results.get(fingerprint);
+			if (cached != null) {
+				hits.increment();
+				return (Expr<T>) cached;
+			}
+		}
+
+		misses.increment();
+		final Expr<T> result = PathUtils.unfoldUncached(expr, indexing);
+		synchronized (entry) {
+			// If another thread stored a result meanwhile, return that one, so that
+			// all threads get the same instance
+			final Expr<?> stored = entry.results.putIfAbsent(fingerprint, result);
+			return stored != null ? (Expr<T>) stored : result;
+		}
+	}
+
+	/**
+	 * Removes all the cached results and resets the counters.
+	 */
+	public void clear() {
+		exprToEntry.clear();
+		hits.reset();
+		misses.reset();
+		skips.reset();
+	}
+
+	/**
+	 * Gets the number of lookups answered from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups where the expression had to be unfolded.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of lookups for expressions without variables, which are
+	 * returned without unfolding.
+	 */
+	public long getSkips() {
+		return skips.sum();
+	}
+
+	/**
+	 * Gets the ratio of lookups that did not require unfolding (hits and
+	 * skips), or 0 if there were no lookups.
+	 */
+	public double getHitRate() {
+		final long saved = getHits() + getSkips();
+		final long total = saved + getMisses();
+		return total == 0 ? 0 : (double) saved / total;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(getHits()).add(getMisses()).add(getSkips())
+				.toString();
+	}
+
+	////
+
+	private final class Entry {
+		private final VarDecl<?>[] vars;
+		private final boolean hasPrimes;
+		private final Map<Fingerprint, Expr<?>> results;
+
+		private Entry(final Expr<?> expr) {
+			final Set<VarDecl<?>> varSet = new LinkedHashSet<>();
+			hasPrimes = collectVars(expr, varSet);
+			vars = varSet.toArray(new VarDecl<?>[0]);
+			results = new LinkedHashMap<Fingerprint, Expr<?>>(4, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<Fingerprint, Expr<?>> eldest) {
+					return size() > maxResultsPerExpr;
+				}
+			};
+		}
+	}
+
+	private static boolean collectVars(final Expr<?> expr, final Set<VarDecl<?>> vars) {
+		if (expr instanceof RefExpr) {
+			final Decl<?> decl = ((RefExpr<?>) expr).getDecl();
+			if (decl instanceof VarDecl) {
+				vars.add((VarDecl<?>) decl);
+			}
+			return false;
+		}
+
+		boolean hasPrimes = expr instanceof PrimeExpr;
+		final List<? extends Expr<?>> ops = expr.getOps();
+		for (final Expr<?> op : ops) {
+			hasPrimes |= collectVars(op, vars);
+		}
+		return hasPrimes;
+	}
+
+	private static final class Fingerprint {
+		private final int[] indices;
+		private final int hashCode;
+
+		private Fingerprint(final VarDecl<?>[] vars, final VarIndexing indexing) {
+			indices = new int[vars.length];
+			for (int i = 0; i < vars.length; i++) {
+				indices[i] = indexing.get(vars[i]);
+			}
+			hashCode = Arrays.hashCode(indices);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof Fingerprint) {
+				final Fingerprint that = (Fingerprint) obj;
+				return this.hashCode == that.hashCode && Arrays.equals(this.indices, that.indices);
+			} else {
+				return false;
+			}
+		}
+	}
+
+}
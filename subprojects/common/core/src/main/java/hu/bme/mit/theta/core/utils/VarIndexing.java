@@ -19,31 +19,57 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
 
-import hu.bme.mit.theta.common.container.Containers;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 import java.util.StringJoiner;
-
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Sets;
+import java.util.function.IntBinaryOperator;
 
 import hu.bme.mit.theta.core.decl.VarDecl;
 
 /**
  * Represents an immutable mapping, where each variable is associated with an
  * index. The inner builder class can also be used to create a new instance.
+ *
+ * The variables with an index different from the default are stored in
+ * primitive arrays, sorted by the identifiers of the variables (see
+ * {@link VarDecl#getId()}), so arithmetic operations are linear merges without
+ * boxing or hashing. If the identifiers of these variables are dense (which is
+ * the case when most variables of a model are indexed), lookup is a direct
+ * array access, otherwise a binary search.
  */
 public class VarIndexing {
 
-	private static final VarIndexing ALL_ZERO = new Builder(0).build();
-	private static final VarIndexing ALL_ONE = new Builder(1).build();
+	// Minimal number of variables for creating a dense lookup table
+	private static final int DENSE_MIN_SIZE = 8;
+	// Maximal ratio of the range of identifiers and the number of variables for a dense lookup table
+	private static final int DENSE_MAX_SPARSITY = 4;
 
-	private final int defaultIndex;
-	private final Map<VarDecl<?>, Integer> varToOffset;
+	private static final VarIndexing ALL_ZERO = new VarIndexing(0, Entries.EMPTY);
+	private static final VarIndexing ALL_ONE = new VarIndexing(1, Entries.EMPTY);
 
-	private VarIndexing(final Builder builder) {
-		defaultIndex = builder.defaultIndex;
-		varToOffset = ImmutableMap.copyOf(builder.varToOffset);
+	private final int defaultIndex;
+	private final Entries entries;
+	private final int minId;
+	private final int[] denseOffsets;
+
+	private VarIndexing(final int defaultIndex, final Entries entries) {
+		this.defaultIndex = defaultIndex;
+		this.entries = entries;
+
+		final int size = entries.size;
+		if (size >= DENSE_MIN_SIZE) {
+			final int first = entries.ids[0];
+			final int range = entries.ids[size - 1] - first + 1;
+			if (range <= DENSE_MAX_SPARSITY * size) {
+				minId = first;
+				denseOffsets = new int[range];
+				for (int i = 0; i < size; i++) {
+					denseOffsets[entries.ids[i] - first] = entries.offsets[i];
+				}
+				return;
+			}
+		}
+		minId = 0;
+		denseOffsets = null;
 	}
 
 	/**
@@ -60,7 +86,7 @@ public class VarIndexing {
 			case 1:
 				return ALL_ONE;
 			default:
-				return new Builder(defaultIndex).build();
+				return new VarIndexing(defaultIndex, Entries.EMPTY);
 		}
 	}
 
@@ -114,7 +140,14 @@ public class VarIndexing {
 	 */
 	public VarIndexing add(final VarIndexing indexing) {
 		checkNotNull(indexing);
-		return transform().add(indexing.transform()).build();
+		if (indexing.isAllZero()) {
+			return this;
+		} else if (this.isAllZero()) {
+			return indexing;
+		}
+		final int newDefaultIndex = this.defaultIndex + indexing.defaultIndex;
+		return new VarIndexing(newDefaultIndex, Entries.merge(this.defaultIndex, this.entries, indexing.defaultIndex,
+				indexing.entries, newDefaultIndex, Integer::sum));
 	}
 
 	/**
@@ -125,7 +158,13 @@ public class VarIndexing {
 	 */
 	public VarIndexing sub(final VarIndexing indexing) {
 		checkNotNull(indexing);
-		return transform().sub(indexing.transform()).build();
+		if (indexing.isAllZero()) {
+			return this;
+		}
+		final int newDefaultIndex = this.defaultIndex - indexing.defaultIndex;
+		checkArgument(newDefaultIndex >= 0, "Negative default index");
+		return new VarIndexing(newDefaultIndex, Entries.merge(this.defaultIndex, this.entries, indexing.defaultIndex,
+				indexing.entries, newDefaultIndex, (i1, i2) -> i1 - i2));
 	}
 
 	/**
@@ -136,7 +175,14 @@ public class VarIndexing {
 	 */
 	public VarIndexing join(final VarIndexing indexing) {
 		checkNotNull(indexing);
-		return transform().join(indexing.transform()).build();
+		if (indexing.isAllZero()) {
+			return this;
+		} else if (this.isAllZero()) {
+			return indexing;
+		}
+		final int newDefaultIndex = max(this.defaultIndex, indexing.defaultIndex);
+		return new VarIndexing(newDefaultIndex, Entries.merge(this.defaultIndex, this.entries, indexing.defaultIndex,
+				indexing.entries, newDefaultIndex, Math::max));
 	}
 
 	/**
@@ -147,15 +193,27 @@ public class VarIndexing {
 	 */
 	public int get(final VarDecl<?> varDecl) {
 		checkNotNull(varDecl);
-		final Integer offset = varToOffset.getOrDefault(varDecl, 0);
-		return defaultIndex + offset;
+		if (denseOffsets != null) {
+			final int i = varDecl.getId() - minId;
+			if (i >= 0 && i < denseOffsets.length) {
+				return defaultIndex + denseOffsets[i];
+			} else {
+				return defaultIndex;
+			}
+		}
+		return defaultIndex + entries.getOffset(varDecl);
+	}
+
+	private boolean isAllZero() {
+		return defaultIndex == 0 && entries.size == 0;
 	}
 
 	@Override
 	public String toString() {
 		final StringJoiner sj = new StringJoiner(", ", "IndexMap(", ")");
 		sj.add(Integer.toString(defaultIndex));
-		for (final VarDecl<?> varDecl : varToOffset.keySet()) {
+		for (int i = 0; i < entries.size; i++) {
+			final VarDecl<?> varDecl = entries.vars[i];
 			final StringBuilder sb = new StringBuilder();
 			sb.append(varDecl.getName());
 			sb.append(" -> ");
@@ -169,27 +227,36 @@ public class VarIndexing {
 
 	public static final class Builder {
 		private int defaultIndex;
-		private Map<VarDecl<?>, Integer> varToOffset;
+		private Entries entries;
 
 		private Builder(final int defaultIndex) {
 			checkArgument(defaultIndex >= 0, "Negative default index");
 			this.defaultIndex = defaultIndex;
-			varToOffset = Containers.createMap();
+			entries = new Entries(0);
 		}
 
 		private Builder(final VarIndexing indexing) {
 			this.defaultIndex = indexing.defaultIndex;
-			this.varToOffset = Containers.createMap(indexing.varToOffset);
+			this.entries = indexing.entries.copy();
 		}
 
 		public Builder inc(final VarDecl<?> varDecl, final int n) {
 			checkNotNull(varDecl);
 
 			if (n != 0) {
-				final Integer offset = varToOffset.getOrDefault(varDecl, 0);
-				final Integer newOffset = offset + n;
-				checkArgument(defaultIndex + newOffset >= 0, "Negative index for variable");
-				varToOffset.put(varDecl, newOffset);
+				final int pos = entries.find(varDecl.getId());
+				if (pos >= 0) {
+					final int newOffset = entries.offsets[pos] + n;
+					checkArgument(defaultIndex + newOffset >= 0, "Negative index for variable");
+					if (newOffset == 0) {
+						entries.remove(pos);
+					} else {
+						entries.offsets[pos] = newOffset;
+					}
+				} else {
+					checkArgument(defaultIndex + n >= 0, "Negative index for variable");
+					entries.insert(-(pos + 1), varDecl, n);
+				}
 			}
 
 			return this;
@@ -206,83 +273,165 @@ public class VarIndexing {
 
 		public Builder add(final Builder that) {
 			checkNotNull(that);
-
 			final int newDefaultIndex = this.defaultIndex + that.defaultIndex;
-			final Map<VarDecl<?>, Integer> newVarToOffset = Containers.createMap();
-
-			final Set<VarDecl<?>> varDecls = Sets.union(this.varToOffset.keySet(), that.varToOffset.keySet());
-			for (final VarDecl<?> varDecl : varDecls) {
-				final int index1 = this.get(varDecl);
-				final int index2 = that.get(varDecl);
-				final int newIndex = index1 + index2;
-				checkArgument(newIndex >= 0, "Negative index for variable");
-				final int newOffset = newIndex - newDefaultIndex;
-				if (newOffset != 0) {
-					newVarToOffset.put(varDecl, newOffset);
-				}
-			}
-
+			this.entries = Entries.merge(this.defaultIndex, this.entries, that.defaultIndex, that.entries,
+					newDefaultIndex, Integer::sum);
 			this.defaultIndex = newDefaultIndex;
-			this.varToOffset = newVarToOffset;
 			return this;
 		}
 
 		public Builder sub(final Builder that) {
 			checkNotNull(that);
-
 			final int newDefaultIndex = this.defaultIndex - that.defaultIndex;
 			checkArgument(newDefaultIndex >= 0, "Negative default index");
-			final Map<VarDecl<?>, Integer> newVarToOffset = Containers.createMap();
-
-			final Set<VarDecl<?>> varDecls = Sets.union(this.varToOffset.keySet(), that.varToOffset.keySet());
-			for (final VarDecl<?> varDecl : varDecls) {
-				final int index1 = this.get(varDecl);
-				final int index2 = that.get(varDecl);
-				final int newIndex = index1 - index2;
-				checkArgument(newIndex >= 0, "Negative index for variable");
-				final int newOffset = newIndex - newDefaultIndex;
-				if (newOffset != 0) {
-					newVarToOffset.put(varDecl, newOffset);
-				}
-			}
-
+			this.entries = Entries.merge(this.defaultIndex, this.entries, that.defaultIndex, that.entries,
+					newDefaultIndex, (i1, i2) -> i1 - i2);
 			this.defaultIndex = newDefaultIndex;
-			this.varToOffset = newVarToOffset;
 			return this;
 		}
 
 		public Builder join(final Builder that) {
 			checkNotNull(that);
-
 			final int newDefaultIndex = max(this.defaultIndex, that.defaultIndex);
-			final Map<VarDecl<?>, Integer> newVarToOffset = Containers.createMap();
-
-			final Set<VarDecl<?>> varDecls = Sets.union(this.varToOffset.keySet(), that.varToOffset.keySet());
-			for (final VarDecl<?> varDecl : varDecls) {
-				final int index1 = this.get(varDecl);
-				final int index2 = that.get(varDecl);
-				final int newIndex = max(index1, index2);
-				final int newOffset = newIndex - newDefaultIndex;
-				if (newOffset != 0) {
-					newVarToOffset.put(varDecl, newOffset);
-				}
-			}
-
+			this.entries = Entries.merge(this.defaultIndex, this.entries, that.defaultIndex, that.entries,
+					newDefaultIndex, Math::max);
 			this.defaultIndex = newDefaultIndex;
-			this.varToOffset = newVarToOffset;
 			return this;
 		}
 
 		public int get(final VarDecl<?> varDecl) {
 			checkNotNull(varDecl);
-			final Integer offset = varToOffset.getOrDefault(varDecl, 0);
-			return defaultIndex + offset;
+			return defaultIndex + entries.getOffset(varDecl);
 		}
 
 		public VarIndexing build() {
-			return new VarIndexing(this);
+			if (entries.size == 0) {
+				return all(defaultIndex);
+			}
+			return new VarIndexing(defaultIndex, entries.copy());
+		}
+
+	}
+
+	////
+
+	/**
+	 * Variables with nonzero offsets (relative to the default index) in
+	 * parallel arrays, sorted by the identifiers of the variables. Only the
+	 * first size elements of the arrays are valid.
+	 */
+	private static final class Entries {
+		private static final VarDecl<?>[] NO_VARS = new VarDecl<?>[0];
+		private static final int[] NO_INTS = new int[0];
+		// Only used by instances of VarIndexing, which never modify their entries
+		private static final Entries EMPTY = new Entries(0);
+
+		private VarDecl<?>[] vars;
+		private int[] ids;
+		private int[] offsets;
+		private int size;
+
+		private Entries(final int capacity) {
+			vars = capacity == 0 ? NO_VARS : new VarDecl<?>[capacity];
+			ids = capacity == 0 ? NO_INTS : new int[capacity];
+			offsets = capacity == 0 ? NO_INTS : new int[capacity];
+			size = 0;
+		}
+
+		private Entries copy() {
+			final Entries copy = new Entries(0);
+			if (size == 0) {
+				return copy;
+			}
+			copy.vars = Arrays.copyOf(vars, size);
+			copy.ids = Arrays.copyOf(ids, size);
+			copy.offsets = Arrays.copyOf(offsets, size);
+			copy.size = size;
+			return copy;
+		}
+
+		private int find(final int id) {
+			return Arrays.binarySearch(ids, 0, size, id);
 		}
 
+		private int getOffset(final VarDecl<?> varDecl) {
+			final int pos = find(varDecl.getId());
+			return pos >= 0 ? offsets[pos] : 0;
+		}
+
+		private void append(final VarDecl<?> varDecl, final int id, final int offset) {
+			vars[size] = varDecl;
+			ids[size] = id;
+			offsets[size] = offset;
+			size++;
+		}
+
+		private void insert(final int pos, final VarDecl<?> varDecl, final int offset) {
+			if (size == ids.length) {
+				final int capacity = max(4, 2 * size);
+				vars = Arrays.copyOf(vars, capacity);
+				ids = Arrays.copyOf(ids, capacity);
+				offsets = Arrays.copyOf(offsets, capacity);
+			}
+			System.arraycopy(vars, pos, vars, pos + 1, size - pos);
+			System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+			System.arraycopy(offsets, pos, offsets, pos + 1, size - pos);
+			vars[pos] = varDecl;
+			ids[pos] = varDecl.getId();
+			offsets[pos] = offset;
+			size++;
+		}
+
+		private void remove(final int pos) {
+			System.arraycopy(vars, pos + 1, vars, pos, size - pos - 1);
+			System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+			System.arraycopy(offsets, pos + 1, offsets, pos, size - pos - 1);
+			size--;
+			vars[size] = null;
+		}
+
+		/**
+		 * Combines the indices of the variables of two indexings with an
+		 * operation, and returns the offsets of the results relative to a new
+		 * default index.
+		 */
+		private static Entries merge(final int defaultIndex1, final Entries entries1, final int defaultIndex2,
+									 final Entries entries2, final int newDefaultIndex, final IntBinaryOperator op) {
+			final int size1 = entries1.size;
+			final int size2 = entries2.size;
+			final Entries result = new Entries(size1 + size2);
+			int i1 = 0;
+			int i2 = 0;
+			while (i1 < size1 || i2 < size2) {
+				final int id1 = i1 < size1 ? entries1.ids[i1] : Integer.MAX_VALUE;
+				final int id2 = i2 < size2 ? entries2.ids[i2] : Integer.MAX_VALUE;
+				final VarDecl<?> varDecl;
+				final int id;
+				int index1 = defaultIndex1;
+				int index2 = defaultIndex2;
+				if (id1 <= id2) {
+					varDecl = entries1.vars[i1];
+					id = id1;
+					index1 += entries1.offsets[i1];
+					i1++;
+				} else {
+					varDecl = entries2.vars[i2];
+					id = id2;
+				}
+				if (id2 == id) {
+					index2 += entries2.offsets[i2];
+					i2++;
+				}
+
+				final int newIndex = op.applyAsInt(index1, index2);
+				checkArgument(newIndex >= 0, "Negative index for variable");
+				final int newOffset = newIndex - newDefaultIndex;
+				if (newOffset != 0) {
+					result.append(varDecl, id, newOffset);
+				}
+			}
+			return result;
+		}
 	}
 
 }
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.decl;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class VarDeclTest {
+
+	private static final int THREADS = 8;
+	private static final int INDICES = 2000;
+
+	@Test
+	public void testConstDeclConcurrent() throws Exception {
+		final VarDecl<IntType> x = Var("x", Int());
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		final Callable<List<IndexedConstDecl<IntType>>> task = () -> {
+			barrier.await();
+			final List<IndexedConstDecl<IntType>> consts = new ArrayList<>(INDICES);
+			for (int i = 0; i < INDICES; i++) {
+				consts.add(x.getConstDecl(i));
+			}
+			return consts;
+		};
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<List<IndexedConstDecl<IntType>>>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(task));
+			}
+			for (final Future<List<IndexedConstDecl<IntType>>> future : futures) {
+				final List<IndexedConstDecl<IntType>> consts = future.get();
+				for (int i = 0; i < INDICES; i++) {
+					assertSame(x.getConstDecl(i), consts.get(i));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
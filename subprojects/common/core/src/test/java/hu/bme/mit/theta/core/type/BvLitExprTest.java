@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.type;
+
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import hu.bme.mit.theta.core.utils.BvUtils;
+
+public class BvLitExprTest {
+
+	private static final int[] SIZES = {1, 2, 7, 8, 16, 31, 32, 33, 63, 64};
+
+	@Test
+	public void testRepresentations() {
+		final boolean[] bits = {true, false, true, true};
+		final BvLitExpr fromArray = Bv(bits);
+		final BvLitExpr fromLong = BvLitExpr.of(0b1011, 4);
+
+		assertTrue(fromLong.isLongBacked());
+		assertEquals(fromArray, fromLong);
+		assertEquals(fromArray.hashCode(), fromLong.hashCode());
+		assertTrue(Arrays.equals(bits, fromLong.getValue()));
+		assertEquals(11, fromLong.toUnsignedLong());
+		assertEquals(-5, fromLong.toSignedLong());
+		assertEquals("4'b1011", fromLong.toString());
+		assertEquals(BvLitExpr.of(-5, 4), fromLong);
+		assertFalse(BvLitExpr.of(0b1011, 5).equals(fromLong));
+		assertFalse(Bv(new boolean[65]).isLongBacked());
+	}
+
+	@Test
+	public void testConversions() {
+		final Random random = new Random(42);
+		for (final int size : SIZES) {
+			for (int i = 0; i < 100; i++) {
+				final BvLitExpr bv = BvLitExpr.of(random.nextLong(), size);
+				assertEquals(bv, Bv(bv.getValue().clone()));
+				final BigInteger unsigned = BvUtils.unsignedBvLitExprToBigInteger(bv);
+				final BigInteger signed = BvUtils.signedBvLitExprToBigInteger(bv);
+				assertEquals(unsigned, signed.signum() < 0 ? signed.add(BigInteger.ONE.shiftLeft(size)) : signed);
+				assertEquals(bv, BvUtils.bigIntegerToUnsignedBvLitExpr(unsigned, size));
+				assertEquals(bv, BvUtils.bigIntegerToSignedBvLitExpr(signed, size));
+			}
+		}
+	}
+
+	@Test
+	public void testOperationsAgainstBigInteger() {
+		final Random random = new Random(42);
+		for (final int size : SIZES) {
+			final BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+			for (int i = 0; i < 200; i++) {
+				final BvLitExpr a = BvLitExpr.of(random.nextLong(), size);
+				BvLitExpr b = BvLitExpr.of(random.nextLong(), size);
+				if (b.toUnsignedLong() == 0) {
+					b = BvLitExpr.of(1, size);
+				}
+				final BigInteger ua = BvUtils.unsignedBvLitExprToBigInteger(a);
+				final BigInteger ub = BvUtils.unsignedBvLitExprToBigInteger(b);
+				final BigInteger sa = BvUtils.signedBvLitExprToBigInteger(a);
+				final BigInteger sb = BvUtils.signedBvLitExprToBigInteger(b);
+
+				assertEquals(bv(ua.add(ub), size), a.add(b));
+				assertEquals(bv(ua.subtract(ub), size), a.sub(b));
+				assertEquals(bv(ua.multiply(ub), size), a.mul(b));
+				assertEquals(bv(sa.negate(), size), a.neg());
+				assertEquals(bv(ua.divide(ub), size), a.udiv(b));
+				assertEquals(bv(sa.divide(sb), size), a.sdiv(b));
+				assertEquals(bv(ua.mod(ub), size), a.urem(b));
+				assertEquals(bv(sa.remainder(sb), size), a.srem(b));
+				final BigInteger rem = sa.remainder(sb);
+				assertEquals(bv(rem.signum() != 0 && rem.signum() != sb.signum() ? rem.add(sb) : rem, size),
+						a.smod(b));
+				assertEquals(bv(ua.and(ub), size), a.and(b));
+				assertEquals(bv(ua.or(ub), size), a.or(b));
+				assertEquals(bv(ua.xor(ub), size), a.xor(b));
+				assertEquals(bv(ua.not(), size), a.not());
+
+				final int shift = random.nextInt(size + 2);
+				final BvLitExpr shiftBv = BvLitExpr.of(shift, size);
+				final int actualShift = (int) shiftBv.toUnsignedLong();
+				assertEquals(bv(ua.shiftLeft(actualShift), size), a.shiftLeft(shiftBv));
+				assertEquals(bv(ua.shiftRight(actualShift), size), a.logicShiftRight(shiftBv));
+				assertEquals(bv(sa.shiftRight(actualShift), size), a.arithShiftRight(shiftBv));
+				final int rotate = actualShift % size;
+				assertEquals(bv(ua.shiftLeft(rotate).or(ua.shiftRight(size - rotate)), size), a.rotateLeft(shiftBv));
+				assertEquals(bv(ua.shiftRight(rotate).or(ua.shiftLeft(size - rotate)), size), a.rotateRight(shiftBv));
+
+				assertEquals(ua.compareTo(ub) < 0, a.ult(b).getValue());
+				assertEquals(ua.compareTo(ub) >= 0, a.uge(b).getValue());
+				assertEquals(sa.compareTo(sb) < 0, a.slt(b).getValue());
+				assertEquals(sa.compareTo(sb) >= 0, a.sge(b).getValue());
+				assertEquals(ua.equals(ub), a.eq(b).getValue());
+				assertEquals(Integer.signum(ua.compareTo(ub)), Integer.signum(a.compareTo(b)));
+			}
+		}
+	}
+
+	@Test
+	public void testResize() {
+		final BvLitExpr a = BvLitExpr.of(0b1001_0110, 8);
+		assertEquals(BvLitExpr.of(0b1001_0110, 16), a.zext(BvType(16)));
+		assertEquals(BvLitExpr.of(0xFF96, 16), a.sext(BvType(16)));
+		assertEquals(BvLitExpr.of(0b1011, 4), a.extract(Int(1), Int(5)));
+		assertEquals(BvLitExpr.of(0x9696, 16), a.concat(a));
+
+		final BvLitExpr wide = a.sext(BvType(80));
+		assertFalse(wide.isLongBacked());
+		assertEquals(a, wide.extract(Int(0), Int(8)));
+		assertEquals(BvLitExpr.of(-106, 64), wide.extract(Int(0), Int(64)));
+	}
+
+	private static BvLitExpr bv(final BigInteger value, final int size) {
+		return BvLitExpr.of(value.longValue(), size);
+	}
+
+}
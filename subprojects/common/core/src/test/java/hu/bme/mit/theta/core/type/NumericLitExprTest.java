@@ -0,0 +1,172 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.type;
+
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
+
+public class NumericLitExprTest {
+
+	private static final long[] EDGES = {0, 1, -1, 2, -2, 1024, 1025, -128, -129, Integer.MAX_VALUE,
+			Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1,
+			3037000499L, -3037000499L, 3037000500L};
+
+	@Test
+	public void testIntCache() {
+		assertSame(Int(5), Int(5));
+		assertSame(Int(-128), IntLitExpr.of(BigInteger.valueOf(-128)));
+		assertSame(Int(1024), Int(1000).add(Int(24)));
+		assertTrue(IntLitExpr.of(Long.MAX_VALUE).isLongBacked());
+		assertFalse(IntLitExpr.of(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)).isLongBacked());
+		assertEquals(IntLitExpr.of(BigInteger.valueOf(12345)), IntLitExpr.of(12345));
+		assertEquals(IntLitExpr.of(BigInteger.valueOf(12345)).hashCode(), IntLitExpr.of(12345).hashCode());
+	}
+
+	@Test
+	public void testIntArithmetic() {
+		final Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			checkInt(randomLong(random), randomLong(random));
+		}
+		for (final long a : EDGES) {
+			for (final long b : EDGES) {
+				checkInt(a, b);
+			}
+		}
+	}
+
+	@Test
+	public void testIntOverflowPromotion() {
+		final IntLitExpr max = IntLitExpr.of(Long.MAX_VALUE);
+		final IntLitExpr sum = max.add(Int(1));
+		assertFalse(sum.isLongBacked());
+		assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), sum.getValue());
+		final IntLitExpr back = sum.sub(Int(1));
+		assertTrue(back.isLongBacked());
+		assertEquals(max, back);
+		assertEquals(BigInteger.valueOf(Long.MIN_VALUE).negate(), IntLitExpr.of(Long.MIN_VALUE).neg().getValue());
+	}
+
+	@Test
+	public void testRatCache() {
+		assertSame(Rat(3, 1), Rat(6, 2));
+		assertSame(Rat(0, 1), Rat(0, -7));
+		assertEquals(Rat(-1, 2), Rat(2, -4));
+		assertEquals(RatLitExpr.of(BigInteger.valueOf(2), BigInteger.valueOf(-4)), Rat(-1, 2));
+		assertEquals(RatLitExpr.of(BigInteger.valueOf(2), BigInteger.valueOf(-4)).hashCode(), Rat(-1, 2).hashCode());
+	}
+
+	@Test
+	public void testRatArithmetic() {
+		final Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			final long d1 = random.nextInt(4) == 0 ? randomLong(random) : random.nextInt(100) + 1;
+			final long d2 = random.nextInt(4) == 0 ? randomLong(random) : random.nextInt(100) + 1;
+			if (d1 != 0 && d2 != 0) {
+				checkRat(randomLong(random), d1, randomLong(random), d2);
+			}
+		}
+		for (final long a : EDGES) {
+			for (final long b : EDGES) {
+				if (b != 0) {
+					checkRat(a, b, b, a == 0 ? 1 : a);
+				}
+			}
+		}
+	}
+
+	private static long randomLong(final Random random) {
+		switch (random.nextInt(3)) {
+			case 0:
+				return random.nextInt(2000) - 1000;
+			case 1:
+				return random.nextInt();
+			default:
+				return random.nextLong();
+		}
+	}
+
+	private static void checkInt(final long a, final long b) {
+		final BigInteger x = BigInteger.valueOf(a);
+		final BigInteger y = BigInteger.valueOf(b);
+		final IntLitExpr fast1 = IntLitExpr.of(a);
+		final IntLitExpr fast2 = IntLitExpr.of(b);
+
+		assertEquals(x.add(y), fast1.add(fast2).getValue());
+		assertEquals(x.subtract(y), fast1.sub(fast2).getValue());
+		assertEquals(x.multiply(y), fast1.mul(fast2).getValue());
+		assertEquals(x.negate(), fast1.neg().getValue());
+		assertEquals(Integer.signum(x.compareTo(y)), Integer.signum(fast1.compareTo(fast2)));
+		assertEquals(x.compareTo(y) < 0, fast1.lt(fast2).getValue());
+		assertEquals(x.compareTo(y) >= 0, fast1.geq(fast2).getValue());
+		assertEquals(x.equals(y), fast1.eq(fast2).getValue());
+		if (b != 0) {
+			// Compare with the reference implementation on wide literals
+			final IntLitExpr wide1 = IntLitExpr.of(x.shiftLeft(64)).div(IntLitExpr.of(BigInteger.ONE.shiftLeft(64)));
+			final IntLitExpr wide2 = IntLitExpr.of(y.shiftLeft(64)).div(IntLitExpr.of(BigInteger.ONE.shiftLeft(64)));
+			assertEquals(wide1.div(wide2), fast1.div(fast2));
+			assertEquals(wide1.mod(wide2), fast1.mod(fast2));
+			assertEquals(wide1.rem(wide2), fast1.rem(fast2));
+		}
+	}
+
+	private static void checkRat(final long n1, final long d1, final long n2, final long d2) {
+		final RatLitExpr fast1 = RatLitExpr.of(n1, d1);
+		final RatLitExpr fast2 = RatLitExpr.of(n2, d2);
+		final RatLitExpr ref1 = RatLitExpr.of(BigInteger.valueOf(n1), BigInteger.valueOf(d1));
+		final RatLitExpr ref2 = RatLitExpr.of(BigInteger.valueOf(n2), BigInteger.valueOf(d2));
+		final BigInteger num1 = ref1.getNum();
+		final BigInteger den1 = ref1.getDenom();
+		final BigInteger num2 = ref2.getNum();
+		final BigInteger den2 = ref2.getDenom();
+
+		assertEquals(ref1, fast1);
+		assertEquals(ref1.hashCode(), fast1.hashCode());
+		assertEquals(RatLitExpr.of(num1.multiply(den2).add(den1.multiply(num2)), den1.multiply(den2)),
+				fast1.add(fast2));
+		assertEquals(RatLitExpr.of(num1.multiply(den2).subtract(den1.multiply(num2)), den1.multiply(den2)),
+				fast1.sub(fast2));
+		assertEquals(RatLitExpr.of(num1.multiply(num2), den1.multiply(den2)), fast1.mul(fast2));
+		if (n2 != 0) {
+			assertEquals(RatLitExpr.of(num1.multiply(den2), den1.multiply(num2)), fast1.div(fast2));
+		}
+		assertEquals(Integer.signum(num1.multiply(den2).compareTo(den1.multiply(num2))),
+				Integer.signum(fast1.compareTo(fast2)));
+		assertEquals(num1.signum(), fast1.sign());
+		assertEquals(RatLitExpr.of(num1.negate(), den1), fast1.neg());
+		assertEquals(RatLitExpr.of(num1.abs(), den1), fast1.abs());
+		assertEquals(num1.divide(den1), fast1.toInt().getValue());
+
+		final BigInteger[] qr = num1.divideAndRemainder(den1);
+		final BigInteger floor = qr[1].signum() < 0 ? qr[0].subtract(BigInteger.ONE) : qr[0];
+		final BigInteger ceil = qr[1].signum() > 0 ? qr[0].add(BigInteger.ONE) : qr[0];
+		assertEquals(floor, fast1.floor());
+		assertEquals(ceil, fast1.ceil());
+	}
+
+}
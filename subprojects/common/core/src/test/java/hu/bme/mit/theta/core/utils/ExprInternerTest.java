@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class ExprInternerTest {
+
+	private static final VarDecl<IntType> VX = Var("x", Int());
+	private static final VarDecl<IntType> VY = Var("y", Int());
+
+	private static Expr<BoolType> createExpr() {
+		return And(Geq(Add(VX.getRef(), VY.getRef()), Int(0)), Not(Eq(VX.getRef(), Int(1))));
+	}
+
+	@Test
+	public void testEqualExprsAreSame() {
+		final ExprInterner interner = ExprInterner.create();
+		final Expr<BoolType> e1 = createExpr();
+		final Expr<BoolType> e2 = createExpr();
+		assertNotSame(e1, e2);
+
+		final Expr<BoolType> i1 = interner.intern(e1);
+		final Expr<BoolType> i2 = interner.intern(e2);
+		assertEquals(e1, i1);
+		assertSame(i1, i2);
+		assertTrue(interner.isInterned(i1));
+		assertSame(i1, interner.intern(i1));
+	}
+
+	@Test
+	public void testSubexpressionsAreShared() {
+		final ExprInterner interner = ExprInterner.create();
+		final AndExpr and = (AndExpr) interner.intern(createExpr());
+		final Expr<BoolType> geq = interner.intern(Geq(Add(VX.getRef(), VY.getRef()), Int(0)));
+		assertSame(geq, and.getOps().get(0));
+		for (final Expr<?> op : and.getOps()) {
+			assertTrue(interner.isInterned(op));
+		}
+		assertSame(geq.getOps().get(0).getOps().get(0), and.getOps().get(1).getOps().get(0).getOps().get(0));
+	}
+
+	@Test
+	public void testDifferentExprsAreDifferent() {
+		final ExprInterner interner = ExprInterner.create();
+		final Expr<BoolType> i1 = interner.intern(Geq(VX.getRef(), Int(0)));
+		final Expr<BoolType> i2 = interner.intern(Geq(VY.getRef(), Int(0)));
+		assertNotSame(i1, i2);
+		assertTrue(!i1.equals(i2));
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException, ExecutionException {
+		final ExprInterner interner = ExprInterner.create();
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Expr<BoolType>>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(executor.submit(() -> interner.intern(createExpr())));
+			}
+			final Expr<BoolType> first = futures.get(0).get();
+			for (final Future<Expr<BoolType>> future : futures) {
+				assertSame(first, future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 package hu.bme.mit.theta.core.utils;
 
 import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
@@ -30,6 +31,10 @@ import hu.bme.mit.theta.core.decl.IndexedConstDecl;
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.ImmutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.abstracttype.EqExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.type.inttype.IntType;
 
 public class PathUtilsTest {
@@ -51,6 +56,34 @@ public class PathUtilsTest {
 				PathUtils.unfold(Eq(Prime(vx.getRef()), Add(vy.getRef(), Int(1))), 1));
 	}
 
+	@Test
+	public void testUnfoldCache() {
+		final UnfoldCache cache = UnfoldCache.create(2);
+		final Expr<BoolType> expr = Eq(Prime(vx.getRef()), Add(vy.getRef(), Int(1)));
+
+		final Expr<BoolType> unfolded = cache.unfold(expr, VarIndexing.all(0));
+		Assert.assertEquals(Eq(x1.getRef(), Add(y0.getRef(), Int(1))), unfolded);
+		Assert.assertSame(unfolded, cache.unfold(expr, VarIndexing.all(0)));
+		// Only the indices of x and y matter
+		Assert.assertSame(unfolded, cache.unfold(expr, VarIndexing.all(0).inc(vz)));
+		Assert.assertEquals(Eq(x2.getRef(), Add(y0.getRef(), Int(1))), cache.unfold(expr, VarIndexing.all(0).inc(vx)));
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+
+		final Expr<BoolType> constExpr = Eq(x1.getRef(), Add(y0.getRef(), Int(1)));
+		Assert.assertSame(constExpr, cache.unfold(constExpr, VarIndexing.all(1)));
+		Assert.assertEquals(1, cache.getSkips());
+		Assert.assertEquals(0.6, cache.getHitRate(), 1e-9);
+	}
+
+	@Test
+	public void testUnfoldKeepsVarFreeSubtrees() {
+		final Expr<IntType> varFree = Add(Int(1), Int(2), Int(3));
+		final Expr<BoolType> expr = And(Eq(vx.getRef(), Int(0)), Eq(varFree, Int(6)));
+		final AndExpr unfolded = (AndExpr) PathUtils.unfold(expr, 3);
+		Assert.assertSame(varFree, ((EqExpr<?>) unfolded.getOps().get(1)).getLeftOp());
+	}
+
 	@Test
 	public void testFold() {
 		Assert.assertEquals(Eq(Prime(vx.getRef()), Add(vy.getRef(), Int(1))),
@@ -19,6 +19,12 @@ import static hu.bme.mit.theta.core.decl.Decls.Var;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.Test;
 
 import hu.bme.mit.theta.core.decl.VarDecl;
@@ -120,4 +126,65 @@ public class VarIndexingTest {
 		indexes1.sub(indexes2);
 	}
 
+	@Test
+	public void testManyVars() {
+		final List<VarDecl<?>> vars = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			vars.add(Var("v" + i, Int()));
+		}
+
+		VarIndexing dense = VarIndexing.all(0);
+		VarIndexing sparse = VarIndexing.all(0);
+		for (int i = 0; i < vars.size(); i++) {
+			dense = dense.add(VarIndexing.builder(0).inc(vars.get(i)).build());
+			if (i % 10 == 0) {
+				sparse = sparse.add(VarIndexing.builder(0).inc(vars.get(i), 2).build());
+			}
+		}
+		final VarIndexing sum = dense.add(sparse);
+		for (int i = 0; i < vars.size(); i++) {
+			assertEquals(1, dense.get(vars.get(i)));
+			assertEquals(i % 10 == 0 ? 2 : 0, sparse.get(vars.get(i)));
+			assertEquals(i % 10 == 0 ? 3 : 1, sum.get(vars.get(i)));
+			assertEquals(0, sum.sub(dense).sub(sparse).get(vars.get(i)));
+		}
+		assertEquals(0, dense.get(x));
+	}
+
+	@Test
+	public void testRandomOperations() {
+		final Random random = new Random(42);
+		final List<VarDecl<?>> vars = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			vars.add(Var("r" + i, Int()));
+		}
+
+		for (int run = 0; run < 200; run++) {
+			final int default1 = random.nextInt(3);
+			final int default2 = random.nextInt(3);
+			final Map<VarDecl<?>, Integer> map1 = new HashMap<>();
+			final Map<VarDecl<?>, Integer> map2 = new HashMap<>();
+			final VarIndexing.Builder builder1 = VarIndexing.builder(default1);
+			final VarIndexing.Builder builder2 = VarIndexing.builder(default2);
+			for (final VarDecl<?> var : vars) {
+				final int n1 = random.nextInt(4);
+				final int n2 = random.nextInt(4);
+				builder1.inc(var, n1);
+				builder2.inc(var, n2);
+				map1.put(var, default1 + n1);
+				map2.put(var, default2 + n2);
+			}
+			final VarIndexing indexing1 = builder1.build();
+			final VarIndexing indexing2 = builder2.build();
+			final VarIndexing sum = indexing1.add(indexing2);
+			final VarIndexing joined = indexing1.join(indexing2);
+			for (final VarDecl<?> var : vars) {
+				assertEquals(map1.get(var).intValue(), indexing1.get(var));
+				assertEquals(map1.get(var) + map2.get(var), sum.get(var));
+				assertEquals(Math.max(map1.get(var), map2.get(var)), joined.get(var));
+				assertEquals(map1.get(var).intValue(), sum.sub(indexing2).get(var));
+			}
+		}
+	}
+
 }
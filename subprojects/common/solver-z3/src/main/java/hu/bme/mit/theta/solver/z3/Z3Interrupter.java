@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes the checks of Z3 solvers stop when their thread is interrupted. Z3
+ * does not observe the interrupts of Java threads, so the running checks are
+ * registered here, and a daemon thread periodically interrupts the contexts of
+ * the checks whose threads are interrupted. The interrupted check then returns
+ * (with an unknown result) within a short time.
+ */
+final class Z3Interrupter {
+
+	private static final long POLL_MS = 10;
+
+	private static final Map<Thread, RunningCheck> RUNNING_CHECKS = new ConcurrentHashMap<>();
+
+	static {
+		final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "z3-interrupter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		poller.scheduleWithFixedDelay(Z3Interrupter::poll, POLL_MS, POLL_MS, TimeUnit.MILLISECONDS);
+	}
+
+	private Z3Interrupter() {
+	}
+
+	/**
+	 * Registers a check that the current thread starts in the given context.
+	 * The check must be ended by {@link RunningCheck#end()} when the call to
+	 * Z3 returns.
+	 */
+	static RunningCheck begin(final com.microsoft.z3.Context context) {
+		final RunningCheck check = new RunningCheck(Thread.currentThread(), context);
+		RUNNING_CHECKS.put(check.thread, check);
+		return check;
+	}
+
+	private static void poll() {
+		for (final Thread thread : RUNNING_CHECKS.keySet()) {
+			if (thread.isInterrupted()) {
+				// Atomic with the removal in end(), so a context is only
+				// interrupted while its check is registered
+				RUNNING_CHECKS.computeIfPresent(thread, (t, check) -> {
+					check.interrupt();
+					return check;
+				});
+			}
+		}
+	}
+
+	static final class RunningCheck {
+		private final Thread thread;
+		private final com.microsoft.z3.Context context;
+		private volatile boolean interrupted;
+
+		private RunningCheck(final Thread thread, final com.microsoft.z3.Context context) {
+			this.thread = thread;
+			this.context = context;
+			interrupted = false;
+		}
+
+		private void interrupt() {
+			if (!interrupted) {
+				interrupted = true;
+				context.interrupt();
+			}
+		}
+
+		/**
+		 * Ends the check. The context is not interrupted after this call.
+		 */
+		void end() {
+			RUNNING_CHECKS.remove(thread);
+		}
+
+		/**
+		 * Checks whether the context was interrupted during the check.
+		 */
+		boolean wasInterrupted() {
+			return interrupted;
+		}
+	}
+
+}
@@ -52,12 +52,18 @@ final class Z3ItpSolver implements ItpSolver {
 	public Z3ItpSolver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
 					   final Z3TermTransformer termTransformer, final com.microsoft.z3.InterpolationContext z3Context,
 					   final com.microsoft.z3.Solver z3Solver) {
+		this(symbolTable, transformationManager, termTransformer, z3Context, z3Solver, interrupted -> z3Context.close());
+	}
+
+	public Z3ItpSolver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
+					   final Z3TermTransformer termTransformer, final com.microsoft.z3.InterpolationContext z3Context,
+					   final com.microsoft.z3.Solver z3Solver, final Z3Solver.CloseAction closeAction) {
 		this.transformationManager = transformationManager;
 		this.termTransformer = termTransformer;
 		this.z3Context = z3Context;
 		this.z3Solver = z3Solver;
 
-		solver = new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver);
+		solver = new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver, closeAction);
 
 		markers = new StackImpl<>();
 	}
@@ -70,6 +76,7 @@ final class Z3ItpSolver implements ItpSolver {
 
 	@Override
 	public ItpMarker createMarker() {
+		solver.checkOpen();
 		final Z3ItpMarker marker = new Z3ItpMarker();
 		markers.add(marker);
 		return marker;
@@ -79,6 +86,7 @@ final class Z3ItpSolver implements ItpSolver {
 	public void add(final ItpMarker marker, final Expr<BoolType> assertion) {
 		checkNotNull(marker);
 		checkNotNull(assertion);
+		solver.checkOpen();
 		checkArgument(markers.toCollection().contains(marker), "Marker not found in solver");
 		final Z3ItpMarker z3Marker = (Z3ItpMarker) marker;
 		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assertion);
@@ -88,6 +96,7 @@ final class Z3ItpSolver implements ItpSolver {
 
 	@Override
 	public Interpolant getInterpolant(final ItpPattern pattern) {
+		solver.checkOpen();
 		checkState(solver.getStatus() == SolverStatus.UNSAT, "Cannot get interpolant if status is not UNSAT.");
 
 		final com.microsoft.z3.Expr proof = z3Solver.getProof();
@@ -160,8 +169,14 @@ final class Z3ItpSolver implements ItpSolver {
 		return solver.check();
 	}
 
+	@Override
+	public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+		return solver.check(assumptions);
+	}
+
 	@Override
 	public void push() {
+		solver.checkOpen();
 		markers.push();
 		for (final Z3ItpMarker marker : markers) {
 			marker.push();
@@ -171,6 +186,7 @@ final class Z3ItpSolver implements ItpSolver {
 
 	@Override
 	public void pop(final int n) {
+		solver.checkOpen();
 		markers.pop(n);
 		for (final Z3ItpMarker marker : markers) {
 			marker.pop(n);
@@ -203,4 +219,9 @@ final class Z3ItpSolver implements ItpSolver {
 		return solver.getAssertions();
 	}
 
+	@Override
+	public void close() {
+		solver.close();
+	}
+
 }
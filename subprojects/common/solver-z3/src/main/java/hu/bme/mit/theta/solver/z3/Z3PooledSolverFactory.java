@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.microsoft.z3.InterpolationContext;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+
+/**
+ * Solver factory that keeps Z3 contexts alive between solvers. When a solver
+ * created by this factory is closed, its context (together with the symbol
+ * table and the caches of the transformers) is returned to a pool and the next
+ * solver reuses it with a fresh Z3 solver instance. A context is leased to a
+ * single solver at a time, so solvers can be created and closed on different
+ * threads. The context of a solver whose check was interrupted is closed
+ * instead of pooled. Solvers that are never closed simply keep their context.
+ * The solvers of a run can be closed together by creating them through a
+ * {@link hu.bme.mit.theta.solver.utils.ScopedSolverFactory} over this factory.
+ */
+public final class Z3PooledSolverFactory implements SolverFactory {
+
+	public static final int DEFAULT_MAX_IDLE_CONTEXTS = 16;
+
+	private final int maxIdleContexts;
+	private final Deque<Lease<com.microsoft.z3.Context>> idleContexts;
+	private final Deque<Lease<InterpolationContext>> idleItpContexts;
+
+	private int createdContexts;
+	private int reusedContexts;
+
+	private Z3PooledSolverFactory(final int maxIdleContexts) {
+		checkArgument(maxIdleContexts >= 0, "Maximal number of idle contexts must be non-negative");
+		// Make sure that the native libraries are loaded
+		Z3SolverFactory.getInstance();
+		this.maxIdleContexts = maxIdleContexts;
+		idleContexts = new ArrayDeque<>();
+		idleItpContexts = new ArrayDeque<>();
+		createdContexts = 0;
+		reusedContexts = 0;
+	}
+
+	public static Z3PooledSolverFactory create() {
+		return create(DEFAULT_MAX_IDLE_CONTEXTS);
+	}
+
+	public static Z3PooledSolverFactory create(final int maxIdleContexts) {
+		return new Z3PooledSolverFactory(maxIdleContexts);
+	}
+
+	@Override
+	public Solver createSolver() {
+		Lease<com.microsoft.z3.Context> lease = poll(idleContexts);
+		if (lease == null) {
+			lease = new Lease<>(new com.microsoft.z3.Context());
+		}
+		final Lease<com.microsoft.z3.Context> leased = lease;
+		final com.microsoft.z3.Solver z3Solver = leased.context.mkSimpleSolver();
+		return new Z3Solver(leased.symbolTable, leased.transformationManager, leased.termTransformer, leased.context,
+				z3Solver, interrupted -> release(idleContexts, leased, interrupted));
+	}
+
+	@Override
+	public ItpSolver createItpSolver() {
+		Lease<InterpolationContext> lease = poll(idleItpContexts);
+		if (lease == null) {
+			lease = new Lease<>(InterpolationContext.mkContext());
+		}
+		final Lease<InterpolationContext> leased = lease;
+		final com.microsoft.z3.Solver z3Solver = leased.context.mkSimpleSolver();
+		return new Z3ItpSolver(leased.symbolTable, leased.transformationManager, leased.termTransformer,
+				leased.context, z3Solver, interrupted -> release(idleItpContexts, leased, interrupted));
+	}
+
+	/**
+	 * Closes the idle contexts. Contexts that are currently leased are not
+	 * affected, they are pooled again when their solvers are closed.
+	 */
+	public synchronized void clear() {
+		idleContexts.forEach(l -> l.context.close());
+		idleContexts.clear();
+		idleItpContexts.forEach(l -> l.context.close());
+		idleItpContexts.clear();
+	}
+
+	public synchronized int getCreatedContexts() {
+		return createdContexts;
+	}
+
+	public synchronized int getReusedContexts() {
+		return reusedContexts;
+	}
+
+	public synchronized int getIdleContexts() {
+		return idleContexts.size() + idleItpContexts.size();
+	}
+
+	private synchronized <C extends com.microsoft.z3.Context> Lease<C> poll(final Deque<Lease<C>> idle) {
+		final Lease<C> lease = idle.pollFirst();
+		if (lease == null) {
+			createdContexts++;
+		} else {
+			reusedContexts++;
+		}
+		return lease;
+	}
+
+	private synchronized <C extends com.microsoft.z3.Context> void release(final Deque<Lease<C>> idle,
+																		   final Lease<C> lease, final boolean interrupted) {
+		// An interrupted context might still be in a cancelled state, so it is not reused
+		if (interrupted || idle.size() + 1 > maxIdleContexts) {
+			lease.context.close();
+		} else {
+			// Most recently used contexts are reused first, their caches are the warmest
+			idle.addFirst(lease);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(maxIdleContexts).toString();
+	}
+
+	private static final class Lease<C extends com.microsoft.z3.Context> {
+		private final C context;
+		private final Z3SymbolTable symbolTable;
+		private final Z3TransformationManager transformationManager;
+		private final Z3TermTransformer termTransformer;
+
+		private Lease(final C context) {
+			this.context = context;
+			symbolTable = new Z3SymbolTable();
+			transformationManager = new Z3TransformationManager(symbolTable, context);
+			termTransformer = new Z3TermTransformer(symbolTable);
+		}
+	}
+
+}
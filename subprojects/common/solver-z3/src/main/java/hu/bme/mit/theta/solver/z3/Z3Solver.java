@@ -25,6 +25,8 @@ import hu.bme.mit.theta.common.container.Containers;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 import com.google.common.collect.ImmutableList;
 import com.microsoft.z3.FuncDecl;
@@ -49,12 +51,27 @@ import hu.bme.mit.theta.solver.impl.StackImpl;
 
 final class Z3Solver implements Solver {
 
+	/**
+	 * Action to run when the solver is closed.
+	 */
+	@FunctionalInterface
+	interface CloseAction {
+		/**
+		 * Runs the action. If a check of the solver was interrupted, the
+		 * context should not be reused.
+		 */
+		void close(boolean interrupted);
+	}
+
 	private final Z3SymbolTable symbolTable;
 	private final Z3TransformationManager transformationManager;
 	private final Z3TermTransformer termTransformer;
 
 	private final com.microsoft.z3.Context z3Context;
 	private final com.microsoft.z3.Solver z3Solver;
+	private final CloseAction closeAction;
+	private boolean closed = false;
+	private boolean interrupted = false;
 
 	private final Stack<Expr<BoolType>> assertions;
 	private final Map<String, Expr<BoolType>> assumptions;
@@ -62,6 +79,13 @@ final class Z3Solver implements Solver {
 	private static final String ASSUMPTION_LABEL = "_LABEL_%d";
 	private int labelNum = 0;
 
+	// Proxy literals for assumptions that are not literals, valid until the next pop
+	private final Map<Expr<BoolType>, com.microsoft.z3.BoolExpr> assumptionProxies;
+	private static final String PROXY_LABEL = "_PROXY_%d";
+	private int proxyNum = 0;
+	// Assumptions of the last check, by their terms
+	private final Map<com.microsoft.z3.Expr, Expr<BoolType>> checkedAssumptions;
+
 	private Valuation model;
 	private Collection<Expr<BoolType>> unsatCore;
 	private SolverStatus status;
@@ -69,14 +93,27 @@ final class Z3Solver implements Solver {
 	public Z3Solver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
 					final Z3TermTransformer termTransformer, final com.microsoft.z3.Context z3Context,
 					final com.microsoft.z3.Solver z3Solver) {
+		this(symbolTable, transformationManager, termTransformer, z3Context, z3Solver, interrupted -> z3Context.close());
+	}
+
+	/**
+	 * Creates a solver that runs the given action (at most once) when closed,
+	 * e.g., to return the context to a pool instead of closing it.
+	 */
+	public Z3Solver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
+					final Z3TermTransformer termTransformer, final com.microsoft.z3.Context z3Context,
+					final com.microsoft.z3.Solver z3Solver, final CloseAction closeAction) {
 		this.symbolTable = symbolTable;
 		this.transformationManager = transformationManager;
 		this.termTransformer = termTransformer;
 		this.z3Context = z3Context;
 		this.z3Solver = z3Solver;
+		this.closeAction = checkNotNull(closeAction);
 
 		assertions = new StackImpl<>();
 		assumptions = Containers.createMap();
+		assumptionProxies = Containers.createMap();
+		checkedAssumptions = Containers.createMap();
 	}
 
 	////
@@ -84,11 +121,13 @@ final class Z3Solver implements Solver {
 	@Override
 	public void add(final Expr<BoolType> assertion) {
 		checkNotNull(assertion);
+		checkOpen();
 		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assertion);
 		add(assertion, term);
 	}
 
 	void add(final Expr<BoolType> assertion, final com.microsoft.z3.BoolExpr term) {
+		checkOpen();
 		assertions.add(assertion);
 		z3Solver.add(term);
 		clearState();
@@ -97,6 +136,7 @@ final class Z3Solver implements Solver {
 	@Override
 	public void track(final Expr<BoolType> assertion) {
 		checkNotNull(assertion);
+		checkOpen();
 
 		assertions.add(assertion);
 		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assertion);
@@ -112,11 +152,68 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public SolverStatus check() {
-		final Status z3Status = z3Solver.check();
+		checkOpen();
+		clearState();
+		final Status z3Status = runCheck(z3Solver::check);
 		status = transformStatus(z3Status);
 		return status;
 	}
 
+	@Override
+	public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+		checkNotNull(assumptions);
+		checkOpen();
+		clearState();
+		final com.microsoft.z3.BoolExpr[] terms = new com.microsoft.z3.BoolExpr[assumptions.size()];
+		int i = 0;
+		for (final Expr<BoolType> assumption : assumptions) {
+			final com.microsoft.z3.BoolExpr term = toAssumptionTerm(checkNotNull(assumption));
+			checkedAssumptions.put(term, assumption);
+			terms[i++] = term;
+		}
+		final Status z3Status = runCheck(() -> z3Solver.check(terms));
+		status = transformStatus(z3Status);
+		return status;
+	}
+
+	/**
+	 * Runs a check that stops if the current thread is interrupted, see
+	 * {@link Z3Interrupter}.
+	 */
+	private Status runCheck(final Supplier<Status> check) {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("Solver check interrupted");
+		}
+		final Z3Interrupter.RunningCheck runningCheck = Z3Interrupter.begin(z3Context);
+		final Status z3Status;
+		try {
+			z3Status = check.get();
+		} finally {
+			runningCheck.end();
+		}
+		if (runningCheck.wasInterrupted()) {
+			interrupted = true;
+			throw new CancellationException("Solver check interrupted");
+		}
+		return z3Status;
+	}
+
+	private com.microsoft.z3.BoolExpr toAssumptionTerm(final Expr<BoolType> assumption) {
+		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assumption);
+		if (term.isConst() || (term.isNot() && term.getArgs()[0].isConst())) {
+			return term;
+		}
+		// Z3 only accepts literals as assumptions, so other expressions are
+		// represented by a fresh constant implying them
+		com.microsoft.z3.BoolExpr proxy = assumptionProxies.get(assumption);
+		if (proxy == null) {
+			proxy = z3Context.mkBoolConst(String.format(PROXY_LABEL, proxyNum++));
+			z3Solver.add(z3Context.mkImplies(proxy, term));
+			assumptionProxies.put(assumption, proxy);
+		}
+		return proxy;
+	}
+
 	private SolverStatus transformStatus(final Status z3Status) {
 		switch (z3Status) {
 			case SATISFIABLE:
@@ -130,22 +227,27 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public void push() {
+		checkOpen();
 		assertions.push();
 		z3Solver.push();
 	}
 
 	@Override
 	public void pop(final int n) {
+		checkOpen();
 		assertions.pop(n);
 		z3Solver.pop(n);
+		assumptionProxies.clear();
 		clearState();
 	}
 
 	@Override
 	public void reset() {
+		checkOpen();
 		z3Solver.reset();
 		assertions.clear();
 		assumptions.clear();
+		assumptionProxies.clear();
 		symbolTable.clear();
 		transformationManager.reset();
 		clearState();
@@ -153,12 +255,14 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public SolverStatus getStatus() {
+		checkOpen();
 		checkState(status != null, "Solver status is unknown.");
 		return status;
 	}
 
 	@Override
 	public Valuation getModel() {
+		checkOpen();
 		checkState(status == SolverStatus.SAT, "Cannot get model if status is not SAT.");
 
 		if (model == null) {
@@ -181,6 +285,7 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public Collection<Expr<BoolType>> getUnsatCore() {
+		checkOpen();
 		checkState(status == SolverStatus.UNSAT, "Cannot get unsat core if status is not UNSAT");
 
 		if (unsatCore == null) {
@@ -202,6 +307,12 @@ final class Z3Solver implements Solver {
 		for (int i = 0; i < z3UnsatCore.length; i = i + 1) {
 			final com.microsoft.z3.Expr term = z3UnsatCore[i];
 
+			final Expr<BoolType> checkedAssumption = checkedAssumptions.get(term);
+			if (checkedAssumption != null) {
+				unsatCore.add(checkedAssumption);
+				continue;
+			}
+
 			checkState(term.isConst(), "Term is not constant.");
 
 			final String label = term.toString();
@@ -214,15 +325,33 @@ final class Z3Solver implements Solver {
 		return unsatCore;
 	}
 
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			closeAction.close(interrupted);
+		}
+	}
+
 	@Override
 	public Collection<Expr<BoolType>> getAssertions() {
+		checkOpen();
 		return assertions.toCollection();
 	}
 
+	/**
+	 * Checks that the solver is not closed, as the context of a closed solver
+	 * may already be closed or used by another solver.
+	 */
+	void checkOpen() {
+		checkState(!closed, "Solver is closed");
+	}
+
 	private void clearState() {
 		status = null;
 		model = null;
 		unsatCore = null;
+		checkedAssumptions.clear();
 	}
 
 	////
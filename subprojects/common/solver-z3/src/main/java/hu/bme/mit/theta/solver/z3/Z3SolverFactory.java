@@ -22,6 +22,11 @@ import hu.bme.mit.theta.solver.ItpSolver;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
 
+/**
+ * Factory for Z3 solvers, each with its own context. The checks of the solvers
+ * stop if their thread is interrupted: the check then throws a
+ * {@link java.util.concurrent.CancellationException}.
+ */
 public final class Z3SolverFactory implements SolverFactory {
 
 	private static final Z3SolverFactory INSTANCE;
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Add;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.And;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.ArithShiftRight;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.LogicShiftRight;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Mul;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Neg;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Neq;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Not;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Or;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.RotateLeft;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.RotateRight;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SDiv;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SGt;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SLeq;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SLt;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SMod;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.SRem;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.ShiftLeft;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Sub;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.UDiv;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.UGeq;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.ULeq;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.ULt;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.URem;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.bvtype.BvExprs;
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import hu.bme.mit.theta.core.type.bvtype.BvType;
+import hu.bme.mit.theta.solver.Solver;
+
+/**
+ * Checks the evaluation of bitvector operations (both for long-backed and for
+ * wide bitvectors) against Z3 on random operands.
+ */
+public class Z3BvLitExprTest {
+
+	private static final int[] SIZES = {1, 7, 8, 16, 32, 63, 64, 65, 100};
+	private static final int ROUNDS = 10;
+
+	@Test
+	public void testOperationsAgainstZ3() {
+		final Random random = new Random(42);
+		final Solver solver = Z3SolverFactory.getInstance().createSolver();
+
+		for (final int size : SIZES) {
+			for (int round = 0; round < ROUNDS; round++) {
+				final BvLitExpr a = randomBv(random, size);
+				final BvLitExpr b = randomNonZeroBv(random, size);
+				final BvLitExpr shift = bvOfInt(random.nextInt(size + 2), size);
+
+				final List<Expr<BvType>> bvExprs = List.of(Add(List.of(a, b)), Sub(a, b), Mul(List.of(a, b)),
+						Neg(a), UDiv(a, b), SDiv(a, b), URem(a, b), SRem(a, b), SMod(a, b), And(List.of(a, b)),
+						Or(List.of(a, b)), BvExprs.Xor(List.of(a, b)), Not(a), ShiftLeft(a, shift),
+						ArithShiftRight(a, shift), LogicShiftRight(a, shift), RotateLeft(a, shift),
+						RotateRight(a, shift));
+				for (final Expr<BvType> expr : bvExprs) {
+					final BvLitExpr expected = (BvLitExpr) expr.eval(ImmutableValuation.empty());
+					assertUnsat(solver, Neq(expected, expr), expr);
+				}
+
+				final List<Expr<BoolType>> boolExprs = List.of(ULt(a, b), ULeq(a, b), UGeq(a, b), SLt(a, b),
+						SLeq(a, b), SGt(a, b), BvExprs.Eq(a, b), BvExprs.Eq(a, a));
+				for (final Expr<BoolType> expr : boolExprs) {
+					final BoolLitExpr expected = (BoolLitExpr) expr.eval(ImmutableValuation.empty());
+					assertUnsat(solver, Xor(expected, expr), expr);
+				}
+			}
+		}
+	}
+
+	private static void assertUnsat(final Solver solver, final Expr<BoolType> assertion, final Expr<?> expr) {
+		solver.push();
+		solver.add(assertion);
+		assertTrue("Evaluation differs from Z3 for " + expr, solver.check().isUnsat());
+		solver.pop();
+	}
+
+	private static BvLitExpr randomBv(final Random random, final int size) {
+		if (size <= Long.SIZE) {
+			return BvLitExpr.of(random.nextLong(), size);
+		}
+		final boolean[] bits = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			bits[i] = random.nextBoolean();
+		}
+		return Bv(bits);
+	}
+
+	private static BvLitExpr randomNonZeroBv(final Random random, final int size) {
+		BvLitExpr bv = randomBv(random, size);
+		while (bv.equals(bvOfInt(0, size))) {
+			bv = randomBv(random, size);
+		}
+		return bv;
+	}
+
+	private static BvLitExpr bvOfInt(final int value, final int size) {
+		final boolean[] bits = new boolean[size];
+		for (int i = 0; i < size && i < Integer.SIZE; i++) {
+			bits[size - 1 - i] = ((value >>> i) & 1) != 0;
+		}
+		return Bv(bits);
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+public final class Z3PooledSolverFactoryTest {
+
+	private static final ConstDecl<IntType> X = Const("x", Int());
+
+	@Test
+	public void testContextIsReused() {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create();
+
+		try (final Solver solver = factory.createSolver()) {
+			solver.add(Gt(X.getRef(), Int(0)));
+			assertEquals(SolverStatus.SAT, solver.check());
+		}
+		try (final Solver solver = factory.createSolver()) {
+			// Assertions of the previous solver must not be visible
+			solver.add(Eq(X.getRef(), Int(0)));
+			assertEquals(SolverStatus.SAT, solver.check());
+			assertEquals(Int(0), solver.getModel().eval(X).get());
+		}
+
+		assertEquals(1, factory.getCreatedContexts());
+		assertEquals(1, factory.getReusedContexts());
+		factory.clear();
+		assertEquals(0, factory.getIdleContexts());
+	}
+
+	@Test
+	public void testItpContextIsReused() {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create();
+		for (int i = 0; i < 3; i++) {
+			try (final ItpSolver solver = factory.createItpSolver()) {
+				solver.add(solver.createMarker(), Gt(X.getRef(), Int(i)));
+				assertEquals(SolverStatus.SAT, solver.check());
+			}
+		}
+		assertEquals(1, factory.getCreatedContexts());
+		assertEquals(2, factory.getReusedContexts());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosedSolverIsNotUsable() {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create();
+		final Solver solver = factory.createSolver();
+		solver.close();
+		// The context of the solver is already leased to another solver
+		try (final Solver other = factory.createSolver()) {
+			solver.add(Gt(X.getRef(), Int(0)));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosedItpSolverIsNotUsable() {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create();
+		final ItpSolver solver = factory.createItpSolver();
+		solver.close();
+		solver.createMarker();
+	}
+
+	@Test
+	public void testMaxIdleContexts() {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create(1);
+		final Solver solver1 = factory.createSolver();
+		final Solver solver2 = factory.createSolver();
+		solver1.close();
+		solver2.close();
+		solver2.close();
+		assertEquals(2, factory.getCreatedContexts());
+		assertEquals(1, factory.getIdleContexts());
+	}
+
+	@Test
+	public void testConcurrentLeases() throws InterruptedException, ExecutionException {
+		final Z3PooledSolverFactory factory = Z3PooledSolverFactory.create(4);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<SolverStatus>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				final int n = i;
+				futures.add(executor.submit(() -> {
+					try (final Solver solver = factory.createSolver()) {
+						solver.add(Eq(X.getRef(), Int(n)));
+						solver.add(Gt(X.getRef(), Int(50)));
+						return solver.check();
+					}
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				assertEquals(i > 50 ? SolverStatus.SAT : SolverStatus.UNSAT, futures.get(i).get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(100, factory.getCreatedContexts() + factory.getReusedContexts());
+	}
+
+}
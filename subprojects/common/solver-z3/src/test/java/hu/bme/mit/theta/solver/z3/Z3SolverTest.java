@@ -44,6 +44,8 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.collect.ImmutableList.of;
 import static hu.bme.mit.theta.core.decl.Decls.Const;
@@ -61,6 +63,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -112,6 +115,25 @@ public final class Z3SolverTest {
 		solver.pop();
 	}
 
+	@Test
+	public void testAssumptions() {
+		final ConstDecl<IntType> cx = Const("x", Int());
+		final ConstDecl<BoolType> ca = Const("a", BoolExprs.Bool());
+
+		solver.add(BoolExprs.Imply(ca.getRef(), IntExprs.Gt(cx.getRef(), Int(5))));
+
+		// Literal assumption
+		assertTrue(solver.check(of(ca.getRef(), IntExprs.Lt(cx.getRef(), Int(3)))).isUnsat());
+		assertTrue(solver.getUnsatCore().contains(ca.getRef()));
+		assertTrue(solver.check(of(BoolExprs.Not(ca.getRef()), IntExprs.Lt(cx.getRef(), Int(3)))).isSat());
+		assertTrue(solver.getModel().eval(cx).isPresent());
+
+		// Assumptions are not kept after the check
+		assertTrue(solver.check().isSat());
+		assertTrue(solver.check(of(ca.getRef())).isSat());
+		assertEquals(1, solver.getAssertions().size());
+	}
+
 	@Test
 	public void testFunc() {
 		// Arrange
@@ -454,6 +476,56 @@ public final class Z3SolverTest {
 		solver.pop();
 	}
 
+	@Test
+	public void testInterrupt() throws InterruptedException {
+		solver.add(pigeonhole(12));
+		final AtomicReference<Throwable> thrown = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				solver.check();
+			} catch (final Throwable e) {
+				thrown.set(e);
+			}
+		});
+		thread.start();
+		Thread.sleep(500);
+		final long start = System.currentTimeMillis();
+		thread.interrupt();
+		thread.join(10_000);
+		assertFalse(thread.isAlive());
+		assertTrue(System.currentTimeMillis() - start < 10_000);
+		assertTrue(thrown.get() instanceof CancellationException);
+	}
+
+	/**
+	 * Creates the (unsatisfiable) pigeonhole formula of n + 1 pigeons and n
+	 * holes, which takes a long time to refute without cardinality reasoning.
+	 */
+	static Expr<BoolType> pigeonhole(final int n) {
+		final List<List<ConstDecl<BoolType>>> in = new ArrayList<>();
+		for (int i = 0; i <= n; i++) {
+			final List<ConstDecl<BoolType>> pigeon = new ArrayList<>();
+			for (int j = 0; j < n; j++) {
+				pigeon.add(Const("p_" + i + "_" + j, BoolExprs.Bool()));
+			}
+			in.add(pigeon);
+		}
+		final List<Expr<BoolType>> clauses = new ArrayList<>();
+		for (int i = 0; i <= n; i++) {
+			final List<Expr<BoolType>> holes = new ArrayList<>();
+			in.get(i).forEach(p -> holes.add(p.getRef()));
+			clauses.add(BoolExprs.Or(holes));
+		}
+		for (int j = 0; j < n; j++) {
+			for (int i = 0; i <= n; i++) {
+				for (int k = i + 1; k <= n; k++) {
+					clauses.add(BoolExprs.Not(BoolExprs.And(in.get(i).get(j).getRef(), in.get(k).get(j).getRef())));
+				}
+			}
+		}
+		return BoolExprs.And(clauses);
+	}
+
 	private static BvLitExpr uint16ToBvLitExpr(int value) {
 		return BvUtils.bigIntegerToUnsignedBvLitExpr(BigInteger.valueOf(value), 16);
 	}
@@ -29,9 +29,16 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
  * {@link #getStatus()}. If the expressions are satisfiable, a satisfying assignment can be
  * obtained by {@link #getModel()}.
  *
- * The solver can also support incremental solving by {@link #push()} and {@link #pop()}.
+ * The solver can also support incremental solving by {@link #push()} and {@link #pop()},
+ * or by checking the expressions under assumptions with {@link #check(Collection)}.
+ *
+ * Solvers can be closed when they are not needed anymore, which allows the
+ * implementation to release or recycle its resources.
+ *
+ * Implementations may stop a check if the checking thread is interrupted, in
+ * which case the check throws a {@link java.util.concurrent.CancellationException}.
  */
-public interface Solver {
+public interface Solver extends AutoCloseable {
 
 	/**
 	 * Add an expression to the solver.
@@ -77,6 +84,21 @@ public interface Solver {
 	 */
 	SolverStatus check();
 
+	/**
+	 * Check if the currently added expressions are satisfiable together with
+	 * the given assumptions. The assumptions are not added to the solver, they
+	 * only hold for this check. This is usually cheaper than a {@link #push()},
+	 * {@link #add(Expr)}, {@link #check()}, {@link #pop()} sequence, because
+	 * the solver can keep what it learned between checks. Assumptions that are
+	 * (negated) Boolean constants, i.e., activation literals, are the cheapest.
+	 * The model and the unsat core (which may also contain assumptions) can be
+	 * queried as after {@link #check()}.
+	 *
+	 * @param assumptions Assumptions
+	 * @return Status
+	 */
+	SolverStatus check(Collection<? extends Expr<BoolType>> assumptions);
+
 	/**
 	 * Push the current solver state. When calling {@link #pop()}, all expressions added after
 	 * the last push will be removed.
@@ -137,4 +159,12 @@ public interface Solver {
 	 * @return Expressions
 	 */
 	Collection<Expr<BoolType>> getAssertions();
+
+	/**
+	 * Release the resources of the solver. The solver should not be used
+	 * after it was closed. The default implementation does nothing.
+	 */
+	@Override
+	default void close() {
+	}
 }
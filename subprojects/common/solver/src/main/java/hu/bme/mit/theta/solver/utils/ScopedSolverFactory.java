@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+
+/**
+ * A solver factory that remembers the solvers created through it and closes
+ * all of them when the factory is closed, e.g., at the end of a verification
+ * run using the try-with-resources statement. Solvers are created by an
+ * underlying factory, which can be shared by several scopes (e.g., a pooled
+ * factory reusing the resources of the closed solvers). No solvers can be
+ * created after the scope was closed.
+ */
+public final class ScopedSolverFactory implements SolverFactory, AutoCloseable {
+
+	private final SolverFactory solverFactory;
+	private final List<Solver> solvers;
+	private boolean closed;
+
+	private ScopedSolverFactory(final SolverFactory solverFactory) {
+		this.solverFactory = checkNotNull(solverFactory);
+		solvers = new ArrayList<>();
+		closed = false;
+	}
+
+	public static ScopedSolverFactory create(final SolverFactory solverFactory) {
+		return new ScopedSolverFactory(solverFactory);
+	}
+
+	@Override
+	public synchronized Solver createSolver() {
+		checkState(!closed, "Solver factory is already closed");
+		final Solver solver = solverFactory.createSolver();
+		solvers.add(solver);
+		return solver;
+	}
+
+	@Override
+	public synchronized ItpSolver createItpSolver() {
+		checkState(!closed, "Solver factory is already closed");
+		final ItpSolver solver = solverFactory.createItpSolver();
+		solvers.add(solver);
+		return solver;
+	}
+
+	public synchronized int getCreatedSolvers() {
+		return solvers.size();
+	}
+
+	/**
+	 * Closes the solvers created by this factory. The solvers should not be
+	 * used anymore. Closing the factory again has no effect.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		RuntimeException failure = null;
+		for (final Solver solver : solvers) {
+			try {
+				solver.close();
+			} catch (final RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		solvers.clear();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(solverFactory).toString();
+	}
+
+}
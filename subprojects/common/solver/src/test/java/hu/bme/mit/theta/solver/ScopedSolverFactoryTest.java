@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+
+public class ScopedSolverFactoryTest {
+
+	private final List<SolverStub> created = new ArrayList<>();
+
+	private final SolverFactory factory = new SolverFactory() {
+		@Override
+		public Solver createSolver() {
+			final SolverStub solver = new SolverStub();
+			created.add(solver);
+			return solver;
+		}
+
+		@Override
+		public ItpSolver createItpSolver() {
+			throw new UnsupportedOperationException();
+		}
+	};
+
+	@Test
+	public void testClose() {
+		try (ScopedSolverFactory scope = ScopedSolverFactory.create(factory)) {
+			scope.createSolver();
+			scope.createSolver();
+			Assert.assertEquals(2, scope.getCreatedSolvers());
+			Assert.assertEquals(0, created.get(0).nClose);
+		}
+		Assert.assertEquals(2, created.size());
+		Assert.assertEquals(1, created.get(0).nClose);
+		Assert.assertEquals(1, created.get(1).nClose);
+	}
+
+	@Test
+	public void testCloseTwice() {
+		final ScopedSolverFactory scope = ScopedSolverFactory.create(factory);
+		scope.createSolver();
+		scope.close();
+		scope.close();
+		Assert.assertEquals(1, created.get(0).nClose);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCreateAfterClose() {
+		final ScopedSolverFactory scope = ScopedSolverFactory.create(factory);
+		scope.close();
+		scope.createSolver();
+	}
+
+	@Test
+	public void testScopesShareFactory() {
+		final ScopedSolverFactory scope1 = ScopedSolverFactory.create(factory);
+		final ScopedSolverFactory scope2 = ScopedSolverFactory.create(factory);
+		scope1.createSolver();
+		scope2.createSolver();
+		scope1.close();
+		Assert.assertEquals(1, created.get(0).nClose);
+		Assert.assertEquals(0, created.get(1).nClose);
+		scope2.close();
+		Assert.assertEquals(1, created.get(1).nClose);
+	}
+}
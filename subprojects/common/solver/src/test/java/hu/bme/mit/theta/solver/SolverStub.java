@@ -24,9 +24,11 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
 class SolverStub implements Solver {
 
 	int nPush;
+	int nClose;
 
 	public SolverStub() {
 		nPush = 0;
+		nClose = 0;
 	}
 
 	@Override
@@ -42,6 +44,11 @@ class SolverStub implements Solver {
 		return null;
 	}
 
+	@Override
+	public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+		return null;
+	}
+
 	@Override
 	public void push() {
 		++nPush;
@@ -76,4 +83,9 @@ class SolverStub implements Solver {
 		return null;
 	}
 
+	@Override
+	public void close() {
+		++nClose;
+	}
+
 }
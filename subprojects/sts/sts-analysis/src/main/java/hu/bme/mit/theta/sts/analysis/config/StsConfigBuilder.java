@@ -17,6 +17,7 @@ package hu.bme.mit.theta.sts.analysis.config;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
+import java.util.Collections;
 import java.util.function.Predicate;
 
 import hu.bme.mit.theta.analysis.Action;
@@ -219,8 +220,7 @@ public final class StsConfigBuilder {
 					throw new UnsupportedOperationException(domain + " domain is not supported.");
 			}
 			final Predicate<ExprState> target = new ExprStatePredicate(negProp, solver);
-			final Analysis<PredState, ExprAction, PredPrec> analysis = PredAnalysis.create(solver, predAbstractor,
-					init);
+			final PredAnalysis analysis = PredAnalysis.create(solver, predAbstractor, init);
 			final ArgBuilder<PredState, StsAction, PredPrec> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<PredState, StsAction, PredPrec> abstractor = BasicAbstractor.builder(argBuilder)
@@ -257,7 +257,7 @@ public final class StsConfigBuilder {
 			}
 
 			final SafetyChecker<PredState, StsAction, PredPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, Collections.singletonList(analysis.getStatistics()));
 
 			final PredPrec prec = initPrec.builder.createPred(sts);
 			return StsConfig.create(checker, prec);
@@ -16,6 +16,9 @@
 package hu.bme.mit.theta.sts.cli;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
@@ -26,8 +29,13 @@ import com.google.common.base.Stopwatch;
 
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResults;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkRunner;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.ConfigMatrix;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.UnfoldCacheStatistics;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.Utils;
@@ -41,6 +49,7 @@ import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.solver.*;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
 import hu.bme.mit.theta.solver.z3.*;
 import hu.bme.mit.theta.sts.STS;
 import hu.bme.mit.theta.sts.StsUtils;
@@ -65,6 +74,8 @@ import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.Search;
  */
 public class StsCli {
 	private static final String JAR_NAME = "theta-sts-cli.jar";
+	private static final List<String> CORPUS_OPTIONS = Arrays.asList("corpus", "matrix", "timeout", "memlimit",
+			"warmup", "results");
 	private final String[] args;
 	private final TableWriter writer;
 
@@ -80,7 +91,7 @@ public class StsCli {
 	@Parameter(names = {"--predsplit"}, description = "Predicate splitting")
 	PredSplit predSplit = PredSplit.WHOLE;
 
-	@Parameter(names = {"--model"}, description = "Path of the input STS model", required = true)
+	@Parameter(names = {"--model"}, description = "Path of the input STS model (required unless --corpus is given)")
 	String model;
 
 	@Parameter(names = {"--initprec"}, description = "Initial precision")
@@ -107,7 +118,26 @@ public class StsCli {
 	@Parameter(names = "--version", description = "Display version", help = true)
 	boolean versionInfo = false;
 
+	@Parameter(names = "--corpus", description = "Benchmark the STS models of a directory in a single JVM (instead of --model)")
+	String corpus = null;
+
+	@Parameter(names = "--matrix", description = "Configuration axis of the benchmark, e.g., domain=EXPL,PRED_CART (can be repeated)")
+	List<String> matrix = new ArrayList<>();
+
+	@Parameter(names = "--timeout", description = "Timeout of each benchmark run in seconds (0: no timeout)")
+	Integer timeout = 0;
+
+	@Parameter(names = "--memlimit", description = "Heap limit of each benchmark run in MB (0: no limit)")
+	Integer memLimit = 0;
+
+	@Parameter(names = "--warmup", description = "Number of warm-up runs before the benchmark")
+	Integer warmup = 0;
+
+	@Parameter(names = "--results", description = "Output file of the benchmark results (csv or json, default: csv to the standard output)")
+	String results = null;
+
 	private Logger logger;
+	private SolverFactory solverFactory;
 
 	public StsCli(final String[] args) {
 		this.args = args;
@@ -140,12 +170,25 @@ public class StsCli {
 			return;
 		}
 
+		if (model == null && corpus == null) {
+			System.out.println("Invalid parameters, details:");
+			System.out.println("Either --model or --corpus must be given");
+			return;
+		}
+
 		try {
+			if (corpus != null) {
+				runCorpus();
+				return;
+			}
+
 			final Stopwatch sw = Stopwatch.createStarted();
 			final STS sts = loadModel();
-			final StsConfig<?, ?, ?> configuration = buildConfiguration(sts);
-			final SafetyResult<?, ?> status = check(configuration);
+			solverFactory = Z3PooledSolverFactory.create();
+			final UnfoldCacheStatistics unfoldCacheStatistics = UnfoldCacheStatistics.create();
+			final SafetyResult<?, ?> status = check(sts);
 			sw.stop();
+			logger.write(Level.INFO, "%s%n", unfoldCacheStatistics);
 			printResult(status, sts, sw.elapsed(TimeUnit.MILLISECONDS));
 			if (status.isUnsafe() && cexfile != null) {
 				writeCex(sts, status.asUnsafe());
@@ -156,6 +199,43 @@ public class StsCli {
 		}
 	}
 
+	private void runCorpus() throws Exception {
+		final Z3PooledSolverFactory pooledSolverFactory = Z3PooledSolverFactory.create();
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), CORPUS_OPTIONS);
+		final BenchmarkRunner runner = BenchmarkRunner.builder((cellArgs, cellSolverFactory) -> {
+			final StsCli cli = new StsCli(cellArgs.toArray(new String[0]));
+			JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+			cli.logger = NullLogger.getInstance();
+			cli.solverFactory = cellSolverFactory;
+			return cli.check(cli.loadModel());
+		}).solverFactory(pooledSolverFactory).timeout(timeout, TimeUnit.SECONDS).memoryLimitMb(memLimit)
+				.warmupRuns(warmup).logger(logger).build();
+
+		final List<BenchmarkResult> benchmarkResults;
+		try {
+			benchmarkResults = runner.run(
+					BenchmarkRunner.collectModels(new File(corpus), ".sts", ".aag"), ConfigMatrix.of(matrix), baseArgs);
+		} finally {
+			pooledSolverFactory.clear();
+		}
+		if (results != null) {
+			BenchmarkResults.write(benchmarkResults, results);
+		} else {
+			BenchmarkResults.writeCsv(benchmarkResults, writer);
+		}
+	}
+
+	/**
+	 * Checks the STS with the configuration given by the options. The solvers
+	 * of the configuration are closed when the check ends, returning their
+	 * contexts to the pooled solver factory.
+	 */
+	private SafetyResult<?, ?> check(final STS sts) throws Exception {
+		try (ScopedSolverFactory runSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			return check(buildConfiguration(sts, runSolverFactory));
+		}
+	}
+
 	private SafetyResult<?, ?> check(StsConfig<?, ?, ?> configuration) throws Exception {
 		try {
 			return configuration.check();
@@ -191,9 +271,9 @@ public class StsCli {
 		}
 	}
 
-	private StsConfig<?, ?, ?> buildConfiguration(final STS sts) throws Exception {
+	private StsConfig<?, ?, ?> buildConfiguration(final STS sts, final SolverFactory solverFactory) throws Exception {
 		try {
-			return new StsConfigBuilder(domain, refinement, Z3SolverFactory.getInstance())
+			return new StsConfigBuilder(domain, refinement, solverFactory)
 					.initPrec(initPrec).search(search)
 					.predSplit(predSplit).pruneStrategy(pruneStrategy).logger(logger).build(sts);
 		} catch (final Exception ex) {
@@ -243,7 +323,10 @@ public class StsCli {
 
 	private void writeCex(final STS sts, final SafetyResult.Unsafe<?, ?> status) throws FileNotFoundException {
 		@SuppressWarnings("unchecked") final Trace<ExprState, StsAction> trace = (Trace<ExprState, StsAction>) status.getTrace();
-		final Trace<Valuation, StsAction> concrTrace = StsTraceConcretizer.concretize(sts, trace, Z3SolverFactory.getInstance());
+		final Trace<Valuation, StsAction> concrTrace;
+		try (ScopedSolverFactory cexSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			concrTrace = StsTraceConcretizer.concretize(sts, trace, cexSolverFactory);
+		}
 		final File file = new File(cexfile);
 		PrintWriter printWriter = null;
 		try {
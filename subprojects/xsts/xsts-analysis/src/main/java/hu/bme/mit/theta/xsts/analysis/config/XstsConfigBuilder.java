@@ -31,6 +31,7 @@ import hu.bme.mit.theta.xsts.analysis.*;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.*;
 import hu.bme.mit.theta.xsts.analysis.initprec.*;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -242,8 +243,8 @@ public class XstsConfigBuilder {
 			}
 
 			final Predicate<XstsState<PredState>> target = new XstsStatePredicate<ExprStatePredicate, PredState>(new ExprStatePredicate(negProp, solver));
-			final Analysis<XstsState<PredState>, XstsAction, PredPrec> analysis = XstsAnalysis.create(PredAnalysis.create(solver, predAbstractor,
-					xsts.getInitFormula()));
+			final PredAnalysis predAnalysis = PredAnalysis.create(solver, predAbstractor, xsts.getInitFormula());
+			final Analysis<XstsState<PredState>, XstsAction, PredPrec> analysis = XstsAnalysis.create(predAnalysis);
 			final ArgBuilder<XstsState<PredState>, XstsAction, PredPrec> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<XstsState<PredState>, XstsAction, PredPrec> abstractor = BasicAbstractor.builder(argBuilder)
@@ -280,7 +281,7 @@ public class XstsConfigBuilder {
 			}
 
 			final SafetyChecker<XstsState<PredState>, XstsAction, PredPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, Collections.singletonList(predAnalysis.getStatistics()));
 
 			final PredPrec prec = initPrec.builder.createPred(xsts);
 			return XstsConfig.create(checker, prec);
@@ -296,6 +297,7 @@ public class XstsConfigBuilder {
 			}
 
 			final Analysis<Prod2State<ExplState,PredState>,XstsAction,Prod2Prec<ExplPrec,PredPrec>> prod2Analysis;
+			final PredAnalysis predAnalysis;
 			final Predicate<XstsState<Prod2State<ExplState, PredState>>> target = new XstsStatePredicate<ExprStatePredicate, Prod2State<ExplState, PredState>>(new ExprStatePredicate(negProp, solver));
 			if(domain == Domain.EXPL_PRED_BOOL || domain == Domain.EXPL_PRED_CART || domain == Domain.EXPL_PRED_SPLIT){
 				final PredAbstractors.PredAbstractor predAbstractor;
@@ -312,16 +314,18 @@ public class XstsConfigBuilder {
 					default:
 						throw new UnsupportedOperationException(domain + " domain is not supported.");
 				}
+				predAnalysis = PredAnalysis.create(solver, predAbstractor, xsts.getInitFormula());
 				prod2Analysis = Prod2Analysis.create(
 						ExplStmtAnalysis.create(solver, xsts.getInitFormula(), maxEnum),
-						PredAnalysis.create(solver, predAbstractor, xsts.getInitFormula()),
+						predAnalysis,
 						Prod2ExplPredPreStrengtheningOperator.create(),
 						Prod2ExplPredStrengtheningOperator.create(solver));
 			} else {
 				final Prod2ExplPredAbstractors.Prod2ExplPredAbstractor prodAbstractor = Prod2ExplPredAbstractors.booleanAbstractor(solver);
+				predAnalysis = PredAnalysis.create(solver, PredAbstractors.booleanAbstractor(solver), xsts.getInitFormula());
 				prod2Analysis = Prod2ExplPredAnalysis.create(
 						ExplAnalysis.create(solver, xsts.getInitFormula()),
-						PredAnalysis.create(solver, PredAbstractors.booleanAbstractor(solver), xsts.getInitFormula()),
+						predAnalysis,
 						Prod2ExplPredStrengtheningOperator.create(solver),
 						prodAbstractor);
 			}
@@ -363,7 +367,7 @@ public class XstsConfigBuilder {
 			}
 
 			final SafetyChecker<XstsState<Prod2State<ExplState, PredState>>, XstsAction, Prod2Prec<ExplPrec, PredPrec>> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, Collections.singletonList(predAnalysis.getStatistics()));
 			final Prod2Prec<ExplPrec, PredPrec> prec = initPrec.builder.createProd2ExplPred(xsts);
 			return XstsConfig.create(checker, prec);
 		} else {
@@ -4,10 +4,20 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import com.google.common.base.Stopwatch;
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResults;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkRunner;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.ConfigMatrix;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
+import hu.bme.mit.theta.analysis.algorithm.portfolio.PortfolioChecker;
+import hu.bme.mit.theta.analysis.algorithm.portfolio.PortfolioSpec;
+import hu.bme.mit.theta.analysis.expr.UnfoldCacheStatistics;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.utils.ArgVisualizer;
 import hu.bme.mit.theta.analysis.utils.TraceVisualizer;
 import hu.bme.mit.theta.common.CliUtils;
@@ -18,7 +28,9 @@ import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
-import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.utils.ScopedSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3PooledSolverFactory;
 import hu.bme.mit.theta.xsts.XSTS;
 import hu.bme.mit.theta.xsts.analysis.XstsAction;
 import hu.bme.mit.theta.xsts.analysis.XstsState;
@@ -33,12 +45,17 @@ import hu.bme.mit.theta.xsts.pnml.PnmlToXSTS;
 import hu.bme.mit.theta.xsts.pnml.elements.PnmlNet;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 public class XstsCli {
 
 	private static final String JAR_NAME = "theta-xsts-cli.jar";
+	private static final List<String> CORPUS_OPTIONS = Arrays.asList("corpus", "matrix", "timeout", "memlimit",
+			"warmup", "results");
 	private final String[] args;
 	private final TableWriter writer;
 
@@ -54,10 +71,10 @@ public class XstsCli {
 	@Parameter(names = {"--predsplit"}, description = "Predicate splitting")
 	PredSplit predSplit = PredSplit.WHOLE;
 
-	@Parameter(names = {"--model"}, description = "Path of the input XSTS model", required = true)
+	@Parameter(names = {"--model"}, description = "Path of the input XSTS model (required unless --corpus is given)")
 	String model;
 
-	@Parameter(names = {"--property"}, description = "Input property as a string or a file (*.prop)", required = true)
+	@Parameter(names = {"--property"}, description = "Input property as a string or a file (*.prop), with --corpus the .prop file next to each model by default")
 	String property;
 
 	@Parameter(names = {"--initialmarking"}, description = "Initial marking of the Petri net")
@@ -99,10 +116,32 @@ public class XstsCli {
 	@Parameter(names = "--version", description = "Display version", help = true)
 	boolean versionInfo = false;
 
+	@Parameter(names = "--portfolio", description = "Run configurations concurrently in stages, e.g., 30:domain=EXPL;domain=PRED_BOOL|domain=PRED_CART")
+	String portfolio = null;
+
+	@Parameter(names = "--corpus", description = "Benchmark the XSTS models of a directory in a single JVM (instead of --model)")
+	String corpus = null;
+
+	@Parameter(names = "--matrix", description = "Configuration axis of the benchmark, e.g., domain=EXPL,PRED_CART (can be repeated)")
+	List<String> matrix = new ArrayList<>();
+
+	@Parameter(names = "--timeout", description = "Timeout of each benchmark run in seconds (0: no timeout)")
+	Integer timeout = 0;
+
+	@Parameter(names = "--memlimit", description = "Heap limit of each benchmark run in MB (0: no limit)")
+	Integer memLimit = 0;
+
+	@Parameter(names = "--warmup", description = "Number of warm-up runs before the benchmark")
+	Integer warmup = 0;
+
+	@Parameter(names = "--results", description = "Output file of the benchmark results (csv or json, default: csv to the standard output)")
+	String results = null;
+
 	@Parameter(names = {"--visualize"}, description = "Write proof or counterexample to file in dot format")
 	String dotfile = null;
 
 	private Logger logger;
+	private SolverFactory solverFactory;
 
 	public XstsCli(final String[] args) {
 		this.args = args;
@@ -135,7 +174,24 @@ public class XstsCli {
 			return;
 		}
 
+		if (model == null && corpus == null) {
+			System.out.println("Invalid parameters, details:");
+			System.out.println("Either --model or --corpus must be given");
+			return;
+		}
+
+		if (corpus == null && property == null) {
+			System.out.println("Invalid parameters, details:");
+			System.out.println("The option --property is required");
+			return;
+		}
+
 		try {
+			if (corpus != null) {
+				runCorpus();
+				return;
+			}
+
 			final Stopwatch sw = Stopwatch.createStarted();
 			final XSTS xsts = loadModel();
 
@@ -144,9 +200,11 @@ public class XstsCli {
 				return;
 			}
 
-			final XstsConfig<?, ?, ?> configuration = buildConfiguration(xsts);
-			final SafetyResult<?, ?> status = check(configuration);
+			solverFactory = Z3PooledSolverFactory.create();
+			final UnfoldCacheStatistics unfoldCacheStatistics = UnfoldCacheStatistics.create();
+			final SafetyResult<?, ?> status = portfolio != null ? checkPortfolio(xsts) : check(xsts);
 			sw.stop();
+			logger.write(Logger.Level.INFO, "%s%n", unfoldCacheStatistics);
 			printResult(status, xsts, sw.elapsed(TimeUnit.MILLISECONDS));
 			if (status.isUnsafe() && cexfile != null) {
 				writeCex(status.asUnsafe(), xsts);
@@ -160,6 +218,60 @@ public class XstsCli {
 		}
 	}
 
+	private void runCorpus() throws Exception {
+		final Z3PooledSolverFactory pooledSolverFactory = Z3PooledSolverFactory.create();
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), CORPUS_OPTIONS);
+		final BenchmarkRunner runner = BenchmarkRunner.builder((cellArgs, cellSolverFactory) -> {
+			final XstsCli cli = new XstsCli(cellArgs.toArray(new String[0]));
+			JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+			cli.logger = NullLogger.getInstance();
+			cli.solverFactory = cellSolverFactory;
+			if (cli.property == null) {
+				cli.property = cli.model.replaceFirst("\\.[^.]*$", "") + ".prop";
+			}
+			final XSTS xsts = cli.loadModel();
+			return cli.portfolio != null ? cli.checkPortfolio(xsts) : cli.check(xsts);
+		}).solverFactory(pooledSolverFactory).timeout(timeout, TimeUnit.SECONDS).memoryLimitMb(memLimit)
+				.warmupRuns(warmup).logger(logger).build();
+
+		final List<BenchmarkResult> benchmarkResults;
+		try {
+			benchmarkResults = runner.run(
+					BenchmarkRunner.collectModels(new File(corpus), ".xsts", ".pnml"), ConfigMatrix.of(matrix), baseArgs);
+		} finally {
+			pooledSolverFactory.clear();
+		}
+		if (results != null) {
+			BenchmarkResults.write(benchmarkResults, results);
+		} else {
+			BenchmarkResults.writeCsv(benchmarkResults, writer);
+		}
+	}
+
+	private SafetyResult<?, ?> checkPortfolio(final XSTS xsts) {
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), List.of("portfolio"));
+		final PortfolioChecker<State, Action> checker = PortfolioSpec.parse(portfolio).<State, Action>toBuilder(
+				options -> () -> {
+					final XstsCli cli = new XstsCli(ConfigMatrix.toArgs(baseArgs, options).toArray(new String[0]));
+					JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+					cli.logger = NullLogger.getInstance();
+					cli.solverFactory = solverFactory;
+					return cli.check(xsts);
+				}).logger(logger).build();
+		return checker.check(UnitPrec.getInstance());
+	}
+
+	/**
+	 * Checks the XSTS with the configuration given by the options. The solvers
+	 * of the configuration are closed when the check ends, returning their
+	 * contexts to the pooled solver factory.
+	 */
+	private SafetyResult<?, ?> check(final XSTS xsts) throws Exception {
+		try (ScopedSolverFactory runSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			return check(buildConfiguration(xsts, runSolverFactory));
+		}
+	}
+
 	private SafetyResult<?, ?> check(XstsConfig<?, ?, ?> configuration) throws Exception {
 		try {
 			return configuration.check();
@@ -198,9 +310,10 @@ public class XstsCli {
 		}
 	}
 
-	private XstsConfig<?, ?, ?> buildConfiguration(final XSTS xsts) throws Exception {
+	private XstsConfig<?, ?, ?> buildConfiguration(final XSTS xsts, final SolverFactory solverFactory)
+			throws Exception {
 		try {
-			return new XstsConfigBuilder(domain, refinement, Z3SolverFactory.getInstance())
+			return new XstsConfigBuilder(domain, refinement, solverFactory)
 					.maxEnum(maxEnum).autoExpl(autoExpl).initPrec(initPrec).pruneStrategy(pruneStrategy)
 					.search(search).predSplit(predSplit).optimizeStmts(optimizeStmts).logger(logger).build(xsts);
 		} catch (final Exception ex) {
@@ -250,7 +363,10 @@ public class XstsCli {
 	private void writeCex(final SafetyResult.Unsafe<?, ?> status, final XSTS xsts) throws FileNotFoundException {
 
 		@SuppressWarnings("unchecked") final Trace<XstsState<?>, XstsAction> trace = (Trace<XstsState<?>, XstsAction>) status.getTrace();
-		final XstsStateSequence concrTrace = XstsTraceConcretizerUtil.concretize(trace, Z3SolverFactory.getInstance(), xsts);
+		final XstsStateSequence concrTrace;
+		try (ScopedSolverFactory cexSolverFactory = ScopedSolverFactory.create(solverFactory)) {
+			concrTrace = XstsTraceConcretizerUtil.concretize(trace, cexSolverFactory, xsts);
+		}
 		final File file = new File(cexfile);
 		try (PrintWriter printWriter = new PrintWriter(file)) {
 			printWriter.write(concrTrace.toString());
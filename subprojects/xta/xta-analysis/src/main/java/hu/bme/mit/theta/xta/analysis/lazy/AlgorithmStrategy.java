@@ -21,6 +21,7 @@ import java.util.function.Function;
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.xta.analysis.XtaAction;
 import hu.bme.mit.theta.xta.analysis.lazy.LazyXtaStatistics.Builder;
@@ -31,6 +32,14 @@ interface AlgorithmStrategy<S1 extends State, S2 extends State> {
 
 	Function<S2, ?> getProjection();
 
+	/**
+	 * Refines a passed list partitioned by the projection, so that it returns
+	 * fewer candidates for which {@link #mightCover} does not hold.
+	 */
+	default ReachedIndex<ArgNode<S1, XtaAction>> indexPassed(final ReachedIndex<ArgNode<S1, XtaAction>> passed) {
+		return passed;
+	}
+
 	boolean mightCover(final ArgNode<S1, XtaAction> coveree, ArgNode<S1, XtaAction> coverer);
 
 	void cover(ArgNode<S1, XtaAction> coveree, ArgNode<S1, XtaAction> coverer,
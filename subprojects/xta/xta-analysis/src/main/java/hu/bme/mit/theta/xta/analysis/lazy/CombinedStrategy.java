@@ -27,6 +27,7 @@ import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
 import hu.bme.mit.theta.analysis.prod2.Prod2Analysis;
 import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
 import hu.bme.mit.theta.analysis.prod2.Prod2State;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.common.Tuple3;
 import hu.bme.mit.theta.xta.XtaSystem;
@@ -62,6 +63,12 @@ final class CombinedStrategy<S1 extends State, S2 extends State>
 		return projection;
 	}
 
+	@Override
+	public ReachedIndex<ArgNode<XtaState<Prod2State<S1, S2>>, XtaAction>> indexPassed(
+			final ReachedIndex<ArgNode<XtaState<Prod2State<S1, S2>>, XtaAction>> passed) {
+		return strategy2.indexPassed(strategy1.indexPassed(passed));
+	}
+
 	@Override
 	public boolean mightCover(final ArgNode<XtaState<Prod2State<S1, S2>>, XtaAction> coveree,
 							  final ArgNode<XtaState<Prod2State<S1, S2>>, XtaAction> coverer) {
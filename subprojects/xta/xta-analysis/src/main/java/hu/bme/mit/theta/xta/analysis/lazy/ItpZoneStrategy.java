@@ -26,8 +26,10 @@ import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.zone.ZonePrec;
+import hu.bme.mit.theta.analysis.zone.ZoneReachedIndex;
 import hu.bme.mit.theta.analysis.zone.ZoneState;
 import hu.bme.mit.theta.xta.XtaSystem;
 import hu.bme.mit.theta.xta.analysis.XtaAction;
@@ -62,6 +64,12 @@ abstract class ItpZoneStrategy<S extends State> implements AlgorithmStrategy<S,
 		return projection;
 	}
 
+	@Override
+	public final ReachedIndex<ArgNode<S, XtaAction>> indexPassed(final ReachedIndex<ArgNode<S, XtaAction>> passed) {
+		return ZoneReachedIndex.create(passed, n -> lens.get(n.getState()).getAbstrState(),
+				n -> lens.get(n.getState()).getConcrState(), prec.getVars());
+	}
+
 	@Override
 	public final boolean mightCover(final ArgNode<S, XtaAction> coveree, final ArgNode<S, XtaAction> coverer) {
 		final ZoneState covereeZone = lens.get(coveree.getState()).getConcrState();
@@ -112,7 +120,7 @@ abstract class ItpZoneStrategy<S extends State> implements AlgorithmStrategy<S,
 		final S state = node.getState();
 		final ItpZoneState itpZoneState = lens.get(state);
 		final ZoneState abstrZoneState = itpZoneState.getAbstrState();
-		final ZoneState newAbstrZone = ZoneState.intersection(abstrZoneState, interpolant);
+		final ZoneState newAbstrZone = ZoneState.intersection(abstrZoneState, interpolant).intern();
 		final ItpZoneState newItpZoneState = itpZoneState.withAbstrState(newAbstrZone);
 		final S newState = lens.set(state, newItpZoneState);
 		node.setState(newState);
@@ -19,6 +19,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 import com.google.common.collect.Lists;
 
@@ -29,6 +31,7 @@ import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
 import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.xta.XtaSystem;
@@ -40,18 +43,32 @@ final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaState<S>
 	private final XtaLts lts;
 	private final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy;
 	private final SearchStrategy searchStrategy;
+	private final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory;
 
 	private LazyXtaChecker(final XtaSystem system, final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy,
-						   final SearchStrategy searchStrategy) {
+						   final SearchStrategy searchStrategy,
+						   final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory) {
 		checkNotNull(system);
 		lts = XtaLts.create(system);
 		this.algorithmStrategy = checkNotNull(algorithmStrategy);
 		this.searchStrategy = checkNotNull(searchStrategy);
+		this.passedFactory = checkNotNull(passedFactory);
 	}
 
 	public static <S extends State> LazyXtaChecker<S> create(final XtaSystem system,
 															 final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy, final SearchStrategy searchStrategy) {
-		return new LazyXtaChecker<>(system, algorithmStrategy, searchStrategy);
+		return create(system, algorithmStrategy, searchStrategy,
+				() -> Partition.of(n -> algorithmStrategy.getProjection().apply(n.getState())));
+	}
+
+	/**
+	 * Creates a checker with a custom passed list, which must return (at least)
+	 * the nodes for which the algorithm strategy might cover a given node.
+	 */
+	public static <S extends State> LazyXtaChecker<S> create(final XtaSystem system,
+															 final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy, final SearchStrategy searchStrategy,
+															 final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory) {
+		return new LazyXtaChecker<>(system, algorithmStrategy, searchStrategy, passedFactory);
 	}
 
 	@Override
@@ -62,13 +79,13 @@ final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaState<S>
 	private final class CheckMethod {
 		final ARG<XtaState<S>, XtaAction> arg;
 		final LazyXtaStatistics.Builder stats;
-		final Partition<ArgNode<XtaState<S>, XtaAction>, ?> passed;
+		final ReachedIndex<ArgNode<XtaState<S>, XtaAction>> passed;
 		final Waitlist<ArgNode<XtaState<S>, XtaAction>> waiting;
 
 		public CheckMethod() {
 			arg = ARG.create(algorithmStrategy.getAnalysis().getPartialOrd());
 			stats = LazyXtaStatistics.builder(arg);
-			passed = Partition.of(n -> algorithmStrategy.getProjection().apply(n.getState()));
+			passed = algorithmStrategy.indexPassed(passedFactory.get());
 			waiting = searchStrategy.createWaitlist();
 		}
 
@@ -78,6 +95,9 @@ final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaState<S>
 			init();
 			waiting.addAll(arg.getInitNodes());
 			while (!waiting.isEmpty()) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException("Interrupted while building the ARG");
+				}
 				final ArgNode<XtaState<S>, XtaAction> v = waiting.remove();
 				assert v.isFeasible();
 
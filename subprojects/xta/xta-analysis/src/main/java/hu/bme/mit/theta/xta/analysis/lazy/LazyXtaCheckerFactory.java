@@ -15,12 +15,20 @@
  */
 package hu.bme.mit.theta.xta.analysis.lazy;
 
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
+import hu.bme.mit.theta.analysis.expl.ExplReachedIndex;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.prod2.Prod2State;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.xta.XtaSystem;
 import hu.bme.mit.theta.xta.analysis.XtaAction;
 import hu.bme.mit.theta.xta.analysis.XtaState;
+import hu.bme.mit.theta.xta.analysis.expl.itp.ItpExplState;
 
 public final class LazyXtaCheckerFactory {
 
@@ -29,64 +37,89 @@ public final class LazyXtaCheckerFactory {
 
 	public static SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> create(final XtaSystem system,
 																				   final DataStrategy dataStrategy, final ClockStrategy clockStrategy, final SearchStrategy searchStrategy) {
-		final CombinedStrategy<?, ?> algorithmStrategy = combineStrategies(system, dataStrategy, clockStrategy);
-		final SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> checker = LazyXtaChecker.create(system,
-				algorithmStrategy, searchStrategy);
-		return checker;
+		return create(system, dataStrategy, clockStrategy, searchStrategy, 1);
 	}
 
-	private static CombinedStrategy<?, ?> combineStrategies(final XtaSystem system, final DataStrategy dataStrategy,
-															final ClockStrategy clockStrategy) {
-
+	/**
+	 * Creates a checker exploring the state space with the given number of
+	 * threads (1: sequential).
+	 */
+	public static SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> create(final XtaSystem system,
+																				   final DataStrategy dataStrategy, final ClockStrategy clockStrategy, final SearchStrategy searchStrategy,
+																				   final int threads) {
 		switch (dataStrategy) {
 			case BWITP:
-
-				switch (clockStrategy) {
-					case BWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createBwItpStrategy(system),
-								ClockStrategies.createBwItpStrategy(system));
-					case FWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createBwItpStrategy(system),
-								ClockStrategies.createFwItpStrategy(system));
-					case LU:
-						return new CombinedStrategy<>(system, DataStrategies.createBwItpStrategy(system),
-								ClockStrategies.createLuStrategy(system));
-					default:
-						throw new AssertionError();
-				}
-
 			case FWITP:
+				return createItpExplChecker(system, combineItpExplStrategies(system, dataStrategy, clockStrategy),
+						searchStrategy, threads);
+			case NONE:
+				final CombinedStrategy<ExplState, ?> algorithmStrategy = combineExplStrategies(system, clockStrategy);
+				return threads > 1 ? ParallelLazyXtaChecker.create(system, algorithmStrategy, searchStrategy, threads)
+						: LazyXtaChecker.create(system, algorithmStrategy, searchStrategy);
+			default:
+				throw new AssertionError();
+		}
+	}
 
-				switch (clockStrategy) {
-					case BWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createFwItpStrategy(system),
-								ClockStrategies.createBwItpStrategy(system));
-					case FWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createFwItpStrategy(system),
-								ClockStrategies.createFwItpStrategy(system));
-					case LU:
-						return new CombinedStrategy<>(system, DataStrategies.createFwItpStrategy(system),
-								ClockStrategies.createLuStrategy(system));
-					default:
-						throw new AssertionError();
-				}
+	/**
+	 * With interpolation for the data, nodes are covered based on the explicit
+	 * states (concrete state of the coveree, abstract state of the coverer),
+	 * so the passed list is indexed by these valuations.
+	 */
+	private static <S2 extends State> SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> createItpExplChecker(
+			final XtaSystem system, final CombinedStrategy<ItpExplState, S2> algorithmStrategy,
+			final SearchStrategy searchStrategy, final int threads) {
+		final Supplier<ExplReachedIndex<ArgNode<XtaState<Prod2State<ItpExplState, S2>>, XtaAction>>> passedFactory =
+				() -> ExplReachedIndex.create(n -> algorithmStrategy.getProjection().apply(n.getState()),
+						n -> n.getState().getState().getState1().getAbstrState(),
+						n -> n.getState().getState().getState1().getConcrState());
+		return threads > 1
+				? ParallelLazyXtaChecker.create(system, algorithmStrategy, searchStrategy, passedFactory, threads)
+				: LazyXtaChecker.create(system, algorithmStrategy, searchStrategy, passedFactory);
+	}
 
-			case NONE:
+	private static CombinedStrategy<ItpExplState, ?> combineItpExplStrategies(final XtaSystem system,
+																			   final DataStrategy dataStrategy,
+																			   final ClockStrategy clockStrategy) {
+		switch (clockStrategy) {
+			case BWITP:
+				return new CombinedStrategy<>(system, createItpExplStrategy(system, dataStrategy),
+						ClockStrategies.createBwItpStrategy(system));
+			case FWITP:
+				return new CombinedStrategy<>(system, createItpExplStrategy(system, dataStrategy),
+						ClockStrategies.createFwItpStrategy(system));
+			case LU:
+				return new CombinedStrategy<>(system, createItpExplStrategy(system, dataStrategy),
+						ClockStrategies.createLuStrategy(system));
+			default:
+				throw new AssertionError();
+		}
+	}
 
-				switch (clockStrategy) {
-					case BWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
-								ClockStrategies.createBwItpStrategy(system));
-					case FWITP:
-						return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
-								ClockStrategies.createFwItpStrategy(system));
-					case LU:
-						return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
-								ClockStrategies.createLuStrategy(system));
-					default:
-						throw new AssertionError();
-				}
+	private static <S extends State> AlgorithmStrategy<XtaState<Prod2State<ItpExplState, S>>, ItpExplState> createItpExplStrategy(
+			final XtaSystem system, final DataStrategy dataStrategy) {
+		switch (dataStrategy) {
+			case BWITP:
+				return DataStrategies.createBwItpStrategy(system);
+			case FWITP:
+				return DataStrategies.createFwItpStrategy(system);
+			default:
+				throw new AssertionError();
+		}
+	}
 
+	private static CombinedStrategy<ExplState, ?> combineExplStrategies(final XtaSystem system,
+																		 final ClockStrategy clockStrategy) {
+		switch (clockStrategy) {
+			case BWITP:
+				return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
+						ClockStrategies.createBwItpStrategy(system));
+			case FWITP:
+				return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
+						ClockStrategies.createFwItpStrategy(system));
+			case LU:
+				return new CombinedStrategy<>(system, DataStrategies.createExplStrategy(system),
+						ClockStrategies.createLuStrategy(system));
 			default:
 				throw new AssertionError();
 		}
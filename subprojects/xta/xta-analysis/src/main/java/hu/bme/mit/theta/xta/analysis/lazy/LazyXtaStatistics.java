@@ -19,6 +19,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
 import com.google.common.base.Stopwatch;
 
 import hu.bme.mit.theta.analysis.algorithm.ARG;
@@ -45,17 +49,17 @@ public final class LazyXtaStatistics extends Statistics {
 
 	private LazyXtaStatistics(final Builder builder) {
 		algorithmTimeInMs = builder.algorithmTimer.elapsed(MILLISECONDS);
-		expandTimeInMs = builder.expandTimer.elapsed(MILLISECONDS);
-		closeTimeInMs = builder.closeTimer.elapsed(MILLISECONDS);
-		expandExplRefinementTimeInMs = builder.expandExplRefinementTimer.elapsed(MILLISECONDS);
-		expandZoneRefinementTimeInMs = builder.expandZoneRefinementTimer.elapsed(MILLISECONDS);
-		closeExplRefinementTimeInMs = builder.closeExplRefinementTimer.elapsed(MILLISECONDS);
-		closeZoneRefinementTimeInMs = builder.closeZoneRefinementTimer.elapsed(MILLISECONDS);
-		coverageChecks = builder.coverageChecks;
-		coverageAttempts = builder.coverageAttempts;
-		coverageSuccesses = builder.coverageSuccesses;
-		explRefinementSteps = builder.explRefinementSteps;
-		zoneRefinementSteps = builder.zoneRefinementSteps;
+		expandTimeInMs = sum(builder, b -> b.expandTimer.elapsed(MILLISECONDS));
+		closeTimeInMs = sum(builder, b -> b.closeTimer.elapsed(MILLISECONDS));
+		expandExplRefinementTimeInMs = sum(builder, b -> b.expandExplRefinementTimer.elapsed(MILLISECONDS));
+		expandZoneRefinementTimeInMs = sum(builder, b -> b.expandZoneRefinementTimer.elapsed(MILLISECONDS));
+		closeExplRefinementTimeInMs = sum(builder, b -> b.closeExplRefinementTimer.elapsed(MILLISECONDS));
+		closeZoneRefinementTimeInMs = sum(builder, b -> b.closeZoneRefinementTimer.elapsed(MILLISECONDS));
+		coverageChecks = sum(builder, b -> b.coverageChecks);
+		coverageAttempts = sum(builder, b -> b.coverageAttempts);
+		coverageSuccesses = sum(builder, b -> b.coverageSuccesses);
+		explRefinementSteps = sum(builder, b -> b.explRefinementSteps);
+		zoneRefinementSteps = sum(builder, b -> b.zoneRefinementSteps);
 		argDepth = builder.arg.getDepth();
 		argNodes = builder.arg.size();
 		argNodesExpanded = builder.arg.getNodes().filter(n -> !n.isSubsumed()).count();
@@ -81,6 +85,17 @@ public final class LazyXtaStatistics extends Statistics {
 		return new Builder(arg);
 	}
 
+	/**
+	 * Sums a value over a builder and its workers.
+	 */
+	private static long sum(final Builder builder, final ToLongFunction<Builder> value) {
+		long sum = value.applyAsLong(builder);
+		for (final Builder worker : builder.workers) {
+			sum += value.applyAsLong(worker);
+		}
+		return sum;
+	}
+
 	public long getAlgorithmTimeInMs() {
 		return algorithmTimeInMs;
 	}
@@ -200,6 +215,7 @@ public final class LazyXtaStatistics extends Statistics {
 		private long coverageSuccesses;
 		private long explRefinementSteps;
 		private long zoneRefinementSteps;
+		private final List<Builder> workers;
 
 		private Builder(final ARG<?, ?> arg) {
 			this.arg = checkNotNull(arg);
@@ -216,6 +232,21 @@ public final class LazyXtaStatistics extends Statistics {
 			coverageSuccesses = 0;
 			explRefinementSteps = 0;
 			zoneRefinementSteps = 0;
+			workers = new ArrayList<>();
+		}
+
+		/**
+		 * Creates a builder for a worker thread of a parallel algorithm. The
+		 * counters and the times (except for the time of the algorithm) of
+		 * the workers are summed in the built statistics.
+		 */
+		Builder createWorker() {
+			checkState(state == State.RUNNING);
+			final Builder worker = new Builder(arg);
+			synchronized (workers) {
+				workers.add(worker);
+			}
+			return worker;
 		}
 
 		public void startAlgorithm() {
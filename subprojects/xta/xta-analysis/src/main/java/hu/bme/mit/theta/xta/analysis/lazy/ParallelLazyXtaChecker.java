@@ -0,0 +1,337 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xta.analysis.lazy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
+
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.ReachedIndex;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.analysis.waitlist.WorkStealingWaitlist;
+import hu.bme.mit.theta.xta.XtaSystem;
+import hu.bme.mit.theta.xta.analysis.XtaAction;
+import hu.bme.mit.theta.xta.analysis.XtaLts;
+import hu.bme.mit.theta.xta.analysis.XtaState;
+
+/**
+ * Multi-threaded variant of {@link LazyXtaChecker}. The nodes are partitioned
+ * by the projection of the algorithm strategy (which includes the location
+ * vector) into a fixed number of stripes, each with its own passed list and
+ * lock. New nodes are added to a work-stealing waitlist, preferring the worker
+ * owning the stripe of the node.
+ * <p>
+ * Successors are computed without holding any lock, and coverage candidates
+ * are checked holding the lock of the stripe of the node. Refinements (covering
+ * and blocking) strengthen the ancestors of a node and maintain the coverage
+ * of the strengthened nodes, so they hold the locks of all stripes on the path
+ * from the root, acquired in the order of the stripes.
+ */
+final class ParallelLazyXtaChecker<S extends State> implements SafetyChecker<XtaState<S>, XtaAction, UnitPrec> {
+
+	private static final int STRIPES = Long.SIZE;
+	private static final long IDLE_NANOS = 50_000;
+
+	private final XtaLts lts;
+	private final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy;
+	private final SearchStrategy searchStrategy;
+	private final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory;
+	private final int threads;
+
+	private ParallelLazyXtaChecker(final XtaSystem system,
+								   final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy,
+								   final SearchStrategy searchStrategy,
+								   final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory,
+								   final int threads) {
+		checkNotNull(system);
+		checkArgument(threads > 0, "Number of threads must be positive");
+		lts = XtaLts.create(system);
+		this.algorithmStrategy = checkNotNull(algorithmStrategy);
+		this.searchStrategy = checkNotNull(searchStrategy);
+		this.passedFactory = checkNotNull(passedFactory);
+		this.threads = threads;
+	}
+
+	public static <S extends State> ParallelLazyXtaChecker<S> create(final XtaSystem system,
+																	 final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy,
+																	 final SearchStrategy searchStrategy, final int threads) {
+		return create(system, algorithmStrategy, searchStrategy,
+				() -> Partition.of(n -> algorithmStrategy.getProjection().apply(n.getState())), threads);
+	}
+
+	/**
+	 * Creates a checker with a custom passed list, which must return (at least)
+	 * the nodes for which the algorithm strategy might cover a given node. These
+	 * nodes must have the same projection as the given node.
+	 */
+	public static <S extends State> ParallelLazyXtaChecker<S> create(final XtaSystem system,
+																	 final AlgorithmStrategy<XtaState<S>, XtaState<S>> algorithmStrategy,
+																	 final SearchStrategy searchStrategy,
+																	 final Supplier<? extends ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passedFactory,
+																	 final int threads) {
+		return new ParallelLazyXtaChecker<>(system, algorithmStrategy, searchStrategy, passedFactory, threads);
+	}
+
+	@Override
+	public SafetyResult<XtaState<S>, XtaAction> check(final UnitPrec prec) {
+		return new CheckMethod().run();
+	}
+
+	private final class CheckMethod {
+		final ARG<XtaState<S>, XtaAction> arg;
+		final LazyXtaStatistics.Builder stats;
+		final List<ReachedIndex<ArgNode<XtaState<S>, XtaAction>>> passed;
+		final ReentrantLock[] locks;
+		final WorkStealingWaitlist<ArgNode<XtaState<S>, XtaAction>> waiting;
+		final ConcurrentHashMap<ArgNode<XtaState<S>, XtaAction>, Long> pathStripes;
+
+		public CheckMethod() {
+			arg = ARG.create(algorithmStrategy.getAnalysis().getPartialOrd());
+			stats = LazyXtaStatistics.builder(arg);
+			passed = new ArrayList<>(STRIPES);
+			locks = new ReentrantLock[STRIPES];
+			for (int i = 0; i < STRIPES; i++) {
+				passed.add(algorithmStrategy.indexPassed(passedFactory.get()));
+				locks[i] = new ReentrantLock();
+			}
+			waiting = searchStrategy == SearchStrategy.DFS ? WorkStealingWaitlist.lifo(threads, this::stripeOf)
+					: WorkStealingWaitlist.fifo(threads, this::stripeOf);
+			pathStripes = new ConcurrentHashMap<>();
+		}
+
+		public SafetyResult<XtaState<S>, XtaAction> run() {
+			stats.startAlgorithm();
+
+			init();
+			waiting.addAll(arg.getInitNodes());
+
+			final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+				final Thread thread = new Thread(r, "lazy-xta-worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				// Workers are awaited in the order of finishing, so that the
+				// others are cancelled as soon as one of them fails
+				final CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+				for (int i = 0; i < threads; i++) {
+					final int worker = i;
+					final LazyXtaStatistics.Builder workerStats = stats.createWorker();
+					completionService.submit(() -> work(worker, workerStats), null);
+				}
+				for (int i = 0; i < threads; i++) {
+					completionService.take().get();
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while building the ARG");
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else {
+					throw new IllegalStateException(cause);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			stats.stopAlgorithm();
+			final LazyXtaStatistics statistics = stats.build();
+			final SafetyResult<XtaState<S>, XtaAction> result = SafetyResult.safe(arg, statistics);
+			return result;
+		}
+
+		private void init() {
+			final Collection<? extends XtaState<S>> initStates = algorithmStrategy.getAnalysis().getInitFunc()
+					.getInitStates(UnitPrec.getInstance());
+			initStates.forEach(s -> {
+				final ArgNode<XtaState<S>, XtaAction> node = arg.createInitNode(s, false);
+				pathStripes.put(node, 1L << stripeOf(node));
+			});
+		}
+
+		private void work(final int worker, final LazyXtaStatistics.Builder workerStats) {
+			workerStats.startAlgorithm();
+			while (!waiting.isFinished()) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException("Interrupted while building the ARG");
+				}
+				final ArgNode<XtaState<S>, XtaAction> v = waiting.poll(worker);
+				if (v == null) {
+					LockSupport.parkNanos(IDLE_NANOS);
+					continue;
+				}
+				try {
+					assert v.isFeasible();
+					if (!close(v, workerStats)) {
+						expand(v, workerStats);
+					}
+				} finally {
+					waiting.done();
+				}
+			}
+			workerStats.stopAlgorithm();
+		}
+
+		/**
+		 * Tries to cover a node, and returns whether it was covered. The node
+		 * may get uncovered (and added to the waitlist again) by other workers
+		 * as soon as the locks are released.
+		 */
+		private boolean close(final ArgNode<XtaState<S>, XtaAction> coveree,
+							  final LazyXtaStatistics.Builder stats) {
+			stats.startClosing();
+
+			final int stripe = stripeOf(coveree);
+			final List<ArgNode<XtaState<S>, XtaAction>> candidates;
+			locks[stripe].lock();
+			try {
+				candidates = new ArrayList<>(Lists.reverse(passed.get(stripe).get(coveree)));
+			} finally {
+				locks[stripe].unlock();
+			}
+
+			for (final ArgNode<XtaState<S>, XtaAction> coverer : candidates) {
+
+				stats.checkCoverage();
+				final boolean mightCover;
+				locks[stripe].lock();
+				try {
+					mightCover = algorithmStrategy.mightCover(coveree, coverer);
+				} finally {
+					locks[stripe].unlock();
+				}
+
+				if (mightCover) {
+					final long path = pathStripes.get(coveree);
+					lockAll(path);
+					try {
+						// The coverer might have been strengthened since the check
+						if (algorithmStrategy.mightCover(coveree, coverer)) {
+							stats.attemptCoverage();
+
+							coveree.setCoveringNode(coverer);
+							final Collection<ArgNode<XtaState<S>, XtaAction>> uncoveredNodes = new ArrayList<>();
+							algorithmStrategy.cover(coveree, coverer, uncoveredNodes, stats);
+
+							waiting.addAll(uncoveredNodes.stream().filter(n -> !n.equals(coveree)));
+
+							if (coveree.isCovered()) {
+								stats.successfulCoverage();
+								stats.stopClosing();
+								return true;
+							}
+						}
+					} finally {
+						unlockAll(path);
+					}
+				}
+			}
+
+			stats.stopClosing();
+			return false;
+		}
+
+		private void expand(final ArgNode<XtaState<S>, XtaAction> node, final LazyXtaStatistics.Builder stats) {
+			stats.startExpanding();
+			final int stripe = stripeOf(node);
+			final long path = pathStripes.get(node);
+			final XtaState<S> state;
+			locks[stripe].lock();
+			try {
+				state = node.getState();
+			} finally {
+				locks[stripe].unlock();
+			}
+
+			final List<ArgNode<XtaState<S>, XtaAction>> succNodes = new ArrayList<>();
+			for (final XtaAction action : lts.getEnabledActionsFor(state)) {
+				final Collection<? extends XtaState<S>> succStates = algorithmStrategy.getAnalysis().getTransFunc()
+						.getSuccStates(state, action, UnitPrec.getInstance());
+
+				for (final XtaState<S> succState : succStates) {
+					if (succState.isBottom()) {
+						final Collection<ArgNode<XtaState<S>, XtaAction>> uncoveredNodes = new ArrayList<>();
+						lockAll(path);
+						try {
+							algorithmStrategy.block(node, action, succState, uncoveredNodes, stats);
+						} finally {
+							unlockAll(path);
+						}
+						waiting.addAll(uncoveredNodes);
+					} else {
+						final ArgNode<XtaState<S>, XtaAction> succNode = arg.createSuccNode(node, action, succState,
+								false);
+						pathStripes.put(succNode, path | 1L << stripeOf(succNode));
+						succNodes.add(succNode);
+					}
+				}
+			}
+
+			locks[stripe].lock();
+			try {
+				passed.get(stripe).add(node);
+			} finally {
+				locks[stripe].unlock();
+			}
+			waiting.addAll(succNodes);
+			stats.stopExpanding();
+		}
+
+		private int stripeOf(final ArgNode<XtaState<S>, XtaAction> node) {
+			// The projection is not affected by strengthening the state
+			return Math.floorMod(algorithmStrategy.getProjection().apply(node.getState()).hashCode(), STRIPES);
+		}
+
+		private void lockAll(final long stripes) {
+			for (long rest = stripes; rest != 0; rest &= rest - 1) {
+				locks[Long.numberOfTrailingZeros(rest)].lock();
+			}
+		}
+
+		private void unlockAll(final long stripes) {
+			for (long rest = stripes; rest != 0; rest &= rest - 1) {
+				locks[Long.numberOfTrailingZeros(rest)].unlock();
+			}
+		}
+	}
+
+}
@@ -69,6 +69,8 @@ public final class LazyXtaCheckerTest {
 
 	private SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> checker;
 
+	private SafetyChecker<? extends XtaState<?>, XtaAction, UnitPrec> parallelChecker;
+
 	@Parameters(name = "model: {0}, discrete: {1}, clock: {2}")
 	public static Collection<Object[]> data() {
 		final Collection<Object[]> result = new ArrayList<>();
@@ -89,6 +91,7 @@ public final class LazyXtaCheckerTest {
 		final InputStream inputStream = getClass().getResourceAsStream(filepath);
 		final XtaSystem system = XtaDslManager.createSystem(inputStream);
 		checker = LazyXtaCheckerFactory.create(system, dataStrategy, clockStrategy, BFS);
+		parallelChecker = LazyXtaCheckerFactory.create(system, dataStrategy, clockStrategy, BFS, 4);
 	}
 
 	@Test
@@ -102,4 +105,15 @@ public final class LazyXtaCheckerTest {
 		assertTrue(argCheckResult);
 	}
 
+	@Test
+	public void testParallel() {
+		// Act
+		final SafetyResult<? extends XtaState<?>, XtaAction> status = parallelChecker.check(UnitPrec.getInstance());
+
+		// Assert
+		final ArgChecker argChecker = ArgChecker.create(Z3SolverFactory.getInstance().createSolver());
+		final boolean argCheckResult = argChecker.isWellLabeled(status.getArg());
+		assertTrue(argCheckResult);
+	}
+
 }
@@ -16,6 +16,10 @@
 package hu.bme.mit.theta.xta.cli;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
@@ -24,11 +28,17 @@ import com.beust.jcommander.ParameterException;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResult;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkResults;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.BenchmarkRunner;
+import hu.bme.mit.theta.analysis.algorithm.benchmark.ConfigMatrix;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.utils.ArgVisualizer;
 import hu.bme.mit.theta.analysis.utils.TraceVisualizer;
 import hu.bme.mit.theta.common.CliUtils;
+import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.NullLogger;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
@@ -42,10 +52,12 @@ import hu.bme.mit.theta.xta.dsl.XtaDslManager;
 
 public final class XtaCli {
 	private static final String JAR_NAME = "theta-xta.jar";
+	private static final List<String> CORPUS_OPTIONS = Arrays.asList("corpus", "matrix", "timeout", "memlimit",
+			"warmup", "results");
 	private final String[] args;
 	private final TableWriter writer;
 
-	@Parameter(names = {"--model", "-m"}, description = "Path of the input model", required = true)
+	@Parameter(names = {"--model", "-m"}, description = "Path of the input model (required unless --corpus is given)")
 	String model;
 
 	@Parameter(names = {"--discrete", "-d"}, description = "Refinement strategy for discrete variables", required = false)
@@ -57,6 +69,9 @@ public final class XtaCli {
 	@Parameter(names = {"--search", "-s"}, description = "Search strategy", required = true)
 	SearchStrategy searchStrategy;
 
+	@Parameter(names = {"--threads", "-t"}, description = "Number of worker threads for exploring the state space (1: sequential)")
+	Integer threads = 1;
+
 	@Parameter(names = {"--benchmark", "-b"}, description = "Benchmark mode (only print metrics)")
 	Boolean benchmarkMode = false;
 
@@ -72,6 +87,24 @@ public final class XtaCli {
 	@Parameter(names = "--version", description = "Display version", help = true)
 	boolean versionInfo = false;
 
+	@Parameter(names = "--corpus", description = "Benchmark the XTA models of a directory in a single JVM (instead of --model)")
+	String corpus = null;
+
+	@Parameter(names = "--matrix", description = "Configuration axis of the benchmark, e.g., search=BFS,DFS (can be repeated)")
+	List<String> matrix = new ArrayList<>();
+
+	@Parameter(names = "--timeout", description = "Timeout of each benchmark run in seconds (0: no timeout)")
+	Integer timeout = 0;
+
+	@Parameter(names = "--memlimit", description = "Heap limit of each benchmark run in MB (0: no limit)")
+	Integer memLimit = 0;
+
+	@Parameter(names = "--warmup", description = "Number of warm-up runs before the benchmark")
+	Integer warmup = 0;
+
+	@Parameter(names = "--results", description = "Output file of the benchmark results (csv or json, default: csv to the standard output)")
+	String results = null;
+
 	public XtaCli(final String[] args) {
 		this.args = args;
 		this.writer = new BasicTableWriter(System.out, ",", "\"", "\"");
@@ -102,10 +135,21 @@ public final class XtaCli {
 			return;
 		}
 
+		if (model == null && corpus == null) {
+			System.out.println("Invalid parameters, details:");
+			System.out.println("Either --model or --corpus must be given");
+			return;
+		}
+
 		try {
+			if (corpus != null) {
+				runCorpus();
+				return;
+			}
+
 			final XtaSystem system = loadModel();
 			final SafetyChecker<?, ?, UnitPrec> checker = LazyXtaCheckerFactory.create(system, dataStrategy,
-					clockStrategy, searchStrategy);
+					clockStrategy, searchStrategy, threads);
 			final SafetyResult<?, ?> result = check(checker);
 			printResult(result);
 			if (dotfile != null) {
@@ -117,6 +161,26 @@ public final class XtaCli {
 		}
 	}
 
+	private void runCorpus() throws Exception {
+		final List<String> baseArgs = ConfigMatrix.removeOptions(Arrays.asList(args), CORPUS_OPTIONS);
+		final Logger logger = benchmarkMode ? NullLogger.getInstance() : new ConsoleLogger(Logger.Level.SUBSTEP);
+		// The lazy checkers of XTA do not use solvers
+		final BenchmarkRunner runner = BenchmarkRunner.builder((cellArgs, solverFactory) -> {
+			final XtaCli cli = new XtaCli(cellArgs.toArray(new String[0]));
+			JCommander.newBuilder().addObject(cli).programName(JAR_NAME).build().parse(cli.args);
+			return cli.check(LazyXtaCheckerFactory.create(cli.loadModel(), cli.dataStrategy, cli.clockStrategy,
+					cli.searchStrategy, cli.threads));
+		}).timeout(timeout, TimeUnit.SECONDS).memoryLimitMb(memLimit).warmupRuns(warmup).logger(logger).build();
+
+		final List<BenchmarkResult> benchmarkResults = runner.run(
+				BenchmarkRunner.collectModels(new File(corpus), ".xta"), ConfigMatrix.of(matrix), baseArgs);
+		if (results != null) {
+			BenchmarkResults.write(benchmarkResults, results);
+		} else {
+			BenchmarkResults.writeCsv(benchmarkResults, writer);
+		}
+	}
+
 	private SafetyResult<?, ?> check(SafetyChecker<?, ?, UnitPrec> checker) throws Exception {
 		try {
 			return checker.check(UnitPrec.getInstance());